@@ -11,6 +11,7 @@
 package org.eclipse.che.wsagent.server;
 
 import com.google.inject.AbstractModule;
+import org.eclipse.che.api.core.notification.WSocketEventBusClient;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.commons.auth.token.ChainedTokenExtractor;
 import org.eclipse.che.commons.auth.token.RequestTokenExtractor;
@@ -23,5 +24,7 @@ public class WsAgentMachineAuthModule extends AbstractModule {
   protected void configure() {
     bind(HttpJsonRequestFactory.class).to(AgentHttpJsonRequestFactory.class);
     bind(RequestTokenExtractor.class).to(ChainedTokenExtractor.class);
+    // receives permissions changes from master to keep cached permissions up to date
+    bind(WSocketEventBusClient.class).asEagerSingleton();
   }
 }
@@ -35,6 +35,10 @@ public class MachineAuthModule extends AbstractModule {
             .class);
     bind(org.eclipse.che.multiuser.machine.authentication.server.MachineTokenService.class);
     bind(org.eclipse.che.multiuser.machine.authentication.server.MachineTokenRegistry.class);
+    bind(org.eclipse.che.multiuser.machine.authentication.server.MachineTokenStore.class)
+        .to(
+            org.eclipse.che.multiuser.machine.authentication.server.InMemoryMachineTokenStore
+                .class);
     bind(org.eclipse.che.multiuser.machine.authentication.server.MachineSessionInvalidator.class);
     bind(RequestTokenExtractor.class).to(ChainedTokenExtractor.class);
     bind(WorkspaceServiceLinksInjector.class)
@@ -21,6 +21,10 @@ import java.util.function.Consumer;
  * Simple promise like binary consumer holder. First consumer's argument always represents endpoint
  * identifier, while the second can be of arbitrary type and depends on business logic.
  *
+ * <p>Promise may be settled with {@link #resolve(String, Object)} or {@link #reject(String,
+ * JsonRpcError)} before its consumers are set, in that case the consumer is called as soon as it is
+ * set.
+ *
  * @param <R> type of second argument of binary consumer
  */
 public class JsonRpcPromise<R> {
@@ -28,6 +32,11 @@ public class JsonRpcPromise<R> {
   private BiConsumer<String, JsonRpcError> failureConsumer;
   private Runnable timeoutRunnable;
 
+  private boolean settled;
+  private String settledEndpointId;
+  private R result;
+  private JsonRpcError error;
+
   public Optional<BiConsumer<String, R>> getSuccessConsumer() {
     return Optional.ofNullable(successConsumer);
   }
@@ -64,7 +73,7 @@ public class JsonRpcPromise<R> {
   public JsonRpcPromise<R> onSuccess(BiConsumer<String, R> biConsumer) {
     checkNotNull(biConsumer, "JSON RPC success consumer argument must not be null");
     checkState(this.successConsumer == null, "JSON RPC success field must not be set");
-    this.successConsumer = biConsumer;
+    setSuccessConsumer(biConsumer);
     return this;
   }
 
@@ -79,7 +88,7 @@ public class JsonRpcPromise<R> {
   public JsonRpcPromise<R> onSuccess(Consumer<R> consumer) {
     checkNotNull(consumer, "JSON RPC success consumer argument must not be null");
     checkState(this.successConsumer == null, "JSON RPC success consumer field must not be set");
-    this.successConsumer = (s, r) -> consumer.accept(r);
+    setSuccessConsumer((s, r) -> consumer.accept(r));
     return this;
   }
 
@@ -93,7 +102,7 @@ public class JsonRpcPromise<R> {
   public JsonRpcPromise<R> onSuccess(Runnable runnable) {
     checkNotNull(runnable, "JSON RPC success runnable argument must not be null");
     checkState(this.successConsumer == null, "JSON RPC success field must not be set");
-    this.successConsumer = (s, r) -> runnable.run();
+    setSuccessConsumer((s, r) -> runnable.run());
     return this;
   }
 
@@ -108,7 +117,7 @@ public class JsonRpcPromise<R> {
   public JsonRpcPromise<R> onFailure(BiConsumer<String, JsonRpcError> biConsumer) {
     checkNotNull(biConsumer, "JSON RPC failure consumer argument must not be null");
     checkState(this.failureConsumer == null, "JSON RPC failure consumer field must not be set");
-    this.failureConsumer = biConsumer;
+    setFailureConsumer(biConsumer);
     return this;
   }
 
@@ -123,7 +132,7 @@ public class JsonRpcPromise<R> {
   public JsonRpcPromise<R> onFailure(Consumer<JsonRpcError> consumer) {
     checkNotNull(consumer, "JSON RPC failure consumer argument must not be null");
     checkState(this.failureConsumer == null, "JSON RPC failure consumer field must not be set");
-    this.failureConsumer = (s, e) -> consumer.accept(e);
+    setFailureConsumer((s, e) -> consumer.accept(e));
     return this;
   }
 
@@ -140,4 +149,73 @@ public class JsonRpcPromise<R> {
     this.successConsumer = (s, e) -> runnable.run();
     return this;
   }
+
+  /**
+   * Resolves this promise with the result. Success consumer is called with the result immediately
+   * if it is set, or as soon as it is set. Only the first settlement of a promise takes effect.
+   *
+   * @param endpointId endpoint that the result comes from
+   * @param result value of the result
+   */
+  public void resolve(String endpointId, R result) {
+    BiConsumer<String, R> consumer;
+    synchronized (this) {
+      if (settled) {
+        return;
+      }
+      settled = true;
+      settledEndpointId = endpointId;
+      this.result = result;
+      consumer = successConsumer;
+    }
+    if (consumer != null) {
+      consumer.accept(endpointId, result);
+    }
+  }
+
+  /**
+   * Rejects this promise with the error. Failure consumer is called with the error immediately if
+   * it is set, or as soon as it is set. Only the first settlement of a promise takes effect.
+   *
+   * @param endpointId endpoint that the error comes from
+   * @param error value of the error
+   */
+  public void reject(String endpointId, JsonRpcError error) {
+    checkNotNull(error, "JSON RPC error argument must not be null");
+    BiConsumer<String, JsonRpcError> consumer;
+    synchronized (this) {
+      if (settled) {
+        return;
+      }
+      settled = true;
+      settledEndpointId = endpointId;
+      this.error = error;
+      consumer = failureConsumer;
+    }
+    if (consumer != null) {
+      consumer.accept(endpointId, error);
+    }
+  }
+
+  private void setSuccessConsumer(BiConsumer<String, R> consumer) {
+    boolean resolved;
+    synchronized (this) {
+      successConsumer = consumer;
+      resolved = settled && error == null;
+    }
+    if (resolved) {
+      consumer.accept(settledEndpointId, result);
+    }
+  }
+
+  private void setFailureConsumer(BiConsumer<String, JsonRpcError> consumer) {
+    boolean rejected;
+    synchronized (this) {
+      failureConsumer = consumer;
+      rejected = settled && error != null;
+    }
+    if (rejected) {
+      consumer.accept(settledEndpointId, error);
+    }
+  }
 }
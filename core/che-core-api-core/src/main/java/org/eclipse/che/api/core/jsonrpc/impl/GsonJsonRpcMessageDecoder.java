@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResult;
+
+/**
+ * Decodes a raw message into JSON RPC requests and responses in a single pass over the message
+ * with {@link JsonReader}. In contrast to the combination of {@link GsonJsonRpcQualifier} and
+ * {@link GsonJsonRpcUnmarshaller} the message is neither validated nor qualified separately and
+ * elements of a batch are not serialized back to strings to be parsed once again. Only objects
+ * within params and results are built as JSON trees, as they are passed further as {@link
+ * com.google.gson.JsonObject} instances.
+ */
+@Singleton
+public class GsonJsonRpcMessageDecoder {
+  private final JsonParser jsonParser;
+
+  @Inject
+  public GsonJsonRpcMessageDecoder(JsonParser jsonParser) {
+    this.jsonParser = jsonParser;
+  }
+
+  /**
+   * Decodes a message that may contain a single JSON RPC request or response, or an array of them.
+   *
+   * @param message raw message
+   * @return list of {@link JsonRpcRequest} and {@link JsonRpcResponse} instances in the order they
+   *     appear within the message
+   * @throws JsonParseException if message is not a valid JSON
+   * @throws IllegalStateException if message is a valid JSON but is neither a request nor a
+   *     response
+   */
+  public List<Object> decode(String message) {
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    try {
+      JsonReader reader = new JsonReader(new StringReader(message));
+      reader.setLenient(true);
+
+      List<Object> result;
+      if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+        result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          result.add(readMessage(reader));
+        }
+        reader.endArray();
+      } else {
+        result = new ArrayList<>(1);
+        result.add(readMessage(reader));
+      }
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonSyntaxException("Did not consume the entire document.");
+      }
+      return result;
+    } catch (MalformedJsonException | NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  private Object readMessage(JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      throw new IllegalStateException("JSON RPC message must be an object");
+    }
+
+    String id = null;
+    String method = null;
+    List<?> params = null;
+    boolean singleParams = false;
+    boolean hasResult = false;
+    List<?> result = null;
+    boolean singleResult = false;
+    JsonRpcError error = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "id":
+          id = readNullableString(reader);
+          break;
+        case "method":
+          method = reader.nextString();
+          break;
+        case "params":
+          if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            params = readItems(reader);
+          } else {
+            params = singleItem(reader);
+            singleParams = true;
+          }
+          break;
+        case "result":
+          hasResult = true;
+          if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            result = readItems(reader);
+          } else {
+            result = singleItem(reader);
+            singleResult = true;
+          }
+          break;
+        case "error":
+          error = readError(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (method != null) {
+      JsonRpcParams jsonRpcParams = null;
+      if (params != null) {
+        jsonRpcParams = singleParams ? new JsonRpcParams(params.get(0)) : new JsonRpcParams(params);
+      }
+      return new JsonRpcRequest(id, method, jsonRpcParams);
+    }
+
+    if (hasResult != (error != null)) {
+      JsonRpcResult jsonRpcResult = null;
+      if (hasResult) {
+        jsonRpcResult = singleResult ? new JsonRpcResult(result.get(0)) : new JsonRpcResult(result);
+      }
+      return new JsonRpcResponse(id, jsonRpcResult, error);
+    }
+
+    throw new IllegalStateException("JSON RPC message is neither a request nor a response");
+  }
+
+  private JsonRpcError readError(JsonReader reader) throws IOException {
+    int code = 0;
+    String message = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "code":
+          code = reader.nextInt();
+          break;
+        case "message":
+          message = reader.nextString();
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    return new JsonRpcError(code, message);
+  }
+
+  private List<Object> readItems(JsonReader reader) throws IOException {
+    List<Object> items = new ArrayList<>();
+    reader.beginArray();
+    while (reader.hasNext()) {
+      items.add(readItem(reader));
+    }
+    reader.endArray();
+    return items;
+  }
+
+  private List<Object> singleItem(JsonReader reader) throws IOException {
+    List<Object> items = new ArrayList<>(1);
+    items.add(readItem(reader));
+    return items;
+  }
+
+  /**
+   * Reads an item of params or result, the same way as {@link GsonJsonRpcUnmarshaller} does:
+   * objects are kept as JSON trees while primitives are converted to java values.
+   */
+  private Object readItem(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case NULL:
+        reader.nextNull();
+        return null;
+      case BEGIN_OBJECT:
+        return jsonParser.parse(reader).getAsJsonObject();
+      case NUMBER:
+        return reader.nextDouble();
+      case STRING:
+        return reader.nextString();
+      case BOOLEAN:
+        return reader.nextBoolean();
+      default:
+        throw new IllegalStateException("Unexpected json element type");
+    }
+  }
+
+  private String readNullableString(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    return reader.nextString();
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.gson.JsonParseException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcErrorTransmitter;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessageReceiver;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestDispatcher;
+import org.eclipse.che.api.core.jsonrpc.commons.ResponseDispatcher;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageReceiver;
+import org.slf4j.Logger;
+
+/**
+ * Server side counterpart of {@link JsonRpcMessageReceiver} that decodes incoming messages with
+ * {@link GsonJsonRpcMessageDecoder}, so each message is parsed only once no matter if it is a
+ * single request, a response or a batch.
+ */
+@Singleton
+public class ServerSideJsonRpcMessageReceiver implements WebSocketMessageReceiver {
+  private static final Logger LOGGER = getLogger(ServerSideJsonRpcMessageReceiver.class);
+
+  private final RequestDispatcher requestDispatcher;
+  private final ResponseDispatcher responseDispatcher;
+  private final JsonRpcErrorTransmitter errorTransmitter;
+  private final GsonJsonRpcMessageDecoder messageDecoder;
+  private final ServerSideRequestProcessor requestProcessor;
+
+  @Inject
+  public ServerSideJsonRpcMessageReceiver(
+      RequestDispatcher requestDispatcher,
+      ResponseDispatcher responseDispatcher,
+      JsonRpcErrorTransmitter errorTransmitter,
+      GsonJsonRpcMessageDecoder messageDecoder,
+      ServerSideRequestProcessor requestProcessor) {
+    this.requestDispatcher = requestDispatcher;
+    this.responseDispatcher = responseDispatcher;
+    this.errorTransmitter = errorTransmitter;
+    this.messageDecoder = messageDecoder;
+    this.requestProcessor = requestProcessor;
+  }
+
+  @Override
+  public void receive(String endpointId, String message) {
+    checkNotNull(endpointId, "Endpoint ID must not be null");
+    checkArgument(!endpointId.isEmpty(), "Endpoint ID name must not be empty");
+    checkNotNull(message, "Message must not be null");
+    checkArgument(!message.isEmpty(), "Message must not be empty");
+
+    LOGGER.debug("Receiving message: {}, from endpoint: {}", message, endpointId);
+
+    List<Object> messages;
+    try {
+      messages = messageDecoder.decode(message);
+    } catch (JsonParseException e) {
+      LOGGER.debug("Validation failed: {}", e.getMessage(), e);
+      String error = "An error occurred on the server while parsing the JSON text";
+      errorTransmitter.transmit(endpointId, new JsonRpcException(-32700, error));
+      return;
+    } catch (IllegalStateException e) {
+      String error = "Something wen't wrong during incoming websocket message parsing";
+      LOGGER.error(error, e);
+      throw new IllegalStateException(error, e);
+    }
+
+    for (Object innerMessage : messages) {
+      if (innerMessage instanceof JsonRpcRequest) {
+        JsonRpcRequest request = (JsonRpcRequest) innerMessage;
+        try {
+          requestProcessor.process(
+              endpointId, request.getMethod(), () -> processRequest(endpointId, request));
+        } catch (RejectedExecutionException e) {
+          LOGGER.warn(
+              "Request '{}' from endpoint '{}' is rejected", request.getMethod(), endpointId);
+          if (request.hasId()) {
+            errorTransmitter.transmit(
+                endpointId, new JsonRpcException(-32000, e.getMessage(), request.getId()));
+          }
+        }
+      } else {
+        responseDispatcher.dispatch(endpointId, (JsonRpcResponse) innerMessage);
+      }
+    }
+  }
+
+  private void processRequest(String endpointId, JsonRpcRequest request) {
+    try {
+      requestDispatcher.dispatch(endpointId, request);
+    } catch (JsonRpcException e) {
+      if (request.getId() == null) {
+        errorTransmitter.transmit(endpointId, e);
+      } else {
+        errorTransmitter.transmit(
+            endpointId, new JsonRpcException(e.getCode(), e.getMessage(), request.getId()));
+      }
+    }
+  }
+}
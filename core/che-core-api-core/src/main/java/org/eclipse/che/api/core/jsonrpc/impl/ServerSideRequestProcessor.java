@@ -10,50 +10,393 @@
  */
 package org.eclipse.che.api.core.jsonrpc.impl;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerManager;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestProcessor;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
 
+/**
+ * Processes JSON RPC requests with a bounded pool of worker threads. Requests are queued per
+ * endpoint and workers take them from endpoints in round-robin order, so a burst of requests from
+ * a single endpoint can't delay requests of the other endpoints for the whole burst duration.
+ * Requests to methods listed in {@link #PRIORITY_METHODS_PROPERTY} (e.g. cancellations) bypass
+ * endpoint queues and are processed before any other queued request.
+ *
+ * <p>Not more than {@link #MAX_IN_FLIGHT_PROPERTY} requests of a single endpoint are processed at
+ * the same time, the rest of them wait in the endpoint queue, so an endpoint with slow requests
+ * can't occupy the whole pool. Requests processed without specifying endpoint are not limited.
+ *
+ * <p>Each endpoint queue and the priority queue are limited by {@link #QUEUE_CAPACITY_PROPERTY},
+ * requests that don't fit are rejected with {@link RejectedExecutionException}.
+ *
+ * <p>Statistics are kept per registered JSON RPC method only, requests to unknown methods are
+ * accounted under {@link #OTHER_METHODS} so clients can't grow the statistics without bound.
+ */
 @Singleton
 public class ServerSideRequestProcessor implements RequestProcessor {
-  private ExecutorService executorService;
+  private static final Logger LOGGER = getLogger(ServerSideRequestProcessor.class);
+
+  public static final String POOL_SIZE_PROPERTY = "che.core.jsonrpc.processor_max_pool_size";
+  public static final String QUEUE_CAPACITY_PROPERTY = "che.core.jsonrpc.processor_queue_capacity";
+  public static final String PRIORITY_METHODS_PROPERTY = "che.core.jsonrpc.priority_methods";
+  public static final String MAX_IN_FLIGHT_PROPERTY =
+      "che.core.jsonrpc.processor_max_in_flight_per_endpoint";
+
+  /** Statistics key of requests without method or with a method that has no handler. */
+  public static final String OTHER_METHODS = "";
+
+  /** Queue of requests that are processed without specifying endpoint or method. */
+  private static final String DEFAULT_ENDPOINT = "";
+
+  @Inject(optional = true)
+  @Named(POOL_SIZE_PROPERTY)
+  private int poolSize = 50;
+
+  @Inject(optional = true)
+  @Named(QUEUE_CAPACITY_PROPERTY)
+  private int queueCapacity = 10_000;
+
+  @Inject(optional = true)
+  @Named(PRIORITY_METHODS_PROPERTY)
+  private String priorityMethodsList = "$/cancelRequest";
+
+  @Inject(optional = true)
+  @Named(MAX_IN_FLIGHT_PROPERTY)
+  private int maxInFlight = 10;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Deque<Task> priorityQueue = new ArrayDeque<>();
+  private final Map<String, EndpointQueue> endpointQueues = new HashMap<>();
+  private final Deque<String> readyEndpoints = new ArrayDeque<>();
+  private final Map<String, MethodStatistics> statistics = new ConcurrentHashMap<>();
+
+  private Predicate<String> registeredMethods = method -> false;
+  private Set<String> priorityMethods;
+  private List<Thread> workers;
+  private volatile boolean running;
+
+  public ServerSideRequestProcessor() {}
+
+  ServerSideRequestProcessor(
+      int poolSize,
+      int queueCapacity,
+      int maxInFlight,
+      String priorityMethodsList,
+      Predicate<String> registeredMethods) {
+    this.poolSize = poolSize;
+    this.queueCapacity = queueCapacity;
+    this.maxInFlight = maxInFlight;
+    this.priorityMethodsList = priorityMethodsList;
+    this.registeredMethods = registeredMethods;
+  }
+
+  @Inject
+  void setRequestHandlerManager(RequestHandlerManager requestHandlerManager) {
+    this.registeredMethods = requestHandlerManager::isRegistered;
+  }
 
   @PostConstruct
-  private void postConstruct() {
+  void postConstruct() {
+    priorityMethods =
+        ImmutableSet.copyOf(
+            Splitter.on(',').trimResults().omitEmptyStrings().split(priorityMethodsList));
+
     ThreadFactory factory =
         new ThreadFactoryBuilder()
             .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
-            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName())
+            .setNameFormat(ServerSideRequestProcessor.class.getSimpleName() + "-%d")
             .setDaemon(true)
             .build();
 
-    executorService = newCachedThreadPool(factory);
+    running = true;
+    workers = new ArrayList<>(poolSize);
+    for (int i = 0; i < poolSize; i++) {
+      Thread worker = factory.newThread(this::work);
+      workers.add(worker);
+      worker.start();
+    }
   }
 
   @PreDestroy
-  private void preDestroy() {
-    executorService.shutdown();
+  void preDestroy() {
+    lock.lock();
+    try {
+      running = false;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
     try {
-      if (executorService.awaitTermination(5, SECONDS)) {
-        executorService.shutdownNow();
-        executorService.awaitTermination(5, SECONDS);
+      long deadline = System.nanoTime() + SECONDS.toNanos(5);
+      for (Thread worker : workers) {
+        worker.join(Math.max(1, NANOSECONDS.toMillis(deadline - System.nanoTime())));
       }
+      workers.stream().filter(Thread::isAlive).forEach(Thread::interrupt);
     } catch (InterruptedException ie) {
-      executorService.shutdownNow();
+      workers.forEach(Thread::interrupt);
       Thread.currentThread().interrupt();
     }
   }
 
   @Override
   public void process(Runnable runnable) {
-    executorService.execute(runnable);
+    process(DEFAULT_ENDPOINT, null, runnable);
+  }
+
+  /**
+   * Schedules processing of a request that came from the given endpoint.
+   *
+   * @param endpointId endpoint the request came from
+   * @param method JSON RPC method of the request, used for prioritization and statistics
+   * @param runnable request processing routine
+   * @throws RejectedExecutionException if the endpoint queue or the priority queue is full or
+   *     processor is stopped
+   */
+  public void process(String endpointId, String method, Runnable runnable) {
+    lock.lock();
+    try {
+      if (!running) {
+        throw new RejectedExecutionException("Request processor is stopped");
+      }
+
+      if (method != null && priorityMethods.contains(method)) {
+        if (priorityQueue.size() >= queueCapacity) {
+          throw new RejectedExecutionException("Too many pending priority requests");
+        }
+        // priority requests are not accounted in endpoint in-flight requests
+        priorityQueue.addLast(new Task(null, method, runnable));
+      } else {
+        if (endpointId == null) {
+          endpointId = DEFAULT_ENDPOINT;
+        }
+        EndpointQueue queue = endpointQueues.computeIfAbsent(endpointId, id -> new EndpointQueue());
+        if (queue.tasks.size() >= queueCapacity) {
+          throw new RejectedExecutionException(
+              "Too many pending requests from endpoint " + endpointId);
+        }
+        if (queue.tasks.isEmpty() && !queue.isBusy(endpointId)) {
+          readyEndpoints.addLast(endpointId);
+        }
+        queue.tasks.addLast(new Task(endpointId, method, runnable));
+      }
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of requests of the given endpoint that are waiting to be processed. */
+  public int getQueueDepth(String endpointId) {
+    lock.lock();
+    try {
+      EndpointQueue queue = endpointQueues.get(endpointId);
+      return queue == null ? 0 : queue.tasks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of requests of the given endpoint that are being processed. */
+  public int getInFlight(String endpointId) {
+    lock.lock();
+    try {
+      EndpointQueue queue = endpointQueues.get(endpointId);
+      return queue == null ? 0 : queue.inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the number of priority requests that are waiting to be processed. */
+  public int getPriorityQueueDepth() {
+    lock.lock();
+    try {
+      return priorityQueue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns processing statistics grouped by registered JSON RPC method, the rest of requests is
+   * grouped under {@link #OTHER_METHODS}.
+   */
+  public Map<String, MethodStatistics> getStatistics() {
+    return Collections.unmodifiableMap(statistics);
+  }
+
+  private void work() {
+    while (true) {
+      Task task;
+      try {
+        task = take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (task == null) {
+        return;
+      }
+      try {
+        task.run();
+      } finally {
+        if (task.endpointId != null) {
+          release(task.endpointId);
+        }
+      }
+    }
+  }
+
+  /** Accounts completion of a request and lets the endpoint queue be taken if it was busy. */
+  private void release(String endpointId) {
+    lock.lock();
+    try {
+      EndpointQueue queue = endpointQueues.get(endpointId);
+      boolean wasBusy = queue.isBusy(endpointId);
+      queue.inFlight--;
+      if (queue.tasks.isEmpty()) {
+        if (queue.inFlight == 0) {
+          endpointQueues.remove(endpointId);
+        }
+      } else if (wasBusy) {
+        readyEndpoints.addLast(endpointId);
+        notEmpty.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the next task to process or {@code null} if processor is stopped. */
+  private Task take() throws InterruptedException {
+    lock.lock();
+    try {
+      while (running) {
+        Task task = priorityQueue.pollFirst();
+        if (task != null) {
+          return task;
+        }
+
+        String endpointId = readyEndpoints.pollFirst();
+        if (endpointId != null) {
+          // endpoint is ready while it has queued requests and is not busy
+          EndpointQueue queue = endpointQueues.get(endpointId);
+          task = queue.tasks.pollFirst();
+          queue.inFlight++;
+          if (!queue.tasks.isEmpty() && !queue.isBusy(endpointId)) {
+            readyEndpoints.addLast(endpointId);
+          }
+          return task;
+        }
+
+        notEmpty.await();
+      }
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Queued requests of a single endpoint and the number of its requests being processed. */
+  private class EndpointQueue {
+    final Deque<Task> tasks = new ArrayDeque<>();
+    int inFlight;
+
+    boolean isBusy(String endpointId) {
+      return inFlight >= maxInFlight && !DEFAULT_ENDPOINT.equals(endpointId);
+    }
+  }
+
+  private class Task {
+    final String endpointId;
+    final String method;
+    final Runnable runnable;
+    final long enqueuedAt = System.nanoTime();
+
+    Task(String endpointId, String method, Runnable runnable) {
+      this.endpointId = endpointId;
+      this.method = method;
+      this.runnable = runnable;
+    }
+
+    void run() {
+      long startedAt = System.nanoTime();
+      try {
+        runnable.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Error while processing request of method '{}'", method, e);
+      } finally {
+        String key = method != null && registeredMethods.test(method) ? method : OTHER_METHODS;
+        statistics
+            .computeIfAbsent(key, it -> new MethodStatistics())
+            .record(startedAt - enqueuedAt, System.nanoTime() - startedAt);
+      }
+    }
+  }
+
+  /** Accumulated wait (in queue) and run time of requests of a single JSON RPC method. */
+  public static class MethodStatistics {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    void record(long waitNanos, long runNanos) {
+      count.incrementAndGet();
+      totalWaitNanos.addAndGet(waitNanos);
+      maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      totalRunNanos.addAndGet(runNanos);
+      maxRunNanos.accumulateAndGet(runNanos, Math::max);
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getTotalWaitNanos() {
+      return totalWaitNanos.get();
+    }
+
+    public long getMaxWaitNanos() {
+      return maxWaitNanos.get();
+    }
+
+    public long getTotalRunNanos() {
+      return totalRunNanos.get();
+    }
+
+    public long getMaxRunNanos() {
+      return maxRunNanos.get();
+    }
   }
 }
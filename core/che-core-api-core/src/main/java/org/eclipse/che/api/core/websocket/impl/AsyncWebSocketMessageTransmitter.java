@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Utf8;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.FrameAction;
+import org.slf4j.Logger;
+
+/**
+ * Transmits messages over WEB SOCKET without blocking the calling thread. Each endpoint has its own
+ * outbound queue which is drained with {@link javax.websocket.RemoteEndpoint.Async}, one message
+ * (or batch) at a time, so a slow connection delays only messages of its own endpoint. Queue of the
+ * endpoint is removed once its session is removed from {@link WebSocketSessionRegistry}. If WEB
+ * SOCKET session is not opened messages are added to re-sender to try to send them when session
+ * will be opened again.
+ *
+ * <p>Memory taken by pending messages of a single endpoint is limited by {@link
+ * #MAX_PENDING_BYTES_PROPERTY} (UTF-8 encoded length), the oldest messages except JSON RPC
+ * responses are dropped when the limit is exceeded, so a request is never left unanswered. If
+ * {@link #COALESCE_PROPERTY} is enabled all pending JSON RPC messages are sent as a single JSON RPC
+ * batch. Notifications of methods listed in {@link #COMPACTABLE_METHODS_PROPERTY} are not queued
+ * if the very same notification is already pending. Messages the container failed to send are
+ * passed to {@link MessagesReSender}, unless it keeps written frames of the endpoint until they
+ * are acknowledged. Messages of a session which awaits resume are held by {@link
+ * MessagesReSender}, both when they are transmitted and when they are about to be written.
+ */
+@Singleton
+public class AsyncWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
+  private static final Logger LOG = getLogger(AsyncWebSocketMessageTransmitter.class);
+
+  public static final String MAX_PENDING_BYTES_PROPERTY =
+      "che.websocket.transmitter.max_pending_bytes";
+  public static final String COALESCE_PROPERTY = "che.websocket.transmitter.coalesce";
+  public static final String COMPACTABLE_METHODS_PROPERTY =
+      "che.websocket.transmitter.compactable_methods";
+
+  /** Maximal length of a batch built out of coalesced messages. */
+  private static final int MAX_BATCH_LENGTH = 64 * 1024;
+
+  @Inject(optional = true)
+  @Named(MAX_PENDING_BYTES_PROPERTY)
+  private long maxPendingBytes = 8 * 1024 * 1024;
+
+  @Inject(optional = true)
+  @Named(COALESCE_PROPERTY)
+  private boolean coalesce = false;
+
+  @Inject(optional = true)
+  @Named(COMPACTABLE_METHODS_PROPERTY)
+  private String compactableMethodsList = "";
+
+  private final WebSocketSessionRegistry registry;
+  private final MessagesReSender reSender;
+  private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+
+  private final AtomicLong sentMessages = new AtomicLong();
+  private final AtomicLong sentBatches = new AtomicLong();
+  private final AtomicLong droppedMessages = new AtomicLong();
+  private final AtomicLong compactedMessages = new AtomicLong();
+  private final AtomicLong totalDelayNanos = new AtomicLong();
+  private final AtomicLong maxDelayNanos = new AtomicLong();
+
+  private volatile Set<String> compactableMethods;
+
+  @Inject
+  public AsyncWebSocketMessageTransmitter(
+      WebSocketSessionRegistry registry, MessagesReSender reSender) {
+    this.registry = registry;
+    this.reSender = reSender;
+    registry.addRemovalListener(this::closeOutbox);
+  }
+
+  AsyncWebSocketMessageTransmitter(
+      WebSocketSessionRegistry registry,
+      MessagesReSender reSender,
+      long maxPendingBytes,
+      boolean coalesce,
+      String compactableMethodsList) {
+    this(registry, reSender);
+    this.maxPendingBytes = maxPendingBytes;
+    this.coalesce = coalesce;
+    this.compactableMethodsList = compactableMethodsList;
+  }
+
+  @Override
+  public void transmit(String endpointId, String message) {
+    final Optional<Session> sessionOptional = registry.get(endpointId);
+
+    if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
+      LOG.debug("Session is not registered or closed, adding message to pending");
+
+      reSender.add(endpointId, message);
+    } else if (reSender.holdIfAwaitingResume(endpointId, message)) {
+      LOG.debug("Session is not resumed, message is held until it is");
+    } else {
+      LOG.debug("Session registered and open, queueing message");
+
+      boolean compactable = isCompactable(message);
+      boolean[] drain = new boolean[1];
+      // offered within compute, so the outbox can't be removed as closed in the meantime
+      Outbox outbox =
+          outboxes.compute(
+              endpointId,
+              (id, existing) -> {
+                Outbox target =
+                    existing == null || existing.isRemovable() ? new Outbox(id) : existing;
+                drain[0] = target.offer(message, compactable);
+                return target;
+              });
+      if (drain[0]) {
+        outbox.drain();
+      }
+    }
+  }
+
+  /**
+   * Removes outbox of the endpoint which session is removed. Outbox which is sending messages is
+   * removed once it is drained.
+   */
+  private void closeOutbox(String endpointId) {
+    outboxes.computeIfPresent(endpointId, (id, outbox) -> outbox.close() ? null : outbox);
+  }
+
+  /** Returns the number of messages waiting to be sent to the given endpoint. */
+  public int getQueueDepth(String endpointId) {
+    Outbox outbox = outboxes.get(endpointId);
+    return outbox == null ? 0 : outbox.size();
+  }
+
+  /** Returns the number of endpoints which have outbound queue. */
+  public int getOutboxCount() {
+    return outboxes.size();
+  }
+
+  /** Returns the number of messages passed to WEB SOCKET sessions. */
+  public long getSentMessages() {
+    return sentMessages.get();
+  }
+
+  /** Returns the number of WEB SOCKET frames sent, less than sent messages if coalescing is on. */
+  public long getSentBatches() {
+    return sentBatches.get();
+  }
+
+  /** Returns the number of messages dropped due to pending messages limit. */
+  public long getDroppedMessages() {
+    return droppedMessages.get();
+  }
+
+  /** Returns the number of notifications not queued as the same notification was pending. */
+  public long getCompactedMessages() {
+    return compactedMessages.get();
+  }
+
+  /** Returns the total time messages spent between transmission and being written to socket. */
+  public long getTotalDelayNanos() {
+    return totalDelayNanos.get();
+  }
+
+  /** Returns the maximal time a message spent between transmission and being written to socket. */
+  public long getMaxDelayNanos() {
+    return maxDelayNanos.get();
+  }
+
+  private Set<String> getCompactableMethods() {
+    Set<String> methods = compactableMethods;
+    if (methods == null) {
+      methods =
+          ImmutableSet.copyOf(
+              Splitter.on(',').trimResults().omitEmptyStrings().split(compactableMethodsList));
+      compactableMethods = methods;
+    }
+    return methods;
+  }
+
+  /** Returns {@code true} if message is a notification of one of compactable methods. */
+  private boolean isCompactable(String message) {
+    Set<String> methods = getCompactableMethods();
+    if (methods.isEmpty() || !message.startsWith("{")) {
+      return false;
+    }
+
+    try (JsonReader reader = new JsonReader(new StringReader(message))) {
+      String method = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if ("id".equals(name)) {
+          return false;
+        } else if ("method".equals(name) && reader.peek() == JsonToken.STRING) {
+          method = reader.nextString();
+        } else {
+          reader.skipValue();
+        }
+      }
+      return method != null && methods.contains(method);
+    } catch (IOException | IllegalStateException e) {
+      return false;
+    }
+  }
+
+  private class Outbox {
+    private final String endpointId;
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private final Set<String> pendingCompactable = new HashSet<>();
+
+    private long pendingBytes;
+    private boolean sending;
+    private boolean closed;
+
+    Outbox(String endpointId) {
+      this.endpointId = endpointId;
+    }
+
+    synchronized int size() {
+      return queue.size();
+    }
+
+    /** Returns {@code true} if outbox is closed and it doesn't send messages any longer. */
+    synchronized boolean isRemovable() {
+      return closed && !sending;
+    }
+
+    /**
+     * Marks outbox as closed.
+     *
+     * @return {@code true} if outbox may be removed right away, {@code false} if it's sending
+     *     messages and will remove itself when done
+     */
+    synchronized boolean close() {
+      closed = true;
+      return !sending;
+    }
+
+    /**
+     * Adds message to the queue.
+     *
+     * @return {@code true} if the caller must start draining the queue
+     */
+    boolean offer(String message, boolean compactable) {
+      synchronized (this) {
+        if (compactable && !pendingCompactable.add(message)) {
+          compactedMessages.incrementAndGet();
+          return false;
+        }
+
+        Pending added = new Pending(message, compactable);
+        queue.addLast(added);
+        pendingBytes += added.bytes;
+        while (pendingBytes > maxPendingBytes) {
+          Pending dropped = pollDroppable(added);
+          if (dropped == null) {
+            LOG.warn(
+                "Pending messages of endpoint '{}' exceed the limit, but are all responses",
+                endpointId);
+            break;
+          }
+          droppedMessages.incrementAndGet();
+          LOG.warn(
+              "Too many pending messages for endpoint '{}', dropping message of {} bytes",
+              endpointId,
+              dropped.bytes);
+        }
+
+        if (sending) {
+          return false;
+        }
+        sending = true;
+        return true;
+      }
+    }
+
+    /**
+     * Sends pending messages one batch at a time. Each next batch is sent after the previous one is
+     * completed, either within this method if the container completed sending synchronously or
+     * within the completion handler otherwise.
+     */
+    void drain() {
+      while (true) {
+        List<Pending> batch;
+        boolean remove;
+        synchronized (this) {
+          batch = pollBatch();
+          remove = batch.isEmpty() && closed;
+          if (batch.isEmpty()) {
+            sending = false;
+          }
+        }
+        if (batch.isEmpty()) {
+          if (remove) {
+            outboxes.remove(endpointId, this);
+          }
+          return;
+        }
+
+        Optional<Session> sessionOptional = registry.get(endpointId);
+        if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
+          LOG.debug("Session is closed, adding pending messages to re-sender");
+          // removed first, so no more messages can be offered to this outbox
+          outboxes.remove(endpointId, this);
+          synchronized (this) {
+            batch.addAll(queue);
+            queue.clear();
+            pendingCompactable.clear();
+            pendingBytes = 0;
+            sending = false;
+          }
+          batch.forEach(it -> reSender.add(endpointId, it.message));
+          return;
+        }
+
+        String payload = toPayload(batch);
+        FrameAction action =
+            reSender.write(
+                endpointId,
+                payload,
+                batch.stream().map(it -> it.message).collect(Collectors.toList()));
+        if (action == FrameAction.HELD) {
+          continue;
+        }
+        boolean kept = action == FrameAction.WRITE_KEPT;
+        // 0 - sending, 1 - sendText returned first, 2 - completion handler called first
+        AtomicInteger state = new AtomicInteger();
+        try {
+          sessionOptional
+              .get()
+              .getAsyncRemote()
+              .sendText(
+                  payload,
+                  result -> {
+                    onSent(batch, kept, result);
+                    if (!state.compareAndSet(0, 2)) {
+                      drain();
+                    }
+                  });
+        } catch (RuntimeException e) {
+          LOG.error(
+              "Error while trying to send a message to an async websocket remote endpoint", e);
+          if (!kept) {
+            batch.forEach(it -> reSender.add(endpointId, it.message));
+          }
+          continue;
+        }
+
+        if (state.compareAndSet(0, 1)) {
+          return;
+        }
+      }
+    }
+
+    private List<Pending> pollBatch() {
+      List<Pending> batch = new ArrayList<>();
+      Pending first = poll();
+      if (first == null) {
+        return batch;
+      }
+      batch.add(first);
+
+      if (coalesce && first.message.startsWith("{")) {
+        int length = first.message.length() + 2;
+        while (!queue.isEmpty()) {
+          Pending next = queue.peekFirst();
+          if (!next.message.startsWith("{")
+              || length + next.message.length() + 1 > MAX_BATCH_LENGTH) {
+            break;
+          }
+          length += next.message.length() + 1;
+          batch.add(poll());
+        }
+      }
+      return batch;
+    }
+
+    private Pending poll() {
+      Pending pending = queue.pollFirst();
+      if (pending != null) {
+        removed(pending);
+      }
+      return pending;
+    }
+
+    /**
+     * Removes and returns the oldest pending message which is not a JSON RPC response, the given
+     * just added message is never removed. Returns {@code null} if there is no such message.
+     */
+    private Pending pollDroppable(Pending added) {
+      for (Iterator<Pending> it = queue.iterator(); it.hasNext(); ) {
+        Pending pending = it.next();
+        if (pending == added) {
+          return null;
+        }
+        if (!pending.isResponse()) {
+          it.remove();
+          removed(pending);
+          return pending;
+        }
+      }
+      return null;
+    }
+
+    private void removed(Pending pending) {
+      pendingBytes -= pending.bytes;
+      if (pending.compactable) {
+        pendingCompactable.remove(pending.message);
+      }
+    }
+
+    private String toPayload(List<Pending> batch) {
+      if (batch.size() == 1) {
+        return batch.get(0).message;
+      }
+
+      StringBuilder payload = new StringBuilder().append('[');
+      for (int i = 0; i < batch.size(); i++) {
+        if (i > 0) {
+          payload.append(',');
+        }
+        payload.append(batch.get(i).message);
+      }
+      return payload.append(']').toString();
+    }
+
+    /** Passes failed batch to re-sender unless it's kept there as written frame already. */
+    private void onSent(List<Pending> batch, boolean kept, SendResult result) {
+      if (!result.isOK()) {
+        LOG.error(
+            "Error while trying to send a message to an async websocket remote endpoint",
+            result.getException());
+        if (!kept) {
+          batch.forEach(it -> reSender.add(endpointId, it.message));
+        }
+        return;
+      }
+
+      long now = System.nanoTime();
+      sentBatches.incrementAndGet();
+      sentMessages.addAndGet(batch.size());
+      for (Pending pending : batch) {
+        long delay = now - pending.enqueuedAt;
+        totalDelayNanos.addAndGet(delay);
+        maxDelayNanos.accumulateAndGet(delay, Math::max);
+      }
+    }
+  }
+
+  /** Returns {@code true} if message is a JSON RPC response (or error) to a request. */
+  private static boolean isResponse(String message) {
+    if (!message.startsWith("{")) {
+      return false;
+    }
+
+    try (JsonReader reader = new JsonReader(new StringReader(message))) {
+      boolean hasId = false;
+      boolean hasResult = false;
+      reader.beginObject();
+      while (reader.hasNext()) {
+        String name = reader.nextName();
+        if ("method".equals(name)) {
+          return false;
+        }
+        hasId |= "id".equals(name);
+        hasResult |= "result".equals(name) || "error".equals(name);
+        reader.skipValue();
+      }
+      return hasId && hasResult;
+    } catch (IOException | IllegalStateException e) {
+      return false;
+    }
+  }
+
+  private static class Pending {
+    final String message;
+    final boolean compactable;
+    final long bytes;
+    final long enqueuedAt = System.nanoTime();
+
+    private Boolean response;
+
+    Pending(String message, boolean compactable) {
+      this.message = message;
+      this.compactable = compactable;
+      this.bytes = Utf8.encodedLength(message);
+    }
+
+    /** Parses message only when it is about to be dropped, which is rare. */
+    boolean isResponse() {
+      if (response == null) {
+        response = AsyncWebSocketMessageTransmitter.isResponse(message);
+      }
+      return response;
+    }
+  }
+}
@@ -34,6 +34,12 @@ import org.slf4j.LoggerFactory;
  * @author Dmitry Kuleshov
  */
 public abstract class BasicWebSocketEndpoint {
+  /**
+   * Query parameter of a client which acknowledges received frames, so frames are re-sent if they
+   * don't reach it, see {@link MessagesReSender}.
+   */
+  public static final String ACKNOWLEDGE_PARAMETER = "acknowledge";
+
   private static final Logger LOG = LoggerFactory.getLogger(BasicWebSocketEndpoint.class);
 
   private final WebSocketSessionRegistry registry;
@@ -63,8 +69,13 @@ public abstract class BasicWebSocketEndpoint {
 
     session.setMaxIdleTimeout(0);
 
-    registry.add(combinedEndpointId, session);
-    reSender.resend(combinedEndpointId);
+    if (isAcknowledging(session)) {
+      // registers session too, so nothing is written to it before it is resumed
+      reSender.awaitResume(combinedEndpointId, session);
+    } else {
+      registry.add(combinedEndpointId, session);
+      reSender.resend(combinedEndpointId);
+    }
     sessionMessagesBuffer.put(session, new StringBuffer());
   }
 
@@ -147,6 +158,11 @@ public abstract class BasicWebSocketEndpoint {
         .orElse(identificationService.getCombinedId(getEndpointId(), clientId));
   }
 
+  private boolean isAcknowledging(Session session) {
+    return Boolean.parseBoolean(
+        getQueryParamsMap(session.getQueryString()).get(ACKNOWLEDGE_PARAMETER));
+  }
+
   private Map<String, String> getQueryParamsMap(String queryParamsString) {
     Map<String, String> queryParamsMap = new HashMap<>();
 
@@ -10,96 +10,390 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
-import com.google.common.collect.EvictingQueue;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import com.google.inject.Inject;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.ReplayBuffer.Message;
 import org.eclipse.che.commons.schedule.ScheduleDelay;
 
 /**
  * Instance is responsible for re-sending messages that were not sent during the period when WEB
- * SOCKET session was closed. If session is closed during re-send process it stops and left messages
- * will be re-sent as WEB SOCKET session becomes open again.
+ * SOCKET session was closed. Messages are re-sent with {@link WebSocketMessageTransmitter}, so they
+ * share the outbound queue of the endpoint with other messages, and if session is closed during
+ * re-send process the transmitter passes left messages back to be re-sent as WEB SOCKET session
+ * becomes open again.
+ *
+ * <p>Frames written to a session are lost if the connection breaks before they reach the client,
+ * e.g. when a proxy is restarted. Clients which open session with {@link
+ * BasicWebSocketEndpoint#ACKNOWLEDGE_PARAMETER} set keep count of the frames they have received
+ * and acknowledge it with {@link WebsocketReplayService}. Written frames of such endpoints are kept
+ * until they are acknowledged. When the session is opened again nothing is sent to the endpoint
+ * until the client resumes it with the count of received frames, then frames the client hasn't
+ * received are re-sent before the other pending messages. Frames are counted at the moment they
+ * are written, so the count of the server matches the count of the client after each resume even
+ * if some frames were dropped in the meantime. Client identifies its count with a replay id, frames
+ * kept for another replay id, e.g. of the page before reload, are dropped on resume.
+ *
+ * <p>Registering a session and holding its messages, holding a message, writing a frame and
+ * resuming a session are atomic for an endpoint which acknowledges frames, so no frame is written
+ * to a session before it's resumed and no held message is left behind by resume.
+ *
+ * <p>Pending messages and frames of an endpoint are limited by their total UTF-8 encoded length
+ * ({@link #MAX_BYTES_PER_ENDPOINT_PROPERTY}) rather than by their number. If {@link
+ * #SPILL_DIR_PROPERTY} is set messages exceeding the limit are moved to a memory-mapped file of
+ * {@link #SPILL_MAX_BYTES_PROPERTY} size instead of being dropped.
  *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class MessagesReSender {
+  public static final String MAX_BYTES_PER_ENDPOINT_PROPERTY =
+      "che.websocket.resender.max_bytes_per_endpoint";
+  public static final String MESSAGE_TTL_MS_PROPERTY = "che.websocket.resender.message_ttl_ms";
+  public static final String SPILL_DIR_PROPERTY = "che.websocket.resender.spill_dir";
+  public static final String SPILL_MAX_BYTES_PROPERTY = "che.websocket.resender.spill_max_bytes";
+
+  @Inject(optional = true)
+  @Named(MAX_BYTES_PER_ENDPOINT_PROPERTY)
+  private long maxBytesPerEndpoint = 1024 * 1024;
 
-  private static final int MAX_MESSAGES = 100;
+  @Inject(optional = true)
+  @Named(MESSAGE_TTL_MS_PROPERTY)
+  private long messageTtlMs = 60_000;
+
+  @Inject(optional = true)
+  @Named(SPILL_DIR_PROPERTY)
+  private String spillDir = "";
+
+  @Inject(optional = true)
+  @Named(SPILL_MAX_BYTES_PROPERTY)
+  private int spillMaxBytes = 16 * 1024 * 1024;
 
   private final WebSocketSessionRegistry registry;
+  private final Provider<WebSocketMessageTransmitter> transmitterProvider;
 
-  private final Map<String, Queue<DelayedMessage>> delayedMessageRegistry =
-      new ConcurrentHashMap<>();
+  private final Map<String, ReplayBuffer> delayedMessageRegistry = new ConcurrentHashMap<>();
+  private final Map<String, DeliveryLog> deliveryLogs = new ConcurrentHashMap<>();
 
   @Inject
-  public MessagesReSender(WebSocketSessionRegistry registry) {
+  public MessagesReSender(
+      WebSocketSessionRegistry registry,
+      Provider<WebSocketMessageTransmitter> transmitterProvider) {
     this.registry = registry;
+    this.transmitterProvider = transmitterProvider;
+  }
+
+  MessagesReSender(
+      WebSocketSessionRegistry registry,
+      Provider<WebSocketMessageTransmitter> transmitterProvider,
+      long maxBytesPerEndpoint,
+      String spillDir,
+      int spillMaxBytes) {
+    this(registry, transmitterProvider);
+    this.maxBytesPerEndpoint = maxBytesPerEndpoint;
+    this.spillDir = spillDir;
+    this.spillMaxBytes = spillMaxBytes;
   }
 
   @ScheduleDelay(initialDelay = 60, delay = 60)
   void cleanStaleMessages() {
-    long currentTimeMillis = System.currentTimeMillis();
+    long expiration = System.currentTimeMillis() - messageTtlMs;
 
-    delayedMessageRegistry
-        .values()
-        .forEach(it -> it.removeIf(m -> currentTimeMillis - m.timeMillis > 60_000));
+    // buffers are removed within compute, so no message can be added to a removed buffer
+    for (String endpointId : delayedMessageRegistry.keySet()) {
+      delayedMessageRegistry.computeIfPresent(
+          endpointId,
+          (id, buffer) -> {
+            buffer.removeExpired(expiration);
+            if (buffer.isIdle(expiration)) {
+              buffer.close();
+              return null;
+            }
+            return buffer;
+          });
+    }
 
-    delayedMessageRegistry.values().removeIf(Queue::isEmpty);
+    for (String endpointId : deliveryLogs.keySet()) {
+      deliveryLogs.computeIfPresent(
+          endpointId,
+          (id, log) -> {
+            synchronized (log) {
+              log.frames.removeExpired(expiration);
+              if (log.frames.isIdle(expiration) && !registry.get(id).isPresent()) {
+                log.release();
+                return null;
+              }
+              return log;
+            }
+          });
+    }
   }
 
-  public void add(String endpointId, String message) {
+  @PreDestroy
+  void preDestroy() {
+    delayedMessageRegistry.values().forEach(ReplayBuffer::close);
+    delayedMessageRegistry.clear();
+    deliveryLogs.values().forEach(DeliveryLog::release);
+    deliveryLogs.clear();
+  }
 
-    delayedMessageRegistry
-        .computeIfAbsent(endpointId, k -> EvictingQueue.create(MAX_MESSAGES))
-        .offer(new DelayedMessage(message));
+  /** Adds message to be re-sent when session of the endpoint becomes open. */
+  public void add(String endpointId, String message) {
+    // buffer is updated within compute, so it can't be removed as idle in the meantime
+    delayedMessageRegistry.compute(
+        endpointId,
+        (id, buffer) -> {
+          ReplayBuffer target = buffer == null ? newBuffer(id) : buffer;
+          target.add(message);
+          return target;
+        });
   }
 
+  /**
+   * Re-sends all pending messages of the endpoint which doesn't acknowledge received frames, frames
+   * written to its previous sessions are not kept any longer.
+   */
   public void resend(String endpointId) {
-    Queue<DelayedMessage> delayedMessages = delayedMessageRegistry.remove(endpointId);
+    DeliveryLog log = deliveryLogs.remove(endpointId);
+    if (log != null) {
+      log.release();
+    }
 
-    if (delayedMessages == null || delayedMessages.isEmpty()) {
+    ReplayBuffer buffer = delayedMessageRegistry.get(endpointId);
+    if (buffer == null) {
       return;
     }
 
     Optional<Session> sessionOptional = registry.get(endpointId);
-
-    if (!sessionOptional.isPresent()) {
+    if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
       return;
     }
 
-    Queue<DelayedMessage> backingQueue = EvictingQueue.create(delayedMessages.size());
-    while (!delayedMessages.isEmpty()) {
-      backingQueue.offer(delayedMessages.poll());
+    transmit(endpointId, buffer.drain());
+  }
+
+  /**
+   * Registers just opened session of the endpoint which acknowledges received frames and holds its
+   * messages until the client resumes the session with {@link #resume(String, String, long)}. Both
+   * happen in one step, so no frame is written to the session before it's resumed.
+   */
+  public void awaitResume(String endpointId, Session session) {
+    deliveryLogs.compute(
+        endpointId,
+        (id, log) -> {
+          DeliveryLog target = log == null ? newDeliveryLog(id) : log;
+          synchronized (target) {
+            target.hold();
+            registry.add(id, session);
+          }
+          return target;
+        });
+  }
+
+  /**
+   * Adds message to be sent when session of the endpoint is resumed, if session awaits resume.
+   *
+   * @return {@code true} if message is held, {@code false} if it must be sent
+   */
+  public boolean holdIfAwaitingResume(String endpointId, String message) {
+    DeliveryLog log = deliveryLogs.get(endpointId);
+    if (log == null) {
+      return false;
+    }
+    synchronized (log) {
+      if (log.isResumed()) {
+        return false;
+      }
+      add(endpointId, message);
+      return true;
     }
+  }
 
-    Session session = sessionOptional.get();
-    for (DelayedMessage delayedMessage : backingQueue) {
-      if (session.isOpen()) {
-        session.getAsyncRemote().sendText(delayedMessage.message);
-      } else {
-        delayedMessages.add(delayedMessage);
+  /**
+   * Decides on a frame which is about to be written to the session of the endpoint. If session of
+   * the endpoint which acknowledges frames awaits resume, messages of the frame are held. Otherwise
+   * frame is numbered and kept until the client acknowledges it.
+   *
+   * @param frame frame which is about to be written
+   * @param messages messages the frame is made of
+   */
+  public FrameAction write(String endpointId, String frame, List<String> messages) {
+    DeliveryLog log = deliveryLogs.get(endpointId);
+    if (log == null) {
+      return FrameAction.WRITE;
+    }
+    synchronized (log) {
+      if (!log.isResumed()) {
+        messages.forEach(it -> add(endpointId, it));
+        return FrameAction.HELD;
       }
+      log.append(frame);
+      return FrameAction.WRITE_KEPT;
     }
+  }
+
+  /**
+   * Removes kept frames of the endpoint that the client has received.
+   *
+   * @param replayId identifier of the count of the client
+   * @param received the number of frames the client has received over all the sessions
+   */
+  public void acknowledge(String endpointId, String replayId, long received) {
+    DeliveryLog log = deliveryLogs.get(endpointId);
+    if (log != null) {
+      log.acknowledge(replayId, received);
+    }
+  }
 
-    if (!delayedMessages.isEmpty()) {
-      delayedMessageRegistry.put(endpointId, delayedMessages);
+  /**
+   * Re-sends frames of the endpoint the client hasn't received followed by all pending messages.
+   *
+   * @param endpointId endpoint which session is resumed
+   * @param replayId identifier of the count of the client
+   * @param received the number of frames the client has received over all the sessions
+   */
+  public void resume(String endpointId, String replayId, long received) {
+    DeliveryLog log = deliveryLogs.computeIfAbsent(endpointId, this::newDeliveryLog);
+    // messages are passed to transmitter before the session is seen as resumed by other threads,
+    // so they are sent before any message transmitted afterwards
+    synchronized (log) {
+      List<Message> frames = log.resume(replayId, received);
+      ReplayBuffer buffer = delayedMessageRegistry.get(endpointId);
+      transmit(endpointId, frames);
+      if (buffer != null) {
+        transmit(endpointId, buffer.drain());
+      }
     }
   }
 
-  private static class DelayedMessage {
+  /** Returns the number of messages waiting to be re-sent to the endpoint. */
+  public int getPendingCount(String endpointId) {
+    ReplayBuffer buffer = delayedMessageRegistry.get(endpointId);
+    return buffer == null ? 0 : buffer.size();
+  }
+
+  /** Returns the number of messages of the endpoint dropped due to pending messages limit. */
+  public long getDroppedCount(String endpointId) {
+    ReplayBuffer buffer = delayedMessageRegistry.get(endpointId);
+    return buffer == null ? 0 : buffer.getDropped();
+  }
 
-    private final long timeMillis;
-    private final String message;
+  /** Returns the number of frames written to the endpoint which aren't acknowledged yet. */
+  public int getUnacknowledgedCount(String endpointId) {
+    DeliveryLog log = deliveryLogs.get(endpointId);
+    return log == null ? 0 : log.frames.size();
+  }
+
+  private void transmit(String endpointId, List<Message> messages) {
+    if (messages.isEmpty()) {
+      return;
+    }
+
+    WebSocketMessageTransmitter transmitter = transmitterProvider.get();
+    messages.forEach(it -> transmitter.transmit(endpointId, it.message));
+  }
+
+  private ReplayBuffer newBuffer(String endpointId) {
+    Path spillPath = isNullOrEmpty(spillDir) ? null : Paths.get(spillDir);
+    return new ReplayBuffer(endpointId, maxBytesPerEndpoint, spillPath, spillMaxBytes);
+  }
+
+  private DeliveryLog newDeliveryLog(String endpointId) {
+    return new DeliveryLog(newBuffer(endpointId));
+  }
+
+  /** What transmitter does with a frame which is about to be written. */
+  public enum FrameAction {
+    /** Frame is written and passed back to re-sender if it fails to be written. */
+    WRITE,
+    /** Frame is written and kept until the client acknowledges it. */
+    WRITE_KEPT,
+    /** Frame is not written, its messages are held until session is resumed. */
+    HELD
+  }
+
+  /**
+   * Frames written to the sessions of an endpoint and not acknowledged yet. Monitor of the log
+   * guards the state of the endpoint session with respect to resume.
+   */
+  private static class DeliveryLog {
+    final ReplayBuffer frames;
+
+    /**
+     * Number of the last written frame. Frames are dropped from the buffer only starting from the
+     * oldest one, so the buffer always holds frames from {@code sequence - frames.size() + 1} to
+     * {@code sequence}.
+     */
+    private long sequence;
+
+    private boolean resumed;
+    /** Identifier of the count of the client, {@code null} until the first resume. */
+    private String replayId;
+
+    DeliveryLog(ReplayBuffer frames) {
+      this.frames = frames;
+    }
+
+    synchronized void hold() {
+      resumed = false;
+    }
+
+    /**
+     * Drops kept frames once the log is not used any longer. Messages are never held by released
+     * log, so transmission which found the log before it was removed isn't held forever.
+     */
+    synchronized void release() {
+      resumed = true;
+      frames.close();
+    }
+
+    synchronized boolean isResumed() {
+      return resumed;
+    }
+
+    synchronized void append(String frame) {
+      sequence++;
+      frames.add(frame);
+    }
+
+    synchronized void acknowledge(String replayId, long received) {
+      if (replayId.equals(this.replayId)) {
+        removeReceived(received);
+      }
+    }
+
+    /**
+     * Returns frames the client hasn't received. They are written again, so numbering continues
+     * from the count of the client. Frames kept for another count of the client are dropped.
+     */
+    synchronized List<Message> resume(String replayId, long received) {
+      if (replayId.equals(this.replayId)) {
+        removeReceived(received);
+      } else {
+        frames.drain();
+        this.replayId = replayId;
+      }
+      List<Message> left = frames.drain();
+      sequence = received;
+      resumed = true;
+      return left;
+    }
 
-    private DelayedMessage(String message) {
-      this.message = message;
-      this.timeMillis = System.currentTimeMillis();
+    private void removeReceived(long received) {
+      long oldest = sequence - frames.size() + 1;
+      frames.removeFirst(received - oldest + 1);
     }
   }
 }
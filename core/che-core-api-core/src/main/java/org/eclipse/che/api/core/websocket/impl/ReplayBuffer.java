@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import com.google.common.base.Utf8;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.slf4j.Logger;
+
+/**
+ * Messages of a single endpoint that are waiting to be re-sent, oldest first.
+ *
+ * <p>Messages are kept on the heap until their total UTF-8 encoded length exceeds the memory limit.
+ * Then the oldest messages are moved to a memory-mapped spill file if spill directory is
+ * configured, or dropped otherwise. Spilled messages are always older than the messages kept on the
+ * heap, when the spill file is full the oldest spilled messages are dropped to make room. Spill
+ * file is deleted as soon as it becomes empty, its mapping is released by the garbage collector.
+ */
+class ReplayBuffer {
+  private static final Logger LOG = getLogger(ReplayBuffer.class);
+
+  /** Timestamp and length of a spilled message. */
+  private static final int RECORD_HEADER_SIZE = 8 + 4;
+
+  private final String endpointId;
+  private final long maxMemoryBytes;
+  private final Path spillDir;
+  private final int spillCapacity;
+  private final Deque<Message> memory = new ArrayDeque<>();
+
+  private long memoryBytes;
+  private long dropped;
+  private long lastActivity = System.currentTimeMillis();
+
+  private Path spillFile;
+  /** Spilled records, from {@link #spillHead} to position of the buffer. */
+  private MappedByteBuffer spill;
+
+  private int spillHead;
+  private int spilledCount;
+
+  /**
+   * @param endpointId endpoint the messages are addressed to
+   * @param maxMemoryBytes maximal total UTF-8 encoded length of messages kept on the heap
+   * @param spillDir directory of spill files, {@code null} if spilling is disabled
+   * @param spillCapacity size of spill file in bytes
+   */
+  ReplayBuffer(String endpointId, long maxMemoryBytes, Path spillDir, int spillCapacity) {
+    this.endpointId = endpointId;
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.spillDir = spillDir;
+    this.spillCapacity = spillCapacity;
+  }
+
+  /** Adds message to the buffer. */
+  synchronized void add(String message) {
+    Message added = new Message(System.currentTimeMillis(), message);
+    lastActivity = added.timeMillis;
+    memory.addLast(added);
+    memoryBytes += added.bytes;
+
+    while (memoryBytes > maxMemoryBytes && memory.size() > 1) {
+      Message oldest = memory.pollFirst();
+      memoryBytes -= oldest.bytes;
+      if (!spill(oldest)) {
+        dropped(oldest.bytes);
+      }
+    }
+  }
+
+  /** Removes and returns all messages, oldest first. */
+  synchronized List<Message> drain() {
+    List<Message> messages = new ArrayList<>(spilledCount + memory.size());
+    readSpilled(messages);
+    messages.addAll(memory);
+    memory.clear();
+    memoryBytes = 0;
+    releaseSpill();
+    lastActivity = System.currentTimeMillis();
+    return messages;
+  }
+
+  /**
+   * Removes the given number of the oldest messages.
+   *
+   * @return the number of removed messages
+   */
+  synchronized int removeFirst(long count) {
+    int removed = 0;
+    while (removed < count && removeOldest()) {
+      removed++;
+    }
+    lastActivity = System.currentTimeMillis();
+    return removed;
+  }
+
+  /** Removes messages that were added before the given time. */
+  synchronized void removeExpired(long expiration) {
+    while (size() > 0 && oldestTime() < expiration) {
+      removeOldest();
+    }
+  }
+
+  /** Returns {@code true} if buffer is empty and wasn't used since the given time. */
+  synchronized boolean isIdle(long expiration) {
+    return memory.isEmpty() && spilledCount == 0 && lastActivity < expiration;
+  }
+
+  synchronized int size() {
+    return memory.size() + spilledCount;
+  }
+
+  synchronized long getDropped() {
+    return dropped;
+  }
+
+  /** Releases spill file. */
+  synchronized void close() {
+    releaseSpill();
+  }
+
+  private long oldestTime() {
+    return spilledCount > 0 ? spill.getLong(spillHead) : memory.peekFirst().timeMillis;
+  }
+
+  private boolean removeOldest() {
+    if (spilledCount > 0) {
+      removeOldestSpilled();
+      if (spilledCount == 0) {
+        releaseSpill();
+      }
+      return true;
+    }
+    Message oldest = memory.pollFirst();
+    if (oldest == null) {
+      return false;
+    }
+    memoryBytes -= oldest.bytes;
+    return true;
+  }
+
+  /** Removes the oldest spilled record and returns its length. */
+  private int removeOldestSpilled() {
+    int length = spill.getInt(spillHead + 8);
+    spillHead += RECORD_HEADER_SIZE + length;
+    spilledCount--;
+    return length;
+  }
+
+  private boolean spill(Message message) {
+    if (spillDir == null) {
+      return false;
+    }
+    byte[] bytes = message.message.getBytes(UTF_8);
+    int recordSize = RECORD_HEADER_SIZE + bytes.length;
+    if (recordSize > spillCapacity) {
+      return false;
+    }
+    if (spill == null) {
+      try {
+        Files.createDirectories(spillDir);
+        spillFile = Files.createTempFile(spillDir, "replay-", ".buf");
+        try (FileChannel channel = FileChannel.open(spillFile, READ, WRITE)) {
+          spill = channel.map(MapMode.READ_WRITE, 0, spillCapacity);
+        }
+      } catch (IOException e) {
+        LOG.warn("Unable to create replay buffer spill file in '{}'", spillDir, e);
+        releaseSpill();
+        return false;
+      }
+    }
+    if (spill.remaining() < recordSize) {
+      while (spillCapacity - (spill.position() - spillHead) < recordSize) {
+        dropped(removeOldestSpilled());
+      }
+      // moves the records left to the beginning of the file
+      spill.limit(spill.position()).position(spillHead);
+      spill.compact();
+      spillHead = 0;
+    }
+    spill.putLong(message.timeMillis).putInt(bytes.length).put(bytes);
+    spilledCount++;
+    return true;
+  }
+
+  private void readSpilled(List<Message> messages) {
+    if (spilledCount == 0) {
+      return;
+    }
+    ByteBuffer records = spill.duplicate();
+    records.limit(records.position()).position(spillHead);
+    for (int i = 0; i < spilledCount; i++) {
+      long timeMillis = records.getLong();
+      byte[] bytes = new byte[records.getInt()];
+      records.get(bytes);
+      messages.add(new Message(timeMillis, new String(bytes, UTF_8)));
+    }
+  }
+
+  private void dropped(long bytes) {
+    dropped++;
+    LOG.warn(
+        "Replay buffer of endpoint '{}' is full, dropping message of {} bytes",
+        endpointId,
+        bytes);
+  }
+
+  /** Deletes spill file, so an endpoint doesn't hold it when nothing is spilled. */
+  private void releaseSpill() {
+    spill = null;
+    spillHead = 0;
+    spilledCount = 0;
+    if (spillFile != null) {
+      try {
+        Files.deleteIfExists(spillFile);
+      } catch (IOException e) {
+        LOG.warn("Unable to delete replay buffer spill file '{}'", spillFile, e);
+      }
+      spillFile = null;
+    }
+  }
+
+  static class Message {
+    final long timeMillis;
+    final String message;
+    final long bytes;
+
+    Message(long timeMillis, String message) {
+      this.timeMillis = timeMillis;
+      this.message = message;
+      this.bytes = Utf8.encodedLength(message);
+    }
+  }
+}
@@ -11,7 +11,7 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import com.google.inject.AbstractModule;
-import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcMessageReceiver;
+import org.eclipse.che.api.core.jsonrpc.impl.ServerSideJsonRpcMessageReceiver;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageReceiver;
 import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
 
@@ -20,7 +20,8 @@ public class WebSocketModule extends AbstractModule {
   protected void configure() {
     requestStaticInjection(GuiceInjectorEndpointConfigurator.class);
 
-    bind(WebSocketMessageReceiver.class).to(JsonRpcMessageReceiver.class);
-    bind(WebSocketMessageTransmitter.class).to(BasicWebSocketMessageTransmitter.class);
+    bind(WebSocketMessageReceiver.class).to(ServerSideJsonRpcMessageReceiver.class);
+    bind(WebSocketMessageTransmitter.class).to(AsyncWebSocketMessageTransmitter.class);
+    bind(WebsocketReplayService.class).asEagerSingleton();
   }
 }
@@ -14,10 +14,13 @@ import static java.util.stream.Collectors.toSet;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import javax.inject.Singleton;
 import javax.websocket.Session;
 import org.slf4j.Logger;
@@ -32,6 +35,12 @@ public class WebSocketSessionRegistry {
   private static final Logger LOG = getLogger(WebSocketSessionRegistry.class);
 
   private final Map<String, Session> sessionsMap = new ConcurrentHashMap<>();
+  private final List<Consumer<String>> removalListeners = new CopyOnWriteArrayList<>();
+
+  /** Calls the listener with endpoint id each time session of the endpoint is removed. */
+  public void addRemovalListener(Consumer<String> listener) {
+    removalListeners.add(listener);
+  }
 
   public void add(String endpointId, Session session) {
     LOG.debug("Registering session with endpoint {}", session.getId(), endpointId);
@@ -42,11 +51,11 @@ public class WebSocketSessionRegistry {
   public Optional<Session> remove(String endpointId) {
     LOG.debug("Cancelling registration for session with endpoint {}", endpointId);
 
-    return Optional.ofNullable(sessionsMap.remove(endpointId));
+    return removed(endpointId, sessionsMap.remove(endpointId));
   }
 
   public Optional<Session> remove(Session session) {
-    return get(session).flatMap(id -> Optional.ofNullable(sessionsMap.remove(id)));
+    return get(session).flatMap(id -> removed(id, sessionsMap.remove(id)));
   }
 
   public Optional<Session> get(String endpointId) {
@@ -74,4 +83,11 @@ public class WebSocketSessionRegistry {
   public Set<Session> getSessions() {
     return new HashSet<>(sessionsMap.values());
   }
+
+  private Optional<Session> removed(String endpointId, Session session) {
+    if (session != null) {
+      removalListeners.forEach(it -> it.accept(endpointId));
+    }
+    return Optional.ofNullable(session);
+  }
 }
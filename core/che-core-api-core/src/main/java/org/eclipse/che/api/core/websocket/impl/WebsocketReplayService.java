@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
+
+/**
+ * Receives the number of frames clients have received over WEB SOCKET endpoints opened with {@link
+ * BasicWebSocketEndpoint#ACKNOWLEDGE_PARAMETER}, see {@link MessagesReSender}. Client resumes just
+ * opened session with the number of received frames, and acknowledges received frames from time to
+ * time while session is open. Parameters are the replay id which identifies the count of the
+ * client, e.g. the count of a page which is dropped on reload, and the count itself.
+ */
+@Singleton
+public class WebsocketReplayService {
+  private final MessagesReSender reSender;
+
+  @Inject
+  public WebsocketReplayService(MessagesReSender reSender) {
+    this.reSender = reSender;
+  }
+
+  @Inject
+  private void configureHandlers(RequestHandlerConfigurator requestHandlerConfigurator) {
+    requestHandlerConfigurator
+        .newConfiguration()
+        .methodName("websocketReplayService/resume")
+        .paramsAsListOfString()
+        .noResult()
+        .withBiConsumer(
+            (endpointId, params) ->
+                reSender.resume(endpointId, params.get(0), Long.parseLong(params.get(1))));
+
+    requestHandlerConfigurator
+        .newConfiguration()
+        .methodName("websocketReplayService/acknowledge")
+        .paramsAsListOfString()
+        .noResult()
+        .withBiConsumer(
+            (endpointId, params) ->
+                reSender.acknowledge(endpointId, params.get(0), Long.parseLong(params.get(1))));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.commons;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.function.BiConsumer;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link JsonRpcPromise} */
+@Listeners(MockitoTestNGListener.class)
+public class JsonRpcPromiseTest {
+  static final String ENDPOINT_ID = "endpoint-id";
+
+  @Mock BiConsumer<String, String> successConsumer;
+  @Mock BiConsumer<String, JsonRpcError> failureConsumer;
+
+  @Test
+  public void shouldCallSuccessConsumerOnResolve() throws Exception {
+    JsonRpcPromise<String> promise = new JsonRpcPromise<>();
+    promise.onSuccess(successConsumer);
+    promise.onFailure(failureConsumer);
+
+    promise.resolve(ENDPOINT_ID, "result");
+
+    verify(successConsumer).accept(ENDPOINT_ID, "result");
+    verify(failureConsumer, never()).accept(anyString(), any());
+  }
+
+  @Test
+  public void shouldCallSuccessConsumerWhenItIsSetAfterResolve() throws Exception {
+    JsonRpcPromise<String> promise = new JsonRpcPromise<>();
+
+    promise.resolve(ENDPOINT_ID, "result");
+    promise.onSuccess(successConsumer);
+    promise.onFailure(failureConsumer);
+
+    verify(successConsumer).accept(ENDPOINT_ID, "result");
+    verify(failureConsumer, never()).accept(anyString(), any());
+  }
+
+  @Test
+  public void shouldCallFailureConsumerWhenItIsSetAfterReject() throws Exception {
+    JsonRpcPromise<String> promise = new JsonRpcPromise<>();
+    JsonRpcError error = new JsonRpcError(-27000, "error");
+
+    promise.reject(ENDPOINT_ID, error);
+    promise.onSuccess(successConsumer);
+    promise.onFailure(failureConsumer);
+
+    verify(failureConsumer).accept(ENDPOINT_ID, error);
+    verify(successConsumer, never()).accept(anyString(), any());
+  }
+
+  @Test
+  public void shouldIgnoreSettlementOfSettledPromise() throws Exception {
+    JsonRpcPromise<String> promise = new JsonRpcPromise<>();
+    promise.onSuccess(successConsumer);
+    promise.onFailure(failureConsumer);
+
+    promise.resolve(ENDPOINT_ID, "result");
+    promise.resolve(ENDPOINT_ID, "other");
+    promise.reject(ENDPOINT_ID, new JsonRpcError(-27000, "error"));
+
+    verify(successConsumer).accept(ENDPOINT_ID, "result");
+    verify(successConsumer, never()).accept(ENDPOINT_ID, "other");
+    verify(failureConsumer, never()).accept(anyString(), any());
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcRequest;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcResponse;
+import org.testng.annotations.Test;
+
+/** Tests for {@link GsonJsonRpcMessageDecoder} */
+public class GsonJsonRpcMessageDecoderTest {
+  static final String REQUEST =
+      "{\"jsonrpc\":\"2.0\",\"id\":\"0\",\"method\":\"method\",\"params\":{\"key\":\"value\"}}";
+  static final String NOTIFICATION =
+      "{\"jsonrpc\":\"2.0\",\"method\":\"method\",\"params\":[1,\"two\",true,null]}";
+  static final String RESULT_RESPONSE = "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":[{\"a\":1}]}";
+  static final String ERROR_RESPONSE =
+      "{\"jsonrpc\":\"2.0\",\"id\":\"2\",\"error\":{\"code\":-32601,\"message\":\"error\"}}";
+
+  GsonJsonRpcMessageDecoder decoder = new GsonJsonRpcMessageDecoder(new JsonParser());
+
+  @Test
+  public void shouldDecodeRequest() throws Exception {
+    List<Object> messages = decoder.decode(REQUEST);
+
+    assertEquals(messages.size(), 1);
+    JsonRpcRequest request = (JsonRpcRequest) messages.get(0);
+    assertEquals(request.getId(), "0");
+    assertEquals(request.getMethod(), "method");
+    assertTrue(request.getParams().isSingle());
+    assertEquals(((JsonObject) request.getParams().getOne()).get("key").getAsString(), "value");
+  }
+
+  @Test
+  public void shouldDecodeNotificationWithListParams() throws Exception {
+    JsonRpcRequest request = (JsonRpcRequest) decoder.decode(NOTIFICATION).get(0);
+
+    assertFalse(request.hasId());
+    assertFalse(request.getParams().isSingle());
+    List<?> params = request.getParams().getMany();
+    assertEquals(params.get(0), 1.0);
+    assertEquals(params.get(1), "two");
+    assertEquals(params.get(2), true);
+    assertNull(params.get(3));
+  }
+
+  @Test
+  public void shouldDecodeResultResponse() throws Exception {
+    JsonRpcResponse response = (JsonRpcResponse) decoder.decode(RESULT_RESPONSE).get(0);
+
+    assertEquals(response.getId(), "1");
+    assertTrue(response.hasResult());
+    assertFalse(response.hasError());
+  }
+
+  @Test
+  public void shouldDecodeErrorResponse() throws Exception {
+    JsonRpcResponse response = (JsonRpcResponse) decoder.decode(ERROR_RESPONSE).get(0);
+
+    assertEquals(response.getId(), "2");
+    assertTrue(response.hasError());
+    assertEquals(response.getError().getCode(), -32601);
+    assertEquals(response.getError().getMessage(), "error");
+  }
+
+  @Test
+  public void shouldDecodeBatchInOrder() throws Exception {
+    List<Object> messages =
+        decoder.decode("[" + REQUEST + "," + RESULT_RESPONSE + "," + NOTIFICATION + "]");
+
+    assertEquals(messages.size(), 3);
+    assertTrue(messages.get(0) instanceof JsonRpcRequest);
+    assertTrue(messages.get(1) instanceof JsonRpcResponse);
+    assertTrue(messages.get(2) instanceof JsonRpcRequest);
+  }
+
+  @Test(expectedExceptions = JsonParseException.class)
+  public void shouldThrowExceptionOnInvalidJson() throws Exception {
+    decoder.decode("{\"jsonrpc\":\"2.0\",");
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void shouldThrowExceptionOnUnqualifiedMessage() throws Exception {
+    decoder.decode("{\"jsonrpc\":\"2.0\",\"id\":\"0\"}");
+  }
+}
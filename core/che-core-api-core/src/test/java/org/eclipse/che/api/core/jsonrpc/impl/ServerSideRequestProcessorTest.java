@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.jsonrpc.impl;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.api.core.jsonrpc.impl.ServerSideRequestProcessor.OTHER_METHODS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ServerSideRequestProcessor} */
+public class ServerSideRequestProcessorTest {
+  static final String NOISY_ENDPOINT = "noisy-endpoint";
+  static final String QUIET_ENDPOINT = "quiet-endpoint";
+  static final String METHOD = "method";
+  static final String PRIORITY_METHOD = "$/cancelRequest";
+
+  ServerSideRequestProcessor processor;
+  CountDownLatch blocker;
+  List<String> processed;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    processor = new ServerSideRequestProcessor(1, 100, 10, PRIORITY_METHOD, METHOD::equals);
+    processor.postConstruct();
+    blocker = new CountDownLatch(1);
+    processed = new CopyOnWriteArrayList<>();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    blocker.countDown();
+    processor.preDestroy();
+  }
+
+  @Test
+  public void shouldNotLetNoisyEndpointDelayQuietEndpoint() throws Exception {
+    blockSingleWorker();
+    for (int i = 0; i < 50; i++) {
+      processor.process(NOISY_ENDPOINT, METHOD, record(NOISY_ENDPOINT));
+    }
+    CountDownLatch quietProcessed = new CountDownLatch(1);
+    processor.process(
+        QUIET_ENDPOINT,
+        METHOD,
+        () -> {
+          processed.add(QUIET_ENDPOINT);
+          quietProcessed.countDown();
+        });
+
+    blocker.countDown();
+
+    assertTrue(quietProcessed.await(5, SECONDS));
+    assertTrue(processed.indexOf(QUIET_ENDPOINT) <= 2);
+  }
+
+  @Test
+  public void shouldProcessPriorityMethodsFirst() throws Exception {
+    blockSingleWorker();
+    processor.process(NOISY_ENDPOINT, METHOD, record(METHOD));
+    CountDownLatch priorityProcessed = new CountDownLatch(1);
+    processor.process(
+        NOISY_ENDPOINT,
+        PRIORITY_METHOD,
+        () -> {
+          processed.add(PRIORITY_METHOD);
+          priorityProcessed.countDown();
+        });
+
+    blocker.countDown();
+
+    assertTrue(priorityProcessed.await(5, SECONDS));
+    assertEquals(processed.get(0), PRIORITY_METHOD);
+  }
+
+  @Test(expectedExceptions = RejectedExecutionException.class)
+  public void shouldRejectRequestsWhenEndpointQueueIsFull() throws Exception {
+    blockSingleWorker();
+    for (int i = 0; i <= 100; i++) {
+      processor.process(NOISY_ENDPOINT, METHOD, record(NOISY_ENDPOINT));
+    }
+  }
+
+  @Test(expectedExceptions = RejectedExecutionException.class)
+  public void shouldRejectPriorityRequestsWhenPriorityQueueIsFull() throws Exception {
+    blockSingleWorker();
+    for (int i = 0; i <= 100; i++) {
+      processor.process(NOISY_ENDPOINT, PRIORITY_METHOD, record(PRIORITY_METHOD));
+    }
+  }
+
+  @Test
+  public void shouldNotProcessMoreThanMaxInFlightRequestsOfEndpoint() throws Exception {
+    processor.preDestroy();
+    processor = new ServerSideRequestProcessor(2, 100, 1, PRIORITY_METHOD, METHOD::equals);
+    processor.postConstruct();
+    CountDownLatch started = new CountDownLatch(1);
+    processor.process(
+        NOISY_ENDPOINT,
+        METHOD,
+        () -> {
+          started.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    assertTrue(started.await(5, SECONDS));
+    processor.process(NOISY_ENDPOINT, METHOD, record(NOISY_ENDPOINT));
+    CountDownLatch quietProcessed = new CountDownLatch(1);
+    processor.process(QUIET_ENDPOINT, METHOD, quietProcessed::countDown);
+
+    assertTrue(quietProcessed.await(5, SECONDS));
+    assertEquals(processor.getInFlight(NOISY_ENDPOINT), 1);
+    assertEquals(processor.getQueueDepth(NOISY_ENDPOINT), 1);
+
+    CountDownLatch noisyProcessed = new CountDownLatch(1);
+    processor.process(NOISY_ENDPOINT, METHOD, noisyProcessed::countDown);
+    blocker.countDown();
+
+    assertTrue(noisyProcessed.await(5, SECONDS));
+    assertEquals(processed, singletonList(NOISY_ENDPOINT));
+  }
+
+  @Test
+  public void shouldReportQueueDepthAndStatistics() throws Exception {
+    blockSingleWorker();
+    processor.process(NOISY_ENDPOINT, METHOD, record(NOISY_ENDPOINT));
+    processor.process(NOISY_ENDPOINT, METHOD, record(NOISY_ENDPOINT));
+
+    assertEquals(processor.getQueueDepth(NOISY_ENDPOINT), 2);
+
+    CountDownLatch done = new CountDownLatch(1);
+    processor.process(NOISY_ENDPOINT, METHOD, done::countDown);
+    blocker.countDown();
+
+    assertTrue(done.await(5, SECONDS));
+    assertEquals(processor.getQueueDepth(NOISY_ENDPOINT), 0);
+    // statistics are recorded after the request routine completes
+    assertEquals(awaitStatisticsCount(METHOD, 3), 3);
+  }
+
+  @Test
+  public void shouldGroupStatisticsOfUnregisteredMethods() throws Exception {
+    processor.process(NOISY_ENDPOINT, "unknown-1", record(NOISY_ENDPOINT));
+    processor.process(NOISY_ENDPOINT, "unknown-2", record(NOISY_ENDPOINT));
+
+    assertEquals(awaitStatisticsCount(OTHER_METHODS, 2), 2);
+    assertEquals(processor.getStatistics().keySet(), singleton(OTHER_METHODS));
+  }
+
+  private long awaitStatisticsCount(String method, long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + SECONDS.toNanos(5);
+    long count = 0;
+    while (System.nanoTime() < deadline) {
+      ServerSideRequestProcessor.MethodStatistics statistics =
+          processor.getStatistics().get(method);
+      count = statistics == null ? 0 : statistics.getCount();
+      if (count >= expected) {
+        break;
+      }
+      Thread.sleep(10);
+    }
+    return count;
+  }
+
+  private void blockSingleWorker() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    processor.process(
+        () -> {
+          started.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    assertTrue(started.await(5, SECONDS));
+  }
+
+  private Runnable record(String name) {
+    return () -> processed.add(name);
+  }
+}
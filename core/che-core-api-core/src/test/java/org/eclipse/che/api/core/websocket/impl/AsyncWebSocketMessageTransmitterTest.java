@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.FrameAction;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Test for {@link AsyncWebSocketMessageTransmitter} */
+@Listeners(MockitoTestNGListener.class)
+public class AsyncWebSocketMessageTransmitterTest {
+  private static final String MESSAGE = "message";
+  private static final String ENDPOINT_ID = "id";
+
+  @Mock private WebSocketSessionRegistry registry;
+  @Mock private MessagesReSender reSender;
+
+  @Mock private Session session;
+  @Mock private RemoteEndpoint.Async remote;
+
+  private List<String> sent;
+  private List<SendHandler> handlers;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    sent = new ArrayList<>();
+    handlers = new ArrayList<>();
+
+    when(session.getAsyncRemote()).thenReturn(remote);
+    when(session.isOpen()).thenReturn(true);
+    when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
+
+    doAnswer(
+            invocation -> {
+              sent.add(invocation.getArgument(0));
+              handlers.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+  }
+
+  @Test
+  public void shouldSendMessageIfSessionIsOpen() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    assertEquals(sent.size(), 1);
+    assertEquals(sent.get(0), MESSAGE);
+    verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
+  }
+
+  @Test
+  public void shouldAddMessageToPendingIfSessionIsNotOpened() {
+    when(session.isOpen()).thenReturn(false);
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    verify(remote, never()).sendText(anyString(), any(SendHandler.class));
+    verify(reSender).add(ENDPOINT_ID, MESSAGE);
+  }
+
+  @Test
+  public void shouldQueueMessagesUntilPreviousSendIsCompleted() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+
+    assertEquals(sent.size(), 1);
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 1);
+
+    complete(0);
+
+    assertEquals(sent.size(), 2);
+    assertEquals(sent.get(1), "second");
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 0);
+
+    complete(1);
+
+    assertEquals(transmitter.getSentMessages(), 2);
+  }
+
+  @Test
+  public void shouldSendNextMessageWhenSendCompletesSynchronously() {
+    doAnswer(
+            invocation -> {
+              sent.add(invocation.getArgument(0));
+              ((SendHandler) invocation.getArgument(1)).onResult(new SendResult());
+              return null;
+            })
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+
+    assertEquals(sent.size(), 2);
+    assertEquals(transmitter.getSentMessages(), 2);
+  }
+
+  @Test
+  public void shouldDropOldestMessagesWhenPendingLimitIsExceeded() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(10, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, "12345");
+    transmitter.transmit(ENDPOINT_ID, "67890");
+    transmitter.transmit(ENDPOINT_ID, "abcde");
+
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 2);
+    assertEquals(transmitter.getDroppedMessages(), 1);
+
+    complete(0);
+
+    assertEquals(sent.get(1), "67890");
+  }
+
+  @Test
+  public void shouldNotDropResponsesWhenPendingLimitIsExceeded() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(40, false, "");
+    String response = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"result\":1}";
+
+    transmitter.transmit(ENDPOINT_ID, "in-flight");
+    transmitter.transmit(ENDPOINT_ID, response);
+    transmitter.transmit(ENDPOINT_ID, "12345");
+    transmitter.transmit(ENDPOINT_ID, "67890");
+
+    assertEquals(transmitter.getDroppedMessages(), 1);
+
+    complete(0);
+
+    assertEquals(sent.get(1), response);
+  }
+
+  @Test
+  public void shouldPassMessagesToReSenderWhenSendFails() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+    handlers.get(0).onResult(new SendResult(new IOException("broken pipe")));
+
+    verify(reSender).add(ENDPOINT_ID, MESSAGE);
+    assertEquals(transmitter.getSentMessages(), 0);
+  }
+
+  @Test
+  public void shouldPassMessagesToReSenderWhenSendThrowsException() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+    doThrow(new IllegalStateException("closed"))
+        .when(remote)
+        .sendText(anyString(), any(SendHandler.class));
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    verify(reSender).add(ENDPOINT_ID, MESSAGE);
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 0);
+  }
+
+  @Test
+  public void shouldRemoveOutboxWhenSessionIsRemoved() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+    ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+    verify(registry).addRemovalListener(listener.capture());
+
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+    listener.getValue().accept(ENDPOINT_ID);
+
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 1);
+
+    complete(0);
+    complete(1);
+
+    assertEquals(sent, Arrays.asList("first", "second"));
+    assertEquals(transmitter.getOutboxCount(), 0);
+  }
+
+  @Test
+  public void shouldNotPassFramesKeptByReSenderBackWhenSendFails() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+    when(reSender.write(ENDPOINT_ID, MESSAGE, singletonList(MESSAGE)))
+        .thenReturn(FrameAction.WRITE_KEPT);
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+    handlers.get(0).onResult(new SendResult(new IOException("broken pipe")));
+
+    verify(reSender).write(ENDPOINT_ID, MESSAGE, singletonList(MESSAGE));
+    verify(reSender, never()).add(ENDPOINT_ID, MESSAGE);
+  }
+
+  @Test
+  public void shouldHoldMessagesUntilSessionIsResumed() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+    when(reSender.holdIfAwaitingResume(ENDPOINT_ID, MESSAGE)).thenReturn(true);
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    verify(remote, never()).sendText(anyString(), any(SendHandler.class));
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 0);
+  }
+
+  @Test
+  public void shouldNotWriteFramesHeldByReSender() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+    when(reSender.write(ENDPOINT_ID, MESSAGE, singletonList(MESSAGE))).thenReturn(FrameAction.HELD);
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+    verify(remote, never()).sendText(anyString(), any(SendHandler.class));
+    verify(reSender, never()).add(ENDPOINT_ID, MESSAGE);
+  }
+
+  @Test
+  public void shouldCoalescePendingMessagesIntoBatch() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, true, "");
+
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":\"1\"}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":\"2\"}");
+    transmitter.transmit(ENDPOINT_ID, "{\"id\":\"3\"}");
+
+    complete(0);
+
+    assertEquals(sent.size(), 2);
+    assertEquals(sent.get(1), "[{\"id\":\"2\"},{\"id\":\"3\"}]");
+
+    complete(1);
+
+    assertEquals(transmitter.getSentBatches(), 2);
+    assertEquals(transmitter.getSentMessages(), 3);
+  }
+
+  @Test
+  public void shouldNotQueueTheSameCompactableNotificationTwice() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "event:file");
+    String notification = "{\"jsonrpc\":\"2.0\",\"method\":\"event:file\",\"params\":{}}";
+
+    transmitter.transmit(ENDPOINT_ID, MESSAGE);
+    transmitter.transmit(ENDPOINT_ID, notification);
+    transmitter.transmit(ENDPOINT_ID, notification);
+
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 1);
+    assertEquals(transmitter.getCompactedMessages(), 1);
+  }
+
+  @Test
+  public void shouldPassPendingMessagesToReSenderWhenSessionIsClosed() {
+    AsyncWebSocketMessageTransmitter transmitter = newTransmitter(1024, false, "");
+
+    transmitter.transmit(ENDPOINT_ID, "first");
+    transmitter.transmit(ENDPOINT_ID, "second");
+    when(session.isOpen()).thenReturn(false);
+
+    complete(0);
+
+    verify(remote, times(1)).sendText(anyString(), any(SendHandler.class));
+    verify(reSender).add(ENDPOINT_ID, "second");
+    assertEquals(transmitter.getQueueDepth(ENDPOINT_ID), 0);
+  }
+
+  private AsyncWebSocketMessageTransmitter newTransmitter(
+      long maxPendingBytes, boolean coalesce, String compactableMethods) {
+    return new AsyncWebSocketMessageTransmitter(
+        registry, reSender, maxPendingBytes, coalesce, compactableMethods);
+  }
+
+  private void complete(int index) {
+    handlers.get(index).onResult(new SendResult());
+  }
+}
@@ -10,17 +10,25 @@
  */
 package org.eclipse.che.api.core.websocket.impl;
 
+import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
-import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
-import org.mockito.InjectMocks;
+import org.eclipse.che.api.core.websocket.commons.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.impl.MessagesReSender.FrameAction;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
@@ -35,23 +43,20 @@ import org.testng.annotations.Test;
 public class MessagesReSenderTest {
   private static final String MESSAGE = "message";
   private static final String ENDPOINT_ID = "id";
+  private static final String REPLAY_ID = "replay";
 
   @Mock private WebSocketSessionRegistry sessionRegistry;
-  @InjectMocks private MessagesReSender reSender;
-
+  @Mock private WebSocketMessageTransmitter transmitter;
   @Mock private Session session;
-  @Mock private RemoteEndpoint.Async endpoint;
+
+  private MessagesReSender reSender;
 
   @BeforeMethod
   public void beforeMethod() {
     when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-    when(session.getAsyncRemote()).thenReturn(endpoint);
     when(session.isOpen()).thenReturn(true);
-  }
 
-  @BeforeMethod
-  public void before() {
-    reSender = new MessagesReSender(sessionRegistry);
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter);
   }
 
   @Test
@@ -63,8 +68,8 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(ENDPOINT_ID, MESSAGE);
+    assertEquals(reSender.getPendingCount(ENDPOINT_ID), 1);
   }
 
   @Test
@@ -74,14 +79,12 @@ public class MessagesReSenderTest {
     when(session.isOpen()).thenReturn(false);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session, never()).getAsyncRemote();
-    verify(endpoint, never()).sendText(MESSAGE);
+    verify(transmitter, never()).transmit(ENDPOINT_ID, MESSAGE);
 
     when(session.isOpen()).thenReturn(true);
     reSender.resend(ENDPOINT_ID);
 
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -91,8 +94,7 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
 
     verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
   }
 
   @Test
@@ -103,10 +105,8 @@ public class MessagesReSenderTest {
     reSender.resend(ENDPOINT_ID);
     reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
   }
 
   @Test
@@ -114,14 +114,10 @@ public class MessagesReSenderTest {
     reSender.add(ENDPOINT_ID, MESSAGE);
 
     reSender.resend(ENDPOINT_ID);
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
-
     reSender.resend(ENDPOINT_ID);
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(session).getAsyncRemote();
-    verify(endpoint).sendText(MESSAGE);
+
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    assertEquals(reSender.getPendingCount(ENDPOINT_ID), 0);
   }
 
   @Test
@@ -129,20 +125,183 @@ public class MessagesReSenderTest {
     reSender.add(ENDPOINT_ID, MESSAGE);
     reSender.add("1", MESSAGE);
 
+    reSender.resend(ENDPOINT_ID);
+    reSender.resend("1");
     reSender.resend(ENDPOINT_ID);
     reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    verify(transmitter).transmit("1", MESSAGE);
+  }
+
+  @Test
+  public void shouldPassMessagesToTransmitterInOrder() {
+    reSender.add(ENDPOINT_ID, "first");
+    reSender.add(ENDPOINT_ID, "second");
 
     reSender.resend(ENDPOINT_ID);
-    reSender.resend("1");
 
-    verify(sessionRegistry).get(ENDPOINT_ID);
-    verify(sessionRegistry).get("1");
-    verify(session, times(2)).getAsyncRemote();
-    verify(endpoint, times(2)).sendText(MESSAGE);
+    InOrder inOrder = Mockito.inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "first");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "second");
+  }
+
+  @Test
+  public void shouldLimitPendingMessagesByEncodedLength() {
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter, 10, "", 1024);
+
+    reSender.add(ENDPOINT_ID, "\u00e9\u00e9\u00e9");
+    reSender.add(ENDPOINT_ID, "\u00e9\u00e9\u00e9");
+
+    assertEquals(reSender.getPendingCount(ENDPOINT_ID), 1);
+    assertEquals(reSender.getDroppedCount(ENDPOINT_ID), 1);
+  }
+
+  @Test
+  public void shouldDropOldestMessagesWhenEndpointLimitIsExceeded() {
+    reSender = new MessagesReSender(sessionRegistry, () -> transmitter, 10, "", 1024);
+
+    reSender.add(ENDPOINT_ID, "12345");
+    reSender.add(ENDPOINT_ID, "67890");
+    reSender.add(ENDPOINT_ID, "abcde");
+
+    assertEquals(reSender.getPendingCount(ENDPOINT_ID), 2);
+    assertEquals(reSender.getDroppedCount(ENDPOINT_ID), 1);
+
+    reSender.resend(ENDPOINT_ID);
+
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "12345");
+    verify(transmitter).transmit(ENDPOINT_ID, "67890");
+    verify(transmitter).transmit(ENDPOINT_ID, "abcde");
+  }
+
+  @Test
+  public void shouldSpillMessagesExceedingEndpointLimitToFile() throws Exception {
+    Path spillDir = Files.createTempDirectory("replay");
+    try {
+      reSender =
+          new MessagesReSender(sessionRegistry, () -> transmitter, 10, spillDir.toString(), 1024);
+
+      reSender.add(ENDPOINT_ID, "12345");
+      reSender.add(ENDPOINT_ID, "67890");
+      reSender.add(ENDPOINT_ID, "abcde");
+
+      assertEquals(reSender.getPendingCount(ENDPOINT_ID), 3);
+      assertEquals(reSender.getDroppedCount(ENDPOINT_ID), 0);
+
+      reSender.resend(ENDPOINT_ID);
+
+      verify(transmitter).transmit(ENDPOINT_ID, "12345");
+      verify(transmitter).transmit(ENDPOINT_ID, "67890");
+      verify(transmitter).transmit(ENDPOINT_ID, "abcde");
+
+      reSender.preDestroy();
+      assertEquals(spillDir.toFile().list().length, 0);
+    } finally {
+      IoUtil.deleteRecursive(spillDir.toFile());
+    }
+  }
+
+  @Test
+  public void shouldReSendUnacknowledgedFramesBeforePendingMessagesOnResume() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 0);
+    write("first");
+    write("second");
+    write("third");
+    reSender.add(ENDPOINT_ID, "pending");
+
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 1);
+
+    InOrder inOrder = Mockito.inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "second");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "third");
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "pending");
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "first");
+    assertEquals(reSender.getUnacknowledgedCount(ENDPOINT_ID), 0);
+  }
+
+  @Test
+  public void shouldRegisterSessionWhenAwaitingResume() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+
+    verify(sessionRegistry).add(ENDPOINT_ID, session);
+  }
+
+  @Test
+  public void shouldRemoveAcknowledgedFrames() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 0);
+    write("first");
+    write("second");
+    write("third");
+
+    reSender.acknowledge(ENDPOINT_ID, REPLAY_ID, 2);
+
+    assertEquals(reSender.getUnacknowledgedCount(ENDPOINT_ID), 1);
+  }
+
+  @Test
+  public void shouldNumberReSentFramesFromTheCountOfClient() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 10);
+    write("first");
+    write("second");
+
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 11);
+    write("second");
+    reSender.acknowledge(ENDPOINT_ID, REPLAY_ID, 12);
+
+    verify(transmitter).transmit(ENDPOINT_ID, "second");
+    assertEquals(reSender.getUnacknowledgedCount(ENDPOINT_ID), 0);
+  }
+
+  @Test
+  public void shouldDropFramesKeptForAnotherReplayIdOnResume() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 0);
+    write("first");
+
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resume(ENDPOINT_ID, "reloaded", 0);
+    reSender.acknowledge(ENDPOINT_ID, REPLAY_ID, 1);
+    write("second");
+
+    verify(transmitter, never()).transmit(ENDPOINT_ID, "first");
+    assertEquals(reSender.getUnacknowledgedCount(ENDPOINT_ID), 1);
+  }
+
+  @Test
+  public void shouldHoldMessagesUntilSessionIsResumed() {
+    reSender.awaitResume(ENDPOINT_ID, session);
+
+    assertTrue(reSender.holdIfAwaitingResume(ENDPOINT_ID, MESSAGE));
+    assertEquals(reSender.write(ENDPOINT_ID, "frame", singletonList("frame")), FrameAction.HELD);
+    verify(transmitter, never()).transmit(anyString(), anyString());
+
+    reSender.resume(ENDPOINT_ID, REPLAY_ID, 0);
+
+    InOrder inOrder = Mockito.inOrder(transmitter);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+    inOrder.verify(transmitter).transmit(ENDPOINT_ID, "frame");
+    assertFalse(reSender.holdIfAwaitingResume(ENDPOINT_ID, MESSAGE));
+    assertEquals(reSender.getPendingCount(ENDPOINT_ID), 0);
+  }
+
+  @Test
+  public void shouldNotKeepFramesOfEndpointWhichDoesNotAcknowledgeThem() {
+    assertEquals(reSender.write(ENDPOINT_ID, MESSAGE, singletonList(MESSAGE)), FrameAction.WRITE);
+
+    reSender.awaitResume(ENDPOINT_ID, session);
+    reSender.resend(ENDPOINT_ID);
+
+    assertEquals(reSender.write(ENDPOINT_ID, MESSAGE, singletonList(MESSAGE)), FrameAction.WRITE);
+    assertFalse(reSender.holdIfAwaitingResume(ENDPOINT_ID, MESSAGE));
+  }
+
+  private void write(String frame) {
+    assertEquals(reSender.write(ENDPOINT_ID, frame, singletonList(frame)), FrameAction.WRITE_KEPT);
   }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.websocket.impl;
+
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ReplayBuffer} */
+public class ReplayBufferTest {
+  private Path spillDir;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    spillDir = Files.createTempDirectory("replay");
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    IoUtil.deleteRecursive(spillDir.toFile());
+  }
+
+  @Test
+  public void shouldRemoveExpiredSpilledMessagesOneByOne() throws Exception {
+    ReplayBuffer buffer = new ReplayBuffer("id", 5, spillDir, 1024);
+    buffer.add("12345");
+    Thread.sleep(10);
+    long expiration = System.currentTimeMillis();
+    Thread.sleep(10);
+    buffer.add("67890");
+    buffer.add("abcde");
+
+    buffer.removeExpired(expiration);
+
+    assertEquals(messages(buffer), Arrays.asList("67890", "abcde"));
+  }
+
+  @Test
+  public void shouldRemoveOldestMessages() {
+    ReplayBuffer buffer = new ReplayBuffer("id", 5, spillDir, 1024);
+    buffer.add("12345");
+    buffer.add("67890");
+    buffer.add("abcde");
+
+    assertEquals(buffer.removeFirst(2), 2);
+    assertEquals(messages(buffer), Arrays.asList("abcde"));
+  }
+
+  @Test
+  public void shouldDropOldestSpilledMessagesWhenSpillFileIsFull() {
+    // fits two spilled records of 5 bytes
+    ReplayBuffer buffer = new ReplayBuffer("id", 5, spillDir, 2 * (12 + 5));
+    buffer.add("12345");
+    buffer.add("67890");
+    buffer.add("abcde");
+    buffer.add("fghij");
+
+    assertEquals(buffer.getDropped(), 1);
+    assertEquals(messages(buffer), Arrays.asList("67890", "abcde", "fghij"));
+  }
+
+  @Test
+  public void shouldDeleteSpillFileWhenNothingIsSpilled() {
+    ReplayBuffer buffer = new ReplayBuffer("id", 5, spillDir, 1024);
+    buffer.add("12345");
+    buffer.add("67890");
+
+    assertEquals(spillDir.toFile().list().length, 1);
+
+    buffer.removeFirst(1);
+
+    assertEquals(spillDir.toFile().list().length, 0);
+    assertEquals(buffer.size(), 1);
+  }
+
+  private static Object messages(ReplayBuffer buffer) {
+    return buffer.drain().stream().map(it -> it.message).collect(toList());
+  }
+}
@@ -13,6 +13,9 @@ package org.eclipse.che.api.core.websocket.impl;
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import javax.websocket.Session;
 import org.mockito.Mock;
@@ -82,4 +85,16 @@ public class WebSocketSessionRegistryTest {
     assertFalse(registry.getSessions().isEmpty());
     assertEquals(2, registry.getSessions().size());
   }
+
+  @Test
+  public void shouldNotifyListenersWhenSessionIsRemoved() {
+    List<String> removed = new ArrayList<>();
+    registry.addRemovalListener(removed::add);
+    registry.add("0", session);
+
+    registry.remove(session);
+    registry.remove("0");
+
+    assertEquals(removed, Collections.singletonList("0"));
+  }
 }
@@ -182,6 +182,23 @@ abstract class DtoImpl {
     return getters.keySet();
   }
 
+  /**
+   * Gets getters of all fields of the DTO implementation including fields declared by
+   * implementations of super DTOs. A field is represented by the getter it was declared for, so a
+   * getter overridden in this DTO is represented by the getter of the super DTO.
+   */
+  protected List<Method> getFieldGetters() {
+    final List<Method> fieldGetters = new ArrayList<>();
+    for (Class<?> dto = dtoInterface; dto != null; dto = getSuperDtoInterface(dto)) {
+      final Map<String, Method> getters = new HashMap<>();
+      addDtoGetters(dto, getters);
+      addSuperGetters(dto, getters);
+      getters.keySet().removeAll(getSuperGetterNames(dto));
+      fieldGetters.addAll(getters.values());
+    }
+    return fieldGetters;
+  }
+
   /**
    * Adds all getters from parent <b>NOT DTO</b> interfaces for given {@code dto} interface. Does
    * not add method when it is already present in getters map.
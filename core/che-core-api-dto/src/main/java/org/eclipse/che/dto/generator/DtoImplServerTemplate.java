@@ -10,7 +10,10 @@
 package org.eclipse.che.dto.generator;
 
 import com.google.common.primitives.Primitives;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -21,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
+import org.eclipse.che.dto.server.JsonStreams;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
 import org.eclipse.che.dto.shared.DTOImpl;
 import org.eclipse.che.dto.shared.DelegateRule;
@@ -32,6 +36,9 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 public class DtoImplServerTemplate extends DtoImpl {
   private static final String JSON_ARRAY_IMPL = JsonArrayImpl.class.getCanonicalName();
   private static final String JSON_MAP_IMPL = JsonStringMapImpl.class.getCanonicalName();
+  private static final String JSON_STREAMS = JsonStreams.class.getCanonicalName();
+  private static final String TYPE_ADAPTER = TypeAdapter.class.getCanonicalName();
+  private static final String TYPE_ADAPTER_FACTORY = "GsonTypeAdapterFactory";
   private static final String SERVER_DTO_MARKER =
       "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
 
@@ -69,6 +76,7 @@ public class DtoImplServerTemplate extends DtoImpl {
     emitDeserializer(methods, builder);
     emitDeserializerShortcut(builder);
     emitCopyConstructor(methods, builder);
+    emitTypeAdapter(builder);
     // Delegation DTO methods.
     emitDelegateMethods(builder);
     // "builder" method, it is method that set field and return "this" instance
@@ -387,6 +395,14 @@ public class DtoImplServerTemplate extends DtoImpl {
 
   private void emitPreamble(Class<?> dtoInterface, StringBuilder builder) {
     builder.append(SERVER_DTO_MARKER);
+    builder
+        .append("  @")
+        .append(JsonAdapter.class.getCanonicalName())
+        .append("(")
+        .append(getImplClassName())
+        .append(".")
+        .append(TYPE_ADAPTER_FACTORY)
+        .append(".class)\n");
     builder.append("  public static class ");
     builder.append(getImplClassName());
 
@@ -554,6 +570,212 @@ public class DtoImplServerTemplate extends DtoImpl {
     builder.append("    }\n\n");
   }
 
+  /**
+   * Emits a streaming Gson type adapter which reads and writes fields directly, so neither
+   * reflection nor intermediate JSON trees are involved in (de)serialization. The adapter is bound
+   * to the implementation with {@link JsonAdapter} and writes the same JSON as reflective Gson
+   * does.
+   */
+  private void emitTypeAdapter(StringBuilder builder) {
+    final String implClassName = getImplClassName();
+    final List<Method> fieldGetters = getFieldGetters();
+
+    builder
+        .append("    public static class ")
+        .append(TYPE_ADAPTER_FACTORY)
+        .append(" implements com.google.gson.TypeAdapterFactory {\n");
+    builder.append("      @Override\n");
+    builder
+        .append("      public <T> ")
+        .append(TYPE_ADAPTER)
+        .append("<T> create(Gson gson, com.google.gson.reflect.TypeToken<T> type) {\n");
+    builder
+        .append("        if (type.getRawType() != ")
+        .append(implClassName)
+        .append(".class) {\n");
+    builder.append("          return null;\n");
+    builder.append("        }\n");
+    builder
+        .append("        return (")
+        .append(TYPE_ADAPTER)
+        .append("<T>) new GsonTypeAdapter(gson);\n");
+    builder.append("      }\n");
+    builder.append("    }\n\n");
+
+    builder
+        .append("    private static class GsonTypeAdapter extends ")
+        .append(TYPE_ADAPTER)
+        .append("<")
+        .append(implClassName)
+        .append("> {\n");
+    builder.append("      private final Gson gson;\n");
+    for (Method getter : fieldGetters) {
+      if (!isStreamedDirectly(getter.getReturnType())) {
+        builder
+            .append("      private final ")
+            .append(TYPE_ADAPTER)
+            .append("<")
+            .append(getAdaptedTypeName(getter.getGenericReturnType()))
+            .append("> ")
+            .append(getJavaFieldName(getter.getName()))
+            .append("Adapter;\n");
+      }
+    }
+    builder.append("\n");
+    builder.append("      GsonTypeAdapter(Gson gson) {\n");
+    builder.append("        this.gson = gson;\n");
+    for (Method getter : fieldGetters) {
+      if (!isStreamedDirectly(getter.getReturnType())) {
+        final Type type = getter.getGenericReturnType();
+        builder
+            .append("        this.")
+            .append(getJavaFieldName(getter.getName()))
+            .append("Adapter = gson.getAdapter(");
+        if (type instanceof Class<?>) {
+          builder.append(((Class<?>) type).getCanonicalName()).append(".class");
+        } else {
+          builder
+              .append("new com.google.gson.reflect.TypeToken<")
+              .append(getImplName(type, false))
+              .append(">() {}");
+        }
+        builder.append(");\n");
+      }
+    }
+    builder.append("      }\n\n");
+
+    builder.append("      @Override\n");
+    builder
+        .append("      public void write(com.google.gson.stream.JsonWriter out, ")
+        .append(implClassName)
+        .append(" value)\n");
+    builder.append("          throws java.io.IOException {\n");
+    builder.append("        if (value == null) {\n");
+    builder.append("          out.nullValue();\n");
+    builder.append("          return;\n");
+    builder.append("        }\n");
+    builder.append("        out.beginObject();\n");
+    for (Method getter : fieldGetters) {
+      final String fieldName = getJavaFieldName(getter.getName());
+      final Type type = getter.getGenericReturnType();
+      final Class<?> rawClass = getter.getReturnType();
+      builder
+          .append("        out.name(")
+          .append(quoteStringLiteral(getJsonFieldName(getter)))
+          .append(");\n");
+      if (isStreamedDirectly(rawClass)) {
+        builder.append("        out.value(value.").append(fieldName).append(");\n");
+      } else if (type instanceof Class<?> && isPolymorphic(rawClass)) {
+        builder
+            .append("        ")
+            .append(JSON_STREAMS)
+            .append(".write(gson, ")
+            .append(fieldName)
+            .append("Adapter, ")
+            .append(rawClass.getCanonicalName())
+            .append(".class, out, value.")
+            .append(fieldName)
+            .append(");\n");
+      } else {
+        builder
+            .append("        ")
+            .append(fieldName)
+            .append("Adapter.write(out, value.")
+            .append(fieldName)
+            .append(");\n");
+      }
+    }
+    builder.append("        out.endObject();\n");
+    builder.append("      }\n\n");
+
+    builder.append("      @Override\n");
+    builder
+        .append("      public ")
+        .append(implClassName)
+        .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+    builder
+        .append("        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+        .append("          in.nextNull();\n")
+        .append("          return null;\n")
+        .append("        }\n");
+    builder
+        .append("        ")
+        .append(implClassName)
+        .append(" value = new ")
+        .append(implClassName)
+        .append("();\n");
+    builder.append("        try {\n");
+    builder.append("          in.beginObject();\n");
+    builder.append("          while (in.hasNext()) {\n");
+    builder.append("            switch (in.nextName()) {\n");
+    for (Method getter : fieldGetters) {
+      final String fieldName = getJavaFieldName(getter.getName());
+      final Class<?> rawClass = getter.getReturnType();
+      builder
+          .append("              case ")
+          .append(quoteStringLiteral(getJsonFieldName(getter)))
+          .append(":\n");
+      builder.append("                value.").append(fieldName).append(" = ");
+      if (rawClass == String.class) {
+        builder.append(JSON_STREAMS).append(".readString(in)");
+      } else if (isStreamedDirectly(rawClass)) {
+        builder
+            .append(JSON_STREAMS)
+            .append(".read")
+            .append(Character.toUpperCase(rawClass.getName().charAt(0)))
+            .append(rawClass.getName().substring(1))
+            .append("(in, value.")
+            .append(fieldName)
+            .append(")");
+      } else if (rawClass.isPrimitive()) {
+        // JSON null doesn't change primitive field
+        builder
+            .append(JSON_STREAMS)
+            .append(".read(")
+            .append(fieldName)
+            .append("Adapter, in, value.")
+            .append(fieldName)
+            .append(")");
+      } else {
+        builder.append(fieldName).append("Adapter.read(in)");
+      }
+      builder.append(";\n");
+      builder.append("                break;\n");
+    }
+    builder.append("              default:\n");
+    builder.append("                in.skipValue();\n");
+    builder.append("            }\n");
+    builder.append("          }\n");
+    builder.append("          in.endObject();\n");
+    builder.append("        } catch (IllegalStateException x) {\n");
+    builder.append("          throw new com.google.gson.JsonSyntaxException(x);\n");
+    builder.append("        }\n");
+    builder.append("        return value;\n");
+    builder.append("      }\n");
+    builder.append("    }\n\n");
+  }
+
+  /** Tests whether values of the given type are read and written without a Gson type adapter. */
+  private static boolean isStreamedDirectly(Class<?> type) {
+    return type == String.class || type == boolean.class || type == int.class || type == long.class;
+  }
+
+  /**
+   * Tests whether a field of the given type may hold values of other types, Gson serializes such
+   * values according to their runtime type.
+   */
+  private static boolean isPolymorphic(Class<?> type) {
+    return !type.isPrimitive() && !type.isEnum() && !Modifier.isFinal(type.getModifiers());
+  }
+
+  /** Returns the type argument of the adapter for the field of the given type. */
+  private String getAdaptedTypeName(Type type) {
+    if (type instanceof Class<?> && ((Class<?>) type).isPrimitive()) {
+      return Primitives.wrap((Class<?>) type).getCanonicalName();
+    }
+    return getImplName(type, false);
+  }
+
   private void emitDeepCopyForGetters(
       List<Type> expandedTypes,
       int depth,
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.dto.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Helpers for the type adapters generated for server DTO implementations.
+ *
+ * <p>Values are read exactly as Gson's built-in adapters read them, so generated adapters accept
+ * the same JSON as reflective serialization did.
+ */
+public final class JsonStreams {
+
+  /** Reads a string, JSON null is read as null and booleans and numbers as their text. */
+  public static String readString(JsonReader in) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+    return in.nextString();
+  }
+
+  /** Reads a boolean or returns {@code defaultValue} if the value is JSON null. */
+  public static boolean readBoolean(JsonReader in, boolean defaultValue) throws IOException {
+    final JsonToken token = in.peek();
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(in.nextString());
+    }
+    return in.nextBoolean();
+  }
+
+  /** Reads an int or returns {@code defaultValue} if the value is JSON null. */
+  public static int readInt(JsonReader in, int defaultValue) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException x) {
+      throw new JsonSyntaxException(x);
+    }
+  }
+
+  /** Reads a long or returns {@code defaultValue} if the value is JSON null. */
+  public static long readLong(JsonReader in, long defaultValue) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return defaultValue;
+    }
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException x) {
+      throw new JsonSyntaxException(x);
+    }
+  }
+
+  /**
+   * Reads a value with the given adapter or returns {@code defaultValue} if the adapter reads
+   * null. Used for primitive fields which keep their value when JSON contains null.
+   */
+  public static <T> T read(TypeAdapter<T> adapter, JsonReader in, T defaultValue)
+      throws IOException {
+    final T value = adapter.read(in);
+    return value != null ? value : defaultValue;
+  }
+
+  /**
+   * Writes a value of a field which may hold a subtype of its declared type. As Gson does for
+   * reflectively serialized fields, the adapter of the runtime type is used when it differs from
+   * the declared one, e.g. a DTO field holding an implementation of a sub DTO.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void write(
+      Gson gson, TypeAdapter<T> adapter, Class<?> declaredType, JsonWriter out, T value)
+      throws IOException {
+    if (value != null && value.getClass() != declaredType) {
+      ((TypeAdapter<Object>) gson.getAdapter(value.getClass())).write(out, value);
+    } else {
+      adapter.write(out, value);
+    }
+  }
+
+  private JsonStreams() {}
+}
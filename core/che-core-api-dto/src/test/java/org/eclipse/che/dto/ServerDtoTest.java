@@ -189,6 +189,32 @@ public class ServerDtoTest {
     dtoFactory.toJson(dto1);
   }
 
+  @Test
+  public void testSerializerWritesFieldsInheritedFromSuperDtoImplementation() throws Exception {
+    GrandchildDto dto = dtoFactory.createDto(GrandchildDto.class);
+    dto.setParentField("parent-field");
+    dto.setChildField("child-field");
+    dto.setShadowedField(dtoFactory.createDto(GrandchildDto.class).withDtoField("dto-field"));
+
+    JsonObject json = new JsonParser().parse(dtoFactory.toJson(dto)).getAsJsonObject();
+
+    assertEquals(json.get("parentField").getAsString(), "parent-field");
+    assertEquals(json.get("childField").getAsString(), "child-field");
+    assertEquals(
+        json.get("shadowedField").getAsJsonObject().get("dtoField").getAsString(), "dto-field");
+    assertEquals(dtoFactory.createDtoFromJson(json.toString(), GrandchildDto.class), dto);
+  }
+
+  @Test
+  public void testDeserializerSkipsUnknownFieldsAndKeepsPrimitivesOnNull() throws Exception {
+    SimpleDto dto =
+        dtoFactory.createDtoFromJson(
+            "{\"id\":null,\"unknown\":{\"a\":[1,2]},\"name\":\"Something\"}", SimpleDto.class);
+
+    assertEquals(dto.getId(), 0);
+    assertEquals(dto.getName(), "Something");
+  }
+
   /** Intentionally call several times to ensure non-reference equality */
   private static JsonElement createTestValueForAny() {
     return new JsonParser().parse("{a:100,b:{c:'blah'}}");
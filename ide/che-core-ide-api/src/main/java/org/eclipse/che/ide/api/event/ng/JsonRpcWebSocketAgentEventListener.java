@@ -96,7 +96,9 @@ public class JsonRpcWebSocketAgentEventListener implements WsAgentStateHandler {
     String execAgentUrl = devMachine.getExecAgentUrl();
     String separator = wsAgentUrl.contains("?") ? "&" : "?";
     String queryParams =
-        appContext.getApplicationWebsocketId().map(id -> separator + "clientId=" + id).orElse("");
+        separator
+            + "acknowledge=true"
+            + appContext.getApplicationWebsocketId().map(id -> "&clientId=" + id).orElse("");
     Set<Runnable> initActions =
         appContext.getApplicationWebsocketId().isPresent()
             ? emptySet()
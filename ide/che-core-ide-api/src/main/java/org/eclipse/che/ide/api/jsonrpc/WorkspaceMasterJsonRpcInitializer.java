@@ -86,6 +86,7 @@ public class WorkspaceMasterJsonRpcInitializer {
                   separator
                       + "token="
                       + token
+                      + "&acknowledge=true"
                       + appContext
                           .getApplicationWebsocketId()
                           .map(id -> "&clientId=" + id)
@@ -160,6 +160,9 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
     if (expression.getSkipCount() != 0) {
       queryParameters.append("&skipCount=").append(expression.getSkipCount());
     }
+    if (expression.getCursor() != null) {
+      queryParameters.append("&cursor=").append(expression.getCursor());
+    }
 
     return reqFactory
         .createGetRequest(url + queryParameters.toString().replaceFirst("&", "?"))
@@ -172,14 +175,17 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
                   List<SearchResultDto> itemReferences = searchResultDto.getItemReferences();
                   if (itemReferences == null || itemReferences.isEmpty()) {
                     return new SearchResult(
-                        Collections.emptyList(), searchResultDto.getTotalHits());
+                        Collections.emptyList(),
+                        searchResultDto.getTotalHits(),
+                        searchResultDto.getNextPageCursor());
                   }
                   return new SearchResult(
                       itemReferences
                           .stream()
                           .map(SearchItemReference::new)
                           .collect(Collectors.toList()),
-                      searchResultDto.getTotalHits());
+                      searchResultDto.getTotalHits(),
+                      searchResultDto.getNextPageCursor());
                 });
   }
 
@@ -17,6 +17,7 @@ public class QueryExpression {
   private String text;
   private int maxItems;
   private int skipCount;
+  private String cursor;
 
   /**
    * Get path to start search.
@@ -124,4 +125,25 @@ public class QueryExpression {
     this.skipCount = skipCount;
     return this;
   }
+
+  /**
+   * Get cursor of the page to search.
+   *
+   * @return cursor returned with the previous page of results or {@code null}
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Set cursor of the page to search. Cursor is returned with the previous page of results, it
+   * lets server continue search from the previous page instead of skipping {@code skipCount} items.
+   *
+   * @param cursor cursor returned with the previous page of results or {@code null}
+   * @return this {@code QueryExpression}
+   */
+  public QueryExpression setCursor(String cursor) {
+    this.cursor = cursor;
+    return this;
+  }
 }
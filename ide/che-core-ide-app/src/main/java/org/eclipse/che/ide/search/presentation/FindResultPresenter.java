@@ -18,6 +18,7 @@ import com.google.gwt.user.client.ui.IsWidget;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.web.bindery.event.shared.EventBus;
+import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.che.ide.CoreLocalizationConstant;
 import org.eclipse.che.ide.Resources;
@@ -52,7 +53,11 @@ public class FindResultPresenter extends BasePresenter
   private final Resources resources;
   private final FindResultView view;
 
-  private int skipCount = 0;
+  /** Cursors of the pages shown so far, {@code null} for the first page. */
+  private final List<String> pageCursors = new ArrayList<>();
+
+  private int page;
+  private String nextPageCursor;
   private QueryExpression queryExpression;
   private String requestedString;
 
@@ -109,11 +114,15 @@ public class FindResultPresenter extends BasePresenter
   public void handleResponse(SearchResult result, QueryExpression queryExpression, String request) {
     this.queryExpression = queryExpression;
     this.requestedString = request;
+    page = 0;
+    pageCursors.clear();
+    pageCursors.add(null);
+    nextPageCursor = result.getNextPageCursor();
     workspaceAgent.openPart(this, PartStackType.INFORMATION);
     workspaceAgent.setActivePart(this);
 
     view.setPreviousBtnActive(false);
-    view.setNextBtnActive(result.getItemReferences().size() == SEARCH_RESULT_ITEMS);
+    view.setNextBtnActive(nextPageCursor != null);
     view.showResults(result, request);
   }
 
@@ -124,41 +133,46 @@ public class FindResultPresenter extends BasePresenter
 
   @Override
   public void onNextButtonClicked() {
-    queryExpression.setSkipCount(skipCount + SEARCH_RESULT_ITEMS);
+    if (nextPageCursor == null) {
+      return;
+    }
+    showPage(page + 1, nextPageCursor);
+  }
+
+  @Override
+  public void onPreviousButtonClicked() {
+    if (page == 0) {
+      return;
+    }
+    showPage(page - 1, pageCursors.get(page - 1));
+  }
+
+  /**
+   * Searches the page with the given cursor, server continues search from the cursor instead of
+   * skipping the preceding results.
+   */
+  private void showPage(int requestedPage, String cursor) {
+    queryExpression.setSkipCount(requestedPage * SEARCH_RESULT_ITEMS);
+    queryExpression.setCursor(cursor);
     projectServiceClient
         .search(queryExpression)
         .then(
             result -> {
-              List<SearchItemReference> itemReferences = result.getItemReferences();
-              skipCount += itemReferences.size();
-              view.setPreviousBtnActive(true);
-              if (itemReferences.isEmpty()) {
+              if (result.getItemReferences().isEmpty()) {
+                // results were removed since the previous page was shown
+                nextPageCursor = null;
                 view.setNextBtnActive(false);
                 return;
               }
-              if (itemReferences.size() % SEARCH_RESULT_ITEMS == 0) {
-                view.setNextBtnActive(true);
+              page = requestedPage;
+              if (pageCursors.size() == page) {
+                pageCursors.add(cursor);
               } else {
-                skipCount += SEARCH_RESULT_ITEMS;
-                view.setNextBtnActive(false);
+                pageCursors.set(page, cursor);
               }
-              view.showResults(result, requestedString);
-            });
-  }
-
-  @Override
-  public void onPreviousButtonClicked() {
-    skipCount -= skipCount % SEARCH_RESULT_ITEMS + SEARCH_RESULT_ITEMS;
-    queryExpression.setSkipCount(skipCount);
-    projectServiceClient
-        .search(queryExpression)
-        .then(
-            result -> {
-              List<SearchItemReference> itemReferences = result.getItemReferences();
-              view.setNextBtnActive(true);
-              boolean hasPreviousResults =
-                  itemReferences.size() % SEARCH_RESULT_ITEMS == 0 && skipCount != 0;
-              view.setPreviousBtnActive(hasPreviousResults);
+              nextPageCursor = result.getNextPageCursor();
+              view.setPreviousBtnActive(page > 0);
+              view.setNextBtnActive(nextPageCursor != null);
               view.showResults(result, requestedString);
             });
   }
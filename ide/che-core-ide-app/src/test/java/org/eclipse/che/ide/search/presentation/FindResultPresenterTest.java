@@ -18,6 +18,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -108,6 +109,7 @@ public class FindResultPresenterTest {
   @Test
   public void responseShouldBeHandled() throws Exception {
     QueryExpression queryExpression = mock(QueryExpression.class);
+    when(result.getNextPageCursor()).thenReturn("cursor");
     findResultPresenter.handleResponse(result, queryExpression, "request");
 
     verify(workspaceAgent).openPart(findResultPresenter, PartStackType.INFORMATION);
@@ -117,35 +119,47 @@ public class FindResultPresenterTest {
     verify(view).setNextBtnActive(true);
   }
 
+  @Test
+  public void nextPageShouldNotBeSearchedIfResultHasNoNextPageCursor() throws Exception {
+    findResultPresenter.handleResponse(result, queryExpression, "request");
+
+    verify(view).setNextBtnActive(false);
+
+    findResultPresenter.onNextButtonClicked();
+
+    verify(projectServiceClient, never()).search(anyObject());
+  }
+
   @Test
   public void nextPageShouldNotBeShownIfNoResults() throws Exception {
+    when(result.getNextPageCursor()).thenReturn("cursor");
     findResultPresenter.handleResponse(result, queryExpression, "request");
     reset(view);
     findResultPresenter.onNextButtonClicked();
 
     verify(queryExpression).setSkipCount(SEARCH_RESULT_ITEMS);
+    verify(queryExpression).setCursor("cursor");
 
     verify(searchResultPromise).then(argumentCaptor.capture());
     argumentCaptor.getValue().apply(new SearchResult(emptyList(), 0));
 
-    verify(view).setPreviousBtnActive(true);
     verify(view).setNextBtnActive(false);
     verify(view, never()).showResults(anyObject(), anyString());
   }
 
   @Test
-  public void nextButtonShouldBeActiveIfResultHasMaxValueElements() throws Exception {
-    findResultPresenter.handleResponse(result, queryExpression, "request");
-
+  public void nextButtonShouldBeActiveIfResultHasNextPageCursor() throws Exception {
+    when(result.getNextPageCursor()).thenReturn("cursor");
     findResultPresenter.handleResponse(result, queryExpression, "request");
     reset(view);
     findResultPresenter.onNextButtonClicked();
 
     verify(queryExpression).setSkipCount(SEARCH_RESULT_ITEMS);
+    verify(queryExpression).setCursor("cursor");
 
     verify(searchResultPromise).then(argumentCaptor.capture());
 
-    SearchResult searchResult = new SearchResult(items, 0);
+    SearchResult searchResult = new SearchResult(items, 0, "next-cursor");
     argumentCaptor.getValue().apply(searchResult);
 
     verify(view).setPreviousBtnActive(true);
@@ -154,14 +168,12 @@ public class FindResultPresenterTest {
   }
 
   @Test
-  public void nextButtonShouldBeDisableIfResultHasLessThanMaxValue() throws Exception {
-    items.remove(0);
+  public void nextButtonShouldBeDisabledIfResultHasNoNextPageCursor() throws Exception {
+    when(result.getNextPageCursor()).thenReturn("cursor");
     findResultPresenter.handleResponse(result, queryExpression, "request");
     reset(view);
     findResultPresenter.onNextButtonClicked();
 
-    verify(queryExpression).setSkipCount(SEARCH_RESULT_ITEMS);
-
     verify(searchResultPromise).then(argumentCaptor.capture());
 
     SearchResult searchResult = new SearchResult(items, 0);
@@ -173,39 +185,35 @@ public class FindResultPresenterTest {
   }
 
   @Test
-  public void previousButtonShouldBeActiveIfResultHasLessThanMaxValue() throws Exception {
-    items.remove(0);
+  public void previousPageShouldNotBeSearchedOnFirstPage() throws Exception {
     findResultPresenter.handleResponse(result, queryExpression, "request");
-    reset(view);
-    findResultPresenter.onPreviousButtonClicked();
 
-    verify(queryExpression).setSkipCount(-SEARCH_RESULT_ITEMS);
-
-    verify(searchResultPromise).then(argumentCaptor.capture());
-
-    SearchResult searchResult = new SearchResult(items, 0);
-    argumentCaptor.getValue().apply(searchResult);
+    findResultPresenter.onPreviousButtonClicked();
 
-    verify(view).setNextBtnActive(true);
-    verify(view).setPreviousBtnActive(false);
-    verify(view).showResults(searchResult, "request");
+    verify(projectServiceClient, never()).search(anyObject());
   }
 
   @Test
-  public void previousButtonShouldBeActiveIfResultHasMaxValueElements() throws Exception {
+  public void previousPageShouldBeSearchedWithItsCursor() throws Exception {
+    when(result.getNextPageCursor()).thenReturn("cursor");
     findResultPresenter.handleResponse(result, queryExpression, "request");
+    findResultPresenter.onNextButtonClicked();
+    verify(searchResultPromise).then(argumentCaptor.capture());
+    argumentCaptor.getValue().apply(new SearchResult(items, 0, "next-cursor"));
     reset(view);
+
     findResultPresenter.onPreviousButtonClicked();
 
-    verify(queryExpression).setSkipCount(-SEARCH_RESULT_ITEMS);
+    verify(queryExpression).setSkipCount(0);
+    verify(queryExpression).setCursor(null);
 
-    verify(searchResultPromise).then(argumentCaptor.capture());
+    verify(searchResultPromise, times(2)).then(argumentCaptor.capture());
 
-    SearchResult searchResult = new SearchResult(items, 0);
+    SearchResult searchResult = new SearchResult(items, 0, "cursor");
     argumentCaptor.getValue().apply(searchResult);
 
+    verify(view).setPreviousBtnActive(false);
     verify(view).setNextBtnActive(true);
-    verify(view).setPreviousBtnActive(true);
     verify(view).showResults(searchResult, "request");
   }
 }
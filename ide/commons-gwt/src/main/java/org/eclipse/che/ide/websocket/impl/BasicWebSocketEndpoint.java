@@ -25,23 +25,27 @@ public class BasicWebSocketEndpoint implements WebSocketEndpoint {
   private final MessagesReSender reSender;
   private final WebSocketDispatcher dispatcher;
   private final WebSocketActionManager actionManager;
+  private final FramesAcknowledger acknowledger;
 
   @Inject
   public BasicWebSocketEndpoint(
       WebSocketConnectionSustainer sustainer,
       MessagesReSender reSender,
       WebSocketDispatcher dispatcher,
-      WebSocketActionManager actionManager) {
+      WebSocketActionManager actionManager,
+      FramesAcknowledger acknowledger) {
     this.sustainer = sustainer;
     this.reSender = reSender;
     this.dispatcher = dispatcher;
     this.actionManager = actionManager;
+    this.acknowledger = acknowledger;
   }
 
   @Override
   public void onOpen(String url) {
     Log.debug(getClass(), "Session opened.");
 
+    acknowledger.onOpen(url);
     actionManager.getOnOpenActions(url).forEach(Runnable::run);
     sustainer.reset(url);
     reSender.reSend(url);
@@ -64,6 +68,7 @@ public class BasicWebSocketEndpoint implements WebSocketEndpoint {
   public void onMessage(String url, String message) {
     Log.debug(getClass(), "Message received: " + message);
 
+    acknowledger.onMessage(url);
     dispatcher.dispatch(url, message);
   }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.ide.websocket.impl;
+
+import static java.util.Arrays.asList;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.ide.util.UUID;
+import org.eclipse.che.ide.util.loging.Log;
+
+/**
+ * Counts frames received over web socket connections which URL has {@code acknowledge=true} query
+ * parameter and reports the count to the server, so the server re-sends frames that were lost when
+ * connection was broken. The count is kept over all the connections to the same URL, each opened
+ * connection is resumed with the count, and received frames are acknowledged every {@link
+ * #ACKNOWLEDGE_INTERVAL} frames. Each count is reported with a random replay id, so the server
+ * drops frames it kept for another count, e.g. of the page before reload.
+ */
+@Singleton
+public class FramesAcknowledger {
+  private static final String ACKNOWLEDGE_PARAMETER = "acknowledge=true";
+  private static final int ACKNOWLEDGE_INTERVAL = 50;
+
+  private final Map<String, Count> counts = new HashMap<>();
+
+  private final Provider<RequestTransmitter> transmitterProvider;
+  private final UrlResolver urlResolver;
+
+  @Inject
+  public FramesAcknowledger(
+      Provider<RequestTransmitter> transmitterProvider, UrlResolver urlResolver) {
+    this.transmitterProvider = transmitterProvider;
+    this.urlResolver = urlResolver;
+  }
+
+  /** Resumes just opened connection with the number of frames received over the URL. */
+  public void onOpen(String url) {
+    if (isAcknowledging(url)) {
+      Count count = counts.computeIfAbsent(url, it -> new Count());
+      Log.debug(getClass(), "Resuming connection, received frames: " + count.received);
+
+      count.acknowledged = count.received;
+      send(url, "websocketReplayService/resume", count);
+    }
+  }
+
+  /** Counts received frame, acknowledges received frames if it's time to. */
+  public void onMessage(String url) {
+    if (isAcknowledging(url)) {
+      Count count = counts.computeIfAbsent(url, it -> new Count());
+      count.received++;
+      if (count.received - count.acknowledged >= ACKNOWLEDGE_INTERVAL) {
+        count.acknowledged = count.received;
+        send(url, "websocketReplayService/acknowledge", count);
+      }
+    }
+  }
+
+  private boolean isAcknowledging(String url) {
+    return url.contains("?" + ACKNOWLEDGE_PARAMETER) || url.contains("&" + ACKNOWLEDGE_PARAMETER);
+  }
+
+  private void send(String url, String method, Count count) {
+    transmitterProvider
+        .get()
+        .newRequest()
+        .endpointId(urlResolver.resolve(url))
+        .methodName(method)
+        .paramsAsListOfString(asList(count.replayId, String.valueOf(count.received)))
+        .sendAndSkipResult();
+  }
+
+  /** Frames received over connections to a URL. */
+  private static class Count {
+    final String replayId = UUID.uuid();
+
+    long received;
+    long acknowledged;
+  }
+}
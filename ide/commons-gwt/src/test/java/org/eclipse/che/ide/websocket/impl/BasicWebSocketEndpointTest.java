@@ -29,6 +29,7 @@ public class BasicWebSocketEndpointTest {
   @Mock private MessagesReSender reSender;
   @Mock private WebSocketDispatcher dispatcher;
   @Mock private WebSocketActionManager actionManager;
+  @Mock private FramesAcknowledger acknowledger;
 
   @InjectMocks private BasicWebSocketEndpoint endpoint;
 
@@ -73,4 +74,18 @@ public class BasicWebSocketEndpointTest {
 
     verify(dispatcher).dispatch("url", "message");
   }
+
+  @Test
+  public void shouldCountReceivedFramesOnMessage() {
+    endpoint.onMessage("url", "message");
+
+    verify(acknowledger).onMessage("url");
+  }
+
+  @Test
+  public void shouldResumeConnectionOnOpen() {
+    endpoint.onOpen("url");
+
+    verify(acknowledger).onOpen("url");
+  }
 }
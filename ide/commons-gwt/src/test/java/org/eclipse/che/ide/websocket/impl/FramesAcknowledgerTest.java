@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.ide.websocket.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.EndpointIdConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.MethodNameConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.ParamsConfigurator;
+import org.eclipse.che.api.core.jsonrpc.commons.transmission.SendConfiguratorFromMany;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Tests for {@link FramesAcknowledger} */
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FramesAcknowledgerTest {
+  private static final String URL = "ws://host/api?acknowledge=true";
+
+  @Mock private RequestTransmitter transmitter;
+  @Mock private EndpointIdConfigurator endpointIdConfigurator;
+  @Mock private MethodNameConfigurator methodNameConfigurator;
+  @Mock private ParamsConfigurator paramsConfigurator;
+  @Mock private SendConfiguratorFromMany<String> sendConfigurator;
+  @Mock private UrlResolver urlResolver;
+
+  private FramesAcknowledger acknowledger;
+
+  @Before
+  public void setUp() {
+    when(urlResolver.resolve(anyString())).thenReturn("id");
+    when(transmitter.newRequest()).thenReturn(endpointIdConfigurator);
+    when(endpointIdConfigurator.endpointId("id")).thenReturn(methodNameConfigurator);
+    when(methodNameConfigurator.methodName(anyString())).thenReturn(paramsConfigurator);
+    when(paramsConfigurator.paramsAsListOfString(anyList())).thenReturn(sendConfigurator);
+
+    acknowledger = new FramesAcknowledger(() -> transmitter, urlResolver);
+  }
+
+  @Test
+  public void shouldResumeConnectionWithReceivedFramesCount() {
+    acknowledger.onMessage(URL);
+    acknowledger.onMessage(URL);
+
+    acknowledger.onOpen(URL);
+
+    verify(methodNameConfigurator).methodName("websocketReplayService/resume");
+    assertEquals(sentParams(1).get(0).get(1), "2");
+    verify(sendConfigurator).sendAndSkipResult();
+  }
+
+  @Test
+  public void shouldReportCountsOfDifferentUrlsWithDifferentReplayIds() {
+    acknowledger.onOpen(URL);
+    acknowledger.onOpen(URL + "&clientId=1");
+
+    List<List<String>> params = sentParams(2);
+    assertNotEquals(params.get(0).get(0), params.get(1).get(0));
+  }
+
+  @Test
+  public void shouldReportTheSameReplayIdForTheSameUrl() {
+    acknowledger.onOpen(URL);
+    acknowledger.onOpen(URL);
+
+    List<List<String>> params = sentParams(2);
+    assertEquals(params.get(0), params.get(1));
+  }
+
+  @Test
+  public void shouldAcknowledgeReceivedFramesPeriodically() {
+    for (int i = 0; i < 50; i++) {
+      acknowledger.onMessage(URL);
+    }
+
+    verify(methodNameConfigurator).methodName("websocketReplayService/acknowledge");
+    assertEquals(sentParams(1).get(0).get(1), "50");
+  }
+
+  @Test
+  public void shouldNotCountFramesOfConnectionWhichDoesNotAcknowledgeThem() {
+    acknowledger.onMessage("ws://host/api");
+    acknowledger.onOpen("ws://host/api");
+
+    verify(transmitter, never()).newRequest();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<String>> sentParams(int count) {
+    ArgumentCaptor<List<String>> params = ArgumentCaptor.forClass(List.class);
+    verify(paramsConfigurator, times(count)).paramsAsListOfString(params.capture());
+    return params.getAllValues();
+  }
+}
@@ -10,78 +10,208 @@
  */
 package org.eclipse.che.multiuser.api.permission.server;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import javax.ws.rs.core.UriBuilder;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
 import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
 
 /**
  * Implementation of {@link PermissionChecker} that load permissions by http requests to {@link
  * PermissionsService}
  *
- * <p>It also caches permissions to avoid frequently requests to workspace master.
+ * <p>It also caches permissions to avoid frequently requests to workspace master. Cached
+ * permissions which are used after refresh period are reloaded in background while the cached
+ * ones are still returned, permissions which aren't used for the expiration period are loaded
+ * again on the next check. Cached permissions are discarded as soon as {@link
+ * PermissionsChangedEvent} is received from workspace master, permissions which are being loaded
+ * or reloaded at that moment are loaded once again, so a response which precedes the change is
+ * never cached.
  *
  * @author Sergii Leschenko
  */
 @Singleton
 public class HttpPermissionCheckerImpl implements PermissionChecker {
-  private final LoadingCache<Key, Set<String>> permissionsCache;
+  /** Maximal number of cached permission sets. */
+  public static final String CACHE_MAX_SIZE_PROPERTY = "che.auth.permissions_cache.max_size";
+  /** Time in seconds after which cached permissions are reloaded in background on use. */
+  public static final String CACHE_REFRESH_PROPERTY = "che.auth.permissions_cache.refresh_sec";
+  /** Time in seconds after which cached permissions are not used anymore. */
+  public static final String CACHE_EXPIRE_PROPERTY = "che.auth.permissions_cache.expire_sec";
+
+  private final String apiEndpoint;
+  private final HttpJsonRequestFactory requestFactory;
+  private final EventService eventService;
+  private final Supplier<LoadingCache<Key, Set<String>>> permissionsCache =
+      Suppliers.memoize(this::createCache);
+  private final EventSubscriber<PermissionsChangedEvent> permissionsChangedSubscriber =
+      this::invalidate;
+  /** Versions of permissions by hash of domain and instance, increased when they are changed. */
+  private final AtomicLongArray generations = new AtomicLongArray(64);
+
+  private long maxSize = 1000;
+  private long refreshSec = 30;
+  private long expireSec = 60;
+  private ExecutorService refreshExecutor;
 
   @Inject
   public HttpPermissionCheckerImpl(
-      @Named("che.api") String apiEndpoint, HttpJsonRequestFactory requestFactory) {
-    // TODO mb make configurable size of cache and expiration time
-    this.permissionsCache =
-        CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(1, TimeUnit.MINUTES)
-            .build(
-                new CacheLoader<Key, Set<String>>() {
-                  @Override
-                  public Set<String> load(Key key) throws Exception {
-                    UriBuilder currentUsersPermissions =
-                        UriBuilder.fromUri(apiEndpoint).path("permissions/" + key.domain);
-                    if (key.instance != null) {
-                      currentUsersPermissions.queryParam("instance", key.instance);
-                    }
-                    String userPermissionsUrl = currentUsersPermissions.build().toString();
-                    try {
-                      PermissionsDto usersPermissions =
-                          requestFactory
-                              .fromUrl(userPermissionsUrl)
-                              .useGetMethod()
-                              .request()
-                              .asDto(PermissionsDto.class);
-                      return new HashSet<>(usersPermissions.getActions());
-                    } catch (NotFoundException e) {
-                      // user doesn't have permissions
-                      return new HashSet<>();
-                    }
-                  }
-                });
+      @Named("che.api") String apiEndpoint,
+      HttpJsonRequestFactory requestFactory,
+      EventService eventService) {
+    this.apiEndpoint = apiEndpoint;
+    this.requestFactory = requestFactory;
+    this.eventService = eventService;
+  }
+
+  @Inject(optional = true)
+  void setCacheMaxSize(@Named(CACHE_MAX_SIZE_PROPERTY) long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  @Inject(optional = true)
+  void setCacheRefresh(@Named(CACHE_REFRESH_PROPERTY) long refreshSec) {
+    this.refreshSec = refreshSec;
+  }
+
+  @Inject(optional = true)
+  void setCacheExpire(@Named(CACHE_EXPIRE_PROPERTY) long expireSec) {
+    this.expireSec = expireSec;
+  }
+
+  @PostConstruct
+  public void subscribe() {
+    eventService.subscribe(permissionsChangedSubscriber, PermissionsChangedEvent.class);
+  }
+
+  @PreDestroy
+  public void unsubscribe() {
+    eventService.unsubscribe(permissionsChangedSubscriber, PermissionsChangedEvent.class);
+    synchronized (this) {
+      if (refreshExecutor != null) {
+        refreshExecutor.shutdownNow();
+      }
+    }
   }
 
   @Override
   public boolean hasPermission(String user, String domain, String instance, String action)
       throws ServerException {
     try {
-      return permissionsCache.get(new Key(user, domain, instance)).contains(action);
+      return permissionsCache.get().get(new Key(user, domain, instance)).contains(action);
     } catch (Exception e) {
       throw new ServerException(e.getMessage(), e);
     }
   }
 
+  /** Returns statistics of permissions cache such as hit rate and average load time. */
+  public CacheStats getCacheStats() {
+    return permissionsCache.get().stats();
+  }
+
+  private void invalidate(PermissionsChangedEvent event) {
+    // version is increased before cached permissions are removed, so loads that are in progress
+    // find out that their result may be stale
+    generations.incrementAndGet(generation(event.getDomainId(), event.getInstanceId()));
+    // permissions are always loaded for the user of the agent, so they are discarded for everyone
+    permissionsCache
+        .get()
+        .asMap()
+        .keySet()
+        .removeIf(
+            key ->
+                Objects.equals(key.domain, event.getDomainId())
+                    && Objects.equals(key.instance, event.getInstanceId()));
+  }
+
+  private LoadingCache<Key, Set<String>> createCache() {
+    final CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(expireSec, TimeUnit.SECONDS)
+            .recordStats();
+    CacheLoader<Key, Set<String>> loader =
+        new CacheLoader<Key, Set<String>>() {
+          @Override
+          public Set<String> load(Key key) throws Exception {
+            final int index = generation(key.domain, key.instance);
+            long generation;
+            Set<String> permissions;
+            do {
+              generation = generations.get(index);
+              permissions = loadPermissions(key);
+            } while (generation != generations.get(index));
+            return permissions;
+          }
+        };
+    if (refreshSec > 0 && refreshSec < expireSec) {
+      builder.refreshAfterWrite(refreshSec, TimeUnit.SECONDS);
+      loader = CacheLoader.asyncReloading(loader, getRefreshExecutor());
+    }
+    return builder.build(loader);
+  }
+
+  private int generation(String domain, String instance) {
+    return Math.floorMod(Objects.hash(domain, instance), generations.length());
+  }
+
+  private synchronized ExecutorService getRefreshExecutor() {
+    if (refreshExecutor == null) {
+      refreshExecutor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setNameFormat("HttpPermissionCheckerRefresher")
+                  .build());
+    }
+    return refreshExecutor;
+  }
+
+  private Set<String> loadPermissions(Key key) throws Exception {
+    UriBuilder currentUsersPermissions =
+        UriBuilder.fromUri(apiEndpoint).path("permissions/" + key.domain);
+    if (key.instance != null) {
+      currentUsersPermissions.queryParam("instance", key.instance);
+    }
+    String userPermissionsUrl = currentUsersPermissions.build().toString();
+    try {
+      PermissionsDto usersPermissions =
+          requestFactory
+              .fromUrl(userPermissionsUrl)
+              .useGetMethod()
+              .request()
+              .asDto(PermissionsDto.class);
+      return new HashSet<>(usersPermissions.getActions());
+    } catch (NotFoundException e) {
+      // user doesn't have permissions
+      return new HashSet<>();
+    }
+  }
+
   private static final class Key {
     private final String user;
     private final String domain;
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.core.notification;
+
+import static java.util.Arrays.asList;
+import static org.mockito.ArgumentMatchers.anyObject;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.eclipse.che.api.core.rest.HttpJsonRequest;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.HttpJsonResponse;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.api.permission.server.HttpPermissionCheckerImpl;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
+import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.everrest.websockets.message.RestOutputMessage;
+import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that {@link PermissionsChangedEvent} published on the master reaches the permissions
+ * checker of an agent through the websocket event bus.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class PermissionsChangedEventPropagationTest {
+  private static final String API_ENDPOINT = "http://localhost:8000/api";
+
+  @Mock private HttpJsonRequestFactory requestFactory;
+  @Mock private HttpJsonResponse response;
+
+  private EventService masterEventService;
+  private EventService agentEventService;
+  private HttpPermissionCheckerImpl permissionChecker;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    final HttpJsonRequest request =
+        mock(
+            HttpJsonRequest.class,
+            (Answer)
+                invocation -> {
+                  if (invocation.getMethod().getReturnType().isInstance(invocation.getMock())) {
+                    return invocation.getMock();
+                  }
+                  return RETURNS_DEFAULTS.answer(invocation);
+                });
+    when(request.request()).thenReturn(response);
+    when(requestFactory.fromUrl(anyString())).thenReturn(request);
+
+    masterEventService = new EventService();
+    agentEventService = new EventService();
+    permissionChecker =
+        new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory, agentEventService);
+    permissionChecker.subscribe();
+  }
+
+  @Test
+  public void shouldDropPermissionsCachedByAgentWhenPermissionsAreChangedOnMaster()
+      throws Exception {
+    connect(new EventOriginServerPropagationPolicy(new String[] {"permissions"}));
+    when(response.asDto(anyObject()))
+        .thenReturn(permissions("read", "test"))
+        .thenReturn(permissions("read"));
+    assertTrue(permissionChecker.hasPermission("user123", "domain123", "instance123", "test"));
+
+    masterEventService.publish(new PermissionsChangedEvent("domain123", "instance123"));
+
+    assertFalse(permissionChecker.hasPermission("user123", "domain123", "instance123", "test"));
+    verify(requestFactory, times(2)).fromUrl(anyString());
+  }
+
+  @Test
+  public void shouldNotPropagatePermissionsChangedEventWhenItIsNotConfigured() throws Exception {
+    connect(new EventOriginServerPropagationPolicy(new String[0]));
+    when(response.asDto(anyObject())).thenReturn(permissions("read", "test"));
+    permissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    masterEventService.publish(new PermissionsChangedEvent("domain123", "instance123"));
+
+    assertTrue(permissionChecker.hasPermission("user123", "domain123", "instance123", "test"));
+    verify(requestFactory).fromUrl(anyString());
+  }
+
+  /**
+   * Does what {@link WSocketEventBusServer} on the master and {@link WSocketEventBusClient} on the
+   * agent do, except sending messages over the websocket connection.
+   */
+  private void connect(ServerEventPropagationPolicy policy) {
+    masterEventService.subscribe(
+        new EventSubscriber<Object>() {
+          @Override
+          public void onEvent(Object event) {
+            if (policy.shouldPropagated(event)) {
+              try {
+                final ChannelBroadcastMessage sent =
+                    Messages.broadcastMessage(
+                        event.getClass().getAnnotation(EventOrigin.class).value(), event);
+                final RestOutputMessage received = new RestOutputMessage();
+                received.setBody(sent.getBody());
+                agentEventService.publish(Messages.restoreEventFromBroadcastMessage(received));
+              } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+              }
+            }
+          }
+        });
+  }
+
+  private static PermissionsDto permissions(String... actions) {
+    return DtoFactory.newDto(PermissionsDto.class)
+        .withUserId("user123")
+        .withDomainId("domain123")
+        .withInstanceId("instance123")
+        .withActions(asList(actions));
+  }
+}
@@ -16,16 +16,19 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_DEFAULTS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
 import javax.ws.rs.core.UriBuilder;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
 import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
 import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
@@ -46,6 +49,7 @@ public class HttpPermissionCheckerImplTest {
   @Mock private HttpJsonRequestFactory requestFactory;
   @Mock private HttpJsonResponse response;
   private HttpJsonRequest request;
+  private EventService eventService;
 
   private HttpPermissionCheckerImpl httpPermissionChecker;
 
@@ -64,7 +68,10 @@ public class HttpPermissionCheckerImplTest {
     when(request.request()).thenReturn(response);
     when(requestFactory.fromUrl(anyString())).thenReturn(request);
 
-    httpPermissionChecker = new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory);
+    eventService = new EventService();
+    httpPermissionChecker =
+        new HttpPermissionCheckerImpl(API_ENDPOINT, requestFactory, eventService);
+    httpPermissionChecker.subscribe();
   }
 
   @Test
@@ -94,4 +101,58 @@ public class HttpPermissionCheckerImplTest {
     verify(request).request();
     verifyNoMoreInteractions(request);
   }
+
+  @Test
+  public void shouldCachePermissions() throws Exception {
+    when(response.asDto(anyObject())).thenReturn(permissions("read", "test"));
+
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+    final boolean hasPermission =
+        httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "read");
+
+    assertEquals(hasPermission, true);
+    verify(requestFactory).fromUrl(anyString());
+    assertEquals(httpPermissionChecker.getCacheStats().hitCount(), 1);
+  }
+
+  @Test
+  public void shouldLoadPermissionsAgainWhenTheyAreChanged() throws Exception {
+    when(response.asDto(anyObject()))
+        .thenReturn(permissions("read", "test"))
+        .thenReturn(permissions("read"));
+    httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    eventService.publish(new PermissionsChangedEvent("domain123", "instance123"));
+    final boolean hasPermission =
+        httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    assertEquals(hasPermission, false);
+    verify(requestFactory, times(2)).fromUrl(anyString());
+  }
+
+  @Test
+  public void shouldNotCachePermissionsLoadedBeforeTheyAreChanged() throws Exception {
+    when(response.asDto(anyObject()))
+        .thenAnswer(
+            invocation -> {
+              // permissions are changed while the response is on its way
+              eventService.publish(new PermissionsChangedEvent("domain123", "instance123"));
+              return permissions("read", "test");
+            })
+        .thenReturn(permissions("read"));
+
+    final boolean hasPermission =
+        httpPermissionChecker.hasPermission("user123", "domain123", "instance123", "test");
+
+    assertEquals(hasPermission, false);
+    verify(requestFactory, times(2)).fromUrl(anyString());
+  }
+
+  private static PermissionsDto permissions(String... actions) {
+    return DtoFactory.newDto(PermissionsDto.class)
+        .withUserId("user123")
+        .withDomainId("domain123")
+        .withInstanceId("instance123")
+        .withActions(asList(actions));
+  }
 }
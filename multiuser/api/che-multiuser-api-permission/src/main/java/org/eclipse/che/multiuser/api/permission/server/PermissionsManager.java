@@ -35,6 +35,7 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
 import org.eclipse.che.multiuser.api.permission.server.event.PermissionsCreatedEvent;
 import org.eclipse.che.multiuser.api.permission.server.event.PermissionsRemovedEvent;
 import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
@@ -177,6 +178,7 @@ public class PermissionsManager {
     }
     final String initiator = EnvironmentContext.getCurrent().getSubject().getUserName();
     eventService.publish(new PermissionsRemovedEvent(initiator, permissions));
+    eventService.publish(new PermissionsChangedEvent(domainId, instanceId));
   }
 
   /**
@@ -237,6 +239,8 @@ public class PermissionsManager {
       final String initiator = subject.isAnonymous() ? null : subject.getUserName();
       eventService.publish(new PermissionsCreatedEvent(initiator, permissions));
     }
+    // agents drop permissions they cached, also when existing permissions are updated
+    eventService.publish(new PermissionsChangedEvent(permissions.getDomainId(), instanceId));
   }
 
   private void checkActionsSupporting(AbstractPermissionsDomain<?> domain, List<String> actions)
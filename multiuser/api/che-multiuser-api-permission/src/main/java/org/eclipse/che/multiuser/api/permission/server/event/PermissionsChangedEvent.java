@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.api.permission.server.event;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+import org.eclipse.che.commons.annotation.Nullable;
+
+/**
+ * Published when permissions of some user for an instance are stored or removed, so the permissions
+ * which were cached for the instance are not valid anymore.
+ *
+ * <p>The event is propagated to workspace agents through the websocket event bus when
+ * "permissions" is listed in {@code notification.server.propagate_events}, so it has to be a bean
+ * which can be restored from JSON. Any client of the event bus may receive it, so it doesn't tell
+ * whose permissions were changed.
+ */
+@EventOrigin("permissions")
+public class PermissionsChangedEvent {
+  private String domainId;
+  private String instanceId;
+
+  public PermissionsChangedEvent(String domainId, String instanceId) {
+    this.domainId = domainId;
+    this.instanceId = instanceId;
+  }
+
+  public PermissionsChangedEvent() {}
+
+  /** Returns id of domain of changed permissions. */
+  public String getDomainId() {
+    return domainId;
+  }
+
+  /** Returns id of instance of changed permissions, or null for domain wide permissions. */
+  @Nullable
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void setDomainId(String domainId) {
+    this.domainId = domainId;
+  }
+
+  public void setInstanceId(String instanceId) {
+    this.instanceId = instanceId;
+  }
+
+  @Override
+  public String toString() {
+    return "PermissionsChangedEvent{"
+        + "domainId='"
+        + domainId
+        + '\''
+        + ", instanceId='"
+        + instanceId
+        + '\''
+        + '}';
+  }
+}
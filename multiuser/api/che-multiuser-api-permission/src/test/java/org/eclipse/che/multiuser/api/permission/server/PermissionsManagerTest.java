@@ -16,6 +16,7 @@ import static org.eclipse.che.multiuser.api.permission.server.AbstractPermission
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doReturn;
@@ -37,11 +38,13 @@ import org.eclipse.che.api.core.Page;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.multiuser.api.permission.server.event.PermissionsChangedEvent;
 import org.eclipse.che.multiuser.api.permission.server.model.impl.AbstractPermissions;
 import org.eclipse.che.multiuser.api.permission.server.spi.PermissionsDao;
 import org.eclipse.che.multiuser.api.permission.shared.dto.PermissionsDto;
 import org.eclipse.che.multiuser.api.permission.shared.model.Permissions;
 import org.eclipse.che.multiuser.api.permission.shared.model.PermissionsDomain;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.BeforeMethod;
@@ -179,6 +182,26 @@ public class PermissionsManagerTest {
     verify(permissionsDao).remove(eq("user"), eq("test123"));
   }
 
+  @Test
+  public void shouldPublishPermissionsChangedEventWhenPermissionsAreStored() throws Exception {
+    when(permissionsDao.store(any(TestPermissionsImpl.class)))
+        .thenReturn(
+            Optional.of(
+                new TestPermissionsImpl("user", "test", "test123", singletonList("read"))));
+
+    permissionsManager.storePermission(
+        new TestPermissionsImpl("user", "test", "test123", singletonList("delete")));
+
+    verify(eventService).publish(argThat(changedEvent("test", "test123")));
+  }
+
+  @Test
+  public void shouldPublishPermissionsChangedEventWhenPermissionsAreRemoved() throws Exception {
+    permissionsManager.remove("user", "test", "test123");
+
+    verify(eventService).publish(argThat(changedEvent("test", "test123")));
+  }
+
   @Test(
     expectedExceptions = ConflictException.class,
     expectedExceptionsMessageRegExp =
@@ -295,6 +318,13 @@ public class PermissionsManagerTest {
     permissionsManager.checkActionsSupporting("test", Arrays.asList("write", "use", "unsupported"));
   }
 
+  private static ArgumentMatcher<Object> changedEvent(String domainId, String instanceId) {
+    return event ->
+        event instanceof PermissionsChangedEvent
+            && domainId.equals(((PermissionsChangedEvent) event).getDomainId())
+            && instanceId.equals(((PermissionsChangedEvent) event).getInstanceId());
+  }
+
   public class TestDomain extends AbstractPermissionsDomain<TestPermissionsImpl> {
 
     public TestDomain() {
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPED;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.account.api.AccountManager;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.workspace.Workspace;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.machine.shared.dto.event.MachineStatusEvent;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps usage of workspaces related resources by accounts in memory, so usage trackers don't have
+ * to load all the workspaces of an account on each resources check.
+ *
+ * <p>Usage of an account is loaded when it is requested for the first time. After that it is
+ * updated by workspace and machine events: only workspaces which the events relate to are loaded
+ * again, and only if they belong to accounts which usage is kept. Changes caused by events which
+ * were published before usage is requested are always taken into account. Usage of all the
+ * accounts is periodically reconciled with stored workspaces to recover from missed events.
+ *
+ * <p>Usage of each account is guarded by its own lock, which is held while workspaces of the
+ * account are loaded, so requests and updates of different accounts don't wait for each other.
+ */
+@Singleton
+public class ResourceUsageLedger {
+  private static final Logger LOG = LoggerFactory.getLogger(ResourceUsageLedger.class);
+
+  /** Period of reconciliation of usage with stored workspaces, non-positive value disables it. */
+  public static final String RECONCILIATION_PERIOD_PROPERTY =
+      "che.limits.usage.reconciliation_period_sec";
+
+  private static final long DEFAULT_RECONCILIATION_PERIOD_SEC = 600;
+  private static final int MAX_LOAD_ATTEMPTS = 3;
+
+  private final Provider<WorkspaceManager> workspaceManagerProvider;
+  private final AccountManager accountManager;
+  private final EnvironmentRamCalculator environmentRamCalculator;
+  private final EventService eventService;
+
+  /** Usage by account id. */
+  private final ConcurrentMap<String, AccountUsage> accounts = new ConcurrentHashMap<>();
+  /** Account ids by namespaces of accounts which usage is kept. */
+  private final ConcurrentMap<String, String> namespaceAccounts = new ConcurrentHashMap<>();
+  /** Account ids by ids of workspaces which belong to accounts which usage is kept. */
+  private final ConcurrentMap<String, String> workspaceAccounts = new ConcurrentHashMap<>();
+  /** Ids of workspaces which were changed, mapped to whether they were removed. */
+  private final ConcurrentMap<String, Boolean> changed = new ConcurrentHashMap<>();
+
+  private final EventSubscriber<WorkspaceStatusEvent> workspaceStatusSubscriber =
+      event -> changed(event.getWorkspaceId(), false);
+  private final EventSubscriber<MachineStatusEvent> machineStatusSubscriber =
+      event -> changed(event.getWorkspaceId(), false);
+  private final EventSubscriber<WorkspaceCreatedEvent> workspaceCreatedSubscriber =
+      event -> created(event.getWorkspace());
+  private final EventSubscriber<WorkspaceRemovedEvent> workspaceRemovedSubscriber =
+      event -> changed(event.getWorkspace().getId(), true);
+
+  private long reconciliationPeriodSec = DEFAULT_RECONCILIATION_PERIOD_SEC;
+  private ScheduledExecutorService executor;
+
+  @Inject
+  public ResourceUsageLedger(
+      Provider<WorkspaceManager> workspaceManagerProvider,
+      AccountManager accountManager,
+      EnvironmentRamCalculator environmentRamCalculator,
+      EventService eventService) {
+    this.workspaceManagerProvider = workspaceManagerProvider;
+    this.accountManager = accountManager;
+    this.environmentRamCalculator = environmentRamCalculator;
+    this.eventService = eventService;
+  }
+
+  @Inject(optional = true)
+  void setReconciliationPeriod(@Named(RECONCILIATION_PERIOD_PROPERTY) long periodSec) {
+    this.reconciliationPeriodSec = periodSec;
+  }
+
+  @PostConstruct
+  public void start() {
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("ResourceUsageLedger")
+                .build());
+    eventService.subscribe(workspaceStatusSubscriber, WorkspaceStatusEvent.class);
+    eventService.subscribe(machineStatusSubscriber, MachineStatusEvent.class);
+    eventService.subscribe(workspaceCreatedSubscriber, WorkspaceCreatedEvent.class);
+    eventService.subscribe(workspaceRemovedSubscriber, WorkspaceRemovedEvent.class);
+    if (reconciliationPeriodSec > 0) {
+      executor.scheduleWithFixedDelay(
+          this::reconcile, reconciliationPeriodSec, reconciliationPeriodSec, SECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    eventService.unsubscribe(workspaceStatusSubscriber, WorkspaceStatusEvent.class);
+    eventService.unsubscribe(machineStatusSubscriber, MachineStatusEvent.class);
+    eventService.unsubscribe(workspaceCreatedSubscriber, WorkspaceCreatedEvent.class);
+    eventService.unsubscribe(workspaceRemovedSubscriber, WorkspaceRemovedEvent.class);
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns current usage of workspaces related resources by the account.
+   *
+   * @param accountId id of account
+   * @throws NotFoundException when account with given id doesn't exist
+   * @throws ServerException when any other error occurs
+   */
+  public Usage getUsage(String accountId) throws NotFoundException, ServerException {
+    applyChanges();
+    AccountUsage usage = accounts.get(accountId);
+    if (usage == null) {
+      final String namespace = accountManager.getById(accountId).getName();
+      usage =
+          accounts.computeIfAbsent(
+              accountId,
+              id -> {
+                namespaceAccounts.put(namespace, id);
+                return new AccountUsage(namespace);
+              });
+    }
+    synchronized (usage) {
+      if (!usage.loaded) {
+        load(accountId, usage);
+      }
+      return new Usage(usage.ram, usage.runtimes, usage.workspaces.size());
+    }
+  }
+
+  /** Loads usage of all the known accounts from stored workspaces again. */
+  @VisibleForTesting
+  void reconcile() {
+    for (String accountId : accounts.keySet()) {
+      try {
+        accountManager.getById(accountId);
+      } catch (NotFoundException e) {
+        forget(accountId);
+        continue;
+      } catch (ServerException | RuntimeException e) {
+        LOG.error("Can not reconcile resources usage of account '{}'", accountId, e);
+        continue;
+      }
+      final AccountUsage usage = accounts.get(accountId);
+      if (usage == null) {
+        continue;
+      }
+      synchronized (usage) {
+        if (!usage.loaded) {
+          // it is loaded on next request anyway
+          continue;
+        }
+        final long ram = usage.ram;
+        final long runtimes = usage.runtimes;
+        try {
+          load(accountId, usage);
+          if (usage.ram != ram || usage.runtimes != runtimes) {
+            LOG.debug("Usage of account '{}' was out of date and is reconciled", accountId);
+          }
+        } catch (ServerException | RuntimeException e) {
+          LOG.error("Can not reconcile resources usage of account '{}'", accountId, e);
+        }
+      }
+    }
+  }
+
+  private void created(Workspace workspace) {
+    final String accountId = namespaceAccounts.get(workspace.getNamespace());
+    if (accountId != null) {
+      workspaceAccounts.putIfAbsent(workspace.getId(), accountId);
+    }
+    changed(workspace.getId(), false);
+  }
+
+  private void changed(String workspaceId, boolean removed) {
+    changed.merge(workspaceId, removed, Boolean::logicalOr);
+    if (executor != null && !executor.isShutdown()) {
+      executor.execute(this::applyChangesQuietly);
+    }
+  }
+
+  private void applyChangesQuietly() {
+    try {
+      applyChanges();
+    } catch (RuntimeException e) {
+      LOG.error("Can not update resources usage: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Updates usage by workspaces which were changed since the last call. A change is taken under
+   * the lock of the account the workspace belongs to, so concurrent requests of the account usage
+   * wait until the change is applied.
+   */
+  private void applyChanges() {
+    for (String workspaceId : changed.keySet()) {
+      final String accountId = workspaceAccounts.get(workspaceId);
+      final AccountUsage usage = accountId == null ? null : accounts.get(accountId);
+      if (usage == null) {
+        // workspace doesn't belong to any account which usage is kept
+        if (changed.remove(workspaceId) != null) {
+          if (accountId != null) {
+            workspaceAccounts.remove(workspaceId, accountId);
+          }
+          accounts.values().forEach(AccountUsage::missed);
+        }
+        continue;
+      }
+      synchronized (usage) {
+        final Boolean removed = changed.remove(workspaceId);
+        if (removed == null || !usage.loaded) {
+          // applied concurrently or the whole usage is loaded on next request
+          continue;
+        }
+        if (removed) {
+          removeWorkspace(workspaceId, usage);
+          continue;
+        }
+        try {
+          final WorkspaceImpl workspace = workspaceManagerProvider.get().getWorkspace(workspaceId);
+          usage.put(workspaceId, usageOf(workspace));
+        } catch (NotFoundException e) {
+          removeWorkspace(workspaceId, usage);
+        } catch (ServerException e) {
+          // usage of the account can't be trusted anymore, it is loaded again on next request
+          usage.loaded = false;
+          LOG.error("Can not update resources usage by workspace '{}'", workspaceId, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Loads usage of the account from stored workspaces, guarded by lock of the usage. Workspaces are
+   * loaded again a few times if changes of unknown workspaces were skipped meanwhile, as they may
+   * belong to the account, otherwise such changes are left to reconciliation.
+   */
+  private void load(String accountId, AccountUsage usage) throws ServerException {
+    List<WorkspaceImpl> workspaces;
+    int attempts = 0;
+    do {
+      usage.loading = true;
+      usage.missed = false;
+      try {
+        workspaces = workspaceManagerProvider.get().getByNamespace(usage.namespace, true);
+      } finally {
+        usage.loading = false;
+      }
+    } while (usage.missed && ++attempts < MAX_LOAD_ATTEMPTS);
+    final Set<String> previous = new HashSet<>(usage.workspaces.keySet());
+    usage.loaded = false;
+    usage.clear();
+    for (WorkspaceImpl workspace : workspaces) {
+      usage.put(workspace.getId(), usageOf(workspace));
+      workspaceAccounts.put(workspace.getId(), accountId);
+      previous.remove(workspace.getId());
+    }
+    previous.forEach(workspaceId -> workspaceAccounts.remove(workspaceId, accountId));
+    usage.loaded = true;
+  }
+
+  private void removeWorkspace(String workspaceId, AccountUsage usage) {
+    usage.remove(workspaceId);
+    workspaceAccounts.remove(workspaceId);
+  }
+
+  private void forget(String accountId) {
+    final AccountUsage usage = accounts.remove(accountId);
+    if (usage != null) {
+      namespaceAccounts.remove(usage.namespace, accountId);
+      workspaceAccounts.values().removeIf(accountId::equals);
+    }
+  }
+
+  /** Returns RAM used by the workspace in megabytes or -1 if the workspace is stopped. */
+  private long usageOf(WorkspaceImpl workspace) throws ServerException {
+    final WorkspaceStatus status = workspace.getStatus();
+    if (STOPPED == status) {
+      return -1;
+    }
+    if (workspace.getRuntime() == null) {
+      return 0;
+    }
+    if (WorkspaceStatus.STARTING == status) {
+      // starting workspace may not have all machine in runtime
+      // it is need to calculate ram from environment config
+      final EnvironmentImpl activeEnvironmentConfig =
+          workspace.getConfig().getEnvironments().get(workspace.getRuntime().getActiveEnv());
+      return environmentRamCalculator.calculate(activeEnvironmentConfig);
+    }
+    return workspace
+        .getRuntime()
+        .getMachines()
+        .stream()
+        .mapToLong(machine -> machine.getConfig().getLimits().getRam())
+        .sum();
+  }
+
+  /** Usage of an account, guarded by its monitor. */
+  private static class AccountUsage {
+    private final String namespace;
+    /** RAM used by workspaces by their ids, -1 for stopped workspaces. */
+    private final Map<String, Long> workspaces = new HashMap<>();
+
+    private long ram;
+    private long runtimes;
+    /** Whether usage is loaded and kept up to date. */
+    private boolean loaded;
+    /** Whether workspaces are being loaded, may be read without the lock. */
+    private volatile boolean loading;
+    /** Whether changes of unknown workspaces were skipped while workspaces were being loaded. */
+    private volatile boolean missed;
+
+    AccountUsage(String namespace) {
+      this.namespace = namespace;
+    }
+
+    void put(String workspaceId, long workspaceRam) {
+      remove(workspaceId);
+      workspaces.put(workspaceId, workspaceRam);
+      if (workspaceRam >= 0) {
+        ram += workspaceRam;
+        runtimes++;
+      }
+    }
+
+    void remove(String workspaceId) {
+      final Long workspaceRam = workspaces.remove(workspaceId);
+      if (workspaceRam != null && workspaceRam >= 0) {
+        ram -= workspaceRam;
+        runtimes--;
+      }
+    }
+
+    void clear() {
+      workspaces.clear();
+      ram = 0;
+      runtimes = 0;
+    }
+
+    void missed() {
+      if (loading) {
+        missed = true;
+      }
+    }
+  }
+
+  /** Usage of workspaces related resources by an account. */
+  public static class Usage {
+    private final long ram;
+    private final long runtimes;
+    private final long workspaces;
+
+    public Usage(long ram, long runtimes, long workspaces) {
+      this.ram = ram;
+      this.runtimes = runtimes;
+      this.workspaces = workspaces;
+    }
+
+    /** Returns RAM in megabytes used by running workspaces. */
+    public long getRam() {
+      return ram;
+    }
+
+    /** Returns number of workspaces which aren't stopped. */
+    public long getRuntimes() {
+      return runtimes;
+    }
+
+    /** Returns number of workspaces. */
+    public long getWorkspaces() {
+      return workspaces;
+    }
+  }
+}
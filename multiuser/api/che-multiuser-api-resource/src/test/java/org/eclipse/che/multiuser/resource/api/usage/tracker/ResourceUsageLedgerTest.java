@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.resource.api.usage.tracker;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import javax.inject.Provider;
+import org.eclipse.che.account.api.AccountManager;
+import org.eclipse.che.account.shared.model.Account;
+import org.eclipse.che.account.spi.AccountImpl;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineLimitsImpl;
+import org.eclipse.che.api.workspace.server.WorkspaceManager;
+import org.eclipse.che.api.workspace.server.event.WorkspaceCreatedEvent;
+import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
+import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.Usage;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests for {@link ResourceUsageLedger} */
+@Listeners(MockitoTestNGListener.class)
+public class ResourceUsageLedgerTest {
+  private static final String ACCOUNT_ID = "account123";
+  private static final String ACCOUNT_NAME = "testAccount";
+
+  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
+  @Mock private WorkspaceManager workspaceManager;
+  @Mock private AccountManager accountManager;
+  @Mock private EnvironmentRamCalculator environmentRamCalculator;
+  @Mock private Account account;
+
+  private EventService eventService;
+  private ResourceUsageLedger usageLedger;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
+    when(accountManager.getById(ACCOUNT_ID)).thenReturn(account);
+    when(account.getName()).thenReturn(ACCOUNT_NAME);
+
+    eventService = new EventService();
+    usageLedger =
+        new ResourceUsageLedger(
+            workspaceManagerProvider, accountManager, environmentRamCalculator, eventService);
+    usageLedger.setReconciliationPeriod(0);
+    usageLedger.start();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    usageLedger.stop();
+  }
+
+  @Test(
+    expectedExceptions = NotFoundException.class,
+    expectedExceptionsMessageRegExp = "Account was not found"
+  )
+  public void shouldThrowNotFoundExceptionWhenAccountDoesNotExist() throws Exception {
+    when(accountManager.getById(anyString()))
+        .thenThrow(new NotFoundException("Account was not found"));
+
+    usageLedger.getUsage(ACCOUNT_ID);
+  }
+
+  @Test
+  public void shouldLoadUsageOfAccountWorkspaces() throws Exception {
+    when(environmentRamCalculator.calculate(any())).thenReturn(3000L);
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(
+            asList(
+                createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000, 500, 500),
+                createWorkspace("ws2", WorkspaceStatus.STOPPED, 1000),
+                createWorkspace("ws3", WorkspaceStatus.STARTING)));
+
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getRam(), 5000);
+    assertEquals(usage.getRuntimes(), 2);
+    assertEquals(usage.getWorkspaces(), 3);
+  }
+
+  @Test
+  public void shouldNotLoadWorkspacesOfAccountOnEachRequest() throws Exception {
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+
+    usageLedger.getUsage(ACCOUNT_ID);
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getRam(), 1000);
+    verify(workspaceManager).getByNamespace(ACCOUNT_NAME, true);
+  }
+
+  @Test
+  public void shouldUpdateUsageOfWorkspaceWhenItsStatusIsChanged() throws Exception {
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(
+            asList(
+                createWorkspace("ws1", WorkspaceStatus.STOPPED, 1000),
+                createWorkspace("ws2", WorkspaceStatus.RUNNING, 500)));
+    usageLedger.getUsage(ACCOUNT_ID);
+    when(workspaceManager.getWorkspace("ws1"))
+        .thenReturn(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000));
+
+    eventService.publish(statusEvent("ws1"));
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getRam(), 1500);
+    assertEquals(usage.getRuntimes(), 2);
+    assertEquals(usage.getWorkspaces(), 2);
+    verify(workspaceManager).getByNamespace(ACCOUNT_NAME, true);
+    verify(workspaceManager, never()).getWorkspace("ws2");
+  }
+
+  @Test
+  public void shouldRemoveUsageOfRemovedWorkspace() throws Exception {
+    WorkspaceImpl workspace = createWorkspace("ws1", WorkspaceStatus.STOPPED);
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(workspace, createWorkspace("ws2", WorkspaceStatus.RUNNING, 500)));
+    usageLedger.getUsage(ACCOUNT_ID);
+
+    eventService.publish(new WorkspaceRemovedEvent(workspace));
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getWorkspaces(), 1);
+    assertEquals(usage.getRuntimes(), 1);
+    verify(workspaceManager, never()).getWorkspace("ws1");
+  }
+
+  @Test
+  public void shouldNotLoadChangedWorkspaceOfAccountWhichUsageIsNotKept() throws Exception {
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+    usageLedger.getUsage(ACCOUNT_ID);
+
+    eventService.publish(statusEvent("ws2"));
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getWorkspaces(), 1);
+    verify(workspaceManager, never()).getWorkspace("ws2");
+  }
+
+  @Test
+  public void shouldAddUsageOfCreatedWorkspace() throws Exception {
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+    usageLedger.getUsage(ACCOUNT_ID);
+    WorkspaceImpl created = createWorkspace("ws2", WorkspaceStatus.RUNNING, 500);
+    when(workspaceManager.getWorkspace("ws2")).thenReturn(created);
+
+    eventService.publish(new WorkspaceCreatedEvent(created));
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getRam(), 1500);
+    assertEquals(usage.getWorkspaces(), 2);
+    verify(workspaceManager).getByNamespace(ACCOUNT_NAME, true);
+  }
+
+  @Test
+  public void shouldReturnUsageOfAccountWhileWorkspacesOfAnotherAccountAreLoaded()
+      throws Exception {
+    Account another = mock(Account.class);
+    when(another.getName()).thenReturn("anotherAccount");
+    when(accountManager.getById("another123")).thenReturn(another);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch loaded = new CountDownLatch(1);
+    when(workspaceManager.getByNamespace("anotherAccount", true))
+        .thenAnswer(
+            invocation -> {
+              loading.countDown();
+              loaded.await(10, SECONDS);
+              return new ArrayList<>();
+            });
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)));
+    CompletableFuture<Usage> anotherUsage =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return usageLedger.getUsage("another123");
+              } catch (Exception e) {
+                throw new RuntimeException(e);
+              }
+            });
+    loading.await(10, SECONDS);
+
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+    loaded.countDown();
+
+    assertEquals(usage.getRam(), 1000);
+    assertEquals(anotherUsage.get(10, SECONDS).getWorkspaces(), 0);
+  }
+
+  @Test
+  public void shouldReloadUsageOnReconciliation() throws Exception {
+    when(workspaceManager.getByNamespace(ACCOUNT_NAME, true))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.RUNNING, 1000)))
+        .thenReturn(asList(createWorkspace("ws1", WorkspaceStatus.STOPPED, 1000)));
+    usageLedger.getUsage(ACCOUNT_ID);
+
+    usageLedger.reconcile();
+    Usage usage = usageLedger.getUsage(ACCOUNT_ID);
+
+    assertEquals(usage.getRam(), 0);
+    assertEquals(usage.getRuntimes(), 0);
+    verify(workspaceManager, times(2)).getByNamespace(ACCOUNT_NAME, true);
+  }
+
+  private static WorkspaceStatusEvent statusEvent(String workspaceId) {
+    WorkspaceStatusEvent event = mock(WorkspaceStatusEvent.class);
+    when(event.getWorkspaceId()).thenReturn(workspaceId);
+    return event;
+  }
+
+  /** Creates workspace of the account based on the status and machines RAM. */
+  private static WorkspaceImpl createWorkspace(
+      String id, WorkspaceStatus status, Integer... machineRams) {
+    final List<MachineImpl> machines = new ArrayList<>(machineRams.length);
+    for (Integer machineRam : machineRams) {
+      machines.add(
+          MachineImpl.builder()
+              .setConfig(
+                  MachineConfigImpl.builder().setLimits(new MachineLimitsImpl(machineRam)).build())
+              .build());
+    }
+    return WorkspaceImpl.builder()
+        .setId(id)
+        .setAccount(new AccountImpl(ACCOUNT_ID, ACCOUNT_NAME, "test"))
+        .setConfig(
+            WorkspaceConfigImpl.builder()
+                .setEnvironments(singletonMap("default", new EnvironmentImpl()))
+                .build())
+        .setRuntime(new WorkspaceRuntimeImpl("default", null, machines, null))
+        .setStatus(status)
+        .build();
+  }
+}
@@ -11,69 +11,47 @@
 package org.eclipse.che.multiuser.resource.api.usage.tracker;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyBoolean;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.Optional;
-import javax.inject.Provider;
-import org.eclipse.che.account.api.AccountManager;
-import org.eclipse.che.account.shared.model.Account;
 import org.eclipse.che.api.core.NotFoundException;
-import org.eclipse.che.api.workspace.server.WorkspaceManager;
-import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.multiuser.resource.api.type.WorkspaceResourceType;
+import org.eclipse.che.multiuser.resource.api.usage.tracker.ResourceUsageLedger.Usage;
 import org.eclipse.che.multiuser.resource.model.Resource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
-import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 /**
- * Tests for {@link
- * org.eclipse.che.multiuser.resource.api.usage.tracker.WorkspaceResourceUsageTracker}
+ * Tests for {@link WorkspaceResourceUsageTracker}
+ *
+ * @author Sergii Leschenko
  */
 @Listeners(MockitoTestNGListener.class)
 public class WorkspaceResourceUsageTrackerTest {
-  @Mock private Provider<WorkspaceManager> workspaceManagerProvider;
-  @Mock private WorkspaceManager workspaceManager;
-  @Mock private AccountManager accountManager;
-  @Mock private Account account;
+  @Mock private ResourceUsageLedger usageLedger;
 
   @InjectMocks private WorkspaceResourceUsageTracker workspaceResourceUsageTracker;
 
-  @BeforeMethod
-  public void setUp() throws Exception {
-    when(workspaceManagerProvider.get()).thenReturn(workspaceManager);
-  }
-
   @Test(
     expectedExceptions = NotFoundException.class,
     expectedExceptionsMessageRegExp = "Account was not found"
   )
   public void shouldThrowNotFoundExceptionWhenAccountDoesNotExistOnGettingUsedWorkspaces()
       throws Exception {
-    when(accountManager.getById(any())).thenThrow(new NotFoundException("Account was not found"));
+    when(usageLedger.getUsage(any())).thenThrow(new NotFoundException("Account was not found"));
 
     workspaceResourceUsageTracker.getUsedResource("account123");
   }
 
   @Test
   public void shouldReturnEmptyOptionalWhenAccountDoesNotUseWorkspaces() throws Exception {
-    when(accountManager.getById(any())).thenReturn(account);
-    when(account.getName()).thenReturn("testAccount");
-
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-        .thenReturn(Collections.emptyList());
+    when(usageLedger.getUsage("account123")).thenReturn(new Usage(0, 0, 0));
 
     Optional<Resource> usedWorkspacesOpt =
         workspaceResourceUsageTracker.getUsedResource("account123");
@@ -83,11 +61,7 @@ public class WorkspaceResourceUsageTrackerTest {
 
   @Test
   public void shouldReturnUsedWorkspacesForGivenAccount() throws Exception {
-    when(accountManager.getById(any())).thenReturn(account);
-    when(account.getName()).thenReturn("testAccount");
-
-    when(workspaceManager.getByNamespace(anyString(), anyBoolean()))
-        .thenReturn(Arrays.asList(new WorkspaceImpl(), new WorkspaceImpl(), new WorkspaceImpl()));
+    when(usageLedger.getUsage("account123")).thenReturn(new Usage(2000, 2, 3));
 
     Optional<Resource> usedWorkspacesOpt =
         workspaceResourceUsageTracker.getUsedResource("account123");
@@ -95,9 +69,7 @@ public class WorkspaceResourceUsageTrackerTest {
     assertTrue(usedWorkspacesOpt.isPresent());
     Resource usedWorkspaces = usedWorkspacesOpt.get();
     assertEquals(usedWorkspaces.getType(), WorkspaceResourceType.ID);
-    assertEquals(usedWorkspaces.getAmount(), 3);
+    assertEquals(usedWorkspaces.getAmount(), 3L);
     assertEquals(usedWorkspaces.getUnit(), WorkspaceResourceType.UNIT);
-    verify(accountManager).getById(eq("account123"));
-    verify(workspaceManager).getByNamespace(eq("testAccount"), eq(false));
   }
 }
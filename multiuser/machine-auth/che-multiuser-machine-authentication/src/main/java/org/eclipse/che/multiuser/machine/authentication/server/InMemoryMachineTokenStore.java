@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.inject.Singleton;
+
+/**
+ * Stores machine tokens in memory of the master. Tokens are indexed both by workspace and user, and
+ * by their values, so all the lookups take constant time and don't block each other.
+ */
+@Singleton
+public class InMemoryMachineTokenStore implements MachineTokenStore {
+
+  private final ConcurrentMap<String, MachineToken> byToken = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Map<String, MachineToken>> byWorkspace =
+      new ConcurrentHashMap<>();
+
+  @Override
+  public void put(MachineToken token) {
+    // token must be resolvable as soon as it may be returned by workspace and user
+    byToken.put(token.getToken(), token);
+    final MachineToken previous =
+        byWorkspace
+            .computeIfAbsent(token.getWorkspaceId(), id -> new ConcurrentHashMap<>())
+            .put(token.getUserId(), token);
+    if (previous != null && !previous.getToken().equals(token.getToken())) {
+      byToken.remove(previous.getToken(), previous);
+    }
+  }
+
+  @Override
+  public MachineToken get(String token) {
+    return byToken.get(token);
+  }
+
+  @Override
+  public MachineToken get(String workspaceId, String userId) {
+    final Map<String, MachineToken> workspaceTokens = byWorkspace.get(workspaceId);
+    return workspaceTokens == null ? null : workspaceTokens.get(userId);
+  }
+
+  @Override
+  public boolean hasTokens(String workspaceId) {
+    final Map<String, MachineToken> workspaceTokens = byWorkspace.get(workspaceId);
+    return workspaceTokens != null && !workspaceTokens.isEmpty();
+  }
+
+  @Override
+  public void remove(MachineToken token) {
+    final Map<String, MachineToken> workspaceTokens = byWorkspace.get(token.getWorkspaceId());
+    if (workspaceTokens != null) {
+      workspaceTokens.remove(token.getUserId(), token);
+      if (workspaceTokens.isEmpty()) {
+        byWorkspace.remove(token.getWorkspaceId(), workspaceTokens);
+      }
+    }
+    byToken.remove(token.getToken(), token);
+  }
+
+  @Override
+  public List<MachineToken> removeAll(String workspaceId) {
+    final Map<String, MachineToken> workspaceTokens = byWorkspace.remove(workspaceId);
+    if (workspaceTokens == null) {
+      return new ArrayList<>();
+    }
+    final List<MachineToken> removed = new ArrayList<>(workspaceTokens.values());
+    for (MachineToken token : removed) {
+      byToken.remove(token.getToken(), token);
+    }
+    return removed;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server;
+
+import java.util.Objects;
+
+/**
+ * Machine security token issued for user and workspace.
+ *
+ * @see MachineTokenRegistry
+ */
+public class MachineToken {
+  private final String token;
+  private final String userId;
+  private final String workspaceId;
+  private final long expirationTime;
+
+  /**
+   * @param token token value
+   * @param userId id of user the token is issued for
+   * @param workspaceId id of workspace the token is issued for
+   * @param expirationTime time in milliseconds since epoch after which the token is not valid, or
+   *     0 if the token never expires
+   */
+  public MachineToken(String token, String userId, String workspaceId, long expirationTime) {
+    this.token = token;
+    this.userId = userId;
+    this.workspaceId = workspaceId;
+    this.expirationTime = expirationTime;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public String getWorkspaceId() {
+    return workspaceId;
+  }
+
+  /** Returns time in milliseconds since epoch after which the token is not valid, or 0. */
+  public long getExpirationTime() {
+    return expirationTime;
+  }
+
+  /** Returns true if the token is not valid at given time in milliseconds since epoch. */
+  public boolean isExpired(long time) {
+    return expirationTime > 0 && time >= expirationTime;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof MachineToken)) {
+      return false;
+    }
+    final MachineToken that = (MachineToken) obj;
+    return expirationTime == that.expirationTime
+        && Objects.equals(token, that.token)
+        && Objects.equals(userId, that.userId)
+        && Objects.equals(workspaceId, that.workspaceId);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 7;
+    hash = 31 * hash + Objects.hashCode(token);
+    hash = 31 * hash + Objects.hashCode(userId);
+    hash = 31 * hash + Objects.hashCode(workspaceId);
+    hash = 31 * hash + Long.hashCode(expirationTime);
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return "MachineToken{"
+        + "userId='"
+        + userId
+        + '\''
+        + ", workspaceId='"
+        + workspaceId
+        + '\''
+        + ", expirationTime="
+        + expirationTime
+        + '}';
+  }
+}
@@ -11,45 +11,66 @@
 package org.eclipse.che.multiuser.machine.authentication.server;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.commons.lang.NameGenerator.generate;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.inject.Inject;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.Unlocker;
 
 /**
- * Table-based storage of machine security tokens. Table rows is workspace id's, columns - user
- * id's. Table is synchronized externally as required by its javadoc.
+ * Registry of machine security tokens. Each token is issued for a pair of workspace and user, there
+ * is at most one valid token for each pair.
+ *
+ * <p>Tokens are kept in {@link MachineTokenStore}, changes of tokens of the same workspace are
+ * serialized with striped locks while lookups are not blocked.
+ *
+ * <p>Tokens requested by clients with {@link #getOrCreateToken(String, String)} may have limited
+ * lifetime, expired tokens are rejected and new tokens are issued instead of them when they are
+ * requested again. Token generated on workspace start is passed to the agents of the workspace
+ * only once, so it never expires and is valid until tokens of the workspace are removed. It also
+ * keeps the workspace known to the registry while tokens of other users expire.
  *
  * @author Max Shaposhnik (mshaposhnik@codenvy.com)
- * @see HashBasedTable
  */
 @Singleton
 public class MachineTokenRegistry {
 
-  private final Table<String, String, String> tokens = HashBasedTable.create();
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Lifetime of machine tokens in seconds, tokens never expire if it isn't positive. */
+  public static final String TOKEN_TTL_PROPERTY = "che.auth.machine_token.ttl_sec";
+
+  private final MachineTokenStore store;
+  private final StripedLocks locks = new StripedLocks(16);
+
+  private long ttlMillis;
+
+  @Inject
+  public MachineTokenRegistry(MachineTokenStore store) {
+    this.store = store;
+  }
+
+  @Inject(optional = true)
+  void setTokenTtl(@Named(TOKEN_TTL_PROPERTY) long ttlSec) {
+    this.ttlMillis = SECONDS.toMillis(ttlSec);
+  }
 
   /**
-   * Generates new machine security token for given user and workspace.
+   * Generates new machine security token for given user and workspace. Generated token never
+   * expires, as it is passed to the agents of the workspace on its start.
    *
    * @param userId id of user to generate token for
    * @param workspaceId id of workspace to generate token for
    * @return generated token value
    */
   public String generateToken(String userId, String workspaceId) {
-    lock.writeLock().lock();
-    try {
-      final String token = generate("machine", 128);
-      tokens.put(workspaceId, userId, token);
-      return token;
-    } finally {
-      lock.writeLock().unlock();
+    try (@SuppressWarnings("unused")
+        Unlocker u = locks.writeLock(workspaceId)) {
+      return issueToken(userId, workspaceId, 0);
     }
   }
 
@@ -63,15 +84,16 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when there is no running workspace with given id
    */
   public String getOrCreateToken(String userId, String workspaceId) throws NotFoundException {
-    lock.writeLock().lock();
-    try {
-      final Map<String, String> wsRow = tokens.row(workspaceId);
-      if (wsRow.isEmpty()) {
+    try (@SuppressWarnings("unused")
+        Unlocker u = locks.writeLock(workspaceId)) {
+      if (!store.hasTokens(workspaceId)) {
         throw new NotFoundException(format("No running workspace found with id %s", workspaceId));
       }
-      return wsRow.get(userId) == null ? generateToken(userId, workspaceId) : wsRow.get(userId);
-    } finally {
-      lock.writeLock().unlock();
+      final MachineToken token = store.get(workspaceId, userId);
+      if (token == null || token.isExpired(System.currentTimeMillis())) {
+        return issueToken(userId, workspaceId, ttlMillis);
+      }
+      return token.getToken();
     }
   }
 
@@ -82,33 +104,42 @@ public class MachineTokenRegistry {
    * @throws NotFoundException when no token exists for given user and workspace
    */
   public String getUserId(String token) throws NotFoundException {
-    lock.readLock().lock();
-    try {
-      for (Table.Cell<String, String, String> tokenCell : tokens.cellSet()) {
-        if (tokenCell.getValue().equals(token)) {
-          return tokenCell.getColumnKey();
-        }
+    final MachineToken machineToken = store.get(token);
+    if (machineToken == null) {
+      throw new NotFoundException("User not found for token " + token);
+    }
+    if (machineToken.isExpired(System.currentTimeMillis())) {
+      try (@SuppressWarnings("unused")
+          Unlocker u = locks.writeLock(machineToken.getWorkspaceId())) {
+        store.remove(machineToken);
       }
       throw new NotFoundException("User not found for token " + token);
-    } finally {
-      lock.readLock().unlock();
     }
+    return machineToken.getUserId();
   }
 
   /**
    * Invalidates machine security tokens for all users of given workspace.
    *
    * @param workspaceId workspace to invalidate tokens
-   * @return the copy of the tokens row, where row is a map where key is user id and value is token
+   * @return the map where key is user id and value is token
    */
   public Map<String, String> removeTokens(String workspaceId) {
-    lock.writeLock().lock();
-    try {
-      final Map<String, String> rowCopy = new HashMap<>(tokens.row(workspaceId));
-      tokens.row(workspaceId).clear();
-      return rowCopy;
-    } finally {
-      lock.writeLock().unlock();
+    try (@SuppressWarnings("unused")
+        Unlocker u = locks.writeLock(workspaceId)) {
+      final Map<String, String> removed = new HashMap<>();
+      for (MachineToken token : store.removeAll(workspaceId)) {
+        removed.put(token.getUserId(), token.getToken());
+      }
+      return removed;
     }
   }
+
+  private String issueToken(String userId, String workspaceId, long lifetimeMillis) {
+    final String token = generate("machine", 128);
+    final long expirationTime =
+        lifetimeMillis > 0 ? System.currentTimeMillis() + lifetimeMillis : 0;
+    store.put(new MachineToken(token, userId, workspaceId, expirationTime));
+    return token;
+  }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.multiuser.machine.authentication.server;
+
+import java.util.List;
+
+/**
+ * Storage of machine security tokens used by {@link MachineTokenRegistry}.
+ *
+ * <p>Lookup of a token by its value is performed for each request authenticated with machine
+ * token, so it must not depend on the number of stored tokens. Implementations must be
+ * thread-safe, while calls which change tokens of the same workspace are never performed
+ * concurrently by the registry of the same master. Implementation backed by storage shared between
+ * several masters allows each of them to accept tokens issued by the others.
+ */
+public interface MachineTokenStore {
+
+  /** Stores the token replacing the token of the same user and workspace, if it exists. */
+  void put(MachineToken token);
+
+  /** Returns token with given value or {@code null} if there is no such token. */
+  MachineToken get(String token);
+
+  /** Returns token of the user for the workspace or {@code null} if there is no such token. */
+  MachineToken get(String workspaceId, String userId);
+
+  /** Returns true if there is at least one token for the workspace. */
+  boolean hasTokens(String workspaceId);
+
+  /** Removes the token if it is stored. */
+  void remove(MachineToken token);
+
+  /**
+   * Removes all tokens of the workspace.
+   *
+   * @return removed tokens
+   */
+  List<MachineToken> removeAll(String workspaceId);
+}
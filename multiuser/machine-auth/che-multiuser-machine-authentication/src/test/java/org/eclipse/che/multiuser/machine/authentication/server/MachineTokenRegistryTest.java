@@ -12,6 +12,7 @@ package org.eclipse.che.multiuser.machine.authentication.server;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
 import java.util.HashMap;
@@ -28,7 +29,8 @@ public class MachineTokenRegistryTest {
 
   @Test
   public void removeTokensShouldReturnUserToTokenMap() throws Exception {
-    final MachineTokenRegistry registry = new MachineTokenRegistry();
+    final MachineTokenRegistry registry =
+        new MachineTokenRegistry(new InMemoryMachineTokenStore());
 
     final Map<String, String> userToToken = new HashMap<>();
     userToToken.put("user1", registry.generateToken("user1", "workspace123"));
@@ -45,6 +47,76 @@ public class MachineTokenRegistryTest {
     assertFalse(exists(registry, "user3", "workspace123"));
   }
 
+  @Test
+  public void shouldGetUserIdByToken() throws Exception {
+    final MachineTokenRegistry registry =
+        new MachineTokenRegistry(new InMemoryMachineTokenStore());
+    final String token = registry.generateToken("user1", "workspace123");
+    registry.generateToken("user2", "workspace123");
+
+    assertEquals(registry.getUserId(token), "user1");
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotGetUserIdByReplacedToken() throws Exception {
+    final MachineTokenRegistry registry =
+        new MachineTokenRegistry(new InMemoryMachineTokenStore());
+    final String token = registry.generateToken("user1", "workspace123");
+    registry.generateToken("user1", "workspace123");
+
+    registry.getUserId(token);
+  }
+
+  @Test(expectedExceptions = NotFoundException.class)
+  public void shouldNotGetUserIdByExpiredToken() throws Exception {
+    final InMemoryMachineTokenStore store = new InMemoryMachineTokenStore();
+    store.put(new MachineToken("machine123", "user1", "workspace123", 1));
+    final MachineTokenRegistry registry = new MachineTokenRegistry(store);
+
+    registry.getUserId("machine123");
+  }
+
+  @Test
+  public void shouldReplaceExpiredTokenWithNewOne() throws Exception {
+    final InMemoryMachineTokenStore store = new InMemoryMachineTokenStore();
+    store.put(new MachineToken("machine123", "user1", "workspace123", 1));
+    final MachineTokenRegistry registry = new MachineTokenRegistry(store);
+    registry.setTokenTtl(60);
+
+    final String token = registry.getOrCreateToken("user1", "workspace123");
+
+    assertNotEquals(token, "machine123");
+    assertEquals(registry.getUserId(token), "user1");
+    assertTrue(store.get(token).getExpirationTime() > System.currentTimeMillis());
+  }
+
+  @Test
+  public void shouldNotExpireTokenGeneratedOnWorkspaceStart() throws Exception {
+    final InMemoryMachineTokenStore store = new InMemoryMachineTokenStore();
+    final MachineTokenRegistry registry = new MachineTokenRegistry(store);
+    registry.setTokenTtl(60);
+
+    final String token = registry.generateToken("user1", "workspace123");
+
+    assertEquals(store.get(token).getExpirationTime(), 0);
+    assertEquals(registry.getUserId(token), "user1");
+  }
+
+  @Test
+  public void shouldKeepWorkspaceKnownWhenTokensOfOtherUsersExpire() throws Exception {
+    final InMemoryMachineTokenStore store = new InMemoryMachineTokenStore();
+    final MachineTokenRegistry registry = new MachineTokenRegistry(store);
+    registry.generateToken("user1", "workspace123");
+    store.put(new MachineToken("machine123", "user2", "workspace123", 1));
+
+    try {
+      registry.getUserId("machine123");
+    } catch (NotFoundException ignored) {
+    }
+
+    assertTrue(exists(registry, "user2", "workspace123"));
+  }
+
   private static boolean exists(MachineTokenRegistry registry, String user, String workspace) {
     try {
       registry.getOrCreateToken(user, workspace);
@@ -36,7 +36,9 @@ import org.eclipse.che.api.workspace.server.event.BeforeWorkspaceRemovedEvent;
 import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
 import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.core.db.cascade.CascadeEventSubscriber;
 import org.eclipse.che.core.db.jpa.DuplicateKeyException;
 
@@ -57,6 +59,16 @@ public class MultiuserJpaWorkspaceDao implements WorkspaceDao {
           + "          WHERE worker.userId = :userId "
           + "          AND 'read' MEMBER OF worker.actions";
 
+  private static final String findSummariesByWorkerQuery =
+      "SELECT NEW org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl("
+          + "ws.id, ws.name, ws.account.name, ws.isTemporary) "
+          + "FROM Worker worker "
+          + "JOIN worker.workspace ws "
+          + "WHERE worker.userId = :userId "
+          + "AND 'read' MEMBER OF worker.actions "
+          + "AND ws.id > :afterId "
+          + "ORDER BY ws.id";
+
   @Override
   public WorkspaceImpl create(WorkspaceImpl workspace) throws ConflictException, ServerException {
     requireNonNull(workspace, "Required non-null workspace");
@@ -195,6 +207,25 @@ public class MultiuserJpaWorkspaceDao implements WorkspaceDao {
     }
   }
 
+  @Override
+  @Transactional
+  public List<WorkspaceSummaryImpl> getWorkspaceSummaries(
+      String userId, @Nullable String afterId, int maxItems) throws ServerException {
+    requireNonNull(userId, "Required non-null user id");
+    checkArgument(maxItems > 0, "The number of items to return must be positive.");
+    try {
+      return managerProvider
+          .get()
+          .createQuery(findSummariesByWorkerQuery, WorkspaceSummaryImpl.class)
+          .setParameter("userId", userId)
+          .setParameter("afterId", afterId == null ? "" : afterId)
+          .setMaxResults(maxItems)
+          .getResultList();
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
   @Transactional
   protected void doCreate(WorkspaceImpl workspace) {
     if (workspace.getConfig() != null) {
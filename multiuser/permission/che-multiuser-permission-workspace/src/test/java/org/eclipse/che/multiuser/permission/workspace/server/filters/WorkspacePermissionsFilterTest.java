@@ -231,6 +231,22 @@ public class WorkspacePermissionsFilterTest {
     verifyZeroInteractions(subject);
   }
 
+  @Test
+  public void shouldNotCheckPermissionsOnWorkspaceSummariesGetting() throws Exception {
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .contentType("application/json")
+            .when()
+            .get(SECURE_PATH + "/workspace/summary");
+
+    assertEquals(response.getStatusCode(), 200);
+    verify(workspaceService).getWorkspaceSummaries(nullable(String.class), anyInt());
+    verify(permissionsFilter, never()).checkAccountPermissions(anyString(), any());
+    verifyZeroInteractions(subject);
+  }
+
   @Test
   public void shouldCheckUserPermissionsOnWorkspaceStopping() throws Exception {
     when(superPrivilegesChecker.hasSuperPrivileges()).thenReturn(false);
@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.multiuser.permission.workspace.server.jpa;
 
+import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -22,6 +23,7 @@ import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.user.server.model.impl.UserImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.commons.test.db.H2TestHelper;
 import org.eclipse.che.multiuser.permission.workspace.server.model.impl.WorkerImpl;
 import org.eclipse.che.multiuser.permission.workspace.server.spi.jpa.MultiuserJpaWorkspaceDao;
@@ -132,4 +134,15 @@ public class MultiuserJpaWorkspaceDaoTest {
     assertTrue(results.contains(workspaces[0]));
     assertTrue(results.contains(workspaces[1]));
   }
+
+  @Test
+  public void shouldGetSummariesOfWorkspacesWhichUserCanRead() throws Exception {
+    List<WorkspaceSummaryImpl> first = dao.getWorkspaceSummaries(users[0].getId(), null, 1);
+    List<WorkspaceSummaryImpl> second = dao.getWorkspaceSummaries(users[0].getId(), "ws1", 2);
+
+    assertEquals(
+        first, singletonList(new WorkspaceSummaryImpl("ws1", "wrksp1", "accountName", false)));
+    assertEquals(
+        second, singletonList(new WorkspaceSummaryImpl("ws2", "wrksp2", "accountName", false)));
+  }
 }
@@ -105,6 +105,11 @@ public abstract class DockerConnection implements Closeable {
     }
 
     abstract void writeTo(OutputStream output) throws IOException;
+
+    /** Returns {@code true} if entity can be written more than once, e.g. to retry a request. */
+    boolean isRepeatable() {
+      return true;
+    }
   }
 
   static class StreamEntity extends Entity<InputStream> {
@@ -112,6 +117,11 @@ public abstract class DockerConnection implements Closeable {
       super(entity);
     }
 
+    @Override
+    boolean isRepeatable() {
+      return false;
+    }
+
     @Override
     public void writeTo(OutputStream output) throws IOException {
       try {
@@ -21,6 +21,10 @@ import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>If {@link #KEEP_ALIVE_PROPERTY} is enabled connections are not closed after a response is
+ * read: unix socket connections are returned to {@link UnixSocketConnectionPool} while TCP
+ * connections are left to {@link java.net.HttpURLConnection} keep-alive cache.
+ *
  * @author Alexander Garagatyi
  */
 public class DockerConnectionFactory {
@@ -28,6 +32,7 @@ public class DockerConnectionFactory {
       "che.docker.tcp_connection_timeout_ms";
   public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY =
       "che.docker.tcp_connection_read_timeout_ms";
+  public static final String KEEP_ALIVE_PROPERTY = "che.docker.connection_pool.enabled";
 
   @Inject(optional = true)
   @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,19 +42,32 @@ public class DockerConnectionFactory {
   @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
   private int connectionReadTimeoutMs = 60000;
 
+  @Inject(optional = true)
+  @Named(KEEP_ALIVE_PROPERTY)
+  private boolean keepAlive = false;
+
   private final DockerCertificates dockerCertificates;
+  private final UnixSocketConnectionPool unixSocketConnectionPool;
 
   @Inject
-  public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
+  public DockerConnectionFactory(
+      DockerConnectorConfiguration connectorConfiguration,
+      UnixSocketConnectionPool unixSocketConnectionPool) {
     this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+    this.unixSocketConnectionPool = unixSocketConnectionPool;
   }
 
   public DockerConnection openConnection(URI dockerDaemonUri) {
     if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-      return new UnixSocketConnection(dockerDaemonUri.getPath());
+      return new UnixSocketConnection(
+          dockerDaemonUri.getPath(), keepAlive ? unixSocketConnectionPool : null);
     } else {
       return new TcpConnection(
-          dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+          dockerDaemonUri,
+          dockerCertificates,
+          connectionTimeoutMs,
+          connectionReadTimeoutMs,
+          keepAlive);
     }
   }
 }
@@ -57,6 +57,11 @@ public class LimitedInputStream extends InputStream {
     return doRead(b, 0, len);
   }
 
+  /** Returns {@code true} if all the {@code limit} bytes were read from the underlying stream. */
+  synchronized boolean isExhausted() {
+    return pos >= limit;
+  }
+
   private int doRead(byte[] b, int off, int len) throws IOException {
     if (pos >= limit) {
       return -1;
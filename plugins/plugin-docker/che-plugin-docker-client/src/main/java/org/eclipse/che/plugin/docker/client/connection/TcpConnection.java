@@ -30,11 +30,29 @@ public class TcpConnection extends DockerConnection {
   private final DockerCertificates certificates;
   private final int connectionTimeout;
   private final int readTimeout;
+  private final boolean keepAlive;
 
   private HttpURLConnection connection;
+  private TcpDockerResponse response;
 
   public TcpConnection(
       URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+    this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, false);
+  }
+
+  /**
+   * Creates connection to docker API over TCP.
+   *
+   * @param keepAlive if {@code true} the underlying connection is not closed after the request so
+   *     it can be reused through {@link HttpURLConnection} keep-alive cache, which size is
+   *     controlled by {@code http.maxConnections} system property
+   */
+  public TcpConnection(
+      URI baseUri,
+      DockerCertificates certificates,
+      int connectionTimeoutMs,
+      int readTimeoutMs,
+      boolean keepAlive) {
     if ("https".equals(baseUri.getScheme())) {
       if (certificates == null) {
         throw new IllegalArgumentException("Certificates are required for https connection.");
@@ -47,6 +65,7 @@ public class TcpConnection extends DockerConnection {
     this.certificates = certificates;
     this.connectionTimeout = connectionTimeoutMs;
     this.readTimeout = readTimeoutMs;
+    this.keepAlive = keepAlive;
   }
 
   @Override
@@ -64,8 +83,10 @@ public class TcpConnection extends DockerConnection {
           .setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
     }
     connection.setRequestMethod(method);
-    // needed to fix bug https://github.com/docker/docker/issues/12845
-    connection.setRequestProperty("Connection", "close");
+    if (!keepAlive) {
+      // needed to fix bug https://github.com/docker/docker/issues/12845
+      connection.setRequestProperty("Connection", "close");
+    }
     for (Pair<String, ?> header : headers) {
       connection.setRequestProperty(header.first, String.valueOf(header.second));
     }
@@ -81,12 +102,21 @@ public class TcpConnection extends DockerConnection {
         entity.writeTo(output);
       }
     }
-    return new TcpDockerResponse(connection);
+    return response = new TcpDockerResponse(connection);
   }
 
   @Override
   public void close() {
     if (connection != null) {
+      if (keepAlive && response != null) {
+        try {
+          if (response.closeInputStream()) {
+            return;
+          }
+        } catch (IOException ignored) {
+          // fall back to disconnect
+        }
+      }
       connection.disconnect();
     }
   }
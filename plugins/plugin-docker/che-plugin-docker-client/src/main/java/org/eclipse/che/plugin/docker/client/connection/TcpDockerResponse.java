@@ -20,6 +20,8 @@ import java.util.Map;
 public class TcpDockerResponse implements DockerResponse {
   private final HttpURLConnection connection;
 
+  private InputStream entityStream;
+
   TcpDockerResponse(HttpURLConnection connection) {
     this.connection = connection;
   }
@@ -53,10 +55,27 @@ public class TcpDockerResponse implements DockerResponse {
 
   @Override
   public InputStream getInputStream() throws IOException {
-    InputStream entityStream = connection.getErrorStream();
     if (entityStream == null) {
-      entityStream = connection.getInputStream();
+      entityStream = connection.getErrorStream();
+      if (entityStream == null) {
+        entityStream = connection.getInputStream();
+      }
     }
     return entityStream;
   }
+
+  /**
+   * Closes the response body stream if it was opened, which allows the underlying keep-alive
+   * connection to be cached by {@link HttpURLConnection} implementation if the body was completely
+   * read.
+   *
+   * @return {@code false} if the response body stream was never opened
+   */
+  boolean closeInputStream() throws IOException {
+    if (entityStream == null) {
+      return false;
+    }
+    entityStream.close();
+    return true;
+  }
 }
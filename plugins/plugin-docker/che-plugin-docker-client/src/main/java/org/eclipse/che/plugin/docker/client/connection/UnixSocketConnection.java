@@ -16,6 +16,7 @@ import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
@@ -25,42 +26,107 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.ConnectException;
 import java.util.List;
+import java.util.Set;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnectionPool.PooledSocket;
 
 /**
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
+  /** Methods of requests which may be sent once again without additional side effects. */
+  private static final Set<String> IDEMPOTENT_METHODS =
+      ImmutableSet.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
   private final String dockerSocketPath;
+  private final UnixSocketConnectionPool pool;
 
   private int fd = -1;
+  private PooledSocket socket;
+  private UnixSocketDockerResponse response;
 
   public UnixSocketConnection(String dockerSocketPath) {
+    this(dockerSocketPath, null);
+  }
+
+  /**
+   * Creates connection that takes sockets from the given pool and returns them back on {@link
+   * #close()} if response was completely read.
+   *
+   * @param dockerSocketPath path to docker unix socket
+   * @param pool pool of keep-alive connections, if {@code null} each request opens a new socket
+   */
+  public UnixSocketConnection(String dockerSocketPath, UnixSocketConnectionPool pool) {
     this.dockerSocketPath = dockerSocketPath;
+    this.pool = pool;
   }
 
   @Override
   protected DockerResponse request(
       String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
       throws IOException {
-    fd = connect();
-    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-    writeHttpHeaders(output, method, path, query, headers);
-    if (entity != null) {
-      entity.writeTo(output);
+    if (pool == null) {
+      fd = connect();
+      return doRequest(method, path, query, headers, entity);
+    }
+
+    // idle connection may be already closed by docker daemon, which is noticed only when the
+    // response is read, and the request can't be sent once again if it has side effects,
+    // e.g. creates a container, so such requests are sent over a new connection
+    if (!IDEMPOTENT_METHODS.contains(method) || (entity != null && !entity.isRepeatable())) {
+      socket = pool.open(dockerSocketPath);
+      fd = socket.fd;
+      return doRequest(method, path, query, headers, entity);
+    }
+
+    socket = pool.acquire(dockerSocketPath);
+    fd = socket.fd;
+    if (!socket.reused) {
+      return doRequest(method, path, query, headers, entity);
     }
-    return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+
+    // read response status eagerly to be able to retry the request
+    try {
+      doRequest(method, path, query, headers, entity).getInputStream();
+      return response;
+    } catch (IOException e) {
+      pool.discard(socket);
+      socket = null;
+      fd = -1;
+    }
+    socket = pool.open(dockerSocketPath);
+    fd = socket.fd;
+    return doRequest(method, path, query, headers, entity);
   }
 
   @Override
   public void close() {
-    if (fd != -1) {
+    if (socket != null) {
+      if (response != null && response.isCompletelyRead()) {
+        pool.release(socket);
+      } else {
+        pool.discard(socket);
+      }
+      socket = null;
+      fd = -1;
+    } else if (fd != -1) {
       getCLibrary().close(fd);
     }
   }
 
+  private UnixSocketDockerResponse doRequest(
+      String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
+      throws IOException {
+    final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
+    writeHttpHeaders(output, method, path, query, headers);
+    if (entity != null) {
+      entity.writeTo(output);
+    }
+    return response = new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+  }
+
   private int connect() throws IOException {
     final CLibrary cLib = getCLibrary();
     int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps idle keep-alive connections to docker unix sockets, so sequential requests to the docker
+ * API don't open a new socket each time. Only connections which response was completely read are
+ * returned to the pool, any other connection (e.g. attached or hijacked streams) is closed.
+ *
+ * <p>The number of idle connections per socket path is limited by {@link
+ * #MAX_IDLE_PER_ENDPOINT_PROPERTY}, connections which are idle longer than {@link
+ * #IDLE_TIMEOUT_MS_PROPERTY} are closed. The number of all open connections per socket path,
+ * including idle ones, is limited by {@link #MAX_OPEN_PER_ENDPOINT_PROPERTY}. When the limit is
+ * reached an idle connection is closed to open a new one, if there are no idle connections opening
+ * waits for {@link #OPEN_TIMEOUT_MS_PROPERTY}. The limit should be high enough for connections
+ * which are held for the whole container lifetime, e.g. events or logs streams.
+ */
+@Singleton
+public class UnixSocketConnectionPool {
+  private static final Logger LOG = LoggerFactory.getLogger(UnixSocketConnectionPool.class);
+
+  public static final String MAX_IDLE_PER_ENDPOINT_PROPERTY =
+      "che.docker.connection_pool.max_idle_per_endpoint";
+  public static final String IDLE_TIMEOUT_MS_PROPERTY =
+      "che.docker.connection_pool.idle_timeout_ms";
+  public static final String MAX_OPEN_PER_ENDPOINT_PROPERTY =
+      "che.docker.connection_pool.max_open_per_endpoint";
+  public static final String OPEN_TIMEOUT_MS_PROPERTY =
+      "che.docker.connection_pool.open_timeout_ms";
+
+  @Inject(optional = true)
+  @Named(MAX_IDLE_PER_ENDPOINT_PROPERTY)
+  private int maxIdlePerEndpoint = 10;
+
+  @Inject(optional = true)
+  @Named(IDLE_TIMEOUT_MS_PROPERTY)
+  private long idleTimeoutMs = 30000;
+
+  @Inject(optional = true)
+  @Named(MAX_OPEN_PER_ENDPOINT_PROPERTY)
+  private int maxOpenPerEndpoint = 200;
+
+  @Inject(optional = true)
+  @Named(OPEN_TIMEOUT_MS_PROPERTY)
+  private long openTimeoutMs = 30000;
+
+  private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Returns an idle connection to the given unix socket or opens a new one if there are no idle
+   * connections.
+   *
+   * @param socketPath path to unix socket
+   * @return connected socket
+   * @throws IOException when connection can't be established
+   */
+  PooledSocket acquire(String socketPath) throws IOException {
+    Deque<PooledSocket> sockets = endpoint(socketPath).idle;
+    synchronized (sockets) {
+      evictExpired(sockets);
+      PooledSocket socket = sockets.pollFirst();
+      if (socket != null) {
+        hits.incrementAndGet();
+        socket.reused = true;
+        return socket;
+      }
+    }
+    misses.incrementAndGet();
+    return open(socketPath);
+  }
+
+  /**
+   * Opens a new connection to the given unix socket bypassing idle connections.
+   *
+   * @param socketPath path to unix socket
+   * @return connected socket
+   * @throws IOException when connection can't be established or when there are too many open
+   *     connections to the given socket and none of them is released in time
+   */
+  PooledSocket open(String socketPath) throws IOException {
+    final Endpoint endpoint = endpoint(socketPath);
+    if (!endpoint.permits.tryAcquire()) {
+      // the oldest idle connection gives way to the new one
+      final PooledSocket oldest;
+      synchronized (endpoint.idle) {
+        oldest = endpoint.idle.pollLast();
+      }
+      if (oldest != null) {
+        discard(oldest);
+      }
+      try {
+        if (!endpoint.permits.tryAcquire(openTimeoutMs, TimeUnit.MILLISECONDS)) {
+          throw new IOException(
+              String.format(
+                  "Unable connect to unix socket: '%s', too many open connections", socketPath));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(
+            String.format("Interrupted while connecting to unix socket: '%s'", socketPath));
+      }
+    }
+    try {
+      return new PooledSocket(socketPath, connect(socketPath));
+    } catch (IOException | RuntimeException e) {
+      endpoint.permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns connection to the pool for reuse. Connection is closed if there are already too many
+   * idle connections to the same socket.
+   */
+  void release(PooledSocket socket) {
+    Deque<PooledSocket> sockets = endpoint(socket.path).idle;
+    synchronized (sockets) {
+      evictExpired(sockets);
+      if (sockets.size() < maxIdlePerEndpoint) {
+        socket.idleSince = System.currentTimeMillis();
+        sockets.addFirst(socket);
+        return;
+      }
+    }
+    discard(socket);
+  }
+
+  /** Closes connection without returning it to the pool. */
+  void discard(PooledSocket socket) {
+    synchronized (socket) {
+      if (socket.closed) {
+        return;
+      }
+      socket.closed = true;
+    }
+    close(socket.fd);
+    endpoint(socket.path).permits.release();
+  }
+
+  /** Sets the limit of open connections and fails to open more connections without waiting. */
+  @VisibleForTesting
+  void setMaxOpenPerEndpoint(int maxOpenPerEndpoint) {
+    this.maxOpenPerEndpoint = maxOpenPerEndpoint;
+    this.openTimeoutMs = 0;
+  }
+
+  /** Returns the number of requests served with an idle connection. */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /** Returns the number of requests for which a new connection was opened. */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /** Returns the number of idle connections closed due to idle timeout. */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /** Returns the number of currently idle connections to the given unix socket. */
+  public int getIdleCount(String socketPath) {
+    Endpoint endpoint = endpoints.get(socketPath);
+    if (endpoint == null) {
+      return 0;
+    }
+    synchronized (endpoint.idle) {
+      return endpoint.idle.size();
+    }
+  }
+
+  /** Returns the number of currently open connections to the given unix socket, idle included. */
+  public int getOpenCount(String socketPath) {
+    Endpoint endpoint = endpoints.get(socketPath);
+    return endpoint == null ? 0 : endpoint.maxOpen - endpoint.permits.availablePermits();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    for (Endpoint endpoint : endpoints.values()) {
+      synchronized (endpoint.idle) {
+        endpoint.idle.forEach(this::discard);
+        endpoint.idle.clear();
+      }
+    }
+  }
+
+  protected int connect(String socketPath) throws IOException {
+    final CLibrary cLib = getCLibrary();
+    int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+    if (fd == -1) {
+      throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+    }
+    final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+    int c = cLib.connect(fd, sockAddr, sockAddr.size());
+    if (c == -1) {
+      cLib.close(fd);
+      throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+    }
+    return fd;
+  }
+
+  protected void close(int fd) {
+    getCLibrary().close(fd);
+  }
+
+  private Endpoint endpoint(String socketPath) {
+    return endpoints.computeIfAbsent(socketPath, path -> new Endpoint(maxOpenPerEndpoint));
+  }
+
+  private void evictExpired(Deque<PooledSocket> sockets) {
+    long expiration = System.currentTimeMillis() - idleTimeoutMs;
+    for (Iterator<PooledSocket> it = sockets.descendingIterator(); it.hasNext(); ) {
+      PooledSocket socket = it.next();
+      if (socket.idleSince > expiration) {
+        break;
+      }
+      it.remove();
+      evictions.incrementAndGet();
+      LOG.debug("Closing idle connection to unix socket '{}'", socket.path);
+      discard(socket);
+    }
+  }
+
+  /** Connected unix socket file descriptor. */
+  static class PooledSocket {
+    final String path;
+    final int fd;
+
+    boolean reused;
+    long idleSince;
+    /** Guarded by the socket itself, so that its open connection permit is returned once. */
+    boolean closed;
+
+    PooledSocket(String path, int fd) {
+      this.path = path;
+      this.fd = fd;
+    }
+  }
+
+  /** Idle connections and permits to open connections to a unix socket. */
+  private static class Endpoint {
+    final Deque<PooledSocket> idle = new ArrayDeque<>();
+    final Semaphore permits;
+    final int maxOpen;
+
+    Endpoint(int maxOpen) {
+      this.maxOpen = maxOpen;
+      this.permits = new Semaphore(maxOpen);
+    }
+  }
+}
@@ -108,6 +108,31 @@ public class UnixSocketDockerResponse implements DockerResponse {
     return headers.toArray(new String[headers.size()]);
   }
 
+  /**
+   * Returns {@code true} if the whole response body was read, so the underlying connection can be
+   * reused for the next request.
+   */
+  synchronized boolean isCompletelyRead() {
+    if (headersFields == null) {
+      return false;
+    }
+    for (String field : headersFields) {
+      if (field.toLowerCase().startsWith("connection") && field.toLowerCase().endsWith("close")) {
+        return false;
+      }
+    }
+    if (data == EMPTY) {
+      return true;
+    }
+    if (data instanceof LimitedInputStream) {
+      return ((LimitedInputStream) data).isExhausted();
+    }
+    if (data instanceof ChunkedInputStream) {
+      return ((ChunkedInputStream) data).isEof();
+    }
+    return false;
+  }
+
   @Override
   public synchronized InputStream getInputStream() throws IOException {
     if (this.headersFields != null) {
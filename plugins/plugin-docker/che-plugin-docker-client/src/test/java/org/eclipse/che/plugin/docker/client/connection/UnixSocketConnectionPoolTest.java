@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.plugin.docker.client.connection;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.che.plugin.docker.client.connection.UnixSocketConnectionPool.PooledSocket;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link UnixSocketConnectionPool}. */
+public class UnixSocketConnectionPoolTest {
+  private static final String SOCKET_PATH = "/var/run/docker.sock";
+
+  private TestPool pool;
+
+  @BeforeMethod
+  public void setUp() {
+    pool = new TestPool();
+  }
+
+  @Test
+  public void shouldOpenNewConnectionWhenThereAreNoIdleConnections() throws Exception {
+    PooledSocket socket = pool.acquire(SOCKET_PATH);
+
+    assertFalse(socket.reused);
+    assertEquals(pool.getMisses(), 1);
+    assertEquals(pool.getHits(), 0);
+  }
+
+  @Test
+  public void shouldReuseReleasedConnection() throws Exception {
+    PooledSocket socket = pool.acquire(SOCKET_PATH);
+    pool.release(socket);
+
+    PooledSocket reused = pool.acquire(SOCKET_PATH);
+
+    assertTrue(reused.reused);
+    assertEquals(reused.fd, socket.fd);
+    assertEquals(pool.getHits(), 1);
+    assertEquals(pool.getMisses(), 1);
+    assertTrue(pool.closed.isEmpty());
+  }
+
+  @Test
+  public void shouldNotReuseDiscardedConnection() throws Exception {
+    PooledSocket socket = pool.acquire(SOCKET_PATH);
+    pool.discard(socket);
+
+    PooledSocket next = pool.acquire(SOCKET_PATH);
+
+    assertFalse(next.reused);
+    assertTrue(pool.closed.contains(socket.fd));
+    assertEquals(pool.getMisses(), 2);
+  }
+
+  @Test
+  public void shouldCloseConnectionWhenIdleLimitIsReached() throws Exception {
+    List<PooledSocket> sockets = new ArrayList<>();
+    for (int i = 0; i < 11; i++) {
+      sockets.add(pool.acquire(SOCKET_PATH));
+    }
+
+    sockets.forEach(pool::release);
+
+    assertEquals(pool.getIdleCount(SOCKET_PATH), 10);
+    assertEquals(pool.closed.size(), 1);
+    assertTrue(pool.closed.contains(sockets.get(10).fd));
+  }
+
+  @Test
+  public void shouldCloseIdleConnectionToOpenNewOneWhenOpenLimitIsReached() throws Exception {
+    pool = new TestPool(2);
+    PooledSocket idle = pool.acquire(SOCKET_PATH);
+    pool.acquire(SOCKET_PATH);
+    pool.release(idle);
+
+    PooledSocket socket = pool.open(SOCKET_PATH);
+
+    assertFalse(socket.reused);
+    assertTrue(pool.closed.contains(idle.fd));
+    assertEquals(pool.getIdleCount(SOCKET_PATH), 0);
+    assertEquals(pool.getOpenCount(SOCKET_PATH), 2);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void shouldFailToOpenConnectionWhenOpenLimitIsReached() throws Exception {
+    pool = new TestPool(1);
+    pool.acquire(SOCKET_PATH);
+
+    pool.open(SOCKET_PATH);
+  }
+
+  @Test
+  public void shouldReturnOpenConnectionPermitOnceWhenConnectionIsDiscarded() throws Exception {
+    PooledSocket socket = pool.acquire(SOCKET_PATH);
+
+    pool.discard(socket);
+    pool.discard(socket);
+
+    assertEquals(pool.getOpenCount(SOCKET_PATH), 0);
+  }
+
+  @Test
+  public void shouldCloseIdleConnectionsOnShutdown() throws Exception {
+    pool.release(pool.acquire(SOCKET_PATH));
+    pool.release(pool.acquire("/tmp/another.sock"));
+
+    pool.shutdown();
+
+    assertEquals(pool.closed.size(), 2);
+    assertEquals(pool.getIdleCount(SOCKET_PATH), 0);
+  }
+
+  @Test
+  public void shouldConsiderResponseWithContentLengthReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}");
+
+    ByteStreams.toByteArray(response.getInputStream());
+
+    assertTrue(response.isCompletelyRead());
+  }
+
+  @Test
+  public void shouldConsiderChunkedResponseReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n2\r\n{}\r\n0\r\n\r\n");
+
+    ByteStreams.toByteArray(response.getInputStream());
+
+    assertTrue(response.isCompletelyRead());
+  }
+
+  @Test
+  public void shouldNotConsiderPartiallyReadResponseReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\n{}");
+
+    response.getInputStream().read();
+
+    assertFalse(response.isCompletelyRead());
+  }
+
+  @Test
+  public void shouldNotConsiderResponseWithoutLengthReadCompletely() throws Exception {
+    UnixSocketDockerResponse response = response("HTTP/1.1 200 OK\r\n\r\n{}");
+
+    ByteStreams.toByteArray(response.getInputStream());
+
+    assertFalse(response.isCompletelyRead());
+  }
+
+  @Test
+  public void shouldNotConsiderResponseWithConnectionCloseReadCompletely() throws Exception {
+    UnixSocketDockerResponse response =
+        response("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+    response.getInputStream();
+
+    assertFalse(response.isCompletelyRead());
+  }
+
+  private static UnixSocketDockerResponse response(String raw) {
+    return new UnixSocketDockerResponse(new ByteArrayInputStream(raw.getBytes(UTF_8)));
+  }
+
+  private static class TestPool extends UnixSocketConnectionPool {
+    final Set<Integer> closed = new HashSet<>();
+
+    int nextFd;
+
+    TestPool() {
+      this(200);
+    }
+
+    TestPool(int maxOpenPerEndpoint) {
+      setMaxOpenPerEndpoint(maxOpenPerEndpoint);
+    }
+
+    @Override
+    protected int connect(String socketPath) throws IOException {
+      return nextFd++;
+    }
+
+    @Override
+    protected void close(int fd) {
+      closed.add(fd);
+    }
+  }
+}
@@ -399,6 +399,50 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     }
   }
 
+  /**
+   * Pulls image of the service if it is neither built nor restored from a snapshot and is missing
+   * locally, so that the following start of the service doesn't wait for the pull.
+   */
+  @Override
+  public void prepareService(
+      String machineName, CheServiceImpl service, LineConsumer machineLogger)
+      throws ServerException {
+    if (service.getImage() == null
+        || (service.getBuild() != null
+            && (service.getBuild().getContext() != null
+                || service.getBuild().getDockerfileContent() != null))) {
+      return;
+    }
+    DockerMachineSource dockerMachineSource =
+        new DockerMachineSource(new MachineSourceImpl("image").setLocation(service.getImage()));
+    if (dockerMachineSource.getRepository() == null
+        || SNAPSHOT_LOCATION_PATTERN.matcher(dockerMachineSource.getLocation()).matches()
+        || isDockerImageExistLocally(dockerMachineSource.getRepository())) {
+      return;
+    }
+
+    ProgressLineFormatterImpl progressLineFormatter = new ProgressLineFormatterImpl();
+    ProgressMonitor progressMonitor =
+        currentProgressStatus -> {
+          try {
+            machineLogger.writeLine(progressLineFormatter.format(currentProgressStatus));
+          } catch (IOException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+          }
+        };
+    try {
+      docker.pull(
+          PullParams.create(dockerMachineSource.getRepository())
+              .withTag(MoreObjects.firstNonNull(dockerMachineSource.getTag(), LATEST_TAG))
+              .withRegistry(dockerMachineSource.getRegistry())
+              .withAuthConfigs(dockerCredentials.getCredentials()),
+          progressMonitor);
+    } catch (IOException e) {
+      throw new MachineException(
+          format("Can't pull image of machine '%s'. Cause: %s", machineName, e.getMessage()), e);
+    }
+  }
+
   @Override
   public void createNetwork(String networkName) throws ServerException {
     try {
@@ -89,9 +89,9 @@ public class GitChangesHandler {
     configurator
         .newConfiguration()
         .methodName("event/git-change")
-        .paramsAsDto(FileChangedEventDto.class)
+        .paramsAsListOfDto(FileChangedEventDto.class)
         .noResult()
-        .withBiConsumer(this::apply);
+        .withBiConsumer((endpointId, dtos) -> dtos.forEach(dto -> apply(endpointId, dto)));
 
     configurator
         .newConfiguration()
@@ -12,41 +12,57 @@ package org.eclipse.che.api.git;
 
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static java.nio.file.Files.isDirectory;
-import static java.util.Collections.singletonList;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.ADDED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.MODIFIED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.NOT_MODIFIED;
-import static org.eclipse.che.api.git.shared.FileChangedEventDto.Status.UNTRACKED;
-import static org.eclipse.che.api.vfs.watcher.FileWatcherManager.EMPTY_CONSUMER;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestTransmitter;
 import org.eclipse.che.api.git.shared.FileChangedEventDto;
-import org.eclipse.che.api.git.shared.Status;
 import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
 import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 
 /**
  * Detects changes in files and sends message to client Git handler.
  *
+ * <p>Changes of files which happen within a time window are collected and statuses of changed
+ * files are updated in {@link GitStatusCache} with a single status call per project, then a single
+ * message with all changed files is sent to each client. Change of a {@code .gitignore} file may
+ * change statuses of any file of the project, so all statuses of the project are dropped.
+ *
  * @author Igor Vinokur
  */
 public class GitChangesDetector {
+  /** Time in milliseconds during which changes of files are collected to be sent at once. */
+  public static final String CHANGES_WINDOW_PROPERTY = "che.git.changes_window_ms";
+
   private static final Logger LOG = getLogger(GitChangesDetector.class);
 
+  private static final long DEFAULT_CHANGES_WINDOW_MILLIS = 300;
   private static final String GIT_DIR = ".git";
+  private static final String GITIGNORE_FILE = ".gitignore";
   private static final String INCOMING_METHOD = "track/git-change";
   private static final String OUTGOING_METHOD = "event/git-change";
 
@@ -54,21 +70,41 @@ public class GitChangesDetector {
   private final FileWatcherManager manager;
   private final Provider<ProjectManager> projectManagerProvider;
   private final GitConnectionFactory gitConnectionFactory;
+  private final GitStatusCache statusCache;
+  private final ScheduledExecutorService executor;
 
   private final Set<String> endpointIds = newConcurrentHashSet();
 
+  /** Paths of changed files relative to projects mapped by project names, guarded by itself. */
+  private final Map<String, Set<String>> pendingChanges = new HashMap<>();
+
   private int id;
+  private long windowMillis = DEFAULT_CHANGES_WINDOW_MILLIS;
 
   @Inject
   public GitChangesDetector(
       RequestTransmitter transmitter,
       FileWatcherManager manager,
       Provider<ProjectManager> projectManagerProvider,
-      GitConnectionFactory gitConnectionFactory) {
+      GitConnectionFactory gitConnectionFactory,
+      GitStatusCache statusCache) {
     this.transmitter = transmitter;
     this.manager = manager;
     this.projectManagerProvider = projectManagerProvider;
     this.gitConnectionFactory = gitConnectionFactory;
+    this.statusCache = statusCache;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("GitChangesDetector-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+
+  @Inject(optional = true)
+  void setChangesWindow(@Named(CHANGES_WINDOW_PROPERTY) long windowMillis) {
+    this.windowMillis = windowMillis;
   }
 
   @Inject
@@ -89,6 +125,7 @@ public class GitChangesDetector {
   @PreDestroy
   public void stopWatcher() {
     manager.unRegisterByMatcher(id);
+    executor.shutdownNow();
   }
 
   private PathMatcher matcher() {
@@ -105,57 +142,90 @@ public class GitChangesDetector {
   }
 
   private Consumer<String> deleteConsumer() {
-    return EMPTY_CONSUMER;
+    return path -> {
+      String normalizedPath = path.startsWith("/") ? path.substring(1) : path;
+      if (isGitignore(normalizedPath)) {
+        statusCache.invalidate(normalizedPath.split("/")[0]);
+      }
+    };
   }
 
   private Consumer<String> fsEventConsumer() {
-    return it -> endpointIds.forEach(transmitConsumer(it));
+    return path -> {
+      String normalizedPath = path.startsWith("/") ? path.substring(1) : path;
+      String project = normalizedPath.split("/")[0];
+      String itemPath = normalizedPath.substring(normalizedPath.indexOf("/") + 1);
+      if (isGitignore(normalizedPath)) {
+        statusCache.invalidate(project);
+      }
+      synchronized (pendingChanges) {
+        if (pendingChanges.isEmpty()) {
+          executor.schedule(this::transmitChanges, windowMillis, MILLISECONDS);
+        }
+        pendingChanges.computeIfAbsent(project, p -> new HashSet<>()).add(itemPath);
+      }
+    };
   }
 
-  private Consumer<String> transmitConsumer(String path) {
-    return id -> {
+  private static boolean isGitignore(String path) {
+    return GITIGNORE_FILE.equals(path.substring(path.lastIndexOf('/') + 1));
+  }
+
+  private void transmitChanges() {
+    Map<String, Set<String>> changes;
+    synchronized (pendingChanges) {
+      changes = new HashMap<>(pendingChanges);
+      pendingChanges.clear();
+    }
+    for (Map.Entry<String, Set<String>> entry : changes.entrySet()) {
+      String project = entry.getKey();
       try {
-        String normalizedPath = path.startsWith("/") ? path.substring(1) : path;
-        String itemPath = normalizedPath.substring(normalizedPath.indexOf("/") + 1);
-        String projectPath =
-            projectManagerProvider
-                .get()
-                .getProject(normalizedPath.split("/")[0])
-                .getBaseFolder()
-                .getVirtualFile()
-                .toIoFile()
-                .getAbsolutePath();
-        GitConnection connection = gitConnectionFactory.getConnection(projectPath);
-        Status status = connection.status(singletonList(itemPath));
-        FileChangedEventDto.Status fileStatus;
-        if (status.getAdded().contains(itemPath)) {
-          fileStatus = ADDED;
-        } else if (status.getUntracked().contains(itemPath)) {
-          fileStatus = UNTRACKED;
-        } else if (status.getModified().contains(itemPath)
-            || status.getChanged().contains(itemPath)) {
-          fileStatus = MODIFIED;
-        } else {
-          fileStatus = NOT_MODIFIED;
+        Map<String, VcsStatus> statuses = statusCache.update(project, entry.getValue());
+        if (!endpointIds.isEmpty()) {
+          List<FileChangedEventDto> events = toEvents(project, statuses);
+          endpointIds.forEach(
+              endpointId ->
+                  transmitter
+                      .newRequest()
+                      .endpointId(endpointId)
+                      .methodName(OUTGOING_METHOD)
+                      .paramsAsListOfDto(events)
+                      .sendAndSkipResult());
         }
-
-        transmitter
-            .newRequest()
-            .endpointId(id)
-            .methodName(OUTGOING_METHOD)
-            .paramsAsDto(
-                newDto(FileChangedEventDto.class)
-                    .withPath(path)
-                    .withStatus(fileStatus)
-                    .withEditedRegions(
-                        gitConnectionFactory.getConnection(projectPath).getEditedRegions(itemPath)))
-            .sendAndSkipResult();
       } catch (NotFoundException | ServerException e) {
         String errorMessage = e.getMessage();
         if (!("Not a git repository".equals(errorMessage))) {
           LOG.error(errorMessage);
         }
       }
-    };
+    }
+  }
+
+  private List<FileChangedEventDto> toEvents(String project, Map<String, VcsStatus> statuses)
+      throws NotFoundException, ServerException {
+    String projectPath =
+        projectManagerProvider
+            .get()
+            .getProject(project)
+            .getBaseFolder()
+            .getVirtualFile()
+            .toIoFile()
+            .getAbsolutePath();
+    List<FileChangedEventDto> events = new ArrayList<>(statuses.size());
+    try (GitConnection connection = gitConnectionFactory.getConnection(projectPath)) {
+      for (Map.Entry<String, VcsStatus> entry : statuses.entrySet()) {
+        VcsStatus status = entry.getValue();
+        events.add(
+            newDto(FileChangedEventDto.class)
+                .withPath("/" + project + "/" + entry.getKey())
+                .withStatus(FileChangedEventDto.Status.valueOf(status.name()))
+                // edited regions are shown only for modified files
+                .withEditedRegions(
+                    status == VcsStatus.MODIFIED
+                        ? connection.getEditedRegions(entry.getKey())
+                        : emptyList()));
+      }
+    }
+    return events;
   }
 }
@@ -60,6 +60,7 @@ public class GitModule extends AbstractModule {
         .addBinding()
         .to(GitBasicAuthenticationCredentialsProvider.class);
 
+    bind(GitStatusCache.class);
     bind(GitCheckoutDetector.class).asEagerSingleton();
     bind(GitChangesDetector.class).asEagerSingleton();
     bind(GitStatusChangedDetector.class).asEagerSingleton();
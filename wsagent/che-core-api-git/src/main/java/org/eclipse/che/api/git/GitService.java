@@ -107,6 +107,8 @@ public class GitService {
 
   @Inject private EventService eventService;
 
+  @Inject private GitStatusCache statusCache;
+
   @QueryParam("projectPath")
   private String projectPath;
 
@@ -116,6 +118,8 @@ public class GitService {
   public void add(AddRequest request) throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       gitConnection.add(AddParams.create(request.getFilePattern()).withUpdate(request.isUpdate()));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -131,6 +135,8 @@ public class GitService {
               .withNoTrack(request.isNoTrack())
               .withTrackBranch(request.getTrackBranch())
               .withStartPoint(request.getStartPoint()));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -226,6 +232,8 @@ public class GitService {
               .withFiles(request.getFiles())
               .withAll(request.isAll())
               .withAmend(request.isAmend()));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -296,6 +304,7 @@ public class GitService {
     try (GitConnection gitConnection = getGitConnection()) {
       gitConnection.init(bare);
     }
+    invalidateStatus();
     projectRegistry.setProjectType(projectPath, GitProjectType.TYPE_ID, true);
   }
 
@@ -305,6 +314,7 @@ public class GitService {
     final RegisteredProject project = projectRegistry.getProject(projectPath);
     final FolderEntry gitFolder = project.getBaseFolder().getChildFolder(".git");
     gitFolder.getVirtualFile().delete();
+    invalidateStatus();
     projectRegistry.removeProjectType(projectPath, GitProjectType.TYPE_ID);
     eventService.publish(newDto(GitRepositoryDeletedEvent.class));
   }
@@ -337,6 +347,8 @@ public class GitService {
   public MergeResult merge(MergeRequest request) throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       return gitConnection.merge(request.getCommit());
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -347,6 +359,8 @@ public class GitService {
   public RebaseResponse rebase(RebaseRequest request) throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       return gitConnection.rebase(request.getOperation(), request.getBranch());
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -356,6 +370,8 @@ public class GitService {
   public void move(MoveRequest request) throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       gitConnection.mv(request.getSource(), request.getTarget());
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -365,6 +381,8 @@ public class GitService {
       throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       gitConnection.rm(RmParams.create(items).withCached(cached));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -380,6 +398,8 @@ public class GitService {
               .withTimeout(request.getTimeout())
               .withUsername(request.getUsername())
               .withPassword(request.getPassword()));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -452,6 +472,8 @@ public class GitService {
       gitConnection.reset(
           ResetParams.create(request.getCommit(), request.getType())
               .withFilePattern(request.getFilePattern()));
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -461,6 +483,8 @@ public class GitService {
   public RevertResult revert(RevertRequest request) throws ApiException {
     try (GitConnection gitConnection = getGitConnection()) {
       return gitConnection.revert(request.getCommit());
+    } finally {
+      invalidateStatus();
     }
   }
 
@@ -587,6 +611,17 @@ public class GitService {
     return gitConnectionFactory.getConnection(getAbsoluteProjectPath(projectPath));
   }
 
+  /**
+   * Drops cached statuses of the project after an operation which may change them, even a failed
+   * one, so that statuses requested right after the operation are not stale.
+   */
+  private void invalidateStatus() {
+    if (projectPath != null) {
+      String path = projectPath.startsWith("/") ? projectPath.substring(1) : projectPath;
+      statusCache.invalidate(path.split("/")[0]);
+    }
+  }
+
   /**
    * Checks object reference is not {@code null}
    *
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
+
+/**
+ * Keeps git statuses of files of projects.
+ *
+ * <p>Status of whole project is read once, on the first request of a status of any of its files.
+ * Further, statuses are re-read only for the files which are reported as changed with {@link
+ * #update(String, Collection)}, e.g. by file watchers, in a single status call for all of them.
+ * Statuses of a project are dropped with {@link #invalidate(String)} when its index changes, so
+ * that they are read again on the next request.
+ *
+ * <p>Statuses of a project are read and updated under the lock of the project, so requests of
+ * statuses of the same project are serialized while the statuses are read from the repository.
+ */
+@Singleton
+public class GitStatusCache {
+
+  private final GitConnectionFactory gitConnectionFactory;
+  private final Provider<ProjectManager> projectManagerProvider;
+  private final ConcurrentMap<String, ProjectStatus> projects;
+
+  @Inject
+  public GitStatusCache(
+      GitConnectionFactory gitConnectionFactory, Provider<ProjectManager> projectManagerProvider) {
+    this.gitConnectionFactory = gitConnectionFactory;
+    this.projectManagerProvider = projectManagerProvider;
+    this.projects = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns status of the file of the project.
+   *
+   * @param project name of the project
+   * @param path path of the file relative to the project
+   * @throws NotFoundException when project is not found
+   * @throws ServerException when status can't be read
+   */
+  public VcsStatus getStatus(String project, String path)
+      throws NotFoundException, ServerException {
+    ProjectStatus projectStatus = getLoaded(project);
+    synchronized (projectStatus) {
+      return projectStatus.get(path);
+    }
+  }
+
+  /**
+   * Returns statuses of the files of the project.
+   *
+   * @param project name of the project
+   * @param paths paths of the files relative to the project
+   * @return map with paths of the files as keys and their statuses as values
+   * @throws NotFoundException when project is not found
+   * @throws ServerException when statuses can't be read
+   */
+  public Map<String, VcsStatus> getStatus(String project, Collection<String> paths)
+      throws NotFoundException, ServerException {
+    ProjectStatus projectStatus = getLoaded(project);
+    Map<String, VcsStatus> statuses = new HashMap<>();
+    synchronized (projectStatus) {
+      for (String path : paths) {
+        statuses.put(path, projectStatus.get(path));
+      }
+    }
+    return statuses;
+  }
+
+  /**
+   * Re-reads statuses of changed files of the project.
+   *
+   * @param project name of the project
+   * @param paths paths of the changed files relative to the project
+   * @return map with paths of the files as keys and their new statuses as values
+   * @throws NotFoundException when project is not found
+   * @throws ServerException when statuses can't be read
+   */
+  public Map<String, VcsStatus> update(String project, Collection<String> paths)
+      throws NotFoundException, ServerException {
+    if (paths.isEmpty()) {
+      return new HashMap<>();
+    }
+    ProjectStatus projectStatus = projects.computeIfAbsent(project, p -> new ProjectStatus());
+    synchronized (projectStatus) {
+      Map<String, VcsStatus> changed = readStatus(project, new ArrayList<>(paths));
+      Map<String, VcsStatus> statuses = new HashMap<>();
+      for (String path : paths) {
+        VcsStatus status = changed.getOrDefault(path, VcsStatus.NOT_MODIFIED);
+        statuses.put(path, status);
+        // not loaded statuses are read entirely when requested
+        if (projectStatus.loaded) {
+          projectStatus.put(path, status);
+        }
+      }
+      return statuses;
+    }
+  }
+
+  /**
+   * Drops statuses of the project, they are read again on the next request.
+   *
+   * @param project name of the project
+   */
+  public void invalidate(String project) {
+    projects.remove(project);
+  }
+
+  private ProjectStatus getLoaded(String project) throws NotFoundException, ServerException {
+    ProjectStatus projectStatus = projects.computeIfAbsent(project, p -> new ProjectStatus());
+    synchronized (projectStatus) {
+      if (!projectStatus.loaded) {
+        projectStatus.changed.putAll(readStatus(project, emptyList()));
+        projectStatus.loaded = true;
+      }
+    }
+    return projectStatus;
+  }
+
+  /** Returns statuses of modified, added and untracked files, all of them if filter is empty. */
+  private Map<String, VcsStatus> readStatus(String project, List<String> filter)
+      throws NotFoundException, ServerException {
+    String projectPath =
+        projectManagerProvider
+            .get()
+            .getProject(project)
+            .getBaseFolder()
+            .getVirtualFile()
+            .toIoFile()
+            .getAbsolutePath();
+    Status status;
+    try (GitConnection connection = gitConnectionFactory.getConnection(projectPath)) {
+      status = connection.status(filter);
+    }
+    // statuses overwrite each other in the order of increasing priority
+    Map<String, VcsStatus> statuses = new HashMap<>();
+    status.getChanged().forEach(path -> statuses.put(path, VcsStatus.MODIFIED));
+    status.getModified().forEach(path -> statuses.put(path, VcsStatus.MODIFIED));
+    status.getAdded().forEach(path -> statuses.put(path, VcsStatus.ADDED));
+    status.getUntracked().forEach(path -> statuses.put(path, VcsStatus.UNTRACKED));
+    return statuses;
+  }
+
+  private static class ProjectStatus {
+    /** Statuses of the files which are not {@link VcsStatus#NOT_MODIFIED}. */
+    final Map<String, VcsStatus> changed = new HashMap<>();
+
+    boolean loaded;
+
+    VcsStatus get(String path) {
+      return changed.getOrDefault(path, VcsStatus.NOT_MODIFIED);
+    }
+
+    void put(String path, VcsStatus status) {
+      if (status == VcsStatus.NOT_MODIFIED) {
+        changed.remove(path);
+      } else {
+        changed.put(path, status);
+      }
+    }
+  }
+}
@@ -17,6 +17,7 @@ import static org.eclipse.che.api.vfs.watcher.FileWatcherManager.EMPTY_CONSUMER;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.HashMap;
 import java.util.List;
@@ -39,7 +40,9 @@ import org.eclipse.che.api.vfs.watcher.FileWatcherManager;
 import org.slf4j.Logger;
 
 /**
- * Detects changes in index and ORIG_HEAD files and sends message to client Git handler.
+ * Detects changes in index, ORIG_HEAD, HEAD, info/exclude files and in refs, e.g. on commit or
+ * checkout done in terminal, drops statuses of changed project from {@link GitStatusCache} and
+ * sends message to client Git handler.
  *
  * @author Igor Vinokur
  */
@@ -49,6 +52,10 @@ public class GitStatusChangedDetector {
   private static final String GIT_DIR = ".git";
   private static final String INDEX_FILE = "index";
   private static final String ORIG_HEAD_FILE = "ORIG_HEAD";
+  private static final String HEAD_FILE = "HEAD";
+  private static final String REFS_DIR = "refs";
+  private static final String INFO_DIR = "info";
+  private static final String EXCLUDE_FILE = "exclude";
   private static final String INCOMING_METHOD = "track/git-index";
   private static final String OUTGOING_METHOD = "event/git/statusChanged";
 
@@ -56,22 +63,28 @@ public class GitStatusChangedDetector {
   private final FileWatcherManager manager;
   private final Provider<ProjectManager> projectManagerProvider;
   private final GitConnectionFactory gitConnectionFactory;
+  private final GitStatusCache statusCache;
 
   private final Set<String> endpointIds = newConcurrentHashSet();
 
   private int indexId;
   private int origHeadId;
+  private int headId;
+  private int refsId;
+  private int excludeId;
 
   @Inject
   public GitStatusChangedDetector(
       RequestTransmitter transmitter,
       FileWatcherManager manager,
       Provider<ProjectManager> projectManagerProvider,
-      GitConnectionFactory gitConnectionFactory) {
+      GitConnectionFactory gitConnectionFactory,
+      GitStatusCache statusCache) {
     this.transmitter = transmitter;
     this.manager = manager;
     this.projectManagerProvider = projectManagerProvider;
     this.gitConnectionFactory = gitConnectionFactory;
+    this.statusCache = statusCache;
   }
 
   @Inject
@@ -92,12 +105,24 @@ public class GitStatusChangedDetector {
     origHeadId =
         manager.registerByMatcher(
             OrigHeadMatcher(), fsEventConsumer(), fsEventConsumer(), EMPTY_CONSUMER);
+    headId =
+        manager.registerByMatcher(
+            headMatcher(), fsEventConsumer(), fsEventConsumer(), EMPTY_CONSUMER);
+    refsId =
+        manager.registerByMatcher(
+            refsMatcher(), fsEventConsumer(), fsEventConsumer(), EMPTY_CONSUMER);
+    excludeId =
+        manager.registerByMatcher(
+            excludeMatcher(), fsEventConsumer(), fsEventConsumer(), fsEventConsumer());
   }
 
   @PreDestroy
   public void stopWatchers() {
     manager.unRegisterByMatcher(indexId);
     manager.unRegisterByMatcher(origHeadId);
+    manager.unRegisterByMatcher(headId);
+    manager.unRegisterByMatcher(refsId);
+    manager.unRegisterByMatcher(excludeId);
   }
 
   private PathMatcher OrigHeadMatcher() {
@@ -107,6 +132,44 @@ public class GitStatusChangedDetector {
             && GIT_DIR.equals(it.getParent().getFileName().toString());
   }
 
+  private PathMatcher headMatcher() {
+    return it ->
+        !isDirectory(it)
+            && HEAD_FILE.equals(it.getFileName().toString())
+            && GIT_DIR.equals(it.getParent().getFileName().toString());
+  }
+
+  /** Matches branches and tags in .git/refs, at any depth, e.g. refs/heads/feature/name. */
+  private PathMatcher refsMatcher() {
+    return it -> {
+      if (isDirectory(it)) {
+        return false;
+      }
+      for (Path dir = it.getParent();
+          dir != null && dir.getParent() != null;
+          dir = dir.getParent()) {
+        if (REFS_DIR.equals(String.valueOf(dir.getFileName()))
+            && GIT_DIR.equals(String.valueOf(dir.getParent().getFileName()))) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /** Matches .git/info/exclude, which ignores files like .gitignore does. */
+  private PathMatcher excludeMatcher() {
+    return it -> {
+      Path infoDir = it.getParent();
+      return !isDirectory(it)
+          && EXCLUDE_FILE.equals(String.valueOf(it.getFileName()))
+          && infoDir != null
+          && INFO_DIR.equals(String.valueOf(infoDir.getFileName()))
+          && infoDir.getParent() != null
+          && GIT_DIR.equals(String.valueOf(infoDir.getParent().getFileName()));
+    };
+  }
+
   private PathMatcher indexMatcher() {
     return it ->
         !isDirectory(it)
@@ -115,7 +178,10 @@ public class GitStatusChangedDetector {
   }
 
   private Consumer<String> fsEventConsumer() {
-    return it -> endpointIds.forEach(transmitConsumer(it));
+    return it -> {
+      statusCache.invalidate((it.startsWith("/") ? it.substring(1) : it).split("/")[0]);
+      endpointIds.forEach(transmitConsumer(it));
+    };
   }
 
   private Consumer<String> transmitConsumer(String path) {
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.List;
+import org.eclipse.che.api.git.exception.GitException;
+import org.eclipse.che.api.git.shared.CommitRequest;
+import org.eclipse.che.api.git.shared.MergeRequest;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.ProjectRegistry;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link GitService}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitServiceTest {
+
+  @Mock private GitConnectionFactory connectionFactory;
+  @Mock private GitConnection connection;
+
+  private GitStatusCache statusCache;
+  private GitService gitService;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    File projectDir = new File("/projects/project");
+    ProjectManager projectManager = mock(ProjectManager.class, RETURNS_DEEP_STUBS);
+    when(projectManager
+            .getProject("project")
+            .getBaseFolder()
+            .getVirtualFile()
+            .toIoFile())
+        .thenReturn(projectDir);
+    ProjectRegistry projectRegistry = mock(ProjectRegistry.class, RETURNS_DEEP_STUBS);
+    when(projectRegistry
+            .getProject("/project")
+            .getBaseFolder()
+            .getVirtualFile()
+            .toIoFile())
+        .thenReturn(projectDir);
+    when(connectionFactory.getConnection(anyString())).thenReturn(connection);
+    statusCache = new GitStatusCache(connectionFactory, () -> projectManager);
+
+    gitService = new GitService();
+    setField("gitConnectionFactory", connectionFactory);
+    setField("projectRegistry", projectRegistry);
+    setField("statusCache", statusCache);
+    setField("projectPath", "/project");
+  }
+
+  @Test
+  public void readsStatusAgainAfterCommit() throws Exception {
+    when(connection.status(emptyList()))
+        .thenReturn(status(singletonList("file")))
+        .thenReturn(status(emptyList()));
+    assertEquals(statusCache.getStatus("project", "file"), VcsStatus.ADDED);
+    CommitRequest request = mock(CommitRequest.class);
+    when(request.getMessage()).thenReturn("commit");
+
+    gitService.commit(request);
+
+    assertEquals(statusCache.getStatus("project", "file"), VcsStatus.NOT_MODIFIED);
+  }
+
+  @Test
+  public void readsStatusAgainAfterFailedOperation() throws Exception {
+    when(connection.status(emptyList()))
+        .thenReturn(status(singletonList("file")))
+        .thenReturn(status(emptyList()));
+    assertEquals(statusCache.getStatus("project", "file"), VcsStatus.ADDED);
+    when(connection.merge(any())).thenThrow(new GitException("conflict"));
+
+    try {
+      gitService.merge(mock(MergeRequest.class));
+      fail("Merge is expected to fail");
+    } catch (GitException ignored) {
+    }
+
+    assertEquals(statusCache.getStatus("project", "file"), VcsStatus.NOT_MODIFIED);
+  }
+
+  private void setField(String name, Object value) throws Exception {
+    Field field = GitService.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(gitService, value);
+  }
+
+  private static Status status(List<String> added) {
+    Status status = mock(Status.class);
+    when(status.getAdded()).thenReturn(added);
+    when(status.getModified()).thenReturn(emptyList());
+    when(status.getChanged()).thenReturn(emptyList());
+    when(status.getUntracked()).thenReturn(emptyList());
+    return status;
+  }
+}
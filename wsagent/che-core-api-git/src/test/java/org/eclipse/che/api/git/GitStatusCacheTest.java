@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.git;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.util.List;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.project.server.ProjectManager;
+import org.eclipse.che.api.project.server.VcsStatusProvider.VcsStatus;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+/** Tests {@link GitStatusCache}. */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusCacheTest {
+
+  @Mock private GitConnectionFactory connectionFactory;
+  @Mock private GitConnection connection;
+
+  private GitStatusCache cache;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    ProjectManager projectManager = mock(ProjectManager.class, RETURNS_DEEP_STUBS);
+    when(projectManager
+            .getProject("project")
+            .getBaseFolder()
+            .getVirtualFile()
+            .toIoFile())
+        .thenReturn(new File("/projects/project"));
+    when(connectionFactory.getConnection(anyString())).thenReturn(connection);
+    cache = new GitStatusCache(connectionFactory, () -> projectManager);
+  }
+
+  @Test
+  public void readsStatusOfWholeProjectOnce() throws Exception {
+    Status status =
+        status(singletonList("added"), singletonList("modified"), singletonList("untracked"));
+    when(connection.status(emptyList())).thenReturn(status);
+
+    assertEquals(
+        cache.getStatus("project", asList("added", "modified", "untracked", "other")),
+        ImmutableMap.of(
+            "added", VcsStatus.ADDED,
+            "modified", VcsStatus.MODIFIED,
+            "untracked", VcsStatus.UNTRACKED,
+            "other", VcsStatus.NOT_MODIFIED));
+    assertEquals(cache.getStatus("project", "modified"), VcsStatus.MODIFIED);
+
+    verify(connection).status(emptyList());
+  }
+
+  @Test
+  public void updatesStatusesOfChangedFilesOnly() throws Exception {
+    Status initial = status(emptyList(), singletonList("modified"), emptyList());
+    when(connection.status(emptyList())).thenReturn(initial);
+    cache.getStatus("project", "modified");
+    Status changed = status(emptyList(), singletonList("other"), emptyList());
+    when(connection.status(asList("modified", "other"))).thenReturn(changed);
+
+    assertEquals(
+        cache.update("project", asList("modified", "other")),
+        ImmutableMap.of("modified", VcsStatus.NOT_MODIFIED, "other", VcsStatus.MODIFIED));
+
+    assertEquals(cache.getStatus("project", "modified"), VcsStatus.NOT_MODIFIED);
+    assertEquals(cache.getStatus("project", "other"), VcsStatus.MODIFIED);
+    verify(connection).status(emptyList());
+  }
+
+  @Test
+  public void readsStatusOfWholeProjectAgainWhenInvalidated() throws Exception {
+    Status status = status(emptyList(), singletonList("modified"), emptyList());
+    when(connection.status(emptyList())).thenReturn(status);
+    cache.getStatus("project", "modified");
+
+    cache.invalidate("project");
+    cache.getStatus("project", "modified");
+
+    verify(connection, times(2)).status(emptyList());
+  }
+
+  private static Status status(List<String> added, List<String> modified, List<String> untracked) {
+    Status status = mock(Status.class);
+    when(status.getAdded()).thenReturn(added);
+    when(status.getModified()).thenReturn(modified);
+    when(status.getChanged()).thenReturn(emptyList());
+    when(status.getUntracked()).thenReturn(untracked);
+    return status;
+  }
+}
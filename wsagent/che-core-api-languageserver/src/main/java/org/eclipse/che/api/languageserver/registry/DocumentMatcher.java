@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.registry;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Language ids and document filters of {@link LanguageServerDescription} prepared for matching
+ * documents, path patterns of filters are compiled once.
+ */
+class DocumentMatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(DocumentMatcher.class);
+
+  private final List<String> languageIds;
+  private final List<Filter> filters;
+  private final boolean pathDependent;
+
+  DocumentMatcher(LanguageServerDescription description) {
+    this.languageIds =
+        description.getLanguageIds() == null ? emptyList() : description.getLanguageIds();
+    this.filters = new ArrayList<>();
+    boolean pathDependent = false;
+    if (description.getDocumentFilters() != null) {
+      for (DocumentFilter filter : description.getDocumentFilters()) {
+        Filter compiled = new Filter(description.getId(), filter);
+        pathDependent |= compiled.isPathDependent();
+        filters.add(compiled);
+      }
+    }
+    this.pathDependent = pathDependent;
+  }
+
+  /**
+   * Returns score of matching the document, {@code 10} is for the exact match, {@code 5} for a
+   * wildcard match and {@code 0} if the document doesn't match.
+   *
+   * @param path uri of the document
+   * @param languageId language of the document
+   */
+  int matchScore(String path, String languageId) {
+    int match = matchLanguageIds(languageId);
+    if (match == 10) {
+      return 10;
+    }
+
+    for (Filter filter : filters) {
+      if (filter.languageId != null && filter.languageId.length() > 0) {
+        match = Math.max(match, matchLanguageId(filter.languageId, languageId));
+        if (match == 10) {
+          return 10;
+        }
+      }
+      if (filter.schemePrefix != null && path.startsWith(filter.schemePrefix)) {
+        return 10;
+      }
+      if (filter.pathRegex != null) {
+        if (filter.pathRegex.equals(path)) {
+          return 10;
+        }
+        if (filter.pattern != null && filter.pattern.matcher(path).matches()) {
+          match = Math.max(match, 5);
+        }
+      }
+    }
+    return match;
+  }
+
+  /**
+   * Returns {@code false} if score of a document depends only on its language and scheme of its
+   * uri, so the score may be reused for other documents with the same language and scheme.
+   */
+  boolean isPathDependent() {
+    return pathDependent;
+  }
+
+  private int matchLanguageIds(String languageId) {
+    int match = 0;
+    for (String id : languageIds) {
+      if (id.equals(languageId)) {
+        match = 10;
+        break;
+      } else if ("*".equals(id)) {
+        match = 5;
+      }
+    }
+    return match;
+  }
+
+  private static int matchLanguageId(String id, String languageId) {
+    if (id.equals(languageId)) {
+      return 10;
+    } else if ("*".equals(id)) {
+      return 5;
+    }
+    return 0;
+  }
+
+  private static class Filter {
+    final String languageId;
+    final String schemePrefix;
+    final String pathRegex;
+    final Pattern pattern;
+
+    Filter(String serverId, DocumentFilter filter) {
+      this.languageId = filter.getLanguageId();
+      this.schemePrefix = filter.getScheme() == null ? null : filter.getScheme() + ':';
+      this.pathRegex = filter.getPathRegex();
+      Pattern pattern = null;
+      if (pathRegex != null) {
+        try {
+          pattern = Pattern.compile(pathRegex);
+        } catch (PatternSyntaxException e) {
+          LOG.error("Invalid path pattern of language server '{}': {}", serverId, e.getMessage());
+        }
+      }
+      this.pattern = pattern;
+    }
+
+    /** Scheme containing ':' may match a part of uri beyond its scheme. */
+    boolean isPathDependent() {
+      return pathRegex != null
+          || (schemePrefix != null && schemePrefix.indexOf(':') < schemePrefix.length() - 1);
+    }
+  }
+}
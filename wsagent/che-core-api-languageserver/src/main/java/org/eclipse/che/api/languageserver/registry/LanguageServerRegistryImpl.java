@@ -10,6 +10,10 @@
  */
 package org.eclipse.che.api.languageserver.registry;
 
+import static java.util.Collections.reverseOrder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Singleton;
@@ -20,8 +24,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.PreDestroy;
 import org.eclipse.che.api.core.ServerException;
@@ -43,6 +49,9 @@ import org.slf4j.LoggerFactory;
 @Singleton
 public class LanguageServerRegistryImpl implements LanguageServerRegistry {
   private static final Logger LOG = LoggerFactory.getLogger(LanguageServerRegistryImpl.class);
+  /** Maximal number of cached routes of documents, least recently used routes are evicted. */
+  private static final int MAX_ROUTES = 10_000;
+
   private final List<LanguageDescription> languages;
   private final List<LanguageServerLauncher> launchers;
   private final AtomicInteger serverId = new AtomicInteger();
@@ -52,6 +61,12 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
 
   private final Map<String, List<InitializedLanguageServer>> initializedServers;
 
+  /** Document matchers of launchers, prepared once for each launcher. */
+  private final ConcurrentMap<LanguageServerLauncher, DocumentMatcher> matchers =
+      new ConcurrentHashMap<>();
+  /** Initialized servers and routes of documents to them, replaced when servers are changed. */
+  private volatile Routing routing = new Routing(Collections.emptyMap());
+
   private final Provider<ProjectManager> projectManagerProvider;
   private final ServerInitializer initializer;
   private EventService eventService;
@@ -129,6 +144,7 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
                           initializedServers.computeIfAbsent(projectPath, k -> new ArrayList<>());
                       initialized.add(
                           new InitializedLanguageServer(id, pair.first, pair.second, launcher));
+                      routing = new Routing(initializedServers);
                       requiredToLaunch.remove(launcher);
                       initializedServers.notifyAll();
                     }
@@ -191,7 +207,7 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
     List<LanguageServerLauncher> result = new ArrayList<>();
     for (LanguageServerLauncher launcher : launchers) {
       if (launcher.isAbleToLaunch()) {
-        int score = matchScore(launcher.getDescription(), fileUri, language.getLanguageId());
+        int score = getMatcher(launcher).matchScore(fileUri, language.getLanguageId());
         if (score > 0) {
           result.add(launcher);
         }
@@ -231,6 +247,14 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
     return LanguageServiceUtils.prefixURI(fileEntry.getProject());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Found servers are cached by project, language, scheme and extension of the document uri, so
+   * document filters are evaluated only for the first document of a kind. If any server of the
+   * project has path dependent document filters, found servers are cached by the document uri
+   * instead. Cache is dropped whenever a server is initialized, so lookups don't require locking.
+   */
   public List<Collection<InitializedLanguageServer>> getApplicableLanguageServers(String fileUri)
       throws LanguageServerException {
     String projectPath = extractProjectPath(fileUri);
@@ -238,92 +262,76 @@ public class LanguageServerRegistryImpl implements LanguageServerRegistry {
     if (projectPath == null || language == null) {
       return Collections.emptyList();
     }
+    return routing.route(projectPath, fileUri, language.getLanguageId());
+  }
 
-    Map<Integer, List<InitializedLanguageServer>> result = new HashMap<>();
+  private DocumentMatcher getMatcher(LanguageServerLauncher launcher) {
+    return matchers.computeIfAbsent(launcher, l -> new DocumentMatcher(l.getDescription()));
+  }
 
-    List<InitializedLanguageServer> servers = null;
-    synchronized (initializedServers) {
-      List<InitializedLanguageServer> list = initializedServers.get(projectPath);
-      if (list == null) {
+  /** Immutable snapshot of initialized servers with cached routes of documents to them. */
+  private class Routing {
+    private final Map<String, List<InitializedLanguageServer>> servers = new HashMap<>();
+    private final Map<String, Boolean> pathDependent = new HashMap<>();
+    private final Cache<String, List<Collection<InitializedLanguageServer>>> routes =
+        CacheBuilder.newBuilder().maximumSize(MAX_ROUTES).build();
+
+    Routing(Map<String, List<InitializedLanguageServer>> initializedServers) {
+      initializedServers.forEach(
+          (projectPath, projectServers) -> {
+            servers.put(projectPath, new ArrayList<>(projectServers));
+            pathDependent.put(
+                projectPath,
+                projectServers
+                    .stream()
+                    .anyMatch(server -> getMatcher(server.getLauncher()).isPathDependent()));
+          });
+    }
+
+    List<Collection<InitializedLanguageServer>> route(
+        String projectPath, String fileUri, String languageId) {
+      List<InitializedLanguageServer> projectServers = servers.get(projectPath);
+      if (projectServers == null) {
         return Collections.emptyList();
       }
-      servers = new ArrayList<InitializedLanguageServer>(list);
-    }
-    for (InitializedLanguageServer server : servers) {
-      int score =
-          matchScore(server.getLauncher().getDescription(), fileUri, language.getLanguageId());
-      if (score > 0) {
-        List<InitializedLanguageServer> list = result.get(score);
-        if (list == null) {
-          list = new ArrayList<>();
-          result.put(score, list);
-        }
-        list.add(server);
+      String document =
+          pathDependent.get(projectPath) ? fileUri : scheme(fileUri) + '\n' + extension(fileUri);
+      String key = projectPath + '\n' + languageId + '\n' + document;
+      List<Collection<InitializedLanguageServer>> route = routes.getIfPresent(key);
+      if (route == null) {
+        route = findRoute(projectServers, fileUri, languageId);
+        routes.put(key, route);
       }
-    }
-    // sort lists highest score first
-    return result
-        .entrySet()
-        .stream()
-        .sorted((left, right) -> right.getKey() - left.getKey())
-        .map(entry -> entry.getValue())
-        .collect(Collectors.toList());
-  }
-
-  private int matchScore(LanguageServerDescription desc, String path, String languageId) {
-    int match = matchLanguageId(desc, languageId);
-    if (match == 10) {
-      return 10;
+      return route;
     }
 
-    for (DocumentFilter filter : desc.getDocumentFilters()) {
-      if (filter.getLanguageId() != null && filter.getLanguageId().length() > 0) {
-        match = Math.max(match, matchLanguageId(filter.getLanguageId(), languageId));
-        if (match == 10) {
-          return 10;
+    /** Groups matching servers by score, highest score first. */
+    private List<Collection<InitializedLanguageServer>> findRoute(
+        List<InitializedLanguageServer> projectServers, String fileUri, String languageId) {
+      Map<Integer, List<InitializedLanguageServer>> result = new TreeMap<>(reverseOrder());
+      for (InitializedLanguageServer server : projectServers) {
+        int score = getMatcher(server.getLauncher()).matchScore(fileUri, languageId);
+        if (score > 0) {
+          result.computeIfAbsent(score, k -> new ArrayList<>()).add(server);
         }
       }
-      if (filter.getScheme() != null && path.startsWith(filter.getScheme() + ":")) {
-        return 10;
-      }
-      String pattern = filter.getPathRegex();
-      if (pattern != null) {
-        if (pattern.equals(path)) {
-          return 10;
-        }
-        Pattern regex = Pattern.compile(pattern);
-        if (regex.matcher(path).matches()) {
-          match = Math.max(match, 5);
-        }
+      List<Collection<InitializedLanguageServer>> route = new ArrayList<>(result.size());
+      for (List<InitializedLanguageServer> sameScore : result.values()) {
+        route.add(Collections.unmodifiableList(sameScore));
       }
+      return Collections.unmodifiableList(route);
     }
-    return match;
-  }
 
-  private int matchLanguageId(String id, String languageId) {
-    if (id.equals(languageId)) {
-      return 10;
-    } else if ("*".equals(id)) {
-      return 5;
+    /** Returns scheme of the uri including the ':' separator, so it is matched as a prefix. */
+    private String scheme(String fileUri) {
+      return fileUri.substring(0, fileUri.indexOf(':') + 1);
     }
-    return 0;
-  }
 
-  private int matchLanguageId(LanguageServerDescription desc, String languageId) {
-    int match = 0;
-    List<String> languageIds = desc.getLanguageIds();
-    if (languageIds == null) {
-      return 0;
-    }
-    for (String id : languageIds) {
-      if (id.equals(languageId)) {
-        match = 10;
-        break;
-      } else if ("*".equals(id)) {
-        match = 5;
-      }
+    /** Returns extension of the document name or the whole name if it has no extension. */
+    private String extension(String fileUri) {
+      String name = fileUri.substring(fileUri.lastIndexOf('/') + 1);
+      return name.substring(name.lastIndexOf('.') + 1);
     }
-    return match;
   }
 
   @PreDestroy
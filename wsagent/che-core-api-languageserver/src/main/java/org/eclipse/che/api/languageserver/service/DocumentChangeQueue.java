@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of changes of text documents which are sent to language servers. Changes of a document
+ * received within a short window are sent as a single notification, consecutive insertions of
+ * typed text and consecutive deletions are merged into single changes.
+ *
+ * <p>Pending changes of a document must be {@link #flush(String) flushed} before any request which
+ * depends on the document content is sent to language servers.
+ */
+public class DocumentChangeQueue {
+  private static final Logger LOG = LoggerFactory.getLogger(DocumentChangeQueue.class);
+
+  private final Consumer<DidChangeTextDocumentParams> sender;
+  private final ConcurrentMap<String, Document> documents = new ConcurrentHashMap<>();
+  private final Statistics statistics = new Statistics();
+  private final ScheduledExecutorService executor;
+
+  private volatile long windowMillis;
+
+  /**
+   * @param sender sends change notifications to language servers
+   * @param windowMillis time during which changes of a document are collected before they are
+   *     sent, changes are sent immediately if it isn't positive
+   */
+  DocumentChangeQueue(Consumer<DidChangeTextDocumentParams> sender, long windowMillis) {
+    this.sender = sender;
+    this.windowMillis = windowMillis;
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("DocumentChangeQueue")
+                .build());
+  }
+
+  /** Adds changes of a document, the document is identified by uri of its identifier. */
+  void add(DidChangeTextDocumentParams params) {
+    String uri = params.getTextDocument().getUri();
+    statistics.received.addAndGet(params.getContentChanges().size());
+    Document document = documents.computeIfAbsent(uri, Document::new);
+    synchronized (document) {
+      document.merge(params);
+      if (windowMillis <= 0) {
+        document.flush();
+      } else if (document.flushTask == null) {
+        document.flushTask = executor.schedule(() -> flush(uri), windowMillis, MILLISECONDS);
+      }
+    }
+  }
+
+  /** Sends pending changes of the document immediately. */
+  void flush(String uri) {
+    Document document = documents.get(uri);
+    if (document != null) {
+      synchronized (document) {
+        document.flush();
+      }
+    }
+  }
+
+  /** Sends pending changes of the document and forgets it, e.g. when the document is closed. */
+  void remove(String uri) {
+    Document document = documents.remove(uri);
+    if (document != null) {
+      synchronized (document) {
+        document.flush();
+      }
+    }
+  }
+
+  void setWindowMillis(long windowMillis) {
+    this.windowMillis = windowMillis;
+  }
+
+  /** Returns numbers of received changes and of notifications they were sent with. */
+  public Statistics getStatistics() {
+    return statistics;
+  }
+
+  /** Sends all pending changes and stops scheduling. */
+  void shutdown() {
+    documents.keySet().forEach(this::flush);
+    executor.shutdownNow();
+  }
+
+  private static boolean isInsertion(TextDocumentContentChangeEvent change) {
+    return change.getRange() != null
+        && samePosition(change.getRange().getStart(), change.getRange().getEnd())
+        && !change.getText().isEmpty();
+  }
+
+  private static boolean isDeletion(TextDocumentContentChangeEvent change) {
+    return change.getRange() != null && change.getText().isEmpty();
+  }
+
+  /**
+   * Returns a single change which has the same effect as the previous change followed by the next
+   * one, or {@code null} if they can't be merged.
+   */
+  static TextDocumentContentChangeEvent merge(
+      TextDocumentContentChangeEvent previous, TextDocumentContentChangeEvent next) {
+    if (isInsertion(previous) && isInsertion(next)) {
+      // typing: the next text is inserted right after the previously inserted one
+      Position start = previous.getRange().getStart();
+      String text = previous.getText();
+      Position end = next.getRange().getStart();
+      if (text.indexOf('\n') < 0
+          && text.indexOf('\r') < 0
+          && end.getLine() == start.getLine()
+          && end.getCharacter() == start.getCharacter() + text.length()) {
+        return change(previous.getRange(), previous.getRangeLength(), text + next.getText());
+      }
+    } else if (isDeletion(previous) && isDeletion(next)) {
+      // backspace: the next range ends where the previously deleted one started
+      if (samePosition(next.getRange().getEnd(), previous.getRange().getStart())) {
+        Integer length =
+            previous.getRangeLength() == null || next.getRangeLength() == null
+                ? null
+                : previous.getRangeLength() + next.getRangeLength();
+        Range range = new Range(next.getRange().getStart(), previous.getRange().getEnd());
+        return change(range, length, "");
+      }
+    }
+    return null;
+  }
+
+  private static boolean samePosition(Position first, Position second) {
+    return first.getLine() == second.getLine() && first.getCharacter() == second.getCharacter();
+  }
+
+  private static TextDocumentContentChangeEvent change(Range range, Integer length, String text) {
+    TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+    change.setRange(range);
+    change.setRangeLength(length);
+    change.setText(text);
+    return change;
+  }
+
+  /** Pending changes of a document, guarded by the instance lock. */
+  private class Document {
+    private final String uri;
+    private final List<TextDocumentContentChangeEvent> changes = new ArrayList<>();
+
+    private int version = Integer.MIN_VALUE;
+    private int sentVersion = Integer.MIN_VALUE;
+    private ScheduledFuture<?> flushTask;
+
+    Document(String uri) {
+      this.uri = uri;
+    }
+
+    void merge(DidChangeTextDocumentParams params) {
+      version = Math.max(version, params.getTextDocument().getVersion());
+      for (TextDocumentContentChangeEvent change : params.getContentChanges()) {
+        if (change.getRange() == null) {
+          // full content replaces all the preceding changes
+          changes.clear();
+          changes.add(change);
+          continue;
+        }
+        int last = changes.size() - 1;
+        TextDocumentContentChangeEvent merged = last < 0 ? null : merge(changes.get(last), change);
+        if (merged != null) {
+          changes.set(last, merged);
+        } else {
+          changes.add(change);
+        }
+      }
+    }
+
+    void flush() {
+      if (flushTask != null) {
+        flushTask.cancel(false);
+        flushTask = null;
+      }
+      if (changes.isEmpty()) {
+        return;
+      }
+      // versions seen by servers must grow even if the client sends them out of order
+      sentVersion = Math.max(version, sentVersion + 1);
+      version = sentVersion;
+
+      VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier();
+      identifier.setUri(uri);
+      identifier.setVersion(sentVersion);
+      DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+      params.setUri(uri);
+      params.setTextDocument(identifier);
+      params.setContentChanges(new ArrayList<>(changes));
+      changes.clear();
+
+      statistics.sent.incrementAndGet();
+      try {
+        sender.accept(params);
+      } catch (RuntimeException e) {
+        LOG.error("Can not send changes of document '{}': {}", uri, e.getMessage());
+      }
+    }
+  }
+
+  /** Counters of document changes. */
+  public static class Statistics {
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    /** Returns number of changes received from clients. */
+    public long getReceivedChanges() {
+      return received.get();
+    }
+
+    /** Returns number of change notifications sent to language servers. */
+    public long getSentNotifications() {
+      return sent.get();
+    }
+
+    /** Returns average number of received changes per sent notification. */
+    public double getCoalescingRatio() {
+      long sentNotifications = sent.get();
+      return sentNotifications == 0 ? 0 : (double) received.get() / sentNotifications;
+    }
+  }
+}
@@ -10,6 +10,13 @@
  */
 package org.eclipse.che.api.languageserver.service;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcError;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
+import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcPromise;
+
 /** Language service service utilities */
 public class LanguageServiceUtils {
 
@@ -43,4 +50,35 @@ public class LanguageServiceUtils {
   public static String prefixProject(String path) {
     return path.startsWith(PROJECTS) ? path : PROJECTS + path;
   }
+
+  /**
+   * Returns JSON RPC promise which is settled when the future is completed, so a request may be
+   * answered without holding a thread while the result is computed.
+   *
+   * @param endpointId endpoint that sent the request
+   * @param future future result of the request
+   */
+  public static <R> JsonRpcPromise<R> toJsonRpcPromise(
+      String endpointId, CompletableFuture<R> future) {
+    JsonRpcPromise<R> promise = new JsonRpcPromise<>();
+    future.whenComplete(
+        (result, error) -> {
+          if (error == null) {
+            promise.resolve(endpointId, result);
+            return;
+          }
+          Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+          if (cause instanceof JsonRpcException) {
+            JsonRpcException e = (JsonRpcException) cause;
+            promise.reject(endpointId, new JsonRpcError(e.getCode(), e.getMessage()));
+          } else if (cause instanceof CancellationException) {
+            promise.reject(
+                endpointId,
+                new JsonRpcError(-27000, "Language server request is cancelled or timed out"));
+          } else {
+            promise.reject(endpointId, new JsonRpcError(-27000, cause.getMessage()));
+          }
+        });
+    return promise;
+  }
 }
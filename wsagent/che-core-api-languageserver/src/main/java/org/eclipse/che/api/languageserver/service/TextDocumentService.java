@@ -15,7 +15,9 @@ import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.pr
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.prefixURI;
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.removePrefixUri;
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.removeUriScheme;
+import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.toJsonRpcPromise;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
@@ -28,14 +30,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import org.eclipse.che.api.core.jsonrpc.commons.JsonRpcException;
 import org.eclipse.che.api.core.jsonrpc.commons.RequestHandlerConfigurator;
 import org.eclipse.che.api.languageserver.exception.LanguageServerException;
@@ -101,14 +102,38 @@ import org.slf4j.LoggerFactory;
 public class TextDocumentService {
   private static final Logger LOG = LoggerFactory.getLogger(TextDocumentService.class);
 
+  public static final String CHANGE_WINDOW_PROPERTY = "che.languageserver.change_window_ms";
+  private static final long DEFAULT_CHANGE_WINDOW_MILLIS = 100;
+
   private final LanguageServerRegistry languageServerRegistry;
   private final RequestHandlerConfigurator requestHandler;
+  private final DocumentChangeQueue changes;
 
   @Inject
   public TextDocumentService(
       LanguageServerRegistry languageServerRegistry, RequestHandlerConfigurator requestHandler) {
     this.languageServerRegistry = languageServerRegistry;
     this.requestHandler = requestHandler;
+    this.changes = new DocumentChangeQueue(this::sendDidChange, DEFAULT_CHANGE_WINDOW_MILLIS);
+  }
+
+  /**
+   * Sets time during which changes of a document are collected to be sent to language servers as
+   * a single notification, changes are sent immediately if it isn't positive.
+   */
+  @Inject(optional = true)
+  void setChangeWindow(@Named(CHANGE_WINDOW_PROPERTY) long windowMillis) {
+    changes.setWindowMillis(windowMillis);
+  }
+
+  /** Returns numbers of document changes received from clients and sent to language servers. */
+  public DocumentChangeQueue.Statistics getChangeStatistics() {
+    return changes.getStatistics();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    changes.shutdown();
   }
 
   @PostConstruct
@@ -164,10 +189,11 @@ public class TextDocumentService {
     dtoToNothing("didSave", DidSaveTextDocumentParams.class, this::didSave);
   }
 
-  private List<CommandDto> codeAction(CodeActionParams params) {
+  private CompletableFuture<List<CommandDto>> codeAction(CodeActionParams params) {
     TextDocumentIdentifier textDocument = params.getTextDocument();
     String uri = prefixURI(textDocument.getUri());
     textDocument.setUri(uri);
+    changes.flush(uri);
     List<CommandDto> result = new ArrayList<>();
     try {
       List<InitializedLanguageServer> servers =
@@ -198,19 +224,19 @@ public class TextDocumentService {
               return false;
             };
           };
-      OperationUtil.doInParallel(servers, op, 10000);
-      return result;
+      return OperationUtil.doInParallel(servers, op, 10000, () -> result);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private ExtendedCompletionListDto completion(
+  private CompletableFuture<ExtendedCompletionListDto> completion(
       TextDocumentPositionParams textDocumentPositionParams) {
     try {
       TextDocumentIdentifier textDocument = textDocumentPositionParams.getTextDocument();
       String uri = prefixURI(textDocument.getUri());
       textDocument.setUri(uri);
+      changes.flush(uri);
       textDocumentPositionParams.setUri(prefixURI(textDocumentPositionParams.getUri()));
       ExtendedCompletionListDto[] result = new ExtendedCompletionListDto[1];
 
@@ -225,63 +251,56 @@ public class TextDocumentService {
             @Override
             public CompletableFuture<ExtendedCompletionListDto> start(
                 Collection<InitializedLanguageServer> element) {
-              return CompletableFuture.supplyAsync(
-                  () -> {
-                    ExtendedCompletionListDto res = new ExtendedCompletionListDto();
-                    List<ExtendedCompletionItem> items = new ArrayList<>();
-                    res.setItems(items);
-                    LSOperation<
-                            InitializedLanguageServer, Either<List<CompletionItem>, CompletionList>>
-                        op2 =
-                            new LSOperation<
-                                InitializedLanguageServer,
-                                Either<List<CompletionItem>, CompletionList>>() {
-
-                              @Override
-                              public boolean canDo(InitializedLanguageServer element) {
-                                return element
-                                        .getInitializeResult()
-                                        .getCapabilities()
-                                        .getCompletionProvider()
-                                    != null;
-                              }
-
-                              @Override
-                              public CompletableFuture<Either<List<CompletionItem>, CompletionList>>
-                                  start(InitializedLanguageServer element) {
-                                return element
-                                    .getServer()
-                                    .getTextDocumentService()
-                                    .completion(textDocumentPositionParams);
-                              }
-
-                              @Override
-                              public boolean handleResult(
-                                  InitializedLanguageServer element,
-                                  Either<List<CompletionItem>, CompletionList> result) {
-                                List<CompletionItem> itemList;
-                                if (result.isRight()) {
-                                  res.setInComplete(
-                                      res.isInComplete() && result.getRight().isIncomplete());
-                                  itemList = result.getRight().getItems();
-                                } else {
-                                  itemList = result.getLeft();
-                                }
-
-                                for (CompletionItem item : itemList) {
-                                  ExtendedCompletionItemDto exItem =
-                                      new ExtendedCompletionItemDto();
-                                  exItem.setItem(new CompletionItemDto(item));
-                                  exItem.setLanguageServerId(element.getId());
-                                  items.add(exItem);
-                                }
-                                return false;
-                              }
-                            };
-                    OperationUtil.doInParallel(element, op2, 30000);
-
-                    return res;
-                  });
+              ExtendedCompletionListDto res = new ExtendedCompletionListDto();
+              List<ExtendedCompletionItem> items = new ArrayList<>();
+              res.setItems(items);
+              LSOperation<InitializedLanguageServer, Either<List<CompletionItem>, CompletionList>>
+                  op2 =
+                      new LSOperation<
+                          InitializedLanguageServer,
+                          Either<List<CompletionItem>, CompletionList>>() {
+
+                        @Override
+                        public boolean canDo(InitializedLanguageServer element) {
+                          return element
+                                  .getInitializeResult()
+                                  .getCapabilities()
+                                  .getCompletionProvider()
+                              != null;
+                        }
+
+                        @Override
+                        public CompletableFuture<Either<List<CompletionItem>, CompletionList>>
+                            start(InitializedLanguageServer element) {
+                          return element
+                              .getServer()
+                              .getTextDocumentService()
+                              .completion(textDocumentPositionParams);
+                        }
+
+                        @Override
+                        public boolean handleResult(
+                            InitializedLanguageServer element,
+                            Either<List<CompletionItem>, CompletionList> result) {
+                          List<CompletionItem> itemList;
+                          if (result.isRight()) {
+                            res.setInComplete(
+                                res.isInComplete() && result.getRight().isIncomplete());
+                            itemList = result.getRight().getItems();
+                          } else {
+                            itemList = result.getLeft();
+                          }
+
+                          for (CompletionItem item : itemList) {
+                            ExtendedCompletionItemDto exItem = new ExtendedCompletionItemDto();
+                            exItem.setItem(new CompletionItemDto(item));
+                            exItem.setLanguageServerId(element.getId());
+                            items.add(exItem);
+                          }
+                          return false;
+                        }
+                      };
+              return OperationUtil.doInParallel(element, op2, 30000, () -> res);
             }
 
             @Override
@@ -291,17 +310,19 @@ public class TextDocumentService {
               return !list.getItems().isEmpty();
             }
           };
-      OperationUtil.doInSequence(
-          languageServerRegistry.getApplicableLanguageServers(uri), op, 10000);
-      return result[0];
+      return OperationUtil.doInSequence(
+              languageServerRegistry.getApplicableLanguageServers(uri), op, 10000)
+          .thenApply(found -> result[0]);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<SymbolInformationDto> documentSymbol(DocumentSymbolParams documentSymbolParams) {
+  private CompletableFuture<List<SymbolInformationDto>> documentSymbol(
+      DocumentSymbolParams documentSymbolParams) {
     String uri = prefixURI(documentSymbolParams.getTextDocument().getUri());
     documentSymbolParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     List<SymbolInformationDto> result = new ArrayList<>();
     try {
       List<InitializedLanguageServer> servers =
@@ -310,7 +331,7 @@ public class TextDocumentService {
               .stream()
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
-      OperationUtil.doInParallel(
+      return OperationUtil.doInParallel(
           servers,
           new LSOperation<InitializedLanguageServer, List<? extends SymbolInformation>>() {
 
@@ -340,17 +361,17 @@ public class TextDocumentService {
               return true;
             }
           },
-          10000);
-      return result;
-
+          10000,
+          () -> result);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<LocationDto> references(ReferenceParams referenceParams) {
+  private CompletableFuture<List<LocationDto>> references(ReferenceParams referenceParams) {
     String uri = prefixURI(referenceParams.getTextDocument().getUri());
     referenceParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     List<LocationDto> result = new ArrayList<>();
     try {
       List<InitializedLanguageServer> servers =
@@ -359,7 +380,7 @@ public class TextDocumentService {
               .stream()
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
-      OperationUtil.doInParallel(
+      return OperationUtil.doInParallel(
           servers,
           new LSOperation<InitializedLanguageServer, List<? extends Location>>() {
 
@@ -386,16 +407,18 @@ public class TextDocumentService {
               return true;
             }
           },
-          30000);
-      return result;
+          30000,
+          () -> result);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<LocationDto> definition(TextDocumentPositionParams textDocumentPositionParams) {
+  private CompletableFuture<List<LocationDto>> definition(
+      TextDocumentPositionParams textDocumentPositionParams) {
     String uri = prefixURI(textDocumentPositionParams.getTextDocument().getUri());
     textDocumentPositionParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     try {
       List<InitializedLanguageServer> servers =
           languageServerRegistry
@@ -404,7 +427,7 @@ public class TextDocumentService {
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
       List<LocationDto> result = new ArrayList<>();
-      OperationUtil.doInParallel(
+      return OperationUtil.doInParallel(
           servers,
           new LSOperation<InitializedLanguageServer, List<? extends Location>>() {
 
@@ -434,38 +457,40 @@ public class TextDocumentService {
               return true;
             }
           },
-          30000);
-      return result;
+          30000,
+          () -> result);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private ExtendedCompletionItemDto completionItemResolve(ExtendedCompletionItem unresolved) {
-    try {
-      InitializedLanguageServer server =
-          languageServerRegistry.getServer(unresolved.getLanguageServerId());
-
-      if (server != null) {
-        ExtendedCompletionItem res = new ExtendedCompletionItem();
-        res.setItem(
-            server
-                .getServer()
-                .getTextDocumentService()
-                .resolveCompletionItem(unresolved.getItem())
-                .get());
-        res.setLanguageServerId(unresolved.getLanguageServerId());
-        return new ExtendedCompletionItemDto(res);
-      }
-      return new ExtendedCompletionItemDto(unresolved);
-    } catch (InterruptedException | ExecutionException e) {
-      throw new JsonRpcException(-27000, e.getMessage());
+  private CompletableFuture<ExtendedCompletionItemDto> completionItemResolve(
+      ExtendedCompletionItem unresolved) {
+    InitializedLanguageServer server =
+        languageServerRegistry.getServer(unresolved.getLanguageServerId());
+
+    if (server != null) {
+      return OperationUtil.withTimeout(
+              server
+                  .getServer()
+                  .getTextDocumentService()
+                  .resolveCompletionItem(unresolved.getItem()),
+              10000)
+          .thenApply(
+              item -> {
+                ExtendedCompletionItem res = new ExtendedCompletionItem();
+                res.setItem(item);
+                res.setLanguageServerId(unresolved.getLanguageServerId());
+                return new ExtendedCompletionItemDto(res);
+              });
     }
+    return CompletableFuture.completedFuture(new ExtendedCompletionItemDto(unresolved));
   }
 
-  private HoverDto hover(TextDocumentPositionParams positionParams) {
+  private CompletableFuture<HoverDto> hover(TextDocumentPositionParams positionParams) {
     String uri = prefixURI(positionParams.getTextDocument().getUri());
     positionParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     positionParams.setUri(prefixURI(positionParams.getUri()));
     HoverDto result = new HoverDto();
     result.setContents(new ArrayList<>());
@@ -477,7 +502,7 @@ public class TextDocumentService {
               .stream()
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
-      OperationUtil.doInParallel(
+      return OperationUtil.doInParallel(
           servers,
           new LSOperation<InitializedLanguageServer, Hover>() {
 
@@ -500,16 +525,18 @@ public class TextDocumentService {
               return true;
             }
           },
-          10000);
-      return result;
+          10000,
+          () -> result);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private SignatureHelpDto signatureHelp(TextDocumentPositionParams positionParams) {
+  private CompletableFuture<SignatureHelpDto> signatureHelp(
+      TextDocumentPositionParams positionParams) {
     String uri = prefixURI(positionParams.getTextDocument().getUri());
     positionParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     positionParams.setUri(prefixURI(positionParams.getUri()));
     SignatureHelpDto[] result = new SignatureHelpDto[1];
     try {
@@ -542,17 +569,18 @@ public class TextDocumentService {
               return false;
             }
           };
-      OperationUtil.doInSequence(servers, op, 10000);
-      return result[0];
+      return OperationUtil.doInSequence(servers, op, 10000).thenApply(found -> result[0]);
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<TextEditDto> formatting(DocumentFormattingParams documentFormattingParams) {
+  private CompletableFuture<List<TextEditDto>> formatting(
+      DocumentFormattingParams documentFormattingParams) {
     try {
       String uri = prefixURI(documentFormattingParams.getTextDocument().getUri());
       documentFormattingParams.getTextDocument().setUri(uri);
+      changes.flush(uri);
       InitializedLanguageServer server =
           languageServerRegistry
               .getApplicableLanguageServers(uri)
@@ -566,30 +594,21 @@ public class TextDocumentService {
                               .getDocumentFormattingProvider()))
               .findFirst()
               .get();
-      return server == null
-          ? Collections.emptyList()
-          : server
-              .getServer()
-              .getTextDocumentService()
-              .formatting(documentFormattingParams)
-              .get(5000, TimeUnit.MILLISECONDS)
-              .stream()
-              .map(TextEditDto::new)
-              .collect(Collectors.toList());
-
-    } catch (InterruptedException
-        | ExecutionException
-        | LanguageServerException
-        | TimeoutException e) {
+      return OperationUtil.withTimeout(
+              server.getServer().getTextDocumentService().formatting(documentFormattingParams),
+              5000)
+          .thenApply(this::toTextEditDtos);
+    } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<TextEditDto> rangeFormatting(
+  private CompletableFuture<List<TextEditDto>> rangeFormatting(
       DocumentRangeFormattingParams documentRangeFormattingParams) {
     try {
       String uri = prefixURI(documentRangeFormattingParams.getTextDocument().getUri());
       documentRangeFormattingParams.getTextDocument().setUri(uri);
+      changes.flush(uri);
       InitializedLanguageServer server =
           languageServerRegistry
               .getApplicableLanguageServers(uri)
@@ -603,26 +622,24 @@ public class TextDocumentService {
                               .getDocumentRangeFormattingProvider()))
               .findFirst()
               .get();
-      return server == null
-          ? Collections.emptyList()
-          : server
-              .getServer()
-              .getTextDocumentService()
-              .rangeFormatting(documentRangeFormattingParams)
-              .get()
-              .stream()
-              .map(TextEditDto::new)
-              .collect(Collectors.toList());
-    } catch (InterruptedException | ExecutionException | LanguageServerException e) {
+      return OperationUtil.withTimeout(
+              server
+                  .getServer()
+                  .getTextDocumentService()
+                  .rangeFormatting(documentRangeFormattingParams),
+              10000)
+          .thenApply(this::toTextEditDtos);
+    } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private List<TextEditDto> onTypeFormatting(
+  private CompletableFuture<List<TextEditDto>> onTypeFormatting(
       DocumentOnTypeFormattingParams documentOnTypeFormattingParams) {
     try {
       String uri = prefixURI(documentOnTypeFormattingParams.getTextDocument().getUri());
       documentOnTypeFormattingParams.getTextDocument().setUri(uri);
+      changes.flush(uri);
       InitializedLanguageServer server =
           languageServerRegistry
               .getApplicableLanguageServers(uri)
@@ -636,28 +653,28 @@ public class TextDocumentService {
                           != null)
               .findFirst()
               .get();
-      return server == null
-          ? Collections.emptyList()
-          : server
-              .getServer()
-              .getTextDocumentService()
-              .onTypeFormatting(documentOnTypeFormattingParams)
-              .get()
-              .stream()
-              .map(TextEditDto::new)
-              .collect(Collectors.toList());
-    } catch (InterruptedException | ExecutionException | LanguageServerException e) {
+      return OperationUtil.withTimeout(
+              server
+                  .getServer()
+                  .getTextDocumentService()
+                  .onTypeFormatting(documentOnTypeFormattingParams),
+              10000)
+          .thenApply(this::toTextEditDtos);
+    } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
   private void didChange(DidChangeTextDocumentParams didChangeTextDocumentParams) {
+    String uri = prefixURI(didChangeTextDocumentParams.getTextDocument().getUri());
+    didChangeTextDocumentParams.getTextDocument().setUri(uri);
+    changes.add(didChangeTextDocumentParams);
+  }
+
+  private void sendDidChange(DidChangeTextDocumentParams didChangeTextDocumentParams) {
     try {
-      String uri = prefixURI(didChangeTextDocumentParams.getTextDocument().getUri());
-      didChangeTextDocumentParams.getTextDocument().setUri(uri);
-      didChangeTextDocumentParams.setUri(prefixURI(didChangeTextDocumentParams.getUri()));
       languageServerRegistry
-          .getApplicableLanguageServers(uri)
+          .getApplicableLanguageServers(didChangeTextDocumentParams.getTextDocument().getUri())
           .stream()
           .flatMap(Collection::stream)
           .map(InitializedLanguageServer::getServer)
@@ -692,6 +709,7 @@ public class TextDocumentService {
     try {
       String uri = prefixURI(didCloseTextDocumentParams.getTextDocument().getUri());
       didCloseTextDocumentParams.getTextDocument().setUri(uri);
+      changes.remove(uri);
       languageServerRegistry
           .getApplicableLanguageServers(uri)
           .stream()
@@ -710,6 +728,7 @@ public class TextDocumentService {
     try {
       String uri = prefixURI(didSaveTextDocumentParams.getTextDocument().getUri());
       didSaveTextDocumentParams.getTextDocument().setUri(uri);
+      changes.flush(uri);
       languageServerRegistry
           .getApplicableLanguageServers(uri)
           .stream()
@@ -724,11 +743,12 @@ public class TextDocumentService {
     }
   }
 
-  private DocumentHighlightDto documentHighlight(
+  private CompletableFuture<DocumentHighlightDto> documentHighlight(
       TextDocumentPositionParams textDocumentPositionParams) {
     try {
       String uri = prefixURI(textDocumentPositionParams.getTextDocument().getUri());
       textDocumentPositionParams.getTextDocument().setUri(uri);
+      changes.flush(uri);
       @SuppressWarnings("unchecked")
       List<DocumentHighlightDto>[] result = new List[1];
       LSOperation<Collection<InitializedLanguageServer>, List<DocumentHighlightDto>> op =
@@ -742,43 +762,37 @@ public class TextDocumentService {
             @Override
             public CompletableFuture<List<DocumentHighlightDto>> start(
                 Collection<InitializedLanguageServer> element) {
-              return CompletableFuture.supplyAsync(
-                  () -> {
-                    List<DocumentHighlightDto> res = new ArrayList<>();
-                    LSOperation<InitializedLanguageServer, List<? extends DocumentHighlight>> op2 =
-                        new LSOperation<
-                            InitializedLanguageServer, List<? extends DocumentHighlight>>() {
-
-                          @Override
-                          public boolean canDo(InitializedLanguageServer element) {
-                            return truish(
-                                element
-                                    .getInitializeResult()
-                                    .getCapabilities()
-                                    .getDocumentHighlightProvider());
-                          }
-
-                          @Override
-                          public CompletableFuture<List<? extends DocumentHighlight>> start(
-                              InitializedLanguageServer element) {
-                            return element
-                                .getServer()
-                                .getTextDocumentService()
-                                .documentHighlight(textDocumentPositionParams);
-                          }
-
-                          @Override
-                          public boolean handleResult(
-                              InitializedLanguageServer element,
-                              List<? extends DocumentHighlight> result) {
-
-                            return false;
-                          }
-                        };
-                    OperationUtil.doInParallel(element, op2, 10000);
-
-                    return res;
-                  });
+              List<DocumentHighlightDto> res = new ArrayList<>();
+              LSOperation<InitializedLanguageServer, List<? extends DocumentHighlight>> op2 =
+                  new LSOperation<InitializedLanguageServer, List<? extends DocumentHighlight>>() {
+
+                    @Override
+                    public boolean canDo(InitializedLanguageServer element) {
+                      return truish(
+                          element
+                              .getInitializeResult()
+                              .getCapabilities()
+                              .getDocumentHighlightProvider());
+                    }
+
+                    @Override
+                    public CompletableFuture<List<? extends DocumentHighlight>> start(
+                        InitializedLanguageServer element) {
+                      return element
+                          .getServer()
+                          .getTextDocumentService()
+                          .documentHighlight(textDocumentPositionParams);
+                    }
+
+                    @Override
+                    public boolean handleResult(
+                        InitializedLanguageServer element,
+                        List<? extends DocumentHighlight> result) {
+
+                      return false;
+                    }
+                  };
+              return OperationUtil.doInParallel(element, op2, 10000, () -> res);
             }
 
             @Override
@@ -788,21 +802,19 @@ public class TextDocumentService {
               return !list.isEmpty();
             }
           };
-      OperationUtil.doInSequence(
-          languageServerRegistry.getApplicableLanguageServers(uri), op, 10000);
-
-      if (!result[0].isEmpty()) {
-        return result[0].get(0);
-      }
-      return null;
+      return OperationUtil.doInSequence(
+              languageServerRegistry.getApplicableLanguageServers(uri), op, 10000)
+          .thenApply(
+              found -> result[0] == null || result[0].isEmpty() ? null : result[0].get(0));
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
   }
 
-  private RenameResultDto rename(RenameParams renameParams) {
+  private CompletableFuture<RenameResultDto> rename(RenameParams renameParams) {
     String uri = prefixURI(renameParams.getTextDocument().getUri());
     renameParams.getTextDocument().setUri(uri);
+    changes.flush(uri);
     Map<String, ExtendedWorkspaceEdit> edits = new ConcurrentHashMap<>();
     try {
       List<InitializedLanguageServer> servers =
@@ -832,11 +844,14 @@ public class TextDocumentService {
               return true;
             }
           };
-      OperationUtil.doInParallel(servers, op, TimeUnit.SECONDS.toMillis(30));
+      return OperationUtil.doInParallel(
+          servers,
+          op,
+          TimeUnit.SECONDS.toMillis(30),
+          () -> new RenameResultDto(new RenameResult(edits)));
     } catch (LanguageServerException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
-    return new RenameResultDto(new RenameResult(edits));
   }
 
   private void addRenameResult(
@@ -919,23 +934,32 @@ public class TextDocumentService {
   }
 
   private <P, R> void dtoToDtoList(
-      String name, Class<P> pClass, Class<R> rClass, Function<P, List<R>> function) {
+      String name,
+      Class<P> pClass,
+      Class<R> rClass,
+      Function<P, CompletableFuture<List<R>>> function) {
     requestHandler
         .newConfiguration()
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
-        .resultAsListOfDto(rClass)
-        .withFunction(function);
+        .resultAsPromiseListOfDto(rClass)
+        .withPromiseBiFunction(
+            (endpointId, params) -> toJsonRpcPromise(endpointId, function.apply(params)));
   }
 
   private <P, R> void dtoToDto(
-      String name, Class<P> pClass, Class<R> rClass, Function<P, R> function) {
+      String name, Class<P> pClass, Class<R> rClass, Function<P, CompletableFuture<R>> function) {
     requestHandler
         .newConfiguration()
         .methodName("textDocument/" + name)
         .paramsAsDto(pClass)
-        .resultAsDto(rClass)
-        .withFunction(function);
+        .resultAsPromiseDto(rClass)
+        .withPromiseBiFunction(
+            (endpointId, params) -> toJsonRpcPromise(endpointId, function.apply(params)));
+  }
+
+  private List<TextEditDto> toTextEditDtos(List<? extends TextEdit> edits) {
+    return edits.stream().map(TextEditDto::new).collect(Collectors.toList());
   }
 
   private boolean truish(Boolean b) {
@@ -12,6 +12,7 @@ package org.eclipse.che.api.languageserver.service;
 
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.prefixURI;
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.removePrefixUri;
+import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.toJsonRpcPromise;
 import static org.eclipse.che.api.languageserver.service.LanguageServiceUtils.truish;
 
 import com.google.inject.Inject;
@@ -81,8 +82,9 @@ public class WorkspaceService {
         .newConfiguration()
         .methodName("workspace/symbol")
         .paramsAsDto(ExtendedWorkspaceSymbolParams.class)
-        .resultAsListOfDto(SymbolInformationDto.class)
-        .withFunction(this::symbol);
+        .resultAsPromiseListOfDto(SymbolInformationDto.class)
+        .withPromiseBiFunction(
+            (endpointId, params) -> toJsonRpcPromise(endpointId, symbol(params)));
     requestHandler
         .newConfiguration()
         .methodName("workspace/editFile")
@@ -137,7 +139,8 @@ public class WorkspaceService {
     }
   }
 
-  private List<SymbolInformationDto> symbol(ExtendedWorkspaceSymbolParams workspaceSymbolParams) {
+  private CompletableFuture<List<SymbolInformationDto>> symbol(
+      ExtendedWorkspaceSymbolParams workspaceSymbolParams) {
     List<SymbolInformationDto> result = new ArrayList<>();
     List<InitializedLanguageServer> servers;
     try {
@@ -147,7 +150,7 @@ public class WorkspaceService {
               .stream()
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
-      OperationUtil.doInParallel(
+      return OperationUtil.doInParallel(
           servers,
           new LSOperation<InitializedLanguageServer, List<? extends SymbolInformation>>() {
 
@@ -174,8 +177,8 @@ public class WorkspaceService {
               return true;
             }
           },
-          10000);
-      return result;
+          10000,
+          () -> result);
     } catch (LanguageServerException e) {
       LOG.error("error getting symbol", e);
       throw new JsonRpcException(-27000, e.getMessage());
@@ -10,110 +10,206 @@
  */
 package org.eclipse.che.api.languageserver.util;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Executes {@link LSOperation operations} against collections of language servers without blocking
+ * the calling thread. Results are aggregated by composition of futures returned by the operations,
+ * operations which don't complete until the deadline are cancelled, and cancellation of the
+ * returned future is propagated to the operations which are still running.
+ */
 public class OperationUtil {
   private static final Logger LOG = LoggerFactory.getLogger(OperationUtil.class);
 
+  /** Cancels operations which aren't completed until their deadlines. */
+  private static final ScheduledExecutorService DEADLINES =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+              .setNameFormat("LSOperationDeadline")
+              .build());
+
   /**
-   * Execute the given operation on each element of the collection in sequence. Stops as soon as
-   * {@link LSOperation#canDo(Object)} returns true.
+   * Executes the given operation on each element of the collection in sequence, the operation is
+   * started on the next element when it is completed on the previous one. Stops as soon as {@link
+   * LSOperation#handleResult(Object, Object)} returns true.
    *
-   * @param collection
-   * @param op
-   * @param timeoutMillis
+   * @param collection elements to execute the operation on
+   * @param op operation to execute
+   * @param timeoutMillis time given to the whole sequence, the running operation is cancelled when
+   *     it is exceeded
+   * @return future that is completed with {@code true} if any element produced a valid result, or
+   *     with {@code false} otherwise; cancellation of the future cancels the running operation
    */
-  public static <C, R> void doInSequence(
+  public static <C, R> CompletableFuture<Boolean> doInSequence(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
-    long endTime = System.currentTimeMillis() + timeoutMillis;
-    for (C element : collection) {
-      if (op.canDo(element)) {
-        CompletableFuture<R> future = op.start(element);
-        try {
-          R result = future.get(Math.max(endTime - timeoutMillis, 1), TimeUnit.MILLISECONDS);
-          if (op.handleResult(element, result)) {
-            return;
-          }
-        } catch (InterruptedException e) {
-          LOG.info("Thread interrupted", e);
-          Thread.currentThread().interrupt();
-        } catch (ExecutionException e) {
-          LOG.info("Exception occurred in op", e);
-        } catch (TimeoutException e) {
-          future.cancel(true);
-        }
-      }
-    }
+    CompletableFuture<Boolean> done = new CompletableFuture<>();
+    doNext(collection.iterator(), op, System.currentTimeMillis() + timeoutMillis, done);
+    return done;
   }
 
   /**
    * Executes the given operation in parallel for each element in the collection. Failures in any of
-   * the operations are ignored.
+   * the operations are ignored. Results are handled one at a time.
    *
-   * @param collection
-   * @param op
-   * @param timeoutMillis
+   * @param collection elements to execute the operation on
+   * @param op operation to execute
+   * @param timeoutMillis time given to the whole execution, when it is exceeded the returned future
+   *     is completed with results handled so far and the running operations are cancelled
+   * @return future that is completed when results of all the operations are handled, or the
+   *     operations are failed or cancelled, or the time is exceeded; cancellation of the future
+   *     cancels the operations
    */
-  public static <C, R> void doInParallel(
+  public static <C, R> CompletableFuture<Void> doInParallel(
       Collection<C> collection, LSOperation<C, R> op, long timeoutMillis) {
-    Object lock = new Object();
-    List<CompletableFuture<?>> pendingResponses = new ArrayList<>();
+    return doInParallel(collection, op, timeoutMillis, () -> null);
+  }
 
+  /**
+   * Executes the given operation in parallel for each element in the collection, same as {@link
+   * #doInParallel(Collection, LSOperation, long)}, and completes the returned future with the value
+   * aggregated from handled results.
+   *
+   * @param aggregate supplies the value which the returned future is completed with, it is called
+   *     once all the results are handled or the time is exceeded, results which come later are not
+   *     handled
+   */
+  public static <C, R, T> CompletableFuture<T> doInParallel(
+      Collection<C> collection, LSOperation<C, R> op, long timeoutMillis, Supplier<T> aggregate) {
+    Object lock = new Object();
+    CompletableFuture<T> done = new CompletableFuture<>();
+    ScheduledFuture<?> deadline =
+        DEADLINES.schedule(() -> complete(done, aggregate, lock), timeoutMillis, MILLISECONDS);
+    List<CompletableFuture<R>> started = new ArrayList<>();
+    List<CompletableFuture<?>> handled = new ArrayList<>();
     for (C element : collection) {
+      if (done.isDone()) {
+        break;
+      }
       if (op.canDo(element)) {
         CompletableFuture<R> future = op.start(element);
-        synchronized (lock) {
-          pendingResponses.add(future);
-          lock.notifyAll();
-        }
-        future
-            .thenAccept(
-                result -> {
-                  synchronized (lock) {
-                    if (!future.isCancelled()) {
-                      op.handleResult(element, result);
-                      pendingResponses.remove(future);
-                      lock.notifyAll();
+        started.add(future);
+        handled.add(
+            future.handle(
+                (result, error) -> {
+                  if (error == null) {
+                    synchronized (lock) {
+                      if (!done.isDone()) {
+                        handleResult(op, element, result);
+                      }
                     }
-                  }
-                })
-            .exceptionally(
-                (t) -> {
-                  LOG.info("Exception occurred in request", t);
-                  synchronized (lock) {
-                    pendingResponses.remove(future);
-                    lock.notifyAll();
+                  } else {
+                    logFailure(error);
                   }
                   return null;
-                });
+                }));
       }
     }
 
-    long endTime = System.currentTimeMillis() + 5000;
+    CompletableFuture.allOf(handled.toArray(new CompletableFuture[handled.size()]))
+        .thenRun(() -> complete(done, aggregate, lock));
+    done.whenComplete(
+        (ignored, error) -> {
+          deadline.cancel(false);
+          started.forEach(future -> future.cancel(true));
+        });
+    return done;
+  }
 
-    try {
-      synchronized (lock) {
-        while (System.currentTimeMillis() < endTime && pendingResponses.size() > 0) {
-          lock.wait(endTime - System.currentTimeMillis());
-        }
+  /**
+   * Cancels the future if it isn't completed in the given time.
+   *
+   * @return the given future
+   */
+  public static <R> CompletableFuture<R> withTimeout(
+      CompletableFuture<R> future, long timeoutMillis) {
+    cancelAfter(future, timeoutMillis);
+    return future;
+  }
+
+  private static <C, R> void doNext(
+      Iterator<C> elements, LSOperation<C, R> op, long deadline, CompletableFuture<Boolean> done) {
+    while (elements.hasNext() && !done.isDone()) {
+      C element = elements.next();
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        break;
+      }
+      if (op.canDo(element)) {
+        CompletableFuture<R> future = op.start(element);
+        cancelAfter(future, remaining);
+        done.whenComplete((ignored, error) -> future.cancel(true));
+        future.whenComplete(
+            (result, error) -> {
+              if (error == null) {
+                if (handleResult(op, element, result)) {
+                  done.complete(true);
+                  return;
+                }
+              } else {
+                logFailure(error);
+              }
+              doNext(elements, op, deadline, done);
+            });
+        return;
       }
-    } catch (InterruptedException e) {
-      LOG.info("Thread interrupted", e);
-      Thread.currentThread().interrupt();
     }
+    done.complete(false);
+  }
+
+  /** Completes the future with aggregated results unless it is already completed. */
+  private static <T> void complete(CompletableFuture<T> done, Supplier<T> aggregate, Object lock) {
     synchronized (lock) {
-      for (CompletableFuture<?> pending : new ArrayList<>(pendingResponses)) {
-        pending.cancel(true);
+      if (done.isDone()) {
+        return;
       }
-      lock.notifyAll();
+      try {
+        done.complete(aggregate.get());
+      } catch (RuntimeException e) {
+        done.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static <C, R> boolean handleResult(LSOperation<C, R> op, C element, R result) {
+    try {
+      return op.handleResult(element, result);
+    } catch (RuntimeException e) {
+      LOG.info("Exception occurred while handling result of op", e);
+      return false;
+    }
+  }
+
+  private static void logFailure(Throwable error) {
+    if (error instanceof CancellationException) {
+      LOG.debug("Op is cancelled");
+    } else {
+      LOG.info("Exception occurred in op", error);
+    }
+  }
+
+  private static void cancelAfter(CompletableFuture<?> future, long timeoutMillis) {
+    if (future.isDone()) {
+      return;
     }
+    ScheduledFuture<?> deadline =
+        DEADLINES.schedule(() -> future.cancel(true), timeoutMillis, MILLISECONDS);
+    future.whenComplete((result, error) -> deadline.cancel(false));
   }
 }
@@ -19,9 +19,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import com.google.inject.Provider;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import org.eclipse.che.api.languageserver.exception.LanguageServerException;
 import org.eclipse.che.api.languageserver.launcher.LanguageServerLauncher;
@@ -124,4 +128,17 @@ public class LanguageServerRegistryImplTest {
     verify(initializer)
         .initialize(eq(languageServerLauncher), any(LanguageClient.class), eq(PROJECT_PATH));
   }
+
+  @Test
+  public void shouldRouteDocumentsToInitializedServers() throws Exception {
+    registry.initialize(PREFIX + FILE_PATH);
+
+    List<Collection<InitializedLanguageServer>> servers =
+        registry.getApplicableLanguageServers(PREFIX + FILE_PATH);
+
+    assertEquals(servers.size(), 1);
+    assertEquals(servers.get(0).iterator().next().getServer(), languageServer);
+    assertSame(registry.getApplicableLanguageServers(PREFIX + "/projects/1/other.txt"), servers);
+    assertTrue(registry.getApplicableLanguageServers(PREFIX + "/projects/1/test.md").isEmpty());
+  }
 }
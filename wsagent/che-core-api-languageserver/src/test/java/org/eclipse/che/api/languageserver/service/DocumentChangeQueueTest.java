@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
+import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests for {@link DocumentChangeQueue} */
+public class DocumentChangeQueueTest {
+  private static final String URI = "file:///projects/p/Test.java";
+
+  private List<DidChangeTextDocumentParams> sent;
+  private DocumentChangeQueue queue;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    sent = new ArrayList<>();
+    queue = new DocumentChangeQueue(sent::add, 60_000);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    queue.shutdown();
+  }
+
+  @Test
+  public void shouldMergeTypedTextIntoSingleChange() throws Exception {
+    queue.add(params(1, change(0, 4, 0, 4, "a")));
+    queue.add(params(2, change(0, 5, 0, 5, "b")));
+    queue.add(params(3, change(0, 6, 0, 6, "c")));
+    assertTrue(sent.isEmpty());
+
+    queue.flush(URI);
+
+    assertEquals(sent.size(), 1);
+    DidChangeTextDocumentParams params = sent.get(0);
+    assertEquals(params.getTextDocument().getVersion(), 3);
+    assertEquals(params.getContentChanges().size(), 1);
+    assertEquals(params.getContentChanges().get(0).getText(), "abc");
+    assertEquals(params.getContentChanges().get(0).getRange().getStart().getCharacter(), 4);
+    assertEquals(queue.getStatistics().getCoalescingRatio(), 3.0);
+  }
+
+  @Test
+  public void shouldMergeConsecutiveDeletions() throws Exception {
+    queue.add(params(1, change(2, 9, 2, 10, "")));
+    queue.add(params(2, change(2, 8, 2, 9, "")));
+
+    queue.flush(URI);
+
+    TextDocumentContentChangeEvent change = sent.get(0).getContentChanges().get(0);
+    assertEquals(change.getRange().getStart().getCharacter(), 8);
+    assertEquals(change.getRange().getEnd().getCharacter(), 10);
+  }
+
+  @Test
+  public void shouldKeepChangesWhichCanNotBeMerged() throws Exception {
+    queue.add(params(1, change(0, 4, 0, 4, "a")));
+    queue.add(params(2, change(3, 0, 3, 0, "b")));
+
+    queue.remove(URI);
+
+    assertEquals(sent.size(), 1);
+    assertEquals(sent.get(0).getContentChanges().size(), 2);
+  }
+
+  @Test
+  public void shouldReplacePendingChangesWithFullContent() throws Exception {
+    queue.add(params(1, change(0, 4, 0, 4, "a")));
+    TextDocumentContentChangeEvent full = new TextDocumentContentChangeEvent();
+    full.setText("text");
+    queue.add(params(2, full));
+
+    queue.flush(URI);
+
+    assertEquals(sent.get(0).getContentChanges().size(), 1);
+    assertNull(sent.get(0).getContentChanges().get(0).getRange());
+  }
+
+  @Test
+  public void shouldSendMonotonicVersions() throws Exception {
+    queue.add(params(5, change(0, 0, 0, 0, "a")));
+    queue.flush(URI);
+    queue.add(params(4, change(1, 0, 1, 0, "b")));
+    queue.flush(URI);
+
+    assertEquals(sent.get(0).getTextDocument().getVersion(), 5);
+    assertEquals(sent.get(1).getTextDocument().getVersion(), 6);
+  }
+
+  @Test
+  public void shouldSendChangesImmediatelyWithoutWindow() throws Exception {
+    queue.setWindowMillis(0);
+
+    queue.add(params(1, change(0, 0, 0, 0, "a")));
+
+    assertEquals(sent.size(), 1);
+  }
+
+  private static DidChangeTextDocumentParams params(
+      int version, TextDocumentContentChangeEvent change) {
+    VersionedTextDocumentIdentifier identifier = new VersionedTextDocumentIdentifier();
+    identifier.setUri(URI);
+    identifier.setVersion(version);
+    DidChangeTextDocumentParams params = new DidChangeTextDocumentParams();
+    params.setTextDocument(identifier);
+    params.setContentChanges(Collections.singletonList(change));
+    return params;
+  }
+
+  private static TextDocumentContentChangeEvent change(
+      int startLine, int startCharacter, int endLine, int endCharacter, String text) {
+    TextDocumentContentChangeEvent change = new TextDocumentContentChangeEvent();
+    change.setRange(
+        new Range(new Position(startLine, startCharacter), new Position(endLine, endCharacter)));
+    change.setText(text);
+    return change;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.languageserver.util;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class OperationUtilTest {
+  private Map<String, CompletableFuture<String>> futures;
+  private List<String> handled;
+
+  @BeforeMethod
+  public void setUp() {
+    futures = new ConcurrentHashMap<>();
+    handled = new ArrayList<>();
+  }
+
+  @Test
+  public void completesWithPartialResultsWhenDeadlineIsExceeded() throws Exception {
+    futures.put("fast", CompletableFuture.completedFuture("fast result"));
+    futures.put("slow", new CompletableFuture<>());
+
+    CompletableFuture<List<String>> done =
+        OperationUtil.doInParallel(asList("fast", "slow"), operation(), 100, () -> handled);
+
+    assertEquals(done.get(5, SECONDS), asList("fast result"));
+    assertTrue(futures.get("slow").isCancelled());
+  }
+
+  @Test
+  public void cancelsOperationsWhenResultIsCancelled() throws Exception {
+    futures.put("first", new CompletableFuture<>());
+    futures.put("second", new CompletableFuture<>());
+
+    CompletableFuture<Void> done =
+        OperationUtil.doInParallel(asList("first", "second"), operation(), 10_000);
+    done.cancel(true);
+
+    assertTrue(futures.get("first").isCancelled());
+    assertTrue(futures.get("second").isCancelled());
+  }
+
+  @Test
+  public void completesSequenceWithFirstValidResult() throws Exception {
+    futures.put("empty", CompletableFuture.completedFuture(""));
+    futures.put("valid", CompletableFuture.completedFuture("valid result"));
+    futures.put("unused", new CompletableFuture<>());
+
+    CompletableFuture<Boolean> done =
+        OperationUtil.doInSequence(asList("empty", "valid", "unused"), operation(), 10_000);
+
+    assertTrue(done.get(5, SECONDS));
+    assertEquals(handled, asList("", "valid result"));
+    assertFalse(futures.get("unused").isDone());
+  }
+
+  @Test
+  public void cancelsRunningOperationOfSequenceWhenDeadlineIsExceeded() throws Exception {
+    futures.put("slow", new CompletableFuture<>());
+    futures.put("unused", CompletableFuture.completedFuture("unused result"));
+
+    CompletableFuture<Boolean> done =
+        OperationUtil.doInSequence(asList("slow", "unused"), operation(), 50);
+
+    assertFalse(done.get(5, SECONDS));
+    assertTrue(futures.get("slow").isCancelled());
+    assertTrue(handled.isEmpty());
+  }
+
+  private LSOperation<String, String> operation() {
+    return new LSOperation<String, String>() {
+      @Override
+      public boolean canDo(String element) {
+        return true;
+      }
+
+      @Override
+      public CompletableFuture<String> start(String element) {
+        return futures.get(element);
+      }
+
+      @Override
+      public boolean handleResult(String element, String result) {
+        handled.add(result);
+        return !result.isEmpty();
+      }
+    };
+  }
+}
@@ -33,4 +33,8 @@ public interface ProjectSearchRequestDto {
   int getSkipCount();
 
   ProjectSearchRequestDto withSkipCount(int skipCount);
+
+  String getCursor();
+
+  ProjectSearchRequestDto withCursor(String cursor);
 }
@@ -22,4 +22,9 @@ public interface ProjectSearchResponseDto {
   int getTotalHits();
 
   ProjectSearchResponseDto withTotalHits(int totalHits);
+
+  /** Cursor of the next page of results, {@code null} if there are no more results. */
+  String getNextPageCursor();
+
+  ProjectSearchResponseDto withNextPageCursor(String nextPageCursor);
 }
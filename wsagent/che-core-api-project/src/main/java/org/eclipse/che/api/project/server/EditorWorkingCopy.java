@@ -18,19 +18,27 @@ import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
 
 /**
  * In-memory implementation of working copy for opened editor on client.
  *
+ * <p>Content is kept as it was read until the first editor change. Then it is decoded once into a
+ * {@link PieceTable}, so each change costs time logarithmic to the number of changes rather than
+ * linear to the length of the content, and content is read from an immutable snapshot of the
+ * table.
+ *
  * @author Roman Nikitenko
  */
 public class EditorWorkingCopy {
   private String path;
   private String projectPath;
-  private byte[] content;
+  private volatile Content content;
+  private PieceTable text;
 
   /**
    * Creates a working copy for opened editor on client.
@@ -42,7 +50,7 @@ public class EditorWorkingCopy {
   public EditorWorkingCopy(String path, String projectPath, byte[] content) {
     this.path = path;
     this.projectPath = projectPath;
-    this.content = Arrays.copyOf(content, content.length);
+    this.content = new Content(Arrays.copyOf(content, content.length), null);
   }
 
   /**
@@ -51,10 +59,11 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public byte[] getContentAsBytes() {
-    if (content == null) {
-      content = new byte[0];
+    final Content current = content;
+    if (current.changed != null) {
+      return current.changed.toString().getBytes();
     }
-    return Arrays.copyOf(content, content.length);
+    return Arrays.copyOf(current.original, current.original.length);
   }
 
   /**
@@ -63,7 +72,11 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public String getContentAsString() {
-    return new String(getContentAsBytes());
+    final Content current = content;
+    if (current.changed != null) {
+      return current.changed.toString();
+    }
+    return new String(current.original);
   }
 
   /**
@@ -72,7 +85,11 @@ public class EditorWorkingCopy {
    * @return content ot the working copy
    */
   public InputStream getContent() {
-    return new ByteArrayInputStream(getContentAsBytes());
+    final Content current = content;
+    if (current.changed != null) {
+      return new ReaderInputStream(current.changed.reader(), Charset.defaultCharset());
+    }
+    return new ByteArrayInputStream(current.original);
   }
 
   /**
@@ -82,7 +99,10 @@ public class EditorWorkingCopy {
    * @return current working copy after updating content
    */
   EditorWorkingCopy updateContent(byte[] content) {
-    this.content = content;
+    synchronized (this) {
+      this.content = new Content(content == null ? new byte[0] : content, null);
+      this.text = null;
+    }
     return this;
   }
 
@@ -126,22 +146,33 @@ public class EditorWorkingCopy {
       int offset = changes.getOffset();
       int removedCharCount = changes.getRemovedCharCount();
 
-      String newContent = null;
-      String oldContent = getContentAsString();
       EditorChangesDto.Type type = changes.getType();
       if (type == INSERT) {
-        newContent = new StringBuilder(oldContent).insert(offset, text).toString();
+        getText().insert(offset, text);
+      } else if (type == REMOVE && removedCharCount > 0) {
+        getText().remove(offset, removedCharCount);
+      } else {
+        return;
       }
+      content = new Content(null, this.text.snapshot());
+    }
+  }
 
-      if (type == REMOVE && removedCharCount > 0) {
-        newContent =
-            new StringBuilder(oldContent).delete(offset, offset + removedCharCount).toString();
-      }
+  /**
+   * Returns approximate number of bytes the content of the working copy occupies in memory. For
+   * changed content these are the arrays kept alive by the piece table rather than the length of
+   * the text, since removed characters are not released until none of the pieces refers to them.
+   */
+  long getSize() {
+    final Content current = content;
+    return current.changed != null ? current.changed.retainedBytes() : current.original.length;
+  }
 
-      if (newContent != null) {
-        updateContent(newContent);
-      }
+  private PieceTable getText() {
+    if (text == null) {
+      text = new PieceTable(getContentAsString());
     }
+    return text;
   }
 
   /** Returns the path to the persistent working copy */
@@ -161,4 +192,15 @@ public class EditorWorkingCopy {
   public void setProjectPath(String projectPath) {
     this.projectPath = projectPath;
   }
+
+  /** Either content which wasn't changed by editor yet or snapshot of changed content. */
+  private static final class Content {
+    final byte[] original;
+    final PieceTable.Snapshot changed;
+
+    Content(byte[] original, PieceTable.Snapshot changed) {
+      this.original = original;
+      this.changed = changed;
+    }
+  }
 }
@@ -15,12 +15,11 @@ import static java.nio.charset.Charset.defaultCharset;
 import static org.eclipse.che.api.project.shared.Constants.CHE_DIR;
 
 import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import org.eclipse.che.api.core.ConflictException;
@@ -50,12 +49,15 @@ public class EditorWorkingCopyManager {
   private static final String WORKING_COPIES_DIR = "/" + CHE_DIR + "/workingCopies";
   private static final String WORKING_COPY_ERROR_METHOD = "track:editor-working-copy-error";
 
+  public static final String MAX_BYTES_PROPERTY = "che.editor.working_copies.max_bytes";
+  private static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
   private Provider<ProjectManager> projectManagerProvider;
   private EventService eventService;
   private RequestTransmitter transmitter;
   private EventSubscriber<FileTrackingOperationEvent> fileOperationEventSubscriber;
 
-  private final Map<String, EditorWorkingCopy> workingCopiesStorage = new HashMap<>();
+  private final EditorWorkingCopyStore workingCopiesStorage;
 
   @Inject
   public EditorWorkingCopyManager(
@@ -65,6 +67,26 @@ public class EditorWorkingCopyManager {
     this.projectManagerProvider = projectManagerProvider;
     this.eventService = eventService;
     this.transmitter = transmitter;
+    this.workingCopiesStorage =
+        new EditorWorkingCopyStore(
+            new EditorWorkingCopyStore.Persistence() {
+              @Override
+              public EditorWorkingCopy load(String filePath, boolean spilled)
+                  throws ServerException {
+                return loadWorkingCopy(filePath, spilled);
+              }
+
+              @Override
+              public void spill(String filePath, EditorWorkingCopy workingCopy)
+                  throws ServerException {
+                try {
+                  createPersistentWorkingCopy(filePath, workingCopy);
+                } catch (ConflictException | ForbiddenException e) {
+                  throw new ServerException(e.getLocalizedMessage());
+                }
+              }
+            },
+            DEFAULT_MAX_BYTES);
 
     fileOperationEventSubscriber =
         new EventSubscriber<FileTrackingOperationEvent>() {
@@ -89,6 +111,20 @@ public class EditorWorkingCopyManager {
     return workingCopiesStorage.get(filePath);
   }
 
+  /** Returns counters of working copies which content is released to keep memory usage limited. */
+  public EditorWorkingCopyStore.Statistics getWorkingCopiesStatistics() {
+    return workingCopiesStorage.getStatistics();
+  }
+
+  /**
+   * Sets maximal number of bytes of working copies content kept in memory, content of the least
+   * recently used working copies above this limit is released.
+   */
+  @Inject(optional = true)
+  void setMaxBytes(@Named(MAX_BYTES_PROPERTY) long maxBytes) {
+    workingCopiesStorage.setMaxBytes(maxBytes);
+  }
+
   void onEditorContentUpdated(String endpointId, EditorChangesDto changes) {
     String filePath = changes.getFileLocation();
     String projectPath = changes.getProjectPath();
@@ -98,12 +134,12 @@ public class EditorWorkingCopyManager {
         throw new NotFoundException("Paths for file and project should be defined");
       }
 
-      EditorWorkingCopy workingCopy = workingCopiesStorage.get(filePath);
-      if (workingCopy == null) {
-        workingCopy = createWorkingCopy(filePath);
+      if (!workingCopiesStorage.applyChanges(filePath, changes)) {
+        createWorkingCopy(filePath);
+        if (!workingCopiesStorage.applyChanges(filePath, changes)) {
+          throw new NotFoundException(format("Working copy of '%s' isn't found. ", filePath));
+        }
       }
-
-      workingCopy.applyChanges(changes);
       eventService.publish(new EditorWorkingCopyUpdatedEvent(endpointId, changes));
 
     } catch (IOException | ForbiddenException | ConflictException | ServerException e) {
@@ -144,9 +180,9 @@ public class EditorWorkingCopyManager {
               return;
             }
 
-            if (isWorkingCopyHasUnsavedData(path)) {
-              createPersistentWorkingCopy(
-                  path); // to have ability to recover unsaved data when the file will be open later
+            if (isWorkingCopyHasUnsavedData(path, workingCopy)) {
+              // to have ability to recover unsaved data when the file will be open later
+              createPersistentWorkingCopy(path, workingCopy);
             } else {
               VirtualFileEntry persistentWorkingCopy =
                   getPersistentWorkingCopy(path, workingCopy.getProjectPath());
@@ -170,7 +206,7 @@ public class EditorWorkingCopyManager {
 
             String workingCopyNewPath = toWorkingCopyPath(newPath);
             workingCopy.setPath(workingCopyNewPath);
-            workingCopiesStorage.put(newPath, workingCopy);
+            workingCopiesStorage.put(newPath, workingCopy, true);
 
             String projectPath = workingCopy.getProjectPath();
             VirtualFileEntry persistentWorkingCopy = getPersistentWorkingCopy(oldPath, projectPath);
@@ -212,13 +248,9 @@ public class EditorWorkingCopyManager {
         .sendAndSkipResult();
   }
 
-  private boolean isWorkingCopyHasUnsavedData(String originalFilePath) {
+  private boolean isWorkingCopyHasUnsavedData(
+      String originalFilePath, EditorWorkingCopy workingCopy) {
     try {
-      EditorWorkingCopy workingCopy = workingCopiesStorage.get(originalFilePath);
-      if (workingCopy == null) {
-        return false;
-      }
-
       FileEntry originalFile = projectManagerProvider.get().asFile(originalFilePath);
       if (originalFile == null) {
         return false;
@@ -257,19 +289,14 @@ public class EditorWorkingCopyManager {
 
     EditorWorkingCopy workingCopy =
         new EditorWorkingCopy(workingCopyPath, projectPath, file.contentAsBytes());
-    workingCopiesStorage.put(filePath, workingCopy);
+    workingCopiesStorage.put(filePath, workingCopy, false);
 
     return workingCopy;
   }
 
-  private void createPersistentWorkingCopy(String originalFilePath)
+  private void createPersistentWorkingCopy(String originalFilePath, EditorWorkingCopy workingCopy)
       throws ServerException, ForbiddenException, ConflictException {
     try {
-      EditorWorkingCopy workingCopy = workingCopiesStorage.get(originalFilePath);
-      if (workingCopy == null) {
-        throw new ServerException("Can not create recovery file for " + originalFilePath);
-      }
-
       byte[] content = workingCopy.getContentAsBytes();
       String projectPath = workingCopy.getProjectPath();
 
@@ -292,6 +319,32 @@ public class EditorWorkingCopyManager {
     }
   }
 
+  /** Loads working copy which content was released by working copies storage. */
+  private EditorWorkingCopy loadWorkingCopy(String filePath, boolean spilled)
+      throws ServerException {
+    try {
+      FileEntry file = projectManagerProvider.get().asFile(filePath);
+      if (file == null) {
+        return null;
+      }
+      String projectPath = file.getProject();
+      if (!spilled) {
+        return new EditorWorkingCopy(
+            toWorkingCopyPath(filePath), projectPath, file.contentAsBytes());
+      }
+      VirtualFileEntry persistentWorkingCopy = getPersistentWorkingCopy(filePath, projectPath);
+      if (persistentWorkingCopy == null) {
+        throw new ServerException("Can not find recovery file for " + filePath);
+      }
+      return new EditorWorkingCopy(
+          toWorkingCopyPath(filePath),
+          projectPath,
+          persistentWorkingCopy.getVirtualFile().getContentAsBytes());
+    } catch (NotFoundException | ForbiddenException e) {
+      throw new ServerException(e.getLocalizedMessage());
+    }
+  }
+
   private VirtualFileEntry getPersistentWorkingCopy(String originalFilePath, String projectPath) {
     try {
       FolderEntry persistentWorkingCopiesStorage = getPersistentWorkingCopiesStorage(projectPath);
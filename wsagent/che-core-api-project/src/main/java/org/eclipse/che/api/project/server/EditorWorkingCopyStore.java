@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+import org.eclipse.che.commons.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread-safe storage of working copies of files opened in editors, which keeps content of working
+ * copies in memory within the limited number of bytes.
+ *
+ * <p>When the limit is exceeded content of the least recently used working copies is released.
+ * Content of a working copy without changes is simply dropped and then loaded from the same source
+ * it was loaded from. Changed content is spilled to persistent storage first and then loaded from
+ * there. Working copies stay in the storage until they are removed, whether their content is in
+ * memory or not.
+ */
+public class EditorWorkingCopyStore {
+  private static final Logger LOG = LoggerFactory.getLogger(EditorWorkingCopyStore.class);
+
+  /** Loads and spills content of working copies. */
+  interface Persistence {
+    /**
+     * Loads working copy of the file.
+     *
+     * @param filePath path to the original file
+     * @param spilled whether the working copy was spilled to the persistent storage, otherwise it
+     *     is loaded from the original file
+     * @return loaded working copy or {@code null} if the file doesn't exist anymore
+     */
+    EditorWorkingCopy load(String filePath, boolean spilled) throws ServerException;
+
+    /** Saves content of the changed working copy to the persistent storage. */
+    void spill(String filePath, EditorWorkingCopy workingCopy) throws ServerException;
+  }
+
+  private final Persistence persistence;
+  private final Statistics statistics = new Statistics();
+  /** Entries in order of access, the least recently used one goes first. */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+
+  private long maxBytes;
+  private long residentBytes;
+
+  /**
+   * @param persistence loads and spills content of working copies
+   * @param maxBytes maximal number of bytes of working copies content which are kept in memory
+   */
+  EditorWorkingCopyStore(Persistence persistence, long maxBytes) {
+    this.persistence = persistence;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Gets working copy by path to the original file, content of the working copy is loaded if it
+   * was released.
+   *
+   * @return working copy or {@code null} if there is no working copy for the file or it can't be
+   *     loaded
+   */
+  @Nullable
+  EditorWorkingCopy get(String filePath) {
+    final Entry entry;
+    final boolean spilled;
+    synchronized (this) {
+      entry = entries.get(filePath);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.workingCopy != null) {
+        statistics.hits.incrementAndGet();
+        return entry.workingCopy;
+      }
+      if (entry.spilling != null) {
+        // content is still being written, it is used until it is released again
+        statistics.hits.incrementAndGet();
+        makeResident(entry, entry.spilling);
+        return entry.workingCopy;
+      }
+      statistics.misses.incrementAndGet();
+      spilled = entry.spilled;
+    }
+
+    final EditorWorkingCopy loaded;
+    try {
+      loaded = persistence.load(filePath, spilled);
+    } catch (ServerException e) {
+      LOG.error("Can not load working copy of '{}': {}", filePath, e.getLocalizedMessage());
+      return null;
+    }
+    if (loaded == null) {
+      return null;
+    }
+
+    final EditorWorkingCopy resident;
+    final List<Map.Entry<String, EditorWorkingCopy>> spills;
+    synchronized (this) {
+      if (entries.get(filePath) != entry) {
+        return loaded;
+      }
+      if (entry.workingCopy == null) {
+        makeResident(entry, loaded);
+      }
+      resident = entry.workingCopy;
+      spills = releaseExceeding(filePath);
+    }
+    spill(spills);
+    return resident;
+  }
+
+  /**
+   * Adds working copy of the file replacing the existing one.
+   *
+   * @param filePath path to the original file
+   * @param workingCopy working copy
+   * @param modified whether content of the working copy may differ from the original file
+   */
+  void put(String filePath, EditorWorkingCopy workingCopy, boolean modified) {
+    final List<Map.Entry<String, EditorWorkingCopy>> spills;
+    synchronized (this) {
+      final Entry previous = entries.remove(filePath);
+      if (previous != null && previous.workingCopy != null) {
+        residentBytes -= previous.size;
+      }
+      final Entry entry = new Entry();
+      entry.modified = modified;
+      entries.put(filePath, entry);
+      makeResident(entry, workingCopy);
+      spills = releaseExceeding(filePath);
+    }
+    spill(spills);
+  }
+
+  /**
+   * Applies changes to the working copy of the file, content of the working copy is loaded if it
+   * was released. Changes are applied to the content in memory and accounted under the lock of the
+   * storage, so working copy can't be released in between and changes can't be lost. The least
+   * recently used working copies are released if the limit is exceeded.
+   *
+   * @return {@code false} if there is no working copy for the file or it can't be loaded
+   */
+  boolean applyChanges(String filePath, EditorChangesDto changes) {
+    while (true) {
+      final EditorWorkingCopy workingCopy = get(filePath);
+      if (workingCopy == null) {
+        return false;
+      }
+      final List<Map.Entry<String, EditorWorkingCopy>> spills;
+      synchronized (this) {
+        final Entry entry = entries.get(filePath);
+        if (entry == null) {
+          return false;
+        }
+        if (entry.workingCopy != workingCopy) {
+          // released or replaced after it was loaded
+          continue;
+        }
+        try {
+          workingCopy.applyChanges(changes);
+        } finally {
+          residentBytes += workingCopy.getSize() - entry.size;
+          entry.size = workingCopy.getSize();
+          entry.modified = true;
+        }
+        spills = releaseExceeding(filePath);
+      }
+      spill(spills);
+      return true;
+    }
+  }
+
+  /**
+   * Removes working copy of the file.
+   *
+   * @return removed working copy, its content is loaded if it was released, or {@code null} if
+   *     there is no working copy for the file
+   */
+  @Nullable
+  EditorWorkingCopy remove(String filePath) {
+    final boolean spilled;
+    synchronized (this) {
+      final Entry entry = entries.remove(filePath);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.workingCopy != null) {
+        residentBytes -= entry.size;
+        return entry.workingCopy;
+      }
+      if (entry.spilling != null) {
+        return entry.spilling;
+      }
+      spilled = entry.spilled;
+    }
+    try {
+      return persistence.load(filePath, spilled);
+    } catch (ServerException e) {
+      LOG.error("Can not load working copy of '{}': {}", filePath, e.getLocalizedMessage());
+      return null;
+    }
+  }
+
+  /** Sets maximal number of bytes of working copies content which are kept in memory. */
+  void setMaxBytes(long maxBytes) {
+    final List<Map.Entry<String, EditorWorkingCopy>> spills;
+    synchronized (this) {
+      this.maxBytes = maxBytes;
+      spills = releaseExceeding(null);
+    }
+    spill(spills);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized long getResidentBytes() {
+    return residentBytes;
+  }
+
+  /** Returns numbers of hits, misses, releases and spills of working copies. */
+  public Statistics getStatistics() {
+    return statistics;
+  }
+
+  private void makeResident(Entry entry, EditorWorkingCopy workingCopy) {
+    entry.workingCopy = workingCopy;
+    entry.size = workingCopy.getSize();
+    residentBytes += entry.size;
+  }
+
+  /**
+   * Releases content of the least recently used working copies except the given one, until the
+   * limit is not exceeded. Returns working copies which must be spilled.
+   */
+  private List<Map.Entry<String, EditorWorkingCopy>> releaseExceeding(String except) {
+    final List<Map.Entry<String, EditorWorkingCopy>> spills = new ArrayList<>();
+    final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (residentBytes > maxBytes && it.hasNext()) {
+      final Map.Entry<String, Entry> next = it.next();
+      final Entry entry = next.getValue();
+      if (entry.workingCopy == null || next.getKey().equals(except)) {
+        continue;
+      }
+      if (entry.modified) {
+        entry.modified = false;
+        entry.spilling = entry.workingCopy;
+        spills.add(new SimpleImmutableEntry<>(next.getKey(), entry.spilling));
+      } else {
+        statistics.releases.incrementAndGet();
+      }
+      entry.workingCopy = null;
+      residentBytes -= entry.size;
+    }
+    return spills;
+  }
+
+  private void spill(List<Map.Entry<String, EditorWorkingCopy>> spills) {
+    for (Map.Entry<String, EditorWorkingCopy> spill : spills) {
+      final String filePath = spill.getKey();
+      final EditorWorkingCopy workingCopy = spill.getValue();
+      boolean spilled;
+      try {
+        persistence.spill(filePath, workingCopy);
+        statistics.spills.incrementAndGet();
+        spilled = true;
+      } catch (ServerException e) {
+        LOG.error("Can not spill working copy of '{}': {}", filePath, e.getLocalizedMessage());
+        spilled = false;
+      }
+      synchronized (this) {
+        final Entry entry = entries.get(filePath);
+        if (entry == null || entry.spilling != workingCopy) {
+          continue;
+        }
+        entry.spilling = null;
+        if (spilled) {
+          entry.spilled = true;
+        } else {
+          // changes must not be lost, so content is kept in memory
+          entry.modified = true;
+          if (entry.workingCopy == null) {
+            makeResident(entry, workingCopy);
+          }
+        }
+      }
+    }
+  }
+
+  private static class Entry {
+    /** Working copy with content in memory, {@code null} if content is released. */
+    EditorWorkingCopy workingCopy;
+    /** Released working copy which is being spilled. */
+    EditorWorkingCopy spilling;
+    /** Whether content is in the persistent storage rather than in the original file. */
+    boolean spilled;
+    /** Whether content was modified since it was loaded or spilled. */
+    boolean modified;
+    /** Size of content in memory. */
+    long size;
+  }
+
+  /** Counters of working copies store. */
+  public static class Statistics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+
+    /** Returns number of requests for working copies which content was in memory. */
+    public long getHits() {
+      return hits.get();
+    }
+
+    /** Returns number of requests for working copies which content had to be loaded. */
+    public long getMisses() {
+      return misses.get();
+    }
+
+    /** Returns number of working copies without changes which content was dropped. */
+    public long getReleases() {
+      return releases.get();
+    }
+
+    /** Returns number of changed working copies which content was spilled. */
+    public long getSpills() {
+      return spills.get();
+    }
+  }
+}
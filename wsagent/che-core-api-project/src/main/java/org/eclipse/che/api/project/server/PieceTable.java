@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static java.lang.String.format;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Text buffer which applies insertions and removals in time logarithmic to the number of edits,
+ * regardless of the length of the text.
+ *
+ * <p>Text is a sequence of pieces, each piece is a range of either the original text or of an
+ * append-only block of inserted characters. Pieces are kept in a persistent balanced tree (treap)
+ * ordered by their position in the text, an edit creates new nodes only on the paths to the edited
+ * pieces. Neither original text nor inserted characters are ever modified, so a {@link Snapshot}
+ * may be read without copying and without locking while the buffer is edited.
+ *
+ * <p>Edits must be externally synchronized.
+ */
+class PieceTable {
+  /** Size of blocks which inserted characters are appended to. */
+  private static final int BLOCK_SIZE = 16 * 1024;
+
+  /** Number of references to each array kept alive by the table, from its pieces and block. */
+  private final Map<char[], Integer> references = new IdentityHashMap<>();
+
+  private Node root;
+  private char[] block;
+  private int blockUsed;
+  private long retainedBytes;
+
+  PieceTable(String text) {
+    if (!text.isEmpty()) {
+      root = new Node(new Piece(text.toCharArray(), 0, text.length()));
+      retain(root.piece.chars);
+    }
+  }
+
+  /** Returns length of the text. */
+  int length() {
+    return length(root);
+  }
+
+  /**
+   * Inserts text at the given offset.
+   *
+   * @throws IndexOutOfBoundsException if offset is negative or greater than length of the text
+   */
+  void insert(int offset, String text) {
+    checkRange(offset, 0);
+    if (text.isEmpty()) {
+      return;
+    }
+    final Node[] parts = split(root, offset);
+    Node left = parts[0];
+    if (block != null && text.length() <= block.length - blockUsed) {
+      final Node last = last(left);
+      text.getChars(0, text.length(), block, blockUsed);
+      if (last != null
+          && last.piece.chars == block
+          && last.piece.start + last.piece.length == blockUsed) {
+        // typing continues at the end of the previous insertion, so the piece is extended
+        left = extendLast(left, text.length());
+      } else {
+        left = merge(left, new Node(new Piece(block, blockUsed, text.length())));
+        retain(block);
+      }
+      blockUsed += text.length();
+    } else {
+      left = merge(left, new Node(append(text)));
+    }
+    root = merge(left, parts[1]);
+  }
+
+  /**
+   * Removes the given number of characters starting at the given offset.
+   *
+   * @throws IndexOutOfBoundsException if range is not within the text
+   */
+  void remove(int offset, int count) {
+    checkRange(offset, count);
+    if (count == 0) {
+      return;
+    }
+    final Node[] head = split(root, offset);
+    final Node[] tail = split(head[1], count);
+    root = merge(head[0], tail[1]);
+    releaseAll(tail[0]);
+  }
+
+  /** Returns the current state of the text, which isn't affected by subsequent edits. */
+  Snapshot snapshot() {
+    return new Snapshot(root, retainedBytes);
+  }
+
+  /**
+   * Returns number of bytes of arrays kept alive by the table, i.e. of the original text and of
+   * the blocks of inserted characters which are still referenced by pieces of the text.
+   */
+  long retainedBytes() {
+    return retainedBytes;
+  }
+
+  private Piece append(String text) {
+    final Piece piece;
+    if (text.length() > BLOCK_SIZE / 2) {
+      piece = new Piece(text.toCharArray(), 0, text.length());
+    } else {
+      if (block != null) {
+        release(block);
+      }
+      block = new char[BLOCK_SIZE];
+      retain(block);
+      text.getChars(0, text.length(), block, 0);
+      blockUsed = text.length();
+      piece = new Piece(block, 0, text.length());
+    }
+    retain(piece.chars);
+    return piece;
+  }
+
+  private void retain(char[] chars) {
+    if (references.merge(chars, 1, Integer::sum) == 1) {
+      retainedBytes += (long) chars.length * Character.BYTES;
+    }
+  }
+
+  private void release(char[] chars) {
+    final int left = references.merge(chars, -1, Integer::sum);
+    if (left == 0) {
+      references.remove(chars);
+      retainedBytes -= (long) chars.length * Character.BYTES;
+    }
+  }
+
+  /**
+   * Releases arrays of all pieces of removed tree, each piece is released once, so it takes
+   * amortized constant time per inserted piece.
+   */
+  private void releaseAll(Node node) {
+    final Deque<Node> nodes = new ArrayDeque<>();
+    if (node != null) {
+      nodes.push(node);
+    }
+    while (!nodes.isEmpty()) {
+      final Node next = nodes.pop();
+      release(next.piece.chars);
+      if (next.left != null) {
+        nodes.push(next.left);
+      }
+      if (next.right != null) {
+        nodes.push(next.right);
+      }
+    }
+  }
+
+  private void checkRange(int offset, int count) {
+    if (offset < 0 || count < 0 || offset + count > length()) {
+      throw new IndexOutOfBoundsException(
+          format("Range [%d, %d) is out of text of length %d", offset, offset + count, length()));
+    }
+  }
+
+  private static int length(Node node) {
+    return node == null ? 0 : node.length;
+  }
+
+  /** Splits tree into trees of text before and after the given offset. */
+  private Node[] split(Node node, int offset) {
+    if (node == null) {
+      return new Node[2];
+    }
+    final int leftLength = length(node.left);
+    if (offset <= leftLength) {
+      final Node[] parts = split(node.left, offset);
+      return new Node[] {parts[0], node.with(parts[1], node.right)};
+    }
+    final int pieceEnd = leftLength + node.piece.length;
+    if (offset >= pieceEnd) {
+      final Node[] parts = split(node.right, offset - pieceEnd);
+      return new Node[] {node.with(node.left, parts[0]), parts[1]};
+    }
+    final int at = offset - leftLength;
+    final Piece piece = node.piece;
+    final Node head = new Node(new Piece(piece.chars, piece.start, at));
+    final Node tail = new Node(new Piece(piece.chars, piece.start + at, piece.length - at));
+    // piece is replaced with two pieces of the same array
+    retain(piece.chars);
+    return new Node[] {merge(node.left, head), merge(tail, node.right)};
+  }
+
+  /** Concatenates trees, all text of the first tree precedes text of the second one. */
+  private static Node merge(Node first, Node second) {
+    if (first == null) {
+      return second;
+    }
+    if (second == null) {
+      return first;
+    }
+    if (first.priority > second.priority) {
+      return first.with(first.left, merge(first.right, second));
+    }
+    return second.with(merge(first, second.left), second.right);
+  }
+
+  private static Node last(Node node) {
+    if (node == null) {
+      return null;
+    }
+    while (node.right != null) {
+      node = node.right;
+    }
+    return node;
+  }
+
+  private static Node extendLast(Node node, int delta) {
+    if (node.right == null) {
+      final Piece piece = node.piece;
+      return new Node(
+          new Piece(piece.chars, piece.start, piece.length + delta),
+          node.left,
+          null,
+          node.priority);
+    }
+    return node.with(node.left, extendLast(node.right, delta));
+  }
+
+  /** Range of an array of characters which is never modified. */
+  private static final class Piece {
+    final char[] chars;
+    final int start;
+    final int length;
+
+    Piece(char[] chars, int start, int length) {
+      this.chars = chars;
+      this.start = start;
+      this.length = length;
+    }
+  }
+
+  private static final class Node {
+    final Piece piece;
+    final Node left;
+    final Node right;
+    final int priority;
+    /** Length of text of this subtree. */
+    final int length;
+
+    Node(Piece piece) {
+      this(piece, null, null, ThreadLocalRandom.current().nextInt());
+    }
+
+    Node(Piece piece, Node left, Node right, int priority) {
+      this.piece = piece;
+      this.left = left;
+      this.right = right;
+      this.priority = priority;
+      this.length = length(left) + piece.length + length(right);
+    }
+
+    Node with(Node left, Node right) {
+      return new Node(piece, left, right, priority);
+    }
+  }
+
+  /** Immutable state of the text. */
+  static final class Snapshot {
+    private final Node root;
+    private final long retainedBytes;
+
+    private Snapshot(Node root, long retainedBytes) {
+      this.root = root;
+      this.retainedBytes = retainedBytes;
+    }
+
+    int length() {
+      return PieceTable.length(root);
+    }
+
+    /** Returns number of bytes of arrays kept alive by the table when snapshot was taken. */
+    long retainedBytes() {
+      return retainedBytes;
+    }
+
+    /** Returns reader of the text which reads pieces of the text without copying them. */
+    Reader reader() {
+      return new PieceReader(root);
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder text = new StringBuilder(length());
+      final Deque<Node> path = new ArrayDeque<>();
+      for (Node node = root; node != null || !path.isEmpty(); node = node.right) {
+        while (node != null) {
+          path.push(node);
+          node = node.left;
+        }
+        node = path.pop();
+        text.append(node.piece.chars, node.piece.start, node.piece.length);
+      }
+      return text.toString();
+    }
+  }
+
+  /** Reads pieces of a tree in order. */
+  private static final class PieceReader extends Reader {
+    private final Deque<Node> path = new ArrayDeque<>();
+    private Piece piece;
+    private int position;
+
+    PieceReader(Node root) {
+      pushLeft(root);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      while (piece == null || position == piece.length) {
+        if (path.isEmpty()) {
+          return -1;
+        }
+        final Node node = path.pop();
+        pushLeft(node.right);
+        piece = node.piece;
+        position = 0;
+      }
+      final int read = Math.min(length, piece.length - position);
+      System.arraycopy(piece.chars, piece.start + position, buffer, offset, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public void close() {
+      path.clear();
+      piece = null;
+    }
+
+    private void pushLeft(Node node) {
+      while (node != null) {
+        path.push(node);
+        node = node.left;
+      }
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.DefaultFileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.DirectoryListingInvalidator;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.event.detectors.EditorFileOperationHandler;
@@ -43,7 +44,7 @@ import org.eclipse.che.api.vfs.impl.file.event.detectors.EditorFileTracker;
 import org.eclipse.che.api.vfs.impl.file.event.detectors.ProjectTreeTracker;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
-import org.eclipse.che.api.vfs.search.impl.FSLuceneSearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.SearcherProviderSelector;
 import org.eclipse.che.api.vfs.watcher.FileTreeWalker;
 import org.eclipse.che.api.vfs.watcher.FileWatcherByPathMatcher;
 import org.eclipse.che.api.vfs.watcher.FileWatcherIgnoreFileTracker;
@@ -93,7 +94,7 @@ public class ProjectApiModule extends AbstractModule {
         newSetBinder(
             binder(), PathMatcher.class, Names.named("che.user.workspaces.storage.excludes"));
 
-    bind(SearcherProvider.class).to(FSLuceneSearcherProvider.class);
+    bind(SearcherProvider.class).toProvider(SearcherProviderSelector.class);
     bind(VirtualFileSystemProvider.class).to(LocalVirtualFileSystemProvider.class);
 
     bind(FileWatcherNotificationHandler.class).to(DefaultFileWatcherNotificationHandler.class);
@@ -145,6 +146,12 @@ public class ProjectApiModule extends AbstractModule {
     fileDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
     directoryCreateConsumers.addBinding().to(FileWatcherByPathMatcher.class);
     directoryDeleteConsumers.addBinding().to(FileWatcherByPathMatcher.class);
+
+    fileCreateConsumers.addBinding().to(DirectoryListingInvalidator.class);
+    fileDeleteConsumers.addBinding().to(DirectoryListingInvalidator.class);
+    directoryCreateConsumers.addBinding().to(DirectoryListingInvalidator.class);
+    directoryUpdateConsumers.addBinding().to(DirectoryListingInvalidator.class);
+    directoryDeleteConsumers.addBinding().to(DirectoryListingInvalidator.class);
   }
 
   private void configureVfsFilters(Multibinder<PathMatcher> excludeMatcher) {
@@ -50,6 +50,7 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.fileupload.FileItem;
 import org.apache.tika.Tika;
@@ -824,7 +825,7 @@ public class ProjectService extends Service {
     @ApiResponse(code = 404, message = "Not found"),
     @ApiResponse(code = 500, message = "Internal Server Error")
   })
-  public InputStream exportZip(
+  public Response exportZip(
       @ApiParam(value = "Path to resource to be exported") @PathParam("path") String path)
       throws NotFoundException, ForbiddenException, ServerException {
 
@@ -834,7 +835,18 @@ public class ProjectService extends Service {
       throw new NotFoundException("Folder not found " + path);
     }
 
-    return folder.getVirtualFile().zip();
+    final VirtualFile virtualFile = folder.getVirtualFile();
+    // Archive is written directly to the response, download is cancelled as soon as client
+    // disconnects since writing to the response fails.
+    final StreamingOutput archive =
+        output -> {
+          try {
+            virtualFile.zip(output);
+          } catch (ForbiddenException | ServerException e) {
+            throw new IOException(e.getMessage(), e);
+          }
+        };
+    return Response.ok(archive, ExtMediaType.APPLICATION_ZIP).build();
   }
 
   @GET
@@ -982,6 +994,7 @@ public class ProjectService extends Service {
   )
   @ApiResponses({
     @ApiResponse(code = 200, message = "OK"),
+    @ApiResponse(code = 400, message = "Cursor is invalid or it was returned for another query"),
     @ApiResponse(code = 403, message = "User not authorized to call this operation"),
     @ApiResponse(code = 404, message = "Not found"),
     @ApiResponse(code = 409, message = "Conflict error"),
@@ -999,8 +1012,12 @@ public class ProjectService extends Service {
           @QueryParam("maxItems")
           @DefaultValue("-1")
           int maxItems,
-      @ApiParam(value = "Skip count") @QueryParam("skipCount") int skipCount)
-      throws NotFoundException, ForbiddenException, ConflictException, ServerException {
+      @ApiParam(value = "Skip count") @QueryParam("skipCount") int skipCount,
+      @ApiParam(value = "Cursor of the next page returned with the previous page of results")
+          @QueryParam("cursor")
+          String cursor)
+      throws NotFoundException, ForbiddenException, ConflictException, BadRequestException,
+          ServerException {
     final Searcher searcher;
     try {
       searcher = projectManager.getSearcher();
@@ -1020,12 +1037,15 @@ public class ProjectService extends Service {
             .setText(text)
             .setMaxItems(maxItems)
             .setSkipCount(skipCount)
+            .setCursor(cursor)
             .setIncludePositions(true);
 
     final SearchResult result = searcher.search(expr);
     final List<SearchResultEntry> searchResultEntries = result.getResults();
+    final QueryExpression nextPage = result.getNextPageQueryExpression().orNull();
     return DtoFactory.newDto(ProjectSearchResponseDto.class)
         .withTotalHits(result.getTotalHits())
+        .withNextPageCursor(nextPage == null ? null : nextPage.getCursor())
         .withItemReferences(prepareResults(searchResultEntries));
   }
 
@@ -1086,9 +1106,12 @@ public class ProjectService extends Service {
     String text = request.getText();
     int maxItems = request.getMaxItems();
     int skipCount = request.getSkipCount();
+    String cursor = request.getCursor();
 
     try {
-      return search(path, name, text, maxItems, skipCount);
+      return search(path, name, text, maxItems, skipCount, cursor);
+    } catch (BadRequestException e) {
+      throw new JsonRpcException(-32602, e.getMessage());
     } catch (ServerException | ConflictException | NotFoundException | ForbiddenException e) {
       throw new JsonRpcException(-27000, e.getMessage());
     }
@@ -10,6 +10,16 @@
  */
 package org.eclipse.che.api.vfs;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  *
@@ -32,14 +42,58 @@ package org.eclipse.che.api.vfs;
  *      }
  * </pre>
  *
+ * <p>Locks are hierarchical. Lock of the path is taken together with intention locks of all its
+ * ancestors, starting from the root, so exclusive lock of a folder excludes any lock of its
+ * descendants held by other threads and vice versa, while shared locks of a folder and its
+ * descendants are compatible. Each locked path has its own entry in the hashed lock table with its
+ * own wait queue, so releasing a lock wakes up only threads which wait for the same path.
+ *
+ * <p>Locks are reentrant. Thread which already holds lock of the path gets the same or weaker lock
+ * of the same path without waiting, while stronger lock, e.g. exclusive lock of a descendant of
+ * the folder it holds shared lock of, is granted only if it is compatible with locks of the other
+ * threads. Threads wait for lock of the path in the order they came, only threads which already
+ * hold some lock of the path go ahead of the waiting ones, otherwise they could wait for threads
+ * which wait for them.
+ *
  * @author andrew00x>
  */
 public final class PathLockFactory {
   private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
-  /** Max number of threads allowed to access file. */
-  private final int maxThreads;
-  // Tail of the "lock table".
-  private final Node tail = new Node(null, 0, null);
+
+  private enum Mode {
+    INTENTION_SHARED,
+    INTENTION_EXCLUSIVE,
+    SHARED,
+    EXCLUSIVE;
+
+    // COMPATIBLE[a][b] is true if mode a may be held by one thread while mode b by another
+    private static final boolean[][] COMPATIBLE = {
+      {true, true, true, false},
+      {true, true, false, false},
+      {true, false, true, false},
+      {false, false, false, false}
+    };
+
+    boolean isCompatibleWith(Mode other) {
+      return COMPATIBLE[ordinal()][other.ordinal()];
+    }
+
+    /** Returns {@code true} if holder of this mode doesn't need anything else to get the other. */
+    boolean covers(Mode other) {
+      return this == other || this == EXCLUSIVE || other == INTENTION_SHARED;
+    }
+
+    Mode intention() {
+      return this == SHARED || this == INTENTION_SHARED ? INTENTION_SHARED : INTENTION_EXCLUSIVE;
+    }
+  }
+
+  private static final Mode[] MODES = Mode.values();
+
+  /** Max number of threads which may share lock of the same path. */
+  private final int maxSharedHolders;
+  // Lock table, entry exists while some thread holds or waits for lock of the path.
+  private final ConcurrentMap<Path, Entry> table = new ConcurrentHashMap<>();
 
   /**
    * @param maxThreads the max number of threads are allowed to access one file. Typically this
@@ -50,160 +104,248 @@ public final class PathLockFactory {
     if (maxThreads < 1) {
       throw new IllegalArgumentException();
     }
-    this.maxThreads = maxThreads;
+    this.maxSharedHolders = Math.max(1, maxThreads - 1);
   }
 
   public PathLock getLock(Path path, boolean exclusive) {
-    return new PathLock(path, exclusive ? maxThreads : 1);
+    return new PathLock(path, exclusive ? Mode.EXCLUSIVE : Mode.SHARED);
   }
 
-  private synchronized void acquire(Path path, int permits) {
-    while (!tryAcquire(path, permits)) {
-      try {
-        wait();
-      } catch (InterruptedException e) {
-        notifyAll();
-        throw new RuntimeException(e);
+  /**
+   * Locks all the nodes from the root to the given path, the path itself gets requested mode and
+   * all its ancestors corresponding intention mode. Nodes are always locked in this order so
+   * threads which lock one path at a time can't deadlock.
+   */
+  private void acquire(Path[] nodes, Mode mode, long timeoutMilliseconds) {
+    final long deadline =
+        timeoutMilliseconds > 0 ? System.nanoTime() + MILLISECONDS.toNanos(timeoutMilliseconds) : 0;
+    int locked = 0;
+    try {
+      for (; locked < nodes.length; locked++) {
+        lockNode(nodes[locked], locked == nodes.length - 1 ? mode : mode.intention(), deadline);
+      }
+    } finally {
+      if (locked < nodes.length) {
+        for (int i = locked - 1; i >= 0; i--) {
+          unlockNode(nodes[i], mode.intention());
+        }
       }
     }
   }
 
-  private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-    final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-    long waitTime = timeoutMilliseconds;
-    while (!tryAcquire(path, permits)) {
-      try {
-        wait(waitTime);
-      } catch (InterruptedException e) {
-        notifyAll();
-        throw new RuntimeException(e);
-      }
-      long now = System.currentTimeMillis();
-      if (now >= endTime) {
-        throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
-      }
-      waitTime = endTime - now;
+  private void release(Path[] nodes, Mode mode) {
+    unlockNode(nodes[nodes.length - 1], mode);
+    for (int i = nodes.length - 2; i >= 0; i--) {
+      unlockNode(nodes[i], mode.intention());
     }
   }
 
-  private synchronized void release(Path path, int permits) {
-    Node node = tail;
-    while (node != null) {
-      Node prev = node.prev;
-      if (prev == null) {
-        break;
-      }
-      if (prev.path.equals(path)) {
-        if (prev.threadDeep == 1) {
-          // If last recursive lock.
-          prev.permits += permits;
-          if (prev.permits >= maxThreads) {
-            // remove
-            node.prev = prev.prev;
-            prev.prev = null;
+  private void lockNode(Path node, Mode mode, long deadline) {
+    final Thread current = Thread.currentThread();
+    final boolean[] granted = new boolean[1];
+    final Entry entry =
+        table.compute(
+            node,
+            (path, existing) -> {
+              final Entry result = existing == null ? new Entry() : existing;
+              granted[0] = result.tryGrant(current, mode, false);
+              return result;
+            });
+    if (granted[0]) {
+      return;
+    }
+    // Entry can't be removed from the table while current thread is counted as its waiter.
+    // Releasing threads notify waiters holding monitor of the entry, so the check and the wait
+    // below are done under that monitor to not miss the notification.
+    try {
+      synchronized (entry) {
+        while (true) {
+          table.computeIfPresent(
+              node,
+              (path, existing) -> {
+                granted[0] = existing.tryGrant(current, mode, true);
+                return existing;
+              });
+          if (granted[0]) {
+            // Thread which is the first in the queue now may go ahead
+            entry.notifyAll();
+            return;
+          }
+          if (deadline == 0) {
+            entry.wait();
+          } else {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              throw new RuntimeException(String.format("Get lock timeout for '%s'. ", node));
+            }
+            NANOSECONDS.timedWait(entry, remaining);
           }
-        } else {
-          --prev.threadDeep;
         }
       }
-      node = node.prev;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      if (!granted[0]) {
+        table.computeIfPresent(node, (path, existing) -> existing.removeWaiter(current));
+        // Let the others waiting threads re-check whether they may go ahead now
+        synchronized (entry) {
+          entry.notifyAll();
+        }
+      }
     }
-    notifyAll();
-    // System.err.printf(">>>>> release: %s : %d%n", path, permits);
   }
 
-  private boolean tryAcquire(Path path, int permits) {
-    // System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-    Node node = tail.prev;
+  private void unlockNode(Path node, Mode mode) {
     final Thread current = Thread.currentThread();
-    while (node != null) {
-      if (node.path.equals(path)) {
-        if (node.threadId == current.getId()) {
-          // Current thread already has direct lock for this path
-          if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-            throw new Error("Max number of recursive locks exceeded. ");
-          }
-          ++node.threadDeep;
-          return true;
+    final Entry entry = table.get(node);
+    if (entry == null) {
+      throw new IllegalStateException(String.format("Lock of '%s' is not held", node));
+    }
+    table.computeIfPresent(node, (path, existing) -> existing.revoke(current, mode));
+    if (entry.waiters > 0) {
+      synchronized (entry) {
+        entry.notifyAll();
+      }
+    }
+  }
+
+  private static Path[] nodes(Path path) {
+    final Path[] nodes = new Path[path.length() + 1];
+    Path node = path;
+    for (int i = nodes.length - 1; i >= 0; i--) {
+      nodes[i] = node;
+      node = node.getParent();
+    }
+    return nodes;
+  }
+
+  public void checkClean() {
+    assert table.isEmpty();
+  }
+
+  /* =============================================== */
+
+  /**
+   * Entry of the lock table. Its state is changed only inside of the table's {@code compute} which
+   * guards it, while its monitor is used to wake up threads from its queue.
+   */
+  private final class Entry {
+    final int[] held = new int[MODES.length];
+    final Map<Thread, int[]> holders = new HashMap<>(4);
+    // Threads which wait for lock of the path, in the order they came
+    final Deque<Thread> queue = new ArrayDeque<>(4);
+    int sharedHolders;
+    volatile int waiters;
+
+    /**
+     * Grants lock to the thread if it is possible. Thread gets lock only when it is the first in
+     * the queue, or the queue is empty if thread is a newcomer, unless it already holds some lock
+     * of the path. Newcomer which is not granted joins the end of the queue, {@code waiter} should
+     * be set for the next tries.
+     */
+    boolean tryGrant(Thread thread, Mode mode, boolean waiter) {
+      final boolean turn = waiter ? queue.peekFirst() == thread : queue.isEmpty();
+      if ((turn || holders.containsKey(thread)) && canGrant(thread, mode)) {
+        grant(thread, mode);
+        if (waiter) {
+          queue.remove(thread);
+          waiters--;
         }
-        if (node.permits > permits) {
-          // Lock already exists and current thread is not owner of this lock,
-          // but lock is not exclusive and we can "share" it for other thread.
-          node.permits -= permits; // decrement number of allowed concurrent threads
-          return true;
+        return true;
+      }
+      if (!waiter) {
+        queue.addLast(thread);
+        waiters++;
+      }
+      return false;
+    }
+
+    private boolean canGrant(Thread thread, Mode mode) {
+      final int[] own = holders.get(thread);
+      if (own != null) {
+        for (Mode ownMode : MODES) {
+          if (own[ownMode.ordinal()] > 0 && ownMode.covers(mode)) {
+            // Current thread already has lock which is enough for the requested one
+            return true;
+          }
         }
-        // Lock is exclusive or max number of allowed concurrent thread is reached.
-        return false;
-      } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-        // Found some path which already has lock that prevents us to get required permits.
-        // There is two possibilities:
-        // 1. Parent of the path we try to lock already locked
-        // 2. Child of the path we try to lock already locked
-        // Need to check is such lock obtained by current thread or not.
-        // If such lock obtained by other thread stop here immediately there is no reasons to
-        // continue.
-        if (node.threadId != current.getId()) {
+      }
+      for (Mode heldMode : MODES) {
+        final int byOthers = held[heldMode.ordinal()] - (own == null ? 0 : own[heldMode.ordinal()]);
+        if (byOthers > 0 && !mode.isCompatibleWith(heldMode)) {
           return false;
         }
       }
-      node = node.prev;
+      return mode != Mode.SHARED || sharedHolders < maxSharedHolders;
     }
-    // If we are here there is no lock for path yet.
-    tail.prev = new Node(path, maxThreads - permits, tail.prev);
-    return true;
-  }
 
-  public synchronized void checkClean() {
-    assert tail.prev == null;
-  }
+    private void grant(Thread thread, Mode mode) {
+      final int[] own = holders.computeIfAbsent(thread, t -> new int[MODES.length]);
+      if (own[mode.ordinal()] >= MAX_RECURSIVE_LOCKS) {
+        throw new Error("Max number of recursive locks exceeded. ");
+      }
+      if (mode == Mode.SHARED && own[mode.ordinal()] == 0) {
+        sharedHolders++;
+      }
+      own[mode.ordinal()]++;
+      held[mode.ordinal()]++;
+    }
 
-  /* =============================================== */
+    Entry removeWaiter(Thread thread) {
+      queue.remove(thread);
+      waiters--;
+      return isUnused() ? null : this;
+    }
 
-  private static class Node {
-    final Path path;
-    final long threadId = Thread.currentThread().getId();
-    int permits;
-    int threadDeep;
-    Node prev;
-
-    Node(Path path, int permits, Node prev) {
-      this.path = path;
-      this.permits = permits;
-      this.prev = prev;
-      threadDeep = 1;
-    }
-
-    @Override
-    public String toString() {
-      return "Node{"
-          + "path="
-          + path
-          + ", threadId="
-          + threadId
-          + ", permits="
-          + permits
-          + ", prev="
-          + prev
-          + '}';
+    Entry revoke(Thread thread, Mode mode) {
+      final int[] own = holders.get(thread);
+      if (own == null || own[mode.ordinal()] == 0) {
+        throw new IllegalStateException("Lock is not held by current thread");
+      }
+      own[mode.ordinal()]--;
+      held[mode.ordinal()]--;
+      if (mode == Mode.SHARED && own[mode.ordinal()] == 0) {
+        sharedHolders--;
+      }
+      if (isFree(own)) {
+        holders.remove(thread);
+      }
+      return isUnused() ? null : this;
+    }
+
+    private boolean isUnused() {
+      return waiters == 0 && holders.isEmpty();
+    }
+
+    private boolean isFree(int[] counts) {
+      for (int count : counts) {
+        if (count > 0) {
+          return false;
+        }
+      }
+      return true;
     }
   }
 
   public final class PathLock {
-    private final Path path;
-    private final int permits;
+    // The path itself and all its ancestors starting from the root
+    private final Path[] nodes;
+    private final Mode mode;
 
-    private PathLock(Path path, int permits) {
-      this.path = path;
-      this.permits = permits;
+    private PathLock(Path path, Mode mode) {
+      this.nodes = nodes(path);
+      this.mode = mode;
     }
 
     /**
      * Acquire permit for file. Method is blocked until permit available.
      *
      * @return this PathLock instance
+     * @throws RuntimeException if current thread is interrupted while waiting
      */
     public PathLock acquire() {
-      PathLockFactory.this.acquire(path, permits);
+      PathLockFactory.this.acquire(nodes, mode, 0);
       return this;
     }
 
@@ -214,21 +356,21 @@ public final class PathLockFactory {
      *
      * @param timeoutMilliseconds maximum time (in milliseconds) to wait for access permit
      * @return this PathLock instance
-     * @throws RuntimeException if waiting timeout reached
+     * @throws RuntimeException if waiting timeout reached or current thread is interrupted
      */
     public PathLock acquire(long timeoutMilliseconds) {
-      PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+      PathLockFactory.this.acquire(nodes, mode, Math.max(1, timeoutMilliseconds));
       return this;
     }
 
     /** Release file permit. */
     public void release() {
-      PathLockFactory.this.release(path, permits);
+      PathLockFactory.this.release(nodes, mode);
     }
 
     /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
     public boolean isExclusive() {
-      return permits == PathLockFactory.this.maxThreads;
+      return mode == Mode.EXCLUSIVE;
     }
   }
 }
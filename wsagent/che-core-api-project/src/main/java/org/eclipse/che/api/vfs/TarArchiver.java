@@ -10,7 +10,6 @@
  */
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -75,9 +74,7 @@ public class TarArchiver extends Archiver {
         tarEntry.setSize(virtualFile.getLength());
         tarEntry.setModTime(virtualFile.getLastModificationDate());
         tarOutputStream.putArchiveEntry(tarEntry);
-        try (InputStream content = virtualFile.getContent()) {
-          ByteStreams.copy(content, tarOutputStream);
-        }
+        virtualFile.copyContentTo(tarOutputStream);
       }
       tarOutputStream.closeArchiveEntry();
     } catch (ForbiddenException e) {
@@ -120,6 +120,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
    */
   String getContentAsString() throws ForbiddenException, ServerException;
 
+  /**
+   * Writes content of the file to the given output. Unlike {@link #getContent()} content is passed
+   * to the output in chunks without copying the whole file, the output is not closed. File is
+   * locked for reading only while a chunk is read, copying fails if the file is modified before
+   * whole content is written.
+   *
+   * @param output output for the content
+   * @throws ForbiddenException if this item is not a file
+   * @throws ServerException if other error occurs, e.g. output can't be written
+   * @see #isFile()
+   */
+  void copyContentTo(OutputStream output) throws ForbiddenException, ServerException;
+
   /**
    * Updates content of the file.
    *
@@ -482,6 +495,17 @@ public interface VirtualFile extends Comparable<VirtualFile> {
    */
   InputStream zip() throws ForbiddenException, ServerException;
 
+  /**
+   * Writes content of folder denoted by this VirtualFile as zip archive to the given output. Archive
+   * entries are written while folder is walked, so the whole archive is never buffered. The output
+   * is closed when archive is written.
+   *
+   * @param output output for zipped content of folder
+   * @throws ForbiddenException if this item does not denote a folder
+   * @throws ServerException if other error occurs, e.g. output can't be written
+   */
+  void zip(OutputStream output) throws ForbiddenException, ServerException;
+
   /**
    * Extracts zip archive to the folder denoted by this VirtualFile.
    *
@@ -510,6 +534,17 @@ public interface VirtualFile extends Comparable<VirtualFile> {
    */
   InputStream tar() throws ForbiddenException, ServerException;
 
+  /**
+   * Writes content of folder denoted by this VirtualFile as TAR archive to the given output.
+   * Archive entries are written while folder is walked, so the whole archive is never buffered.
+   * The output is closed when archive is written.
+   *
+   * @param output output for content of folder as TAR archive
+   * @throws ForbiddenException if this item does not denote a folder
+   * @throws ServerException if other error occurs, e.g. output can't be written
+   */
+  void tar(OutputStream output) throws ForbiddenException, ServerException;
+
   /**
    * Extracts tar archive to the folder denoted by this VirtualFile.
    *
@@ -10,7 +10,6 @@
  */
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -72,9 +71,7 @@ public class ZipArchiver extends Archiver {
       if (virtualFile.isFolder()) {
         zipEntry.setTime(0);
       } else {
-        try (InputStream content = virtualFile.getContent()) {
-          ByteStreams.copy(content, zipOutputStream);
-        }
+        virtualFile.copyContentTo(zipOutputStream);
         zipEntry.setTime(virtualFile.getLastModificationDate());
       }
       zipOutputStream.closeEntry();
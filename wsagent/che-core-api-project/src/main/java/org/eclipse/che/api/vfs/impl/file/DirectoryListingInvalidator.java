@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops cached directory listings of {@link LocalVirtualFileSystem} when file watchers report that
+ * an item was created, updated or removed outside of the virtual file system.
+ */
+@Singleton
+public class DirectoryListingInvalidator implements Consumer<Path> {
+  private static final Logger LOG = LoggerFactory.getLogger(DirectoryListingInvalidator.class);
+
+  private final Path root;
+  private final VirtualFileSystemProvider vfsProvider;
+
+  @Inject
+  public DirectoryListingInvalidator(
+      @Named("che.user.workspaces.storage") File root, VirtualFileSystemProvider vfsProvider) {
+    this.root = root.toPath();
+    this.vfsProvider = vfsProvider;
+  }
+
+  @Override
+  public void accept(Path path) {
+    if (!path.startsWith(root)) {
+      return;
+    }
+    try {
+      VirtualFileSystem virtualFileSystem = vfsProvider.getVirtualFileSystem(false);
+      if (virtualFileSystem instanceof LocalVirtualFileSystem) {
+        Path innerPath = root.relativize(path);
+        ((LocalVirtualFileSystem) virtualFileSystem)
+            .invalidateChildren(org.eclipse.che.api.vfs.Path.ROOT.newPath(innerPath.toString()));
+      }
+    } catch (ServerException e) {
+      LOG.error("Issue happened during invalidating cached children of {}", path, e);
+    }
+  }
+}
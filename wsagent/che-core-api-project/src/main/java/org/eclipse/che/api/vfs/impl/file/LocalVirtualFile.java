@@ -124,6 +124,11 @@ public class LocalVirtualFile implements VirtualFile {
     return new String(getContentAsBytes());
   }
 
+  @Override
+  public void copyContentTo(OutputStream output) throws ForbiddenException, ServerException {
+    fileSystem.copyContentTo(this, output);
+  }
+
   @Override
   public VirtualFile updateContent(InputStream content, String lockToken)
       throws ForbiddenException, ServerException {
@@ -270,6 +275,11 @@ public class LocalVirtualFile implements VirtualFile {
     return fileSystem.zip(this);
   }
 
+  @Override
+  public void zip(OutputStream output) throws ForbiddenException, ServerException {
+    fileSystem.zip(this, output);
+  }
+
   @Override
   public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
       throws ForbiddenException, ConflictException, ServerException {
@@ -281,6 +291,11 @@ public class LocalVirtualFile implements VirtualFile {
     return fileSystem.tar(this);
   }
 
+  @Override
+  public void tar(OutputStream output) throws ForbiddenException, ServerException {
+    fileSystem.tar(this, output);
+  }
+
   @Override
   public void untar(InputStream tarArchive, boolean overwrite, int stripNumber)
       throws ForbiddenException, ConflictException, ServerException {
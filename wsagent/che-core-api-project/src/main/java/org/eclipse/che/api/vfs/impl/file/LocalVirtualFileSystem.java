@@ -14,16 +14,21 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAttributes;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
+import static java.util.Comparator.comparing;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
@@ -40,8 +45,14 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardCopyOption;
-import java.util.Collections;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -79,6 +90,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   private static final Logger LOG = LoggerFactory.getLogger(LocalVirtualFileSystem.class);
 
   static final int MAX_BUFFER_SIZE = 200 * 1024; // 200k
+  /** File is locked only while a chunk of this size is read when content is copied to output. */
+  static final int COPY_CHUNK_SIZE = 64 * 1024; // 64k
 
   private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
   private static final int FILE_LOCK_MAX_THREADS = 1024;
@@ -90,13 +103,45 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   private static final String FILE_PROPERTIES_DIR = VFS_SERVICE_DIR + File.separatorChar + "props";
   private static final String PROPERTIES_FILE_SUFFIX = "_props";
 
-  private static final FilenameFilter DOT_VFS_DIR_FILTER =
-      (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
+  private static final int CHILDREN_CACHE_MAX_SIZE = 1024;
 
   private static final FilenameFilter VFS_LOCK_FILTER =
       (dir, name) ->
           !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
 
+  /**
+   * Sorted children of a folder read in a single pass over the directory together with the
+   * modification time of the directory at the moment of listing.
+   */
+  private static class DirectoryListing {
+    final FileTime lastModified;
+    final List<LocalVirtualFile> children;
+
+    DirectoryListing(FileTime lastModified, List<LocalVirtualFile> children) {
+      this.lastModified = lastModified;
+      this.children = children;
+    }
+  }
+
+  /** Listed child with the attributes that are needed to put it in the right place. */
+  private static class ListedChild {
+    final LocalVirtualFile file;
+    final boolean folder;
+
+    ListedChild(LocalVirtualFile file, boolean folder) {
+      this.file = file;
+      this.folder = folder;
+    }
+
+    String getName() {
+      return file.getName();
+    }
+  }
+
+  // Same order as LocalVirtualFile#compareTo, but without touching the file system
+  private static final Comparator<ListedChild> LISTED_CHILDREN_ORDER =
+      comparing((ListedChild child) -> !child.folder).thenComparing(ListedChild::getName);
+
   private class LockTokenCacheLoader extends CacheLoader<Path, FileLock> {
     @Override
     public FileLock load(Path path) throws Exception {
@@ -141,6 +186,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   private final FileMetadataSerializer metadataSerializer;
   private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+  private final Cache<Path, DirectoryListing> childrenCache;
+
   @SuppressWarnings("unchecked")
   public LocalVirtualFileSystem(
       File ioRoot,
@@ -170,6 +217,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             .maximumSize(256)
             .expireAfterAccess(10, MINUTES)
             .build(new FilePropertiesCacheLoader());
+
+    childrenCache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(8)
+            .maximumSize(CHILDREN_CACHE_MAX_SIZE)
+            .expireAfterAccess(10, MINUTES)
+            .build();
   }
 
   @Override
@@ -185,6 +239,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
   @Override
   public void close() throws ServerException {
     cleanUpCaches();
+    childrenCache.invalidateAll();
     if (searcherProvider != null) {
       Searcher searcher = searcherProvider.getSearcher(this, false);
       if (searcher != null) {
@@ -218,6 +273,28 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     metadataCache.invalidateAll();
   }
 
+  /**
+   * Drops cached children of the folder with given path and of its parent folder. Should be called
+   * when the item is created, updated or removed behind the back of this file system.
+   */
+  void invalidateChildren(Path path) {
+    childrenCache.invalidate(path);
+    if (!path.isRoot()) {
+      childrenCache.invalidate(path.getParent());
+    }
+  }
+
+  /**
+   * Drops cached children of the folder with given path, of all its descendants and of its parent
+   * folder. Should be called when the item is removed or replaced, e.g. by move or rename.
+   */
+  void invalidateSubtree(Path path) {
+    childrenCache.asMap().keySet().removeIf(cached -> cached.equals(path) || cached.isChild(path));
+    if (!path.isRoot()) {
+      childrenCache.invalidate(path.getParent());
+    }
+  }
+
   /**
    * Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the
    * end of request lifecycle.
@@ -253,45 +330,69 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     return newArrayList(path.elements()).contains(".vfs");
   }
 
-  synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter)
+  List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter)
       throws ServerException {
-    if (parent.isFolder()) {
-      final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
-      Collections.sort(children);
-      return children;
+    final BasicFileAttributes parentAttributes;
+    try {
+      parentAttributes = readAttributes(parent.toIoFile().toPath(), BasicFileAttributes.class);
+    } catch (IOException e) {
+      return emptyList();
     }
-    return emptyList();
-  }
-
-  private List<VirtualFile> doGetChildren(
-      LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-      throws ServerException {
-    if (ioFileFilter == null) {
-      ioFileFilter = IoUtil.ANY_FILTER;
+    if (!parentAttributes.isDirectory()) {
+      return emptyList();
     }
 
-    final String[] names = parent.toIoFile().list(ioFileFilter);
-    if (names == null) {
-      throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
+    final Path parentPath = parent.getPath();
+    DirectoryListing listing = childrenCache.getIfPresent(parentPath);
+    if (listing == null || !listing.lastModified.equals(parentAttributes.lastModifiedTime())) {
+      listing = doGetChildren(parent, parentAttributes.lastModifiedTime());
+      childrenCache.put(parentPath, listing);
     }
 
-    if (vfsFilter == null) {
-      vfsFilter = VirtualFileFilter.ACCEPT_ALL;
+    if (filter == null) {
+      filter = VirtualFileFilter.ACCEPT_ALL;
     }
-
-    final List<VirtualFile> children = newArrayListWithCapacity(names.length);
-    for (String name : names) {
-      final Path childPath = parent.getPath().newPath(name);
-      final LocalVirtualFile child =
-          new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
-      if (vfsFilter.accept(child)) {
+    final List<VirtualFile> children = newArrayListWithCapacity(listing.children.size());
+    for (LocalVirtualFile child : listing.children) {
+      if (filter.accept(child)) {
         children.add(child);
       }
     }
-
     return children;
   }
 
+  private DirectoryListing doGetChildren(LocalVirtualFile parent, FileTime lastModified)
+      throws ServerException {
+    final Path parentPath = parent.getPath();
+    final List<ListedChild> listed = new ArrayList<>();
+    try (DirectoryStream<java.nio.file.Path> entries =
+        newDirectoryStream(parent.toIoFile().toPath())) {
+      for (java.nio.file.Path entry : entries) {
+        final String name = entry.getFileName().toString();
+        if (VFS_SERVICE_DIR.equals(name)) {
+          continue;
+        }
+        final BasicFileAttributes attributes;
+        try {
+          attributes = readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+          continue;
+        }
+        final Path childPath = parentPath.newPath(name);
+        listed.add(
+            new ListedChild(
+                new LocalVirtualFile(entry.toFile(), childPath, this), attributes.isDirectory()));
+      }
+    } catch (IOException e) {
+      throw new ServerException(String.format("Unable get children of '%s'", parentPath));
+    }
+
+    listed.sort(LISTED_CHILDREN_ORDER);
+    final ImmutableList.Builder<LocalVirtualFile> children = ImmutableList.builder();
+    listed.forEach(child -> children.add(child.file));
+    return new DirectoryListing(lastModified, children.build());
+  }
+
   LocalVirtualFile createFile(LocalVirtualFile parent, String name, InputStream content)
       throws ForbiddenException, ConflictException, ServerException {
     checkName(name);
@@ -313,6 +414,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         LOG.error(errorMessage + "\n" + e.getMessage(), e);
         throw new ServerException(errorMessage);
       }
+      invalidateChildren(newPath);
 
       final LocalVirtualFile newVirtualFile = new LocalVirtualFile(newIoFile, newPath, this);
 
@@ -341,6 +443,12 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
           throw new ConflictException(String.format("Item '%s' already exists", newPath));
         }
       }
+      // name may contain several segments, all of the created folders are new
+      for (Path path = newPath;
+          !(path.isRoot() || path.equals(parent.getPath()));
+          path = path.getParent()) {
+        invalidateChildren(path);
+      }
 
       return new LocalVirtualFile(newIoFile, newPath, this);
     } else {
@@ -396,6 +504,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
       }
 
       IoUtil.copy(from.toIoFile(), to.toIoFile(), VFS_LOCK_FILTER);
+      invalidateSubtree(to.getPath());
     } catch (IOException e) {
       String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
       LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -543,6 +652,56 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
   }
 
+  void copyContentTo(LocalVirtualFile virtualFile, OutputStream output)
+      throws ForbiddenException, ServerException {
+    if (virtualFile.isFile()) {
+      // File is locked only while a chunk is read, so a slow output doesn't block modification of
+      // the file and its ancestors. Size and modification time of the file are checked for every
+      // chunk to detect modification during the copy.
+      final File ioFile = virtualFile.toIoFile();
+      final byte[] buffer = new byte[COPY_CHUNK_SIZE];
+      long size = -1;
+      long lastModified = 0;
+      long position = 0;
+      try {
+        do {
+          final int read;
+          final PathLockFactory.PathLock lock =
+              pathLockFactory
+                  .getLock(virtualFile.getPath(), false)
+                  .acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+          try (RandomAccessFile file = new RandomAccessFile(ioFile, "r")) {
+            if (size < 0) {
+              size = file.length();
+              lastModified = ioFile.lastModified();
+            } else if (file.length() != size || ioFile.lastModified() != lastModified) {
+              throw new ServerException(
+                  String.format(
+                      "Unable get content of '%s'. File was modified while its content was copied",
+                      virtualFile.getPath()));
+            }
+            file.seek(position);
+            read = file.read(buffer, 0, (int) Math.min(buffer.length, size - position));
+          } finally {
+            lock.release();
+          }
+          if (read <= 0) {
+            break;
+          }
+          output.write(buffer, 0, read);
+          position += read;
+        } while (position < size);
+      } catch (IOException e) {
+        throw new ServerException(
+            String.format("Unable get content of '%s'. %s", virtualFile.getPath(), e.getMessage()),
+            e);
+      }
+    } else {
+      throw new ForbiddenException(
+          String.format("Unable get content. Item '%s' is not a file", virtualFile.getPath()));
+    }
+  }
+
   void updateContent(LocalVirtualFile virtualFile, InputStream content, String lockToken)
       throws ForbiddenException, ServerException {
     if (virtualFile.isFile()) {
@@ -674,7 +833,10 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
       }
     }
 
-    if (!deleteRecursive(virtualFile.toIoFile())) {
+    final boolean deleted = deleteRecursive(virtualFile.toIoFile());
+    // also when deletion failed half-way, some of the folders may be gone
+    invalidateSubtree(virtualFile.getPath());
+    if (!deleted) {
       LOG.error("Unable delete file {}", virtualFile.toIoFile());
       throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
     }
@@ -693,6 +855,20 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
   }
 
+  void zip(LocalVirtualFile folder, OutputStream output)
+      throws ForbiddenException, ServerException {
+    if (archiverFactory == null)
+      throw new ServerException(
+          "VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+    if (folder.isFolder()) {
+      compress(archiverFactory.createArchiver(folder, "zip"), output);
+    } else {
+      throw new ForbiddenException(
+          String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+    }
+  }
+
   void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
       throws ForbiddenException, ConflictException, ServerException {
     if (archiverFactory == null)
@@ -722,6 +898,21 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
   }
 
+  void tar(LocalVirtualFile folder, OutputStream output)
+      throws ForbiddenException, ServerException {
+    if (archiverFactory == null)
+      throw new ServerException(
+          "VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
+
+    if (folder.isFolder()) {
+      compress(archiverFactory.createArchiver(folder, "tar"), output);
+    } else {
+      throw new ForbiddenException(
+          String.format(
+              "Unable export to tar archive. Item '%s' is not a folder", folder.getPath()));
+    }
+  }
+
   void untar(LocalVirtualFile parent, InputStream tarArchive, boolean overwrite, int stripNumber)
       throws ForbiddenException, ConflictException, ServerException {
     if (archiverFactory == null)
@@ -753,6 +944,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
   }
 
+  private void compress(Archiver archiver, OutputStream output) throws ServerException {
+    try {
+      archiver.compress(output, dotGitFilter());
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
   private void extract(
       Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
       throws ConflictException, ServerException, ForbiddenException {
@@ -301,6 +301,15 @@ public class MemoryVirtualFile implements VirtualFile {
     return new ByteArrayInputStream(getContentAsBytes());
   }
 
+  @Override
+  public void copyContentTo(OutputStream output) throws ForbiddenException, ServerException {
+    try {
+      output.write(getContentAsBytes());
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
   @Override
   public byte[] getContentAsBytes() throws ForbiddenException {
     checkExistence();
@@ -665,6 +674,18 @@ public class MemoryVirtualFile implements VirtualFile {
     }
   }
 
+  @Override
+  public void zip(OutputStream output) throws ForbiddenException, ServerException {
+    checkExistence();
+
+    if (isFolder()) {
+      compress(fileSystem.getArchiverFactory().createArchiver(this, "zip"), output);
+    } else {
+      throw new ForbiddenException(
+          String.format("Unable export to zip. Item '%s' is not a folder", getPath()));
+    }
+  }
+
   @Override
   public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
       throws ForbiddenException, ServerException, ConflictException {
@@ -695,6 +716,18 @@ public class MemoryVirtualFile implements VirtualFile {
     }
   }
 
+  @Override
+  public void tar(OutputStream output) throws ForbiddenException, ServerException {
+    checkExistence();
+
+    if (isFolder()) {
+      compress(fileSystem.getArchiverFactory().createArchiver(this, "tar"), output);
+    } else {
+      throw new ForbiddenException(
+          String.format("Unable export to tar archive. Item '%s' is not a folder", getPath()));
+    }
+  }
+
   @Override
   public void untar(InputStream tarArchive, boolean overwrite, int stripNumber)
       throws ForbiddenException, ConflictException, ServerException {
@@ -723,6 +756,14 @@ public class MemoryVirtualFile implements VirtualFile {
     }
   }
 
+  private void compress(Archiver archiver, OutputStream output) throws ServerException {
+    try {
+      archiver.compress(output);
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
   private void extract(
       Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
       throws ConflictException, ServerException, ForbiddenException {
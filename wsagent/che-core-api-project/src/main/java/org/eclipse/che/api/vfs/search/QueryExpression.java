@@ -16,6 +16,7 @@ public class QueryExpression {
   private String path;
   private String text;
   private int skipCount;
+  private String cursor;
   private int maxItems;
   private boolean includePositions;
 
@@ -68,6 +69,20 @@ public class QueryExpression {
     return this;
   }
 
+  /**
+   * Optional opaque position of the previous page returned with next page query of search result.
+   * When set it takes precedence over the skip count, if the cursor is expired the skip count is
+   * used.
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  public QueryExpression setCursor(String cursor) {
+    this.cursor = cursor;
+    return this;
+  }
+
   /** Max number of results that might be returned after executing this query. */
   public int getMaxItems() {
     return maxItems;
@@ -102,6 +117,9 @@ public class QueryExpression {
         + '\''
         + ", skipCount="
         + skipCount
+        + ", cursor='"
+        + cursor
+        + '\''
         + ", maxItems="
         + maxItems
         + '}';
@@ -13,12 +13,14 @@ package org.eclipse.che.api.vfs.search.impl;
 import static com.google.common.collect.Lists.newArrayList;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
@@ -29,10 +31,21 @@ import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 
 public abstract class AbstractLuceneSearcherProvider implements SearcherProvider {
+  public static final String INDEXING_THREADS_PROPERTY = "che.search.indexing_threads";
+  public static final String CURSOR_TTL_PROPERTY = "che.search.cursor_ttl_ms";
+
   protected final VirtualFileFilter excludeFileIndexFilters;
   protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
   private final ExecutorService executor;
 
+  @Inject(optional = true)
+  @Named(INDEXING_THREADS_PROPERTY)
+  private int indexingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  @Inject(optional = true)
+  @Named(CURSOR_TTL_PROPERTY)
+  private long cursorTtlMillis = LuceneSearcher.DEFAULT_CURSOR_TTL_MILLIS;
+
   /** @param excludeFileIndexFilters set filter for files that should not be indexed */
   protected AbstractLuceneSearcherProvider(Set<VirtualFileFilter> excludeFileIndexFilters) {
     this.excludeFileIndexFilters = mergeFileIndexFilters(excludeFileIndexFilters);
@@ -45,7 +58,7 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
                 .build());
   }
 
-  private VirtualFileFilter mergeFileIndexFilters(Set<VirtualFileFilter> fileIndexFilters) {
+  static VirtualFileFilter mergeFileIndexFilters(Set<VirtualFileFilter> fileIndexFilters) {
     final VirtualFileFilter filter;
     if (fileIndexFilters.isEmpty()) {
       filter = new MediaTypeFilter();
@@ -63,6 +76,8 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     Searcher cachedSearcher = searcherReference.get();
     if (cachedSearcher == null && create) {
       LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+      searcher.setIndexingThreads(indexingThreads);
+      searcher.setCursorTtl(cursorTtlMillis);
       if (searcherReference.compareAndSet(null, searcher)) {
         searcher.initAsynchronously(executor, virtualFileSystem);
       }
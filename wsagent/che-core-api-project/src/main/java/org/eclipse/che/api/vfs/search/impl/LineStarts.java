@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.util.Arrays;
+
+/** Start offsets of lines of a text, line delimiters are the same as in jface documents. */
+class LineStarts {
+  private final String text;
+  private final int[] starts;
+  private final int count;
+
+  LineStarts(String text) {
+    this.text = text;
+    int[] lineStarts = new int[16];
+    int lines = 1;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      char c = text.charAt(i);
+      if (c == '\r' || c == '\n') {
+        if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+          i++;
+        }
+        if (lines == lineStarts.length) {
+          lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+        }
+        lineStarts[lines++] = i + 1;
+      }
+    }
+    this.starts = lineStarts;
+    this.count = lines;
+  }
+
+  int getLineOfOffset(int offset) {
+    int index = Arrays.binarySearch(starts, 0, count, offset);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /** Returns content of the line without line delimiter. */
+  String getLine(int line) {
+    int end = line + 1 < count ? starts[line + 1] : text.length();
+    while (end > starts[line] && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+      end--;
+    }
+    return text.substring(starts[line], end);
+  }
+}
@@ -11,32 +11,53 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
-import com.google.common.io.CharStreams;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
-import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
-import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MultiDocValues;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -47,14 +68,17 @@ import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.search.highlight.QueryScorer;
-import org.apache.lucene.search.highlight.TokenSources;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
+import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
@@ -64,15 +88,23 @@ import org.eclipse.che.api.vfs.search.QueryExpression;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Lucene based searcher.
  *
+ * <p>Trees are indexed by a pipeline: the calling thread walks the tree and passes files to a pool
+ * of indexing threads which read and analyze file content as a stream and add documents to the
+ * shared {@link IndexWriter}. Content is not stored in the index, it is read as UTF-8. Modification
+ * time and content hash of each indexed file are kept, so a file is indexed again only if it has
+ * been modified since.
+ *
+ * <p>Next page query of a search result carries a {@link SearchCursor} which points to the last hit
+ * of the page and to the searcher the page was found with, so the next page is found without
+ * repeating search of previous pages and doesn't shift if the index is modified in the meantime.
+ *
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
@@ -81,12 +113,39 @@ public abstract class LuceneSearcher implements Searcher {
   private static final String PATH_FIELD = "path";
   private static final String NAME_FIELD = "name";
   private static final String TEXT_FIELD = "text";
+  private static final String MODIFIED_FIELD = "modified";
+  private static final String HASH_FIELD = "hash";
+
+  /** Content is indexed with offsets, to be able to find positions of matches without it. */
+  private static final FieldType TEXT_TYPE = new FieldType(TextField.TYPE_NOT_STORED);
+
+  static {
+    TEXT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+    TEXT_TYPE.freeze();
+  }
+
+  /** Number of files which may wait for indexing threads while tree is walked. */
+  private static final int INDEXING_QUEUE_SIZE = 1000;
+  /** Number of indexed documents after which index is committed. */
+  private static final int COMMIT_BATCH_SIZE = 5000;
+  /** Time during which the next page may be found with the same view of the index. */
+  static final long DEFAULT_CURSOR_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
   private final List<VirtualFileFilter> excludeFileIndexFilters;
   private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+  private final IndexingStatistics statistics = new IndexingStatistics();
+  private final AtomicLong uncommitted = new AtomicLong();
+  /** Versions of searchers kept for cursors mapped to the time the last cursor was issued. */
+  private final ConcurrentMap<Long, Long> cursorIssueTimes = new ConcurrentHashMap<>();
 
   private IndexWriter luceneIndexWriter;
   private SearcherManager searcherManager;
+  private SearcherLifetimeManager lifetimeManager;
+  private VirtualFileSystem virtualFileSystem;
+  /** Indexes files of trees, shared by all trees so that they are indexed by the same threads. */
+  private ThreadPoolExecutor indexers;
+  private int indexingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  private long cursorTtlMillis = DEFAULT_CURSOR_TTL_MILLIS;
 
   private boolean closed = true;
 
@@ -142,12 +201,14 @@ public abstract class LuceneSearcher implements Searcher {
    * @throws ServerException if any virtual filesystem error occurs
    */
   public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+    this.virtualFileSystem = virtualFileSystem;
     doInit();
     addTree(virtualFileSystem.getRoot());
   }
 
   public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem)
       throws ServerException {
+    this.virtualFileSystem = virtualFileSystem;
     doInit();
     if (!executor.isShutdown()) {
       executor.execute(
@@ -165,6 +226,22 @@ public abstract class LuceneSearcher implements Searcher {
     try {
       luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
       searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+      lifetimeManager = new SearcherLifetimeManager();
+      indexers =
+          new ThreadPoolExecutor(
+              indexingThreads,
+              indexingThreads,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(INDEXING_QUEUE_SIZE),
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                  .setNameFormat("LuceneSearcherIndexer-%d")
+                  .build(),
+              // when all indexers are busy tree walking is paused to index a file, the same
+              // happens after close, so that the walking thread doesn't wait for dropped files
+              (file, executor) -> file.run());
       closed = false;
     } catch (IOException e) {
       throw new ServerException(e);
@@ -174,7 +251,11 @@ public abstract class LuceneSearcher implements Searcher {
   public final synchronized void close() {
     if (!closed) {
       try {
-        IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+        // queued files see that searcher is closed and are dropped at once
+        indexers.shutdown();
+        IOUtils.close(
+            lifetimeManager, getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+        cursorIssueTimes.clear();
         afterClose();
       } catch (IOException e) {
         LOG.error(e.getMessage(), e);
@@ -198,20 +279,52 @@ public abstract class LuceneSearcher implements Searcher {
     return luceneIndexWriter;
   }
 
+  /** Returns progress and throughput of indexing. */
+  public IndexingStatistics getIndexingStatistics() {
+    return statistics;
+  }
+
+  /** Sets time after which cursors of search result pages expire. */
+  void setCursorTtl(long cursorTtlMillis) {
+    this.cursorTtlMillis = cursorTtlMillis;
+  }
+
+  /** Sets the number of threads which index files of a tree. */
+  void setIndexingThreads(int indexingThreads) {
+    this.indexingThreads = Math.max(1, indexingThreads);
+  }
+
   @Override
-  public SearchResult search(QueryExpression query) throws ServerException {
+  public SearchResult search(QueryExpression query) throws BadRequestException, ServerException {
     IndexSearcher luceneSearcher = null;
+    boolean pinned = false;
     try {
       final long startTime = System.currentTimeMillis();
-      searcherManager.maybeRefresh();
-      luceneSearcher = searcherManager.acquire();
+      pruneExpiredSearchers();
 
       Query luceneQuery = createLuceneQuery(query);
 
       ScoreDoc after = null;
-      final int numSkipDocs = Math.max(0, query.getSkipCount());
-      if (numSkipDocs > 0) {
-        after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+      int numSkipDocs = Math.max(0, query.getSkipCount());
+      if (query.getCursor() != null) {
+        final SearchCursor cursor = decodeCursor(query);
+        numSkipDocs = cursor.offset;
+        luceneSearcher = lifetimeManager.acquire(cursor.searcherVersion);
+        if (luceneSearcher != null) {
+          pinned = true;
+          if (cursor.after.doc >= luceneSearcher.getIndexReader().maxDoc()) {
+            throw new BadRequestException("Invalid search cursor: " + query.getCursor());
+          }
+          after = cursor.after;
+        }
+      }
+      if (luceneSearcher == null) {
+        // no cursor or it is expired, hits of previous pages are skipped in the current index
+        searcherManager.maybeRefresh();
+        luceneSearcher = searcherManager.acquire();
+        if (numSkipDocs > 0) {
+          after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+        }
       }
 
       final int numDocs =
@@ -219,77 +332,27 @@ public abstract class LuceneSearcher implements Searcher {
       TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
       final int totalHitsNum = topDocs.totalHits;
 
+      Map<Integer, List<int[]>> matches = Collections.emptyMap();
+      if (query.isIncludePositions() && query.getText() != null) {
+        int[] docIds = new int[topDocs.scoreDocs.length];
+        for (int i = 0; i < docIds.length; i++) {
+          docIds[i] = topDocs.scoreDocs[i].doc;
+        }
+        matches =
+            new OffsetsHighlighter(TEXT_FIELD, createTextQuery(query.getText()))
+                .highlight(luceneSearcher.getIndexReader(), docIds);
+      }
+
       List<SearchResultEntry> results = newArrayList();
       List<OffsetData> offsetData = Collections.emptyList();
       for (int i = 0; i < topDocs.scoreDocs.length; i++) {
         ScoreDoc scoreDoc = topDocs.scoreDocs[i];
         int docId = scoreDoc.doc;
         Document doc = luceneSearcher.doc(docId);
+        String filePath = doc.getField(PATH_FIELD).stringValue();
         if (query.isIncludePositions()) {
-          offsetData = new ArrayList<>();
-          String txt = doc.get(TEXT_FIELD);
-          if (txt != null) {
-            IndexReader reader = luceneSearcher.getIndexReader();
-
-            TokenStream tokenStream =
-                TokenSources.getTokenStream(
-                    TEXT_FIELD,
-                    reader.getTermVectors(docId),
-                    txt,
-                    luceneIndexWriter.getAnalyzer(),
-                    -1);
-
-            CharTermAttribute termAtt = tokenStream.addAttribute(CharTermAttribute.class);
-            OffsetAttribute offsetAtt = tokenStream.addAttribute(OffsetAttribute.class);
-
-            QueryScorer queryScorer = new QueryScorer(luceneQuery);
-            // TODO think about this constant
-            queryScorer.setMaxDocCharsToAnalyze(1_000_000);
-            TokenStream newStream = queryScorer.init(tokenStream);
-            if (newStream != null) {
-              tokenStream = newStream;
-            }
-            queryScorer.startFragment(null);
-
-            tokenStream.reset();
-
-            int startOffset, endOffset;
-            // TODO think about this constant
-            for (boolean next = tokenStream.incrementToken();
-                next && (offsetAtt.startOffset() < 1_000_000);
-                next = tokenStream.incrementToken()) {
-              startOffset = offsetAtt.startOffset();
-              endOffset = offsetAtt.endOffset();
-
-              if ((endOffset > txt.length()) || (startOffset > txt.length())) {
-                throw new ServerException(
-                    "Token "
-                        + termAtt.toString()
-                        + " exceeds length of provided text size "
-                        + txt.length());
-              }
-
-              float res = queryScorer.getTokenScore();
-              if (res > 0.0F && startOffset <= endOffset) {
-                try {
-                  IDocument document = new org.eclipse.jface.text.Document(txt);
-                  int lineNum = document.getLineOfOffset(startOffset);
-                  IRegion lineInfo = document.getLineInformation(lineNum);
-                  String foundLine = document.get(lineInfo.getOffset(), lineInfo.getLength());
-                  String tokenText = document.get(startOffset, endOffset - startOffset);
-
-                  offsetData.add(
-                      new OffsetData(
-                          tokenText, startOffset, endOffset, docId, res, lineNum, foundLine));
-                } catch (BadLocationException e) {
-                  LOG.error(e.getLocalizedMessage(), e);
-                  throw new ServerException("Can not provide data for token " + termAtt.toString());
-                }
-              }
-            }
-          }
+          offsetData = createOffsetData(docId, filePath, matches.get(docId));
         }
-        String filePath = doc.getField(PATH_FIELD).stringValue();
         results.add(new SearchResultEntry(filePath, offsetData));
       }
 
@@ -297,9 +360,15 @@ public abstract class LuceneSearcher implements Searcher {
 
       boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
       QueryExpression nextPageQueryExpression = null;
-      if (hasMoreToRetrieve) {
-        nextPageQueryExpression =
-            createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+      if (hasMoreToRetrieve && topDocs.scoreDocs.length > 0) {
+        final int newSkipCount = numSkipDocs + topDocs.scoreDocs.length;
+        final SearchCursor cursor =
+            new SearchCursor(
+                query,
+                recordSearcher(luceneSearcher),
+                topDocs.scoreDocs[topDocs.scoreDocs.length - 1],
+                newSkipCount);
+        nextPageQueryExpression = createNextPageQuery(query, newSkipCount, cursor.encode());
       }
 
       return SearchResult.aSearchResult()
@@ -311,14 +380,54 @@ public abstract class LuceneSearcher implements Searcher {
     } catch (IOException | ParseException e) {
       throw new ServerException(e.getMessage(), e);
     } finally {
-      try {
-        searcherManager.release(luceneSearcher);
-      } catch (IOException e) {
-        LOG.error(e.getMessage());
+      if (luceneSearcher != null) {
+        try {
+          if (pinned) {
+            lifetimeManager.release(luceneSearcher);
+          } else {
+            searcherManager.release(luceneSearcher);
+          }
+        } catch (IOException e) {
+          LOG.error(e.getMessage());
+        }
       }
     }
   }
 
+  private SearchCursor decodeCursor(QueryExpression query) throws BadRequestException {
+    try {
+      return SearchCursor.decode(query.getCursor(), query);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage());
+    }
+  }
+
+  /**
+   * Keeps searcher, so next pages are found with the same view of the index, and returns version
+   * of the searcher. Searcher is released when no cursors were issued for it during {@link
+   * #cursorTtlMillis}.
+   */
+  private long recordSearcher(IndexSearcher luceneSearcher) throws IOException {
+    final long version = ((DirectoryReader) luceneSearcher.getIndexReader()).getVersion();
+    // time is set before recording, otherwise searcher might be pruned immediately
+    cursorIssueTimes.put(version, System.currentTimeMillis());
+    return lifetimeManager.record(luceneSearcher);
+  }
+
+  private void pruneExpiredSearchers() throws IOException {
+    final long expiration = System.currentTimeMillis() - cursorTtlMillis;
+    lifetimeManager.prune(
+        (ageSec, searcher) -> {
+          final long version = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+          final Long issued = cursorIssueTimes.get(version);
+          if (issued == null || issued < expiration) {
+            cursorIssueTimes.remove(version);
+            return true;
+          }
+          return false;
+        });
+  }
+
   private Query createLuceneQuery(QueryExpression query) throws ParseException {
     final BooleanQuery luceneQuery = new BooleanQuery();
     final String name = query.getName();
@@ -333,13 +442,58 @@ public abstract class LuceneSearcher implements Searcher {
       luceneQuery.add(qParser.parse(name), BooleanClause.Occur.MUST);
     }
     if (text != null) {
-      QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
-      qParser.setAllowLeadingWildcard(true);
-      luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+      luceneQuery.add(createTextQuery(text), BooleanClause.Occur.MUST);
     }
     return luceneQuery;
   }
 
+  private Query createTextQuery(String text) throws ParseException {
+    QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
+    qParser.setAllowLeadingWildcard(true);
+    return qParser.parse(text);
+  }
+
+  /**
+   * Creates positions data of matches found within the file. Content of the file is read only if
+   * there are matches and line numbers of all matches are resolved with a single table of line
+   * start offsets.
+   */
+  private List<OffsetData> createOffsetData(int docId, String filePath, List<int[]> matches)
+      throws ServerException {
+    if (matches == null || matches.isEmpty()) {
+      return new ArrayList<>();
+    }
+    final String txt = readContent(filePath);
+    if (txt == null) {
+      return new ArrayList<>();
+    }
+
+    final LineStarts lines = new LineStarts(txt);
+    final List<OffsetData> offsetData = new ArrayList<>(matches.size());
+    for (int[] match : matches) {
+      int startOffset = match[0];
+      int endOffset = match[1];
+      if (startOffset >= 1_000_000) {
+        break;
+      }
+      if (endOffset > txt.length() || startOffset > endOffset) {
+        LOG.debug("Index of file '{}' is out of date, match is skipped", filePath);
+        continue;
+      }
+      int lineNum = lines.getLineOfOffset(startOffset);
+      offsetData.add(
+          new OffsetData(
+              txt.substring(startOffset, endOffset),
+              startOffset,
+              endOffset,
+              docId,
+              1.0F,
+              lineNum,
+              lines.getLine(lineNum)));
+    }
+    return offsetData;
+  }
+
   private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs)
       throws IOException {
     final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
@@ -362,12 +516,14 @@ public abstract class LuceneSearcher implements Searcher {
     return scoreDoc;
   }
 
-  private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+  private QueryExpression createNextPageQuery(
+      QueryExpression originalQuery, int newSkipCount, String cursor) {
     return new QueryExpression()
         .setText(originalQuery.getText())
         .setName(originalQuery.getName())
         .setPath(originalQuery.getPath())
         .setSkipCount(newSkipCount)
+        .setCursor(cursor)
         .setMaxItems(originalQuery.getMaxItems());
   }
 
@@ -386,43 +542,59 @@ public abstract class LuceneSearcher implements Searcher {
 
   protected void addTree(VirtualFile tree) throws ServerException {
     final long start = System.currentTimeMillis();
-    final LinkedList<VirtualFile> q = new LinkedList<>();
-    q.add(tree);
-    int indexedFiles = 0;
-    while (!q.isEmpty()) {
-      final VirtualFile folder = q.pop();
-      if (folder.exists()) {
-        for (VirtualFile child : folder.getChildren()) {
-          if (child.isFolder()) {
-            q.push(child);
-          } else {
-            addFile(child);
-            indexedFiles++;
+    final IndexedFiles indexed = new IndexedFiles(acquireSearcher(true));
+    // files of this tree which are not indexed yet, indexers may run files of other trees too
+    final Phaser pending = new Phaser(1);
+    final AtomicLong indexedFiles = new AtomicLong();
+    try {
+      final Deque<VirtualFile> q = new ArrayDeque<>();
+      q.add(tree);
+      while (!q.isEmpty() && !isClosed()) {
+        final VirtualFile folder = q.pop();
+        if (folder.exists()) {
+          for (VirtualFile child : folder.getChildren()) {
+            if (child.isFolder()) {
+              q.push(child);
+            } else {
+              statistics.queued.incrementAndGet();
+              pending.register();
+              indexers.execute(
+                  () -> {
+                    try {
+                      if (indexInBackground(child, indexed)) {
+                        indexedFiles.incrementAndGet();
+                      }
+                    } finally {
+                      pending.arriveAndDeregister();
+                    }
+                  });
+            }
           }
         }
       }
+    } finally {
+      try {
+        pending.awaitAdvanceInterruptibly(pending.arrive());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      releaseSearcher(indexed.searcher);
     }
+    commit();
     final long end = System.currentTimeMillis();
+    statistics.timeMillis.addAndGet(end - start);
     LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
   }
 
   protected void addFile(VirtualFile virtualFile) throws ServerException {
     if (virtualFile.exists()) {
-      try (Reader fContentReader =
-          shouldIndexContent(virtualFile)
-              ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-              : null) {
-        getIndexWriter()
-            .updateDocument(
-                new Term(PATH_FIELD, virtualFile.getPath().toString()),
-                createDocument(virtualFile, fContentReader));
-      } catch (OutOfMemoryError oome) {
-        close();
-        throw oome;
-      } catch (IOException e) {
-        throw new ServerException(e.getMessage(), e);
-      } catch (ForbiddenException e) {
-        throw new ServerException(e.getServiceError());
+      statistics.queued.incrementAndGet();
+      IndexedFiles indexed = new IndexedFiles(acquireSearcher(false));
+      try {
+        indexFile(
+            new Term(PATH_FIELD, virtualFile.getPath().toString()), virtualFile, indexed, false);
+      } finally {
+        releaseSearcher(indexed.searcher);
       }
     }
   }
@@ -451,33 +623,218 @@ public abstract class LuceneSearcher implements Searcher {
   }
 
   protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-    try (Reader fContentReader =
-        shouldIndexContent(virtualFile)
-            ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-            : null) {
-      getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+    statistics.queued.incrementAndGet();
+    IndexedFiles indexed = new IndexedFiles(acquireSearcher(false));
+    try {
+      indexFile(deleteTerm, virtualFile, indexed, false);
+    } finally {
+      releaseSearcher(indexed.searcher);
+    }
+  }
+
+  protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+    final Document doc = new Document();
+    doc.add(new StringField(PATH_FIELD, virtualFile.getPath().toString(), Field.Store.YES));
+    doc.add(new TextField(NAME_FIELD, virtualFile.getName(), Field.Store.YES));
+    if (reader != null) {
+      doc.add(new Field(TEXT_FIELD, reader, TEXT_TYPE));
+    }
+    return doc;
+  }
+
+  /**
+   * Indexes file on an indexing thread.
+   *
+   * @return {@code true} if file was indexed and {@code false} if it was skipped or failed
+   */
+  private boolean indexInBackground(VirtualFile file, IndexedFiles indexed) {
+    if (isClosed()) {
+      statistics.failed.incrementAndGet();
+      return false;
+    }
+    try {
+      if (!file.exists()) {
+        statistics.skipped.incrementAndGet();
+        return false;
+      }
+      return indexFile(new Term(PATH_FIELD, file.getPath().toString()), file, indexed, true);
+    } catch (ServerException e) {
+      LOG.warn("Unable to index file '{}': {}", file.getPath(), e.getMessage());
+      return false;
+    } catch (RuntimeException e) {
+      statistics.failed.incrementAndGet();
+      LOG.warn("Unable to index file '{}': {}", file.getPath(), e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Indexes file unless it's not modified since the last indexing.
+   *
+   * @param term term of the document to replace
+   * @param virtualFile file to index
+   * @param indexed view of the current index
+   * @param trustModificationTime whether file with the same modification time may be considered
+   *     not modified, otherwise content hash is always checked. Modification time is not trusted
+   *     when file is known to be updated, since it may be updated within the time resolution
+   * @return {@code true} if file was indexed and {@code false} if it's not modified
+   */
+  private boolean indexFile(
+      Term term, VirtualFile virtualFile, IndexedFiles indexed, boolean trustModificationTime)
+      throws ServerException {
+    try {
+      final long modified = virtualFile.getLastModificationDate();
+      final boolean indexContent = shouldIndexContent(virtualFile);
+
+      final IndexedFile previous = indexed.find(term);
+      if (previous != null && trustModificationTime && previous.modified == modified) {
+        statistics.skipped.incrementAndGet();
+        return false;
+      }
+      // Content is read beforehand only to check whether the file found by tree walking is
+      // modified while its modification time is changed, e.g. by checkout of another branch.
+      // Updated files are expected to be modified, so their hash is computed while indexing.
+      if (indexContent && previous != null && previous.hash != null && trustModificationTime) {
+        if (previous.hash.equals(hash(virtualFile))) {
+          getIndexWriter().updateNumericDocValue(term, MODIFIED_FIELD, modified);
+          statistics.skipped.incrementAndGet();
+          return false;
+        }
+      }
+
+      try (CountingInputStream content =
+              indexContent ? new CountingInputStream(virtualFile.getContent()) : null;
+          HashingInputStream hashingContent =
+              content != null ? new HashingInputStream(Hashing.murmur3_128(), content) : null;
+          Reader fContentReader =
+              hashingContent != null
+                  ? new BufferedReader(new InputStreamReader(hashingContent, UTF_8))
+                  : null) {
+        final Document doc = createDocument(virtualFile, fContentReader);
+        doc.add(new NumericDocValuesField(MODIFIED_FIELD, modified));
+        if (hashingContent != null) {
+          // hash is kept for the first indexing too, so the next modification time change
+          // doesn't cause indexing of the same content once again
+          doc.add(new ContentHashField(hashingContent));
+        }
+        getIndexWriter().updateDocument(term, doc);
+        if (content != null) {
+          statistics.bytes.addAndGet(content.getCount());
+        }
+      }
+      statistics.indexed.incrementAndGet();
+      if (uncommitted.incrementAndGet() % COMMIT_BATCH_SIZE == 0) {
+        commit();
+      }
+      return true;
     } catch (OutOfMemoryError oome) {
       close();
       throw oome;
     } catch (IOException e) {
+      statistics.failed.incrementAndGet();
       throw new ServerException(e.getMessage(), e);
+    } catch (UncheckedIOException e) {
+      statistics.failed.incrementAndGet();
+      throw new ServerException(e.getCause().getMessage(), e.getCause());
     } catch (ForbiddenException e) {
+      statistics.failed.incrementAndGet();
       throw new ServerException(e.getServiceError());
     }
   }
 
-  protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
-    final Document doc = new Document();
-    doc.add(new StringField(PATH_FIELD, virtualFile.getPath().toString(), Field.Store.YES));
-    doc.add(new TextField(NAME_FIELD, virtualFile.getName(), Field.Store.YES));
-    if (reader != null) {
+  /**
+   * Hash of the content which is read by the text field. Fields are indexed in the order of the
+   * document, so this field, which follows the text field, gets its value once the content is
+   * consumed and the hash is stored atomically with the rest of the document.
+   */
+  private static class ContentHashField extends BinaryDocValuesField {
+    private final HashingInputStream content;
+    private BytesRef hash;
+
+    ContentHashField(HashingInputStream content) {
+      super(HASH_FIELD, new BytesRef());
+      this.content = content;
+    }
+
+    @Override
+    public BytesRef binaryValue() {
+      if (hash == null) {
+        try {
+          // the rest of the content, if any, is not indexed but it's a part of the hash
+          ByteStreams.exhaust(content);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        hash = new BytesRef(content.hash().toString());
+      }
+      return hash;
+    }
+  }
+
+  private String hash(VirtualFile virtualFile)
+      throws ForbiddenException, ServerException, IOException {
+    try (HashingInputStream content =
+        new HashingInputStream(Hashing.murmur3_128(), virtualFile.getContent())) {
+      ByteStreams.exhaust(content);
+      return content.hash().toString();
+    }
+  }
+
+  private void commit() throws ServerException {
+    try {
+      IndexWriter writer = getIndexWriter();
+      if (writer.isOpen()) {
+        writer.commit();
+      }
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Acquires searcher to check whether files are modified since they were indexed.
+   *
+   * @param refresh whether recent changes of index must be visible to searcher, files which
+   *     indexing is not visible are indexed once again
+   */
+  private IndexSearcher acquireSearcher(boolean refresh) {
+    try {
+      if (refresh) {
+        searcherManager.maybeRefresh();
+      }
+      return searcherManager.acquire();
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Index is not available, files will be indexed unconditionally", e);
+      return null;
+    }
+  }
+
+  private void releaseSearcher(IndexSearcher searcher) {
+    if (searcher != null) {
       try {
-        doc.add(new TextField(TEXT_FIELD, CharStreams.toString(reader), Field.Store.YES));
-      } catch (IOException e) {
-        throw new ServerException(e.getLocalizedMessage(), e);
+        searcherManager.release(searcher);
+      } catch (IOException | RuntimeException e) {
+        LOG.error(e.getMessage());
       }
     }
-    return doc;
+  }
+
+  /** Reads content of indexed file to find positions of matches within it. */
+  private String readContent(String path) throws ServerException {
+    if (virtualFileSystem == null) {
+      return null;
+    }
+    VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of(path));
+    if (file == null || !file.isFile()) {
+      return null;
+    }
+    try (InputStream content = file.getContent()) {
+      return new String(ByteStreams.toByteArray(content), UTF_8);
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    } catch (ForbiddenException e) {
+      throw new ServerException(e.getServiceError());
+    }
   }
 
   private boolean shouldIndexContent(VirtualFile virtualFile) {
@@ -489,6 +846,113 @@ public abstract class LuceneSearcher implements Searcher {
     return true;
   }
 
+  /**
+   * View of the index used by a single indexing pass to check whether files are modified since they
+   * were indexed.
+   */
+  private static class IndexedFiles {
+    /** Searcher over the current index, {@code null} if index is not available. */
+    final IndexSearcher searcher;
+
+    /**
+     * Modification times of all indexed files. Doc values can't be shared between threads, so they
+     * are fetched once per pass by each indexing thread.
+     */
+    private final ThreadLocal<NumericDocValues> modifiedValues = new ThreadLocal<>();
+    /** Content hashes of all indexed files, fetched the same way as modification times. */
+    private final ThreadLocal<BinaryDocValues> hashValues = new ThreadLocal<>();
+
+    IndexedFiles(IndexSearcher searcher) {
+      this.searcher = searcher;
+    }
+
+    /** Returns modification time and hash of indexed file or {@code null} if not indexed. */
+    IndexedFile find(Term term) throws IOException {
+      if (searcher == null) {
+        return null;
+      }
+      TopDocs topDocs = searcher.search(new TermQuery(term), 1);
+      if (topDocs.scoreDocs.length == 0) {
+        return null;
+      }
+      int docId = topDocs.scoreDocs[0].doc;
+      NumericDocValues modified = modifiedValues.get();
+      if (modified == null) {
+        modified = MultiDocValues.getNumericValues(searcher.getIndexReader(), MODIFIED_FIELD);
+        if (modified == null) {
+          return null;
+        }
+        modifiedValues.set(modified);
+      }
+      BinaryDocValues hashes = hashValues.get();
+      if (hashes == null) {
+        hashes = MultiDocValues.getBinaryValues(searcher.getIndexReader(), HASH_FIELD);
+        if (hashes != null) {
+          hashValues.set(hashes);
+        }
+      }
+      // content of file isn't hashed if it's excluded from indexing
+      final BytesRef hash = hashes != null ? hashes.get(docId) : null;
+      return new IndexedFile(
+          modified.get(docId), hash != null && hash.length > 0 ? hash.utf8ToString() : null);
+    }
+  }
+
+  private static class IndexedFile {
+    final long modified;
+    final String hash;
+
+    IndexedFile(long modified, String hash) {
+      this.modified = modified;
+      this.hash = hash;
+    }
+  }
+
+  /** Accumulated progress and throughput of indexing. */
+  public static class IndexingStatistics {
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong timeMillis = new AtomicLong();
+
+    /** Returns the number of files passed for indexing. */
+    public long getQueuedFiles() {
+      return queued.get();
+    }
+
+    /** Returns the number of indexed files. */
+    public long getIndexedFiles() {
+      return indexed.get();
+    }
+
+    /** Returns the number of files that weren't indexed since they are not modified. */
+    public long getSkippedFiles() {
+      return skipped.get();
+    }
+
+    /** Returns the number of files that couldn't be indexed. */
+    public long getFailedFiles() {
+      return failed.get();
+    }
+
+    /** Returns the number of files waiting for indexing. */
+    public long getPendingFiles() {
+      return Math.max(0, queued.get() - indexed.get() - skipped.get() - failed.get());
+    }
+
+    /** Returns total size of indexed content. */
+    public long getIndexedBytes() {
+      return bytes.get();
+    }
+
+    /** Returns total time spent on indexing of trees. */
+    public long getIndexingTimeMillis() {
+      return timeMillis.get();
+    }
+  }
+
   public static class OffsetData {
 
     public String phrase;
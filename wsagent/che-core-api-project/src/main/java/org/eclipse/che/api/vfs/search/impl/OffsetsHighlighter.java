@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+
+/**
+ * Finds offsets of query matches within documents using offsets indexed with postings. Neither
+ * document text nor token streams are needed, so the cost depends on the number of terms matching
+ * the query and the number of their occurrences rather than on the size of documents.
+ *
+ * <p>Term, phrase, prefix and wildcard queries and their boolean combinations are supported, other
+ * queries are not highlighted.
+ */
+class OffsetsHighlighter {
+  private final String field;
+  private final List<CompiledAutomaton> automata = new ArrayList<>();
+
+  /**
+   * @param field field which was indexed with offsets
+   * @param query query to highlight matches of
+   */
+  OffsetsHighlighter(String field, Query query) {
+    this.field = field;
+    collect(query);
+  }
+
+  /**
+   * Finds matches within the given documents.
+   *
+   * @param reader reader the documents are found with
+   * @param docIds identifiers of documents
+   * @return offsets of matches of each document sorted by start offset. Each match is
+   *     represented by an array of its start and end offsets
+   */
+  Map<Integer, List<int[]>> highlight(IndexReader reader, int[] docIds) throws IOException {
+    final Map<Integer, TreeMap<Integer, int[]>> matches = new HashMap<>();
+    final int[] sorted = docIds.clone();
+    Arrays.sort(sorted);
+    final List<LeafReaderContext> leaves = reader.leaves();
+
+    int from = 0;
+    while (from < sorted.length) {
+      LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(sorted[from], leaves));
+      int to = from;
+      while (to < sorted.length && sorted[to] < leaf.docBase + leaf.reader().maxDoc()) {
+        to++;
+      }
+      highlight(leaf, Arrays.copyOfRange(sorted, from, to), matches);
+      from = to;
+    }
+
+    final Map<Integer, List<int[]>> result = new HashMap<>();
+    matches.forEach((docId, offsets) -> result.put(docId, new ArrayList<>(offsets.values())));
+    return result;
+  }
+
+  /** Collects matches within documents of the same leaf, documents must be sorted. */
+  private void highlight(
+      LeafReaderContext leaf, int[] docIds, Map<Integer, TreeMap<Integer, int[]>> matches)
+      throws IOException {
+    final LeafReader leafReader = leaf.reader();
+    final Terms terms = leafReader.terms(field);
+    if (terms == null) {
+      return;
+    }
+
+    PostingsEnum postings = null;
+    for (CompiledAutomaton automaton : automata) {
+      TermsEnum termsEnum = automaton.getTermsEnum(terms);
+      while (termsEnum.next() != null) {
+        postings = termsEnum.postings(leafReader.getLiveDocs(), postings, PostingsEnum.OFFSETS);
+        for (int docId : docIds) {
+          int localId = docId - leaf.docBase;
+          int current = postings.docID() < localId ? postings.advance(localId) : postings.docID();
+          if (current == DocIdSetIterator.NO_MORE_DOCS) {
+            break;
+          }
+          if (current != localId) {
+            continue;
+          }
+          for (int i = 0, freq = postings.freq(); i < freq; i++) {
+            postings.nextPosition();
+            int start = postings.startOffset();
+            if (start >= 0) {
+              matches
+                  .computeIfAbsent(docId, id -> new TreeMap<>())
+                  .put(start, new int[] {start, postings.endOffset()});
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void collect(Query query) {
+    if (query instanceof BooleanQuery) {
+      for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+        if (!clause.isProhibited()) {
+          collect(clause.getQuery());
+        }
+      }
+    } else if (query instanceof TermQuery) {
+      addTerm(((TermQuery) query).getTerm());
+    } else if (query instanceof PhraseQuery) {
+      for (Term term : ((PhraseQuery) query).getTerms()) {
+        addTerm(term);
+      }
+    } else if (query instanceof PrefixQuery) {
+      Term prefix = ((PrefixQuery) query).getPrefix();
+      if (field.equals(prefix.field())) {
+        automata.add(
+            new CompiledAutomaton(
+                Operations.concatenate(
+                    Automata.makeString(prefix.text()), Automata.makeAnyString())));
+      }
+    } else if (query instanceof WildcardQuery) {
+      Term pattern = ((WildcardQuery) query).getTerm();
+      if (field.equals(pattern.field())) {
+        automata.add(new CompiledAutomaton(WildcardQuery.toAutomaton(pattern)));
+      }
+    }
+  }
+
+  private void addTerm(Term term) {
+    if (field.equals(term.field())) {
+      Automaton automaton = Automata.makeString(term.text());
+      automata.add(new CompiledAutomaton(automaton));
+    }
+  }
+}
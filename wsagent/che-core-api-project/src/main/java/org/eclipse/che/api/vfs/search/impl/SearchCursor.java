@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+
+/**
+ * Position of the last returned hit of a search result page. It refers to the searcher the page
+ * was found with by the version recorded in {@link
+ * org.apache.lucene.search.SearcherLifetimeManager}, so the next page is found with the same
+ * point-in-time view of the index. Cursor also keeps number of returned hits, so the next page may
+ * be found by skipping hits when the searcher was released. Hash of the query the page was found
+ * with is recorded as well, so cursor can't be used for the pages of another query.
+ */
+class SearchCursor {
+  private static final int SIZE = 4 + 8 + 4 + 4 + 4;
+
+  final int queryHash;
+  final long searcherVersion;
+  final ScoreDoc after;
+  final int offset;
+
+  SearchCursor(QueryExpression query, long searcherVersion, ScoreDoc after, int offset) {
+    this(queryHash(query), searcherVersion, after, offset);
+  }
+
+  private SearchCursor(int queryHash, long searcherVersion, ScoreDoc after, int offset) {
+    this.queryHash = queryHash;
+    this.searcherVersion = searcherVersion;
+    this.after = after;
+    this.offset = offset;
+  }
+
+  /**
+   * Returns hash of the parameters which define set of hits of the query. Number of hits per page
+   * isn't taken into account, it may be changed between pages.
+   */
+  static int queryHash(QueryExpression query) {
+    return Objects.hash(query.getPath(), query.getName(), query.getText());
+  }
+
+  /** Returns opaque URL-safe representation of cursor. */
+  String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+    buffer
+        .putInt(queryHash)
+        .putLong(searcherVersion)
+        .putInt(after.doc)
+        .putFloat(after.score)
+        .putInt(offset);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Restores cursor of the given query from its representation.
+   *
+   * @throws IllegalArgumentException if the given string isn't a cursor or it's a cursor of another
+   *     query
+   */
+  static SearchCursor decode(String cursor, QueryExpression query) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+      if (buffer.remaining() != SIZE) {
+        throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+      }
+      int queryHash = buffer.getInt();
+      if (queryHash != queryHash(query)) {
+        throw new IllegalArgumentException("Search cursor doesn't belong to the query: " + cursor);
+      }
+      long version = buffer.getLong();
+      int doc = buffer.getInt();
+      float score = buffer.getFloat();
+      int offset = buffer.getInt();
+      if (doc < 0 || offset < 0) {
+        throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+      }
+      return new SearchCursor(queryHash, version, new ScoreDoc(doc, score), offset);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+    }
+  }
+}
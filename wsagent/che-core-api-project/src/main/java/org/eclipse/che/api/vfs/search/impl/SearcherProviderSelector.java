@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+
+/**
+ * Selects search engine with property {@value #SEARCH_ENGINE_PROPERTY}: {@code lucene} (default)
+ * for word search with Lucene or {@code trigram} for substring and regular expression search with
+ * {@link TrigramSearcher}.
+ *
+ * <p>Only one index is maintained, so {@code trigram} replaces Lucene for all searches, including
+ * word queries: text is matched as a substring rather than as a word and total hits of a result is
+ * a lower bound.
+ */
+@Singleton
+public class SearcherProviderSelector implements Provider<SearcherProvider> {
+  public static final String SEARCH_ENGINE_PROPERTY = "che.search.engine";
+
+  private final Provider<FSLuceneSearcherProvider> luceneSearcherProvider;
+  private final Provider<TrigramSearcherProvider> trigramSearcherProvider;
+
+  @Inject(optional = true)
+  @Named(SEARCH_ENGINE_PROPERTY)
+  private String engine = "lucene";
+
+  @Inject
+  public SearcherProviderSelector(
+      Provider<FSLuceneSearcherProvider> luceneSearcherProvider,
+      Provider<TrigramSearcherProvider> trigramSearcherProvider) {
+    this.luceneSearcherProvider = luceneSearcherProvider;
+    this.trigramSearcherProvider = trigramSearcherProvider;
+  }
+
+  @Override
+  public SearcherProvider get() {
+    switch (engine) {
+      case "lucene":
+        return luceneSearcherProvider.get();
+      case "trigram":
+        return trigramSearcherProvider.get();
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Unknown search engine '%s', set property '%s' to 'lucene' or 'trigram'",
+                engine, SEARCH_ENGINE_PROPERTY));
+    }
+  }
+}
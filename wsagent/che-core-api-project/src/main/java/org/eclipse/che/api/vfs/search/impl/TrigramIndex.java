@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of trigrams (sequences of three lower-cased characters) of files content. For
+ * each trigram the index keeps sorted list of identifiers of files that contain it, so files that
+ * may contain a string are found by intersection of lists of the string trigrams.
+ *
+ * <p>A file gets a new identifier each time it's indexed, so lists are only appended. Identifiers
+ * of removed and re-indexed files are filtered out with the set of live identifiers and lists are
+ * compacted when the number of such identifiers exceeds the number of live ones.
+ */
+class TrigramIndex {
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Long, Postings> postings = new HashMap<>();
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> paths = new ArrayList<>();
+  private final BitSet live = new BitSet();
+  private final BitSet contentIndexed = new BitSet();
+
+  private int removed;
+
+  /** Extracts distinct trigrams of content. */
+  static Set<Long> trigrams(Reader content) throws IOException {
+    final Set<Long> trigrams = new HashSet<>();
+    char[] buffer = new char[8192];
+    long window = 0;
+    int length = 0;
+    for (int read = content.read(buffer); read != -1; read = content.read(buffer)) {
+      for (int i = 0; i < read; i++) {
+        window = (window << 16 | Character.toLowerCase(buffer[i])) & 0xFFFF_FFFF_FFFFL;
+        if (++length >= 3) {
+          trigrams.add(window);
+        }
+      }
+    }
+    return trigrams;
+  }
+
+  /** Extracts distinct trigrams of string. */
+  static Set<Long> trigrams(CharSequence text) {
+    final Set<Long> trigrams = new HashSet<>();
+    long window = 0;
+    for (int i = 0; i < text.length(); i++) {
+      window = (window << 16 | Character.toLowerCase(text.charAt(i))) & 0xFFFF_FFFF_FFFFL;
+      if (i >= 2) {
+        trigrams.add(window);
+      }
+    }
+    return trigrams;
+  }
+
+  /**
+   * Adds file to the index or replaces the previously indexed file with the same path.
+   *
+   * @param path path of file
+   * @param trigrams trigrams of file content, {@code null} if content is not indexed
+   */
+  void add(String path, Set<Long> trigrams) {
+    lock.writeLock().lock();
+    try {
+      doRemove(path);
+      int id = paths.size();
+      paths.add(path);
+      ids.put(path, id);
+      live.set(id);
+      if (trigrams != null) {
+        contentIndexed.set(id);
+        for (Long trigram : trigrams) {
+          postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+        }
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes file from the index. */
+  void remove(String path) {
+    lock.writeLock().lock();
+    try {
+      doRemove(path);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Removes all files with paths that start with the given prefix. */
+  void removeTree(String prefix) {
+    lock.writeLock().lock();
+    try {
+      for (String path : new ArrayList<>(ids.keySet())) {
+        if (path.startsWith(prefix)) {
+          doRemove(path);
+        }
+      }
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Returns paths of all indexed files. */
+  List<String> paths() {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<>(ids.keySet());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns paths of files that contain all the given trigrams. If there are no trigrams paths of
+   * all files which content is indexed are returned.
+   */
+  List<String> candidates(Collection<Long> trigrams) {
+    lock.readLock().lock();
+    try {
+      BitSet result = (BitSet) contentIndexed.clone();
+      result.and(live);
+
+      List<Postings> lists = new ArrayList<>(trigrams.size());
+      for (Long trigram : trigrams) {
+        Postings list = postings.get(trigram);
+        if (list == null) {
+          return new ArrayList<>();
+        }
+        lists.add(list);
+      }
+      lists.sort((first, second) -> Integer.compare(first.size, second.size));
+
+      for (Postings list : lists) {
+        BitSet ids = new BitSet();
+        for (int i = 0; i < list.size; i++) {
+          int id = list.ids[i];
+          if (result.get(id)) {
+            ids.set(id);
+          }
+        }
+        result = ids;
+        if (result.isEmpty()) {
+          break;
+        }
+      }
+
+      List<String> candidates = new ArrayList<>(result.cardinality());
+      for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+        candidates.add(paths.get(id));
+      }
+      return candidates;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return ids.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  void clear() {
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      ids.clear();
+      paths.clear();
+      live.clear();
+      contentIndexed.clear();
+      removed = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void doRemove(String path) {
+    Integer id = ids.remove(path);
+    if (id != null) {
+      live.clear(id);
+      contentIndexed.clear(id);
+      removed++;
+    }
+  }
+
+  /** Re-numbers live files and drops identifiers of removed files from trigram lists. */
+  private void compactIfNeeded() {
+    if (removed <= ids.size() || removed < 1024) {
+      return;
+    }
+
+    int[] newIds = new int[paths.size()];
+    List<String> newPaths = new ArrayList<>(ids.size());
+    BitSet newContentIndexed = new BitSet();
+    for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+      newIds[id] = newPaths.size();
+      if (contentIndexed.get(id)) {
+        newContentIndexed.set(newPaths.size());
+      }
+      newPaths.add(paths.get(id));
+    }
+
+    postings
+        .values()
+        .removeIf(
+            list -> {
+              int size = 0;
+              for (int i = 0; i < list.size; i++) {
+                int id = list.ids[i];
+                if (live.get(id)) {
+                  list.ids[size++] = newIds[id];
+                }
+              }
+              list.size = size;
+              return size == 0;
+            });
+
+    paths.clear();
+    paths.addAll(newPaths);
+    ids.clear();
+    live.clear();
+    for (int id = 0; id < paths.size(); id++) {
+      ids.put(paths.get(id), id);
+      live.set(id);
+    }
+    contentIndexed.clear();
+    contentIndexed.or(newContentIndexed);
+    removed = 0;
+  }
+
+  /** Sorted identifiers of files containing a trigram. */
+  private static class Postings {
+    int[] ids = new int[4];
+    int size;
+
+    void add(int id) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+  }
+}
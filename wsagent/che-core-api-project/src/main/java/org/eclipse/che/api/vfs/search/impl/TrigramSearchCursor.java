@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+
+/**
+ * Position of the last returned hit of a {@link TrigramSearcher} result page. Candidate files are
+ * verified in the order of their paths, so the next page is found by verifying only the files
+ * following the path of the last returned hit. Cursor also keeps the number of returned hits and
+ * the number of total hits counted when the first page was found. Hash of the query is recorded
+ * as well, so cursor can't be used for the pages of another query.
+ */
+class TrigramSearchCursor {
+  final int queryHash;
+  final String lastPath;
+  final int offset;
+  final int totalHits;
+
+  TrigramSearchCursor(QueryExpression query, String lastPath, int offset, int totalHits) {
+    this(SearchCursor.queryHash(query), lastPath, offset, totalHits);
+  }
+
+  private TrigramSearchCursor(int queryHash, String lastPath, int offset, int totalHits) {
+    this.queryHash = queryHash;
+    this.lastPath = lastPath;
+    this.offset = offset;
+    this.totalHits = totalHits;
+  }
+
+  /** Returns opaque URL-safe representation of cursor. */
+  String encode() {
+    byte[] path = lastPath.getBytes(UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 4 + path.length);
+    buffer.putInt(queryHash).putInt(offset).putInt(totalHits).put(path);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  /**
+   * Restores cursor of the given query from its representation.
+   *
+   * @throws IllegalArgumentException if the given string isn't a cursor or it's a cursor of another
+   *     query
+   */
+  static TrigramSearchCursor decode(String cursor, QueryExpression query) {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+      int queryHash = buffer.getInt();
+      if (queryHash != SearchCursor.queryHash(query)) {
+        throw new IllegalArgumentException("Search cursor doesn't belong to the query: " + cursor);
+      }
+      int offset = buffer.getInt();
+      int totalHits = buffer.getInt();
+      byte[] path = new byte[buffer.remaining()];
+      buffer.get(path);
+      if (offset < 0 || totalHits < offset || path.length == 0) {
+        throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+      }
+      return new TrigramSearchCursor(queryHash, new String(path, UTF_8), offset, totalHits);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+    }
+  }
+}
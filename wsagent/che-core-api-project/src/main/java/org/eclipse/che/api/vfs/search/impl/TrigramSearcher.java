@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.ByteStreams;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.api.vfs.search.SearchResultEntry;
+import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.impl.LuceneSearcher.OffsetData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Code searcher backed by {@link TrigramIndex}. Unlike {@link LuceneSearcher} text is not split
+ * into words, so any substring (e.g. {@code foo.bar(}) may be found. Text of query is searched as
+ * is, case-insensitively unless it contains upper-case characters. Text enclosed in slashes (e.g.
+ * {@code /get\w+\(/}) is a regular expression.
+ *
+ * <p>Trigram index selects files that may match and only these files are read to find exact
+ * matches. Regular expressions with inline flags (e.g. {@code (?x)}) are matched against content
+ * of all indexed files. Content of files larger than 2MB is not indexed, such files may be found
+ * by name and path only. Name of query is a file name pattern that may contain {@code *} and
+ * {@code ?} wildcards, path of query is a path prefix.
+ *
+ * <p>Candidate files are verified in the order of their paths and only until the page is filled up
+ * and one more hit is found, so total hits of a result is a lower bound: the number of hits up to
+ * the end of the page plus one if there is a next page. Next page query carries a {@link
+ * TrigramSearchCursor}, so the next pages verify only the files following the last returned one.
+ */
+public class TrigramSearcher implements Searcher {
+  private static final Logger LOG = LoggerFactory.getLogger(TrigramSearcher.class);
+  private static final int RESULT_LIMIT = 1000;
+  /** Content of larger files is not indexed. */
+  private static final long MAX_INDEXED_FILE_SIZE = 2 * 1024 * 1024;
+
+  private final TrigramIndex index = new TrigramIndex();
+  private final List<VirtualFileFilter> excludeFileIndexFilters;
+  private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+
+  private VirtualFileSystem virtualFileSystem;
+  private boolean closed = true;
+
+  /**
+   * @param excludeFileIndexFilter filter for files which content should not be indexed
+   * @param closeCallback callback to be notified when searcher is closed
+   */
+  TrigramSearcher(
+      VirtualFileFilter excludeFileIndexFilter,
+      AbstractLuceneSearcherProvider.CloseCallback closeCallback) {
+    this.closeCallback = closeCallback;
+    excludeFileIndexFilters = new CopyOnWriteArrayList<>();
+    excludeFileIndexFilters.add(excludeFileIndexFilter);
+  }
+
+  /**
+   * Scans all files of virtual filesystem and adds them to index.
+   *
+   * @param virtualFileSystem VirtualFileSystem
+   * @throws ServerException if any virtual filesystem error occurs
+   */
+  public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+    doInit(virtualFileSystem);
+    addTree(virtualFileSystem.getRoot());
+  }
+
+  public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) {
+    doInit(virtualFileSystem);
+    if (!executor.isShutdown()) {
+      executor.execute(
+          () -> {
+            try {
+              addTree(virtualFileSystem.getRoot());
+            } catch (ServerException e) {
+              LOG.error(e.getMessage());
+            }
+          });
+    }
+  }
+
+  private synchronized void doInit(VirtualFileSystem virtualFileSystem) {
+    this.virtualFileSystem = virtualFileSystem;
+    closed = false;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      index.clear();
+      closed = true;
+      if (closeCallback != null) {
+        closeCallback.onClose();
+      }
+    }
+  }
+
+  @Override
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public boolean addIndexFilter(VirtualFileFilter indexFilter) {
+    return excludeFileIndexFilters.add(indexFilter);
+  }
+
+  @Override
+  public boolean removeIndexFilter(VirtualFileFilter indexFilter) {
+    return excludeFileIndexFilters.remove(indexFilter);
+  }
+
+  @Override
+  public SearchResult search(QueryExpression query) throws BadRequestException, ServerException {
+    final long startTime = System.currentTimeMillis();
+    final TextMatcher matcher = query.getText() == null ? null : TextMatcher.of(query.getText());
+    final Pattern namePattern = query.getName() == null ? null : namePattern(query.getName());
+    final String pathPrefix = query.getPath();
+    final TrigramSearchCursor cursor = query.getCursor() == null ? null : decodeCursor(query);
+
+    final List<String> candidates =
+        matcher == null ? index.paths() : index.candidates(matcher.getTrigrams());
+    Collections.sort(candidates);
+
+    final int numDocs =
+        query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+    final List<SearchResultEntry> results = new ArrayList<>();
+    final int offset;
+    int position = 0;
+    int skip = 0;
+    if (cursor != null) {
+      // candidates preceding the cursor are already verified by the previous pages
+      offset = cursor.offset;
+      position = Collections.binarySearch(candidates, cursor.lastPath);
+      position = position >= 0 ? position + 1 : -position - 1;
+    } else {
+      offset = Math.max(0, query.getSkipCount());
+      skip = offset;
+    }
+    boolean hasMore = false;
+    for (int i = position; i < candidates.size() && !hasMore; i++) {
+      String path = candidates.get(i);
+      if (!accept(path, pathPrefix, namePattern)) {
+        continue;
+      }
+      if (skip == 0 && results.size() < numDocs) {
+        SearchResultEntry entry = verify(path, matcher, query, offset + results.size());
+        if (entry != null) {
+          results.add(entry);
+        }
+      } else if (matches(path, matcher)) {
+        // hits preceding the page are skipped, the first hit following the page is only checked
+        if (skip > 0) {
+          skip--;
+        } else {
+          hasMore = true;
+        }
+      }
+    }
+    // lower bound, candidates following the first hit out of the page are not verified
+    int totalHits = offset - skip + results.size() + (hasMore ? 1 : 0);
+    if (cursor != null) {
+      totalHits = Math.max(totalHits, cursor.totalHits);
+    }
+
+    QueryExpression nextPageQueryExpression = null;
+    final int newSkipCount = offset + results.size();
+    if (hasMore && !results.isEmpty()) {
+      String lastPath = results.get(results.size() - 1).getFilePath();
+      nextPageQueryExpression =
+          new QueryExpression()
+              .setText(query.getText())
+              .setName(query.getName())
+              .setPath(query.getPath())
+              .setSkipCount(newSkipCount)
+              .setMaxItems(query.getMaxItems())
+              .setCursor(
+                  new TrigramSearchCursor(query, lastPath, newSkipCount, totalHits).encode());
+    }
+
+    return SearchResult.aSearchResult()
+        .withResults(results)
+        .withTotalHits(totalHits)
+        .withNextPageQueryExpression(nextPageQueryExpression)
+        .withElapsedTimeMillis(System.currentTimeMillis() - startTime)
+        .build();
+  }
+
+  private TrigramSearchCursor decodeCursor(QueryExpression query) throws BadRequestException {
+    try {
+      return TrigramSearchCursor.decode(query.getCursor(), query);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage());
+    }
+  }
+
+  private static boolean accept(String path, String pathPrefix, Pattern namePattern) {
+    return (pathPrefix == null || path.startsWith(pathPrefix))
+        && (namePattern == null || namePattern.matcher(Path.of(path).getName()).matches());
+  }
+
+  private boolean matches(String path, TextMatcher matcher) throws ServerException {
+    if (matcher == null) {
+      return true;
+    }
+    String content = readContent(path);
+    return content != null && matcher.find(content);
+  }
+
+  /**
+   * Reads candidate file and returns result entry if its content matches.
+   *
+   * @param docId number of the hit within the whole result
+   * @return result entry or {@code null} if file doesn't match
+   */
+  private SearchResultEntry verify(
+      String path, TextMatcher matcher, QueryExpression query, int docId) throws ServerException {
+    if (matcher == null) {
+      return new SearchResultEntry(path, Collections.emptyList());
+    }
+    String content = readContent(path);
+    if (content == null || !matcher.find(content)) {
+      return null;
+    }
+    return new SearchResultEntry(
+        path,
+        query.isIncludePositions()
+            ? findOffsets(matcher, content, docId)
+            : Collections.emptyList());
+  }
+
+  @Override
+  public void add(VirtualFile virtualFile) throws ServerException {
+    if (virtualFile.isFolder()) {
+      addTree(virtualFile);
+    } else {
+      addFile(virtualFile);
+    }
+  }
+
+  @Override
+  public void delete(String path, boolean isFile) throws ServerException {
+    if (isFile) {
+      index.remove(path);
+    } else {
+      index.removeTree(path + '/');
+    }
+  }
+
+  @Override
+  public void update(VirtualFile virtualFile) throws ServerException {
+    addFile(virtualFile);
+  }
+
+  private void addTree(VirtualFile tree) throws ServerException {
+    final long start = System.currentTimeMillis();
+    final Deque<VirtualFile> q = new ArrayDeque<>();
+    q.add(tree);
+    int indexedFiles = 0;
+    while (!q.isEmpty() && !isClosed()) {
+      final VirtualFile folder = q.pop();
+      if (folder.exists()) {
+        for (VirtualFile child : folder.getChildren()) {
+          if (child.isFolder()) {
+            q.push(child);
+          } else {
+            addFile(child);
+            indexedFiles++;
+          }
+        }
+      }
+    }
+    final long end = System.currentTimeMillis();
+    LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
+  }
+
+  private void addFile(VirtualFile virtualFile) throws ServerException {
+    if (!virtualFile.exists()) {
+      return;
+    }
+    final String path = virtualFile.getPath().toString();
+    if (!shouldIndexContent(virtualFile)) {
+      index.add(path, null);
+      return;
+    }
+    try (Reader reader =
+        new BufferedReader(new InputStreamReader(virtualFile.getContent(), UTF_8))) {
+      index.add(path, TrigramIndex.trigrams(reader));
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    } catch (ForbiddenException e) {
+      throw new ServerException(e.getServiceError());
+    }
+  }
+
+  private boolean shouldIndexContent(VirtualFile virtualFile) throws ServerException {
+    if (virtualFile.getLength() > MAX_INDEXED_FILE_SIZE) {
+      return false;
+    }
+    for (VirtualFileFilter indexFilter : excludeFileIndexFilters) {
+      if (indexFilter.accept(virtualFile)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String readContent(String path) throws ServerException {
+    VirtualFile file = virtualFileSystem.getRoot().getChild(Path.of(path));
+    if (file == null || !file.isFile()) {
+      return null;
+    }
+    try (InputStream content = file.getContent()) {
+      return new String(ByteStreams.toByteArray(content), UTF_8);
+    } catch (IOException e) {
+      throw new ServerException(e.getMessage(), e);
+    } catch (ForbiddenException e) {
+      throw new ServerException(e.getServiceError());
+    }
+  }
+
+  private List<OffsetData> findOffsets(TextMatcher matcher, String content, int docId) {
+    final LineStarts lines = new LineStarts(content);
+    final List<OffsetData> offsetData = new ArrayList<>();
+    final Matcher m = matcher.pattern.matcher(content);
+    while (m.find() && offsetData.size() < RESULT_LIMIT) {
+      if (m.end() == m.start()) {
+        continue;
+      }
+      int lineNum = lines.getLineOfOffset(m.start());
+      offsetData.add(
+          new OffsetData(
+              m.group(), m.start(), m.end(), docId, 1.0F, lineNum, lines.getLine(lineNum)));
+    }
+    return offsetData;
+  }
+
+  /** Converts file name pattern with {@code *} and {@code ?} wildcards to regular expression. */
+  private static Pattern namePattern(String name) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (char c : name.toCharArray()) {
+      if (c == '*' || c == '?') {
+        if (literal.length() > 0) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append(c == '*' ? ".*" : ".");
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+  }
+
+  /** Text of query compiled to regular expression with trigrams required to match it. */
+  static class TextMatcher {
+    /** Inline flags, alone (e.g. {@code (?i)}) or of a non-capturing group (e.g. {@code (?x:}). */
+    private static final Pattern INLINE_FLAGS = Pattern.compile("\\(\\?[idmsuxU-]+[:)]");
+
+    final Pattern pattern;
+    final Set<Long> trigrams;
+
+    private TextMatcher(Pattern pattern, Set<Long> trigrams) {
+      this.pattern = pattern;
+      this.trigrams = trigrams;
+    }
+
+    static TextMatcher of(String text) throws BadRequestException {
+      if (text.length() > 2 && text.startsWith("/") && text.endsWith("/")) {
+        String regex = text.substring(1, text.length() - 1);
+        try {
+          Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE);
+          Set<Long> trigrams = new HashSet<>();
+          for (String literal : requiredLiterals(regex)) {
+            trigrams.addAll(TrigramIndex.trigrams(literal));
+          }
+          return new TextMatcher(pattern, trigrams);
+        } catch (PatternSyntaxException e) {
+          throw new BadRequestException("Invalid regular expression: " + e.getDescription());
+        }
+      }
+
+      int flags = Pattern.LITERAL;
+      if (text.equals(text.toLowerCase())) {
+        flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+      }
+      return new TextMatcher(Pattern.compile(text, flags), TrigramIndex.trigrams(text));
+    }
+
+    Set<Long> getTrigrams() {
+      return trigrams;
+    }
+
+    boolean find(String content) {
+      return content != null && pattern.matcher(content).find();
+    }
+
+    /**
+     * Returns literal strings that must be present in any text matching the regular expression.
+     * Only literals outside of groups are taken into account, no literals are returned if there
+     * is an alternation outside of groups or inline flags (e.g. {@code (?x)}) which may change
+     * meaning of literals.
+     */
+    static List<String> requiredLiterals(String regex) {
+      final List<String> literals = new ArrayList<>();
+      final StringBuilder run = new StringBuilder();
+      int depth = 0;
+      int i = 0;
+      while (i < regex.length()) {
+        char c = regex.charAt(i);
+        boolean literal = false;
+        if (c == '\\' && i + 1 < regex.length()) {
+          char escaped = regex.charAt(i + 1);
+          i += 2;
+          if (escaped == 'Q') {
+            int end = regex.indexOf("\\E", i);
+            end = end < 0 ? regex.length() : end;
+            // quantifier following the quoted text applies to its last character
+            literal = depth == 0 && end > i;
+            if (literal) {
+              run.append(regex, i, end);
+            }
+            i = Math.min(regex.length(), end + 2);
+          } else if (Character.isLetterOrDigit(escaped)) {
+            // character classes, anchors, back references and escaped control characters
+            flush(run, literals);
+            continue;
+          } else if (depth == 0) {
+            run.append(escaped);
+            literal = true;
+          }
+        } else if (c == '[') {
+          flush(run, literals);
+          i = skipCharacterClass(regex, i);
+          continue;
+        } else if (c == '(') {
+          if (INLINE_FLAGS.matcher(regex).region(i, regex.length()).lookingAt()) {
+            return new ArrayList<>();
+          }
+          flush(run, literals);
+          depth++;
+          i++;
+          continue;
+        } else if (c == ')') {
+          flush(run, literals);
+          depth = Math.max(0, depth - 1);
+          i++;
+        } else if (c == '|') {
+          if (depth == 0) {
+            return new ArrayList<>();
+          }
+          i++;
+          continue;
+        } else if (c == '*' || c == '?' || c == '+' || c == '{') {
+          // quantifier of a preceding character which is not literal, e.g. character class
+          flush(run, literals);
+          i = skipQuantifier(regex, i);
+          continue;
+        } else if (c == '.' || c == '^' || c == '$') {
+          flush(run, literals);
+          i++;
+          continue;
+        } else {
+          if (depth == 0) {
+            run.append(c);
+            literal = true;
+          }
+          i++;
+        }
+
+        if (literal && i < regex.length()) {
+          char next = regex.charAt(i);
+          if (next == '*' || next == '?' || next == '{') {
+            // preceding character is optional
+            run.setLength(run.length() - 1);
+            flush(run, literals);
+            i = skipQuantifier(regex, i);
+          } else if (next == '+') {
+            flush(run, literals);
+            i = skipQuantifier(regex, i);
+          }
+        } else if (c == ')' && i < regex.length()) {
+          char next = regex.charAt(i);
+          if (next == '*' || next == '?' || next == '+' || next == '{') {
+            i = skipQuantifier(regex, i);
+          }
+        }
+      }
+      flush(run, literals);
+      return literals;
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+      if (run.length() >= 3) {
+        literals.add(run.toString());
+      }
+      run.setLength(0);
+    }
+
+    /** Returns index next to quantifier starting at the given index. */
+    private static int skipQuantifier(String regex, int i) {
+      if (regex.charAt(i) == '{') {
+        int end = regex.indexOf('}', i);
+        i = end < 0 ? regex.length() : end + 1;
+      } else {
+        i++;
+      }
+      if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+        i++;
+      }
+      return i;
+    }
+
+    /** Returns index next to character class starting at the given index. */
+    private static int skipCharacterClass(String regex, int i) {
+      int nested = 0;
+      i++;
+      if (i < regex.length() && regex.charAt(i) == '^') {
+        i++;
+      }
+      if (i < regex.length() && regex.charAt(i) == ']') {
+        i++;
+      }
+      while (i < regex.length()) {
+        char c = regex.charAt(i);
+        if (c == '\\') {
+          i += 2;
+          continue;
+        }
+        if (c == '[') {
+          nested++;
+        } else if (c == ']') {
+          if (nested == 0) {
+            i++;
+            break;
+          }
+          nested--;
+        }
+        i++;
+      }
+      if (i < regex.length()) {
+        char next = regex.charAt(i);
+        if (next == '*' || next == '?' || next == '+' || next == '{') {
+          i = skipQuantifier(regex, i);
+        }
+      }
+      return i;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Sets.newHashSet;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.PathMatcher;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileFilters;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
+
+/**
+ * Provides {@link TrigramSearcher}.
+ *
+ * @see SearcherProviderSelector
+ */
+@Singleton
+public class TrigramSearcherProvider implements SearcherProvider {
+  private final VirtualFileFilter excludeFileIndexFilters;
+  private final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
+  private final ExecutorService executor;
+
+  /** @param excludePatterns set filter for files that should not be indexed */
+  @Inject
+  public TrigramSearcherProvider(
+      @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns) {
+    this.excludeFileIndexFilters =
+        AbstractLuceneSearcherProvider.mergeFileIndexFilters(
+            newHashSet(transform(excludePatterns, VirtualFileFilters::wrap)));
+    executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setNameFormat("TrigramSearcherInitThread")
+                .build());
+  }
+
+  @Override
+  public Searcher getSearcher(VirtualFileSystem virtualFileSystem, boolean create)
+      throws ServerException {
+    Searcher cachedSearcher = searcherReference.get();
+    if (cachedSearcher == null && create) {
+      TrigramSearcher searcher =
+          new TrigramSearcher(excludeFileIndexFilters, () -> searcherReference.set(null));
+      if (searcherReference.compareAndSet(null, searcher)) {
+        searcher.initAsynchronously(executor, virtualFileSystem);
+      }
+      cachedSearcher = searcherReference.get();
+    }
+    return cachedSearcher;
+  }
+
+  @Override
+  public Searcher getSearcher(VirtualFileSystem virtualFileSystem) throws ServerException {
+    return getSearcher(virtualFileSystem, true);
+  }
+
+  @Override
+  public void close() throws ServerException {
+    Searcher searcher = searcherReference.get();
+    if (searcher != null) {
+      searcher.close();
+    }
+    searcherReference.set(null);
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdownNow();
+  }
+}
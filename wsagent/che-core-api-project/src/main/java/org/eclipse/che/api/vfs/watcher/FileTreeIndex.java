@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.watcher;
+
+import static java.util.Arrays.binarySearch;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compact snapshot of a single directory: names of its entries sorted lexicographically, their
+ * last modification times and a flag that tells if an entry is a directory. Stored as parallel
+ * arrays instead of a map of paths to avoid keeping a {@link java.nio.file.Path} and a boxed
+ * {@link Long} for each file of a tree.
+ *
+ * <p>Instances are immutable, a new snapshot is built with a {@link Builder} each time a
+ * directory is rescanned.
+ */
+final class FileTreeIndex {
+  static final FileTreeIndex EMPTY = new FileTreeIndex(new String[0], new long[0], new BitSet());
+
+  private final String[] names;
+  private final long[] lastModified;
+  private final BitSet directories;
+
+  private FileTreeIndex(String[] names, long[] lastModified, BitSet directories) {
+    this.names = names;
+    this.lastModified = lastModified;
+    this.directories = directories;
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  int size() {
+    return names.length;
+  }
+
+  String getName(int i) {
+    return names[i];
+  }
+
+  long getLastModified(int i) {
+    return lastModified[i];
+  }
+
+  boolean isDirectory(int i) {
+    return directories.get(i);
+  }
+
+  /**
+   * Searches for an entry with the specified name.
+   *
+   * @param name name of directory entry
+   * @return entry position or negative value if there is no such entry
+   */
+  int indexOf(String name) {
+    return binarySearch(names, name);
+  }
+
+  static final class Builder {
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Builder() {}
+
+    Builder add(String name, long lastModified, boolean directory) {
+      entries.add(new Entry(name, lastModified, directory));
+      return this;
+    }
+
+    FileTreeIndex build() {
+      if (entries.isEmpty()) {
+        return EMPTY;
+      }
+      entries.sort((e1, e2) -> e1.name.compareTo(e2.name));
+
+      int size = entries.size();
+      String[] names = new String[size];
+      long[] lastModified = new long[size];
+      BitSet directories = new BitSet(size);
+      for (int i = 0; i < size; i++) {
+        Entry entry = entries.get(i);
+        names[i] = entry.name;
+        lastModified[i] = entry.lastModified;
+        directories.set(i, entry.directory);
+      }
+      return new FileTreeIndex(names, lastModified, directories);
+    }
+  }
+
+  private static final class Entry {
+    final String name;
+    final long lastModified;
+    final boolean directory;
+
+    Entry(String name, long lastModified, boolean directory) {
+      this.name = name;
+      this.lastModified = lastModified;
+      this.directory = directory;
+    }
+  }
+}
@@ -10,24 +10,33 @@
  */
 package org.eclipse.che.api.vfs.watcher;
 
-import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
-import static java.nio.file.Files.exists;
-import static java.nio.file.Files.walkFileTree;
-import static java.util.stream.Collectors.toSet;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAttributes;
+import static java.util.Comparator.comparingInt;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import com.google.inject.Inject;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
+import java.nio.file.DirectoryStream;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -38,12 +47,23 @@ import org.slf4j.LoggerFactory;
 /**
  * Walks a file system tree, register addition, update and removal of file system items. On events
  * runs corresponding consumers that can be registered in DI configuration modules.
+ *
+ * <p>Each walked directory is stored as a compact {@link FileTreeIndex} snapshot. By default the
+ * whole tree is rescanned on each run. In incremental mode (see {@code
+ * che.fs.tree_walker.incremental}) only directories that are reported by {@link
+ * FileWatcherService} as changed are rescanned. The file watcher reports only directories which
+ * are watched for clients, so the full walk is still performed on the first run, after the file
+ * watcher reported an events overflow and periodically (see {@code
+ * che.fs.tree_walker.full_walk_period_sec}) to find changes made anywhere else.
  */
 @Singleton
 public class FileTreeWalker {
   private static final Logger LOG = LoggerFactory.getLogger(FileTreeWalker.class);
 
-  private final File root;
+  public static final String FULL_WALK_PERIOD_PROPERTY = "che.fs.tree_walker.full_walk_period_sec";
+
+  private final Path root;
+  private final boolean incremental;
 
   private final Set<Consumer<Path>> directoryUpdateConsumers;
   private final Set<Consumer<Path>> directoryCreateConsumers;
@@ -55,12 +75,18 @@ public class FileTreeWalker {
   private final Set<Consumer<Path>> fileDeleteConsumers;
   private final Set<PathMatcher> fileExcludes;
 
-  private final Map<Path, Long> files = new HashMap<>();
-  private final Map<Path, Long> directories = new HashMap<>();
+  private final Map<Path, FileTreeIndex> indexes = new HashMap<>();
+  private final Set<Path> dirtyDirectories = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean fullWalkRequired = new AtomicBoolean(true);
+
+  private long rootLastModified = -1;
+  private long fullWalkPeriodMillis = MINUTES.toMillis(5);
+  private long lastFullWalk;
 
   @Inject
   public FileTreeWalker(
       @Named("che.user.workspaces.storage") File root,
+      @Named("che.fs.tree_walker.incremental") boolean incremental,
       @Named("che.fs.directory.update") Set<Consumer<Path>> directoryUpdateConsumers,
       @Named("che.fs.directory.create") Set<Consumer<Path>> directoryCreateConsumers,
       @Named("che.fs.directory.delete") Set<Consumer<Path>> directoryDeleteConsumers,
@@ -69,7 +95,8 @@ public class FileTreeWalker {
       @Named("che.fs.file.create") Set<Consumer<Path>> fileCreateConsumers,
       @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
       @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
-    this.root = root;
+    this.root = root.toPath();
+    this.incremental = incremental;
 
     this.directoryUpdateConsumers = directoryUpdateConsumers;
     this.directoryCreateConsumers = directoryCreateConsumers;
@@ -83,79 +110,200 @@ public class FileTreeWalker {
     this.fileExcludes = fileExcludes;
   }
 
+  /**
+   * Sets the period of full tree walks in incremental mode, these walks find changes in directories
+   * which are not watched by the file watcher. Non-positive value disables periodic full walks.
+   */
+  @Inject(optional = true)
+  void setFullWalkPeriod(@Named(FULL_WALK_PERIOD_PROPERTY) long fullWalkPeriodSec) {
+    this.fullWalkPeriodMillis = SECONDS.toMillis(fullWalkPeriodSec);
+  }
+
+  /**
+   * Marks a directory as the one which entries were changed, so it is rescanned during the next
+   * incremental walk. Does nothing if the walker is not running in incremental mode.
+   *
+   * @param dir changed directory
+   */
+  void markDirty(Path dir) {
+    if (incremental) {
+      dirtyDirectories.add(dir);
+    }
+  }
+
+  /**
+   * Requests a full tree walk on the next run, should be called when some of file system events
+   * were lost, e.g. on events overflow.
+   */
+  void markOverflow() {
+    fullWalkRequired.set(true);
+  }
+
   @ScheduleRate(period = 10)
   void walk() {
     try {
-      LOG.debug("Tree walk started");
-
-      Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      fileDeleteConsumers.forEach(deletedFiles::forEach);
-      files.keySet().removeAll(deletedFiles);
-
-      Set<Path> deletedDirectories =
-          directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-      directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-      directories.keySet().removeAll(deletedDirectories);
-
-      walkFileTree(
-          root.toPath(),
-          new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
-                throws IOException {
-              for (PathMatcher matcher : directoryExcludes) {
-                if (matcher.matches(dir)) {
-                  return SKIP_SUBTREE;
-                }
-              }
-
-              updateFsTreeAndAcceptConsumables(
-                  directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
-
-              return CONTINUE;
-            }
+      if (!incremental || fullWalkRequired.getAndSet(false) || isFullWalkPeriodElapsed()) {
+        LOG.debug("Tree walk started");
+        lastFullWalk = System.currentTimeMillis();
+        dirtyDirectories.clear();
+        visitRoot();
+        scan(root, true);
+        LOG.debug("Tree walk finished");
+      } else if (!dirtyDirectories.isEmpty()) {
+        LOG.debug("Incremental tree walk started");
+        walkDirtyDirectories();
+        LOG.debug("Incremental tree walk finished");
+      }
+    } catch (Exception e) {
+      LOG.error("Error while walking file tree", e);
+    }
+  }
+
+  private boolean isFullWalkPeriodElapsed() {
+    return fullWalkPeriodMillis > 0
+        && System.currentTimeMillis() - lastFullWalk >= fullWalkPeriodMillis;
+  }
+
+  private void walkDirtyDirectories() throws IOException {
+    List<Path> dirty = new ArrayList<>(dirtyDirectories);
+    dirtyDirectories.removeAll(dirty);
+    dirty.sort(comparingInt(Path::getNameCount));
+
+    Set<Path> scanned = new HashSet<>();
+    for (Path dir : dirty) {
+      if (!dir.startsWith(root)) {
+        continue;
+      }
+
+      // directory may be already removed or not yet known, in that case
+      // its closest known ancestor is rescanned to find out what happened
+      Path target = dir;
+      while (!target.equals(root) && (!indexes.containsKey(target) || !isDirectory(target))) {
+        target = target.getParent();
+      }
+
+      if (scanned.add(target)) {
+        if (target.equals(root)) {
+          visitRoot();
+        }
+        scan(target, false);
+      }
+    }
+  }
+
+  private void visitRoot() throws IOException {
+    long lastModified = getLastModifiedTime(root).toMillis();
+    if (rootLastModified < 0) {
+      accept(directoryCreateConsumers, root);
+    } else if (rootLastModified != lastModified) {
+      accept(directoryUpdateConsumers, root);
+    }
+    rootLastModified = lastModified;
+  }
+
+  /**
+   * Rescans a directory comparing its entries with the stored snapshot and runs the corresponding
+   * consumers. Newly created subdirectories are always scanned in depth, existing ones only if
+   * {@code deep} is set.
+   */
+  private void scan(Path start, boolean deep) {
+    Deque<Path> queue = new ArrayDeque<>();
+    queue.push(start);
+
+    while (!queue.isEmpty()) {
+      Path dir = queue.pop();
+      boolean scanExisting = deep || dir != start;
+
+      FileTreeIndex previous = indexes.getOrDefault(dir, FileTreeIndex.EMPTY);
+      FileTreeIndex.Builder builder = FileTreeIndex.builder();
+      List<Path> subdirectories = new ArrayList<>();
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-              for (PathMatcher matcher : fileExcludes) {
-                if (matcher.matches(file)) {
-                  return CONTINUE;
-                }
-              }
+      try (DirectoryStream<Path> entries = newDirectoryStream(dir)) {
+        for (Path path : entries) {
+          BasicFileAttributes attrs;
+          try {
+            attrs = readAttributes(path, BasicFileAttributes.class);
+          } catch (NoSuchFileException e) {
+            continue;
+          }
 
-              updateFsTreeAndAcceptConsumables(
-                  files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+          boolean directory = attrs.isDirectory();
+          if (isExcluded(directory ? directoryExcludes : fileExcludes, path)) {
+            continue;
+          }
 
-              return CONTINUE;
+          String name = path.getFileName().toString();
+          long lastModified = attrs.lastModifiedTime().toMillis();
+          builder.add(name, lastModified, directory);
+
+          int i = previous.indexOf(name);
+          if (i >= 0 && previous.isDirectory(i) == directory) {
+            if (previous.getLastModified(i) != lastModified) {
+              accept(directory ? directoryUpdateConsumers : fileUpdateConsumers, path);
             }
-          });
-      LOG.debug("Tree walk finished");
-    } catch (NoSuchFileException e) {
-      LOG.debug(
-          "Trying to process a file, however seems like it is already not present: {}",
-          e.getMessage());
-    } catch (Exception e) {
-      LOG.error("Error while walking file tree", e);
+            if (directory && scanExisting) {
+              subdirectories.add(path);
+            }
+          } else {
+            if (i >= 0) {
+              delete(path, previous.isDirectory(i));
+            }
+            accept(directory ? directoryCreateConsumers : fileCreateConsumers, path);
+            if (directory) {
+              subdirectories.add(path);
+            }
+          }
+        }
+      } catch (NoSuchFileException | NotDirectoryException e) {
+        LOG.debug(
+            "Trying to process a directory, however seems like it is already not present: {}",
+            e.getMessage());
+        continue;
+      } catch (IOException e) {
+        LOG.error("Error while scanning directory {}", dir, e);
+        continue;
+      }
+
+      FileTreeIndex current = builder.build();
+      for (int i = 0; i < previous.size(); i++) {
+        String name = previous.getName(i);
+        if (current.indexOf(name) < 0) {
+          delete(dir.resolve(name), previous.isDirectory(i));
+        }
+      }
+      indexes.put(dir, current);
+
+      for (int i = subdirectories.size() - 1; i >= 0; i--) {
+        queue.push(subdirectories.get(i));
+      }
     }
   }
 
-  private void updateFsTreeAndAcceptConsumables(
-      Map<Path, Long> items,
-      Set<Consumer<Path>> updateConsumer,
-      Set<Consumer<Path>> createConsumer,
-      Path path,
-      BasicFileAttributes attrs) {
-    Long lastModifiedActual = attrs.lastModifiedTime().toMillis();
-
-    if (items.containsKey(path)) {
-      Long lastModifiedStored = items.get(path);
-      if (!lastModifiedActual.equals(lastModifiedStored)) {
-        updateConsumer.forEach(it -> it.accept(path));
-        items.put(path, lastModifiedActual);
+  private void delete(Path path, boolean directory) {
+    if (!directory) {
+      accept(fileDeleteConsumers, path);
+      return;
+    }
+
+    FileTreeIndex index = indexes.remove(path);
+    if (index != null) {
+      for (int i = 0; i < index.size(); i++) {
+        delete(path.resolve(index.getName(i)), index.isDirectory(i));
       }
-    } else {
-      createConsumer.forEach(it -> it.accept(path));
-      items.put(path, lastModifiedActual);
     }
+    accept(directoryDeleteConsumers, path);
+  }
+
+  private boolean isExcluded(Set<PathMatcher> excludes, Path path) {
+    for (PathMatcher matcher : excludes) {
+      if (matcher.matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void accept(Set<Consumer<Path>> consumers, Path path) {
+    consumers.forEach(it -> it.accept(path));
   }
 }
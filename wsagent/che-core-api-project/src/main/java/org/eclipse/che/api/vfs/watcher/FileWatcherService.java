@@ -66,6 +66,7 @@ public class FileWatcherService {
 
   private final FileWatcherExcludePatternsRegistry excludePatternsRegistry;
   private final FileWatcherEventHandler handler;
+  private final FileTreeWalker treeWalker;
   private final WatchService service;
   private final Modifier[] eventModifiers;
   private final Kind<?>[] eventKinds;
@@ -76,9 +77,11 @@ public class FileWatcherService {
   public FileWatcherService(
       FileWatcherExcludePatternsRegistry excludePatternsRegistry,
       FileWatcherEventHandler handler,
+      FileTreeWalker treeWalker,
       WatchService service) {
     this.excludePatternsRegistry = excludePatternsRegistry;
     this.handler = handler;
+    this.treeWalker = treeWalker;
     this.service = service;
 
     this.eventModifiers = getWatchEventModifiers();
@@ -298,11 +301,13 @@ public class FileWatcherService {
           continue;
         }
 
+        boolean dirty = false;
         for (WatchEvent<?> event : watchEvents) {
           Kind<?> kind = event.kind();
 
           if (kind == OVERFLOW) {
             LOG.warn("Detected file system events overflowing");
+            treeWalker.markOverflow();
             continue;
           }
 
@@ -315,9 +320,14 @@ public class FileWatcherService {
             continue;
           }
 
+          dirty = true;
           handler.handle(path, kind);
         }
 
+        if (dirty) {
+          treeWalker.markDirty(dir);
+        }
+
         resetAndRemove(watchKey, dir);
       } catch (InterruptedException e) {
         running.compareAndSet(true, false);
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.EditorChangesDto;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class EditorWorkingCopyStoreTest {
+  private Map<String, String> spilled;
+  private EditorWorkingCopyStore.Persistence persistence;
+  private EditorWorkingCopyStore store;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    spilled = new HashMap<>();
+    persistence = mock(EditorWorkingCopyStore.Persistence.class);
+    when(persistence.load(anyString(), eq(false)))
+        .thenAnswer(invocation -> workingCopy("original " + invocation.getArgument(0)));
+    when(persistence.load(anyString(), eq(true)))
+        .thenAnswer(invocation -> workingCopy(spilled.get(invocation.<String>getArgument(0))));
+    doAnswer(
+            invocation -> {
+              EditorWorkingCopy workingCopy = invocation.getArgument(1);
+              spilled.put(invocation.getArgument(0), workingCopy.getContentAsString());
+              return null;
+            })
+        .when(persistence)
+        .spill(anyString(), any(EditorWorkingCopy.class));
+    store = new EditorWorkingCopyStore(persistence, 20);
+  }
+
+  @Test
+  public void returnsWorkingCopyWhichContentIsInMemory() throws Exception {
+    EditorWorkingCopy workingCopy = workingCopy("0123456789");
+    store.put("/a", workingCopy, false);
+
+    assertSame(store.get("/a"), workingCopy);
+    assertNull(store.get("/b"));
+    assertEquals(store.getStatistics().getHits(), 1);
+    assertEquals(store.getStatistics().getMisses(), 0);
+    verify(persistence, never()).load(anyString(), any(Boolean.class));
+  }
+
+  @Test
+  public void releasesLeastRecentlyUsedWorkingCopyWithoutChanges() throws Exception {
+    store.put("/a", workingCopy("0123456789"), false);
+    store.put("/b", workingCopy("0123456789"), false);
+    store.get("/a");
+    store.put("/c", workingCopy("0123456789"), false);
+
+    assertEquals(store.getResidentBytes(), 20);
+    assertEquals(store.getStatistics().getReleases(), 1);
+    assertEquals(store.get("/b").getContentAsString(), "original /b");
+    assertEquals(store.getStatistics().getMisses(), 1);
+    verify(persistence, never()).spill(anyString(), any(EditorWorkingCopy.class));
+  }
+
+  @Test
+  public void spillsChangedWorkingCopyAndLoadsItFromPersistentStorage() throws Exception {
+    store.put("/a", workingCopy("0123456789"), false);
+    store.applyChanges("/a", insert("!", 0));
+
+    store.put("/b", workingCopy("0123456789"), false);
+    store.put("/c", workingCopy("0123456789"), false);
+
+    assertEquals(store.getStatistics().getSpills(), 1);
+    assertEquals(spilled.get("/a"), "!0123456789");
+    assertEquals(store.get("/a").getContentAsString(), "!0123456789");
+    assertEquals(store.size(), 3);
+  }
+
+  @Test
+  public void appliesChangesToReleasedWorkingCopy() throws Exception {
+    store.put("/a", workingCopy("0123456789"), false);
+    store.put("/b", workingCopy("0123456789"), false);
+    store.put("/c", workingCopy("0123456789"), false);
+
+    assertTrue(store.applyChanges("/a", insert("!", 0)));
+    store.put("/d", workingCopy("0123456789"), false);
+
+    assertEquals(store.getStatistics().getSpills(), 1);
+    assertEquals(store.get("/a").getContentAsString(), "!original /a");
+    assertFalse(store.applyChanges("/e", insert("!", 0)));
+  }
+
+  @Test
+  public void keepsChangedWorkingCopyInMemoryWhenItCanNotBeSpilled() throws Exception {
+    doThrow(new ServerException("disk is full"))
+        .when(persistence)
+        .spill(anyString(), any(EditorWorkingCopy.class));
+    EditorWorkingCopy workingCopy = workingCopy("0123456789");
+    store.put("/a", workingCopy, true);
+
+    store.put("/b", workingCopy("0123456789"), false);
+    store.put("/c", workingCopy("0123456789"), false);
+
+    assertSame(store.get("/a"), workingCopy);
+    assertEquals(store.getStatistics().getSpills(), 0);
+  }
+
+  @Test
+  public void loadsReleasedWorkingCopyOnRemoval() throws Exception {
+    store.put("/a", workingCopy("0123456789"), false);
+    store.put("/b", workingCopy("0123456789"), false);
+    store.put("/c", workingCopy("0123456789"), false);
+
+    assertEquals(store.remove("/a").getContentAsString(), "original /a");
+    assertNull(store.get("/a"));
+    assertEquals(store.size(), 2);
+  }
+
+  private static EditorWorkingCopy workingCopy(String content) {
+    return new EditorWorkingCopy("path", "/project", content.getBytes());
+  }
+
+  private static EditorChangesDto insert(String text, int offset) {
+    EditorChangesDto changes = mock(EditorChangesDto.class);
+    when(changes.getType()).thenReturn(EditorChangesDto.Type.INSERT);
+    when(changes.getText()).thenReturn(text);
+    when(changes.getOffset()).thenReturn(offset);
+    return changes;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.project.server;
+
+import static org.testng.Assert.assertEquals;
+
+import com.google.common.base.Strings;
+import com.google.common.io.CharStreams;
+import java.io.Reader;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+public class PieceTableTest {
+
+  @Test
+  public void insertsAndRemovesText() throws Exception {
+    PieceTable text = new PieceTable("hello world");
+
+    text.insert(5, ",");
+    text.insert(12, "!");
+    text.remove(0, 1);
+    text.insert(0, "H");
+    text.insert(0, "");
+
+    assertEquals(text.snapshot().toString(), "Hello, world!");
+    assertEquals(text.length(), 13);
+  }
+
+  @Test
+  public void keepsSnapshotUnchangedAfterEdits() throws Exception {
+    PieceTable text = new PieceTable("abc");
+    text.insert(3, "def");
+    PieceTable.Snapshot snapshot = text.snapshot();
+
+    text.insert(6, "ghi");
+    text.remove(0, 4);
+
+    assertEquals(snapshot.toString(), "abcdef");
+    try (Reader reader = snapshot.reader()) {
+      assertEquals(CharStreams.toString(reader), "abcdef");
+    }
+    assertEquals(text.snapshot().toString(), "efghi");
+  }
+
+  @Test
+  public void appliesTypingSessionTheSameWayAsStringBuilder() throws Exception {
+    Random random = new Random(42);
+    StringBuilder expected = new StringBuilder("class A {\n}\n");
+    PieceTable text = new PieceTable(expected.toString());
+
+    int cursor = 10;
+    for (int i = 0; i < 5000; i++) {
+      if (random.nextInt(10) == 0) {
+        cursor = random.nextInt(expected.length() + 1);
+      }
+      if (random.nextInt(5) == 0 && cursor > 0) {
+        int count = Math.min(cursor, random.nextInt(3) + 1);
+        cursor -= count;
+        expected.delete(cursor, cursor + count);
+        text.remove(cursor, count);
+      } else {
+        String typed = random.nextInt(20) == 0 ? "\n  " : String.valueOf((char) ('a' + i % 26));
+        expected.insert(cursor, typed);
+        text.insert(cursor, typed);
+        cursor += typed.length();
+      }
+    }
+
+    assertEquals(text.snapshot().toString(), expected.toString());
+    try (Reader reader = text.snapshot().reader()) {
+      assertEquals(CharStreams.toString(reader), expected.toString());
+    }
+  }
+
+  @Test
+  public void countsArraysKeptAliveByPieces() throws Exception {
+    PieceTable text = new PieceTable("abc");
+    assertEquals(text.retainedBytes(), 6);
+
+    text.insert(3, "def");
+    text.insert(1, Strings.repeat("x", 10_000));
+    assertEquals(text.retainedBytes(), 6 + 32 * 1024 + 20_000);
+
+    // the end of the original text is still referenced
+    text.remove(0, 1);
+    text.remove(0, 10_001);
+    assertEquals(text.snapshot().toString(), "cdef");
+    assertEquals(text.retainedBytes(), 6 + 32 * 1024);
+
+    text.remove(0, 2);
+    assertEquals(text.snapshot().retainedBytes(), 32 * 1024);
+  }
+
+  @Test(expectedExceptions = IndexOutOfBoundsException.class)
+  public void failsWhenRemovedRangeIsOutOfText() throws Exception {
+    new PieceTable("abc").remove(2, 2);
+  }
+}
@@ -10,9 +10,16 @@
  */
 package org.eclipse.che.api.vfs;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.TestCase;
@@ -241,4 +248,250 @@ public class PathLockFactoryTest extends TestCase {
     waiter.await();
     assertEquals(2, acquired.get());
   }
+
+  public void testSharedLocksOfParentAndChild() throws Exception {
+    final CountDownLatch starter = new CountDownLatch(1);
+    final CountDownLatch finisher = new CountDownLatch(1);
+    Thread t =
+        new Thread() {
+          @Override
+          public void run() {
+            PathLockFactory.PathLock lock = pathLockFactory.getLock(path.getParent(), false);
+            lock.acquire();
+            try {
+              starter.countDown();
+              finisher.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+              lock.release();
+            }
+          }
+        };
+    t.start();
+    starter.await();
+    PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false);
+    try {
+      // Shared lock of child is compatible with shared lock of parent.
+      lock.acquire(100);
+    } finally {
+      lock.release();
+      finisher.countDown();
+    }
+    t.join();
+    pathLockFactory.checkClean();
+  }
+
+  public void testLockInterruption() throws Exception {
+    final CountDownLatch starter = new CountDownLatch(1);
+    final CountDownLatch finisher = new CountDownLatch(1);
+    Thread owner =
+        new Thread() {
+          @Override
+          public void run() {
+            PathLockFactory.PathLock lock = pathLockFactory.getLock(path.getParent(), true);
+            lock.acquire();
+            try {
+              starter.countDown();
+              finisher.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+              lock.release();
+            }
+          }
+        };
+    owner.start();
+    starter.await();
+
+    final AtomicBoolean interrupted = new AtomicBoolean(false);
+    Thread waiter =
+        new Thread() {
+          @Override
+          public void run() {
+            try {
+              pathLockFactory.getLock(path, true).acquire();
+            } catch (RuntimeException e) {
+              interrupted.set(Thread.currentThread().isInterrupted());
+            }
+          }
+        };
+    waiter.start();
+    Thread.sleep(100);
+    waiter.interrupt();
+    waiter.join();
+    finisher.countDown();
+    owner.join();
+
+    assertTrue(interrupted.get());
+    pathLockFactory.checkClean();
+  }
+
+  public void testSharedLockHolderDoesNotGetExclusiveLockOfChildWhileOthersShareLock()
+      throws Exception {
+    final Path parent = path.getParent();
+    final CountDownLatch starter = new CountDownLatch(1);
+    final CountDownLatch finisher = new CountDownLatch(1);
+    Thread other =
+        new Thread() {
+          @Override
+          public void run() {
+            PathLockFactory.PathLock lock = pathLockFactory.getLock(parent, false);
+            lock.acquire();
+            try {
+              starter.countDown();
+              finisher.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+              lock.release();
+            }
+          }
+        };
+    PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(parent, false).acquire();
+    try {
+      other.start();
+      starter.await();
+      PathLockFactory.PathLock exclusiveLock = pathLockFactory.getLock(path, true);
+      try {
+        // Exclusive lock of the child excludes shared lock of the parent held by other thread.
+        exclusiveLock.acquire(100);
+        exclusiveLock.release();
+        fail();
+      } catch (RuntimeException e) {
+        // OK
+      }
+      finisher.countDown();
+      other.join();
+      exclusiveLock.acquire(1000);
+      exclusiveLock.release();
+    } finally {
+      finisher.countDown();
+      sharedLock.release();
+    }
+    pathLockFactory.checkClean();
+  }
+
+  public void testNewcomerDoesNotOvertakeWaitingThread() throws Exception {
+    final CountDownLatch finisher = new CountDownLatch(1);
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread waiter =
+        new Thread() {
+          @Override
+          public void run() {
+            PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true);
+            lock.acquire();
+            try {
+              acquired.countDown();
+              finisher.await();
+            } catch (InterruptedException ignored) {
+            } finally {
+              lock.release();
+            }
+          }
+        };
+    PathLockFactory.PathLock sharedLock = pathLockFactory.getLock(path, false).acquire();
+    try {
+      waiter.start();
+      Thread.sleep(100); // let waiter thread wait for exclusive lock
+      final AtomicBoolean overtaken = new AtomicBoolean(true);
+      Thread newcomer =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                // Shared lock is compatible with the held one but exclusive lock is requested
+                // before it.
+                pathLockFactory.getLock(path, false).acquire(100).release();
+              } catch (RuntimeException e) {
+                overtaken.set(false);
+              }
+            }
+          };
+      newcomer.start();
+      newcomer.join();
+      assertFalse(overtaken.get());
+      assertEquals(1, acquired.getCount());
+    } finally {
+      sharedLock.release();
+    }
+    assertTrue(acquired.await(1, SECONDS));
+    finisher.countDown();
+    waiter.join();
+    pathLockFactory.checkClean();
+  }
+
+  public void testNoDeadlocksUnderConcurrentHierarchicalLocks() throws Throwable {
+    final List<Path> paths = new ArrayList<>();
+    for (String first : new String[] {"a", "b", "c"}) {
+      for (String second : new String[] {"", "/d", "/e"}) {
+        for (String third : new String[] {"", "/f", "/g"}) {
+          if (!second.isEmpty() || third.isEmpty()) {
+            paths.add(Path.of("/" + first + second + third));
+          }
+        }
+      }
+    }
+    paths.add(Path.ROOT);
+
+    final int threads = 16;
+    final int iterations = 2000;
+    final Map<Path, AtomicInteger> exclusiveHolders = new ConcurrentHashMap<>();
+    final Map<Path, AtomicInteger> sharedHolders = new ConcurrentHashMap<>();
+    paths.forEach(
+        it -> {
+          exclusiveHolders.put(it, new AtomicInteger());
+          sharedHolders.put(it, new AtomicInteger());
+        });
+    final List<Throwable> errors = new ArrayList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int i = 0; i < threads; i++) {
+      final Random random = new Random(i);
+      executor.execute(
+          () -> {
+            try {
+              for (int j = 0; j < iterations; j++) {
+                Path locked = paths.get(random.nextInt(paths.size()));
+                boolean exclusive = random.nextBoolean();
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(locked, exclusive);
+                lock.acquire();
+                (exclusive ? exclusiveHolders : sharedHolders).get(locked).incrementAndGet();
+                try {
+                  for (Path other : paths) {
+                    boolean related =
+                        other.equals(locked) || other.isChild(locked) || locked.isChild(other);
+                    if (!related) {
+                      continue;
+                    }
+                    int exclusiveCount = exclusiveHolders.get(other).get();
+                    int sharedCount = sharedHolders.get(other).get();
+                    if (other.equals(locked)) {
+                      exclusiveCount -= exclusive ? 1 : 0;
+                      sharedCount -= exclusive ? 0 : 1;
+                    }
+                    if (exclusiveCount > 0 || (exclusive && sharedCount > 0)) {
+                      throw new AssertionError(
+                          String.format("'%s' is locked together with '%s'", locked, other));
+                    }
+                  }
+                  // reentrant lock of the same path must not block
+                  PathLockFactory.PathLock nested = pathLockFactory.getLock(locked, false);
+                  nested.acquire(100);
+                  nested.release();
+                } finally {
+                  (exclusive ? exclusiveHolders : sharedHolders).get(locked).decrementAndGet();
+                  lock.release();
+                }
+              }
+            } catch (Throwable e) {
+              synchronized (errors) {
+                errors.add(e);
+              }
+            }
+          });
+    }
+    executor.shutdown();
+    assertTrue("Threads are deadlocked", executor.awaitTermination(60, SECONDS));
+    if (!errors.isEmpty()) {
+      throw errors.get(0);
+    }
+    pathLockFactory.checkClean();
+  }
 }
@@ -13,6 +13,7 @@ package org.eclipse.che.api.vfs.impl.file;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -69,6 +70,7 @@ public class LocalVirtualFileTest {
 
   private final String DEFAULT_CONTENT = "__TEST__";
   private final byte[] DEFAULT_CONTENT_BYTES = DEFAULT_CONTENT.getBytes();
+  private final long FOLDER_MODIFICATION_TIME = 1_500_000_000_000L;
 
   private File testDirectory;
   private LocalVirtualFileSystem fileSystem;
@@ -368,6 +370,94 @@ public class LocalVirtualFileTest {
     assertEquals(expectedResult, children);
   }
 
+  @Test
+  public void getsChildrenCreatedOutsideOfFileSystemAfterInvalidation() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile folder = root.createFolder(generateFolderName());
+    VirtualFile file = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+    assertEquals(newArrayList(file), folder.getChildren());
+
+    String name = generateFileName();
+    assertTrue(new File(folder.toIoFile(), name).createNewFile());
+    fileSystem.invalidateChildren(folder.getPath());
+
+    List<VirtualFile> expectedResult = newArrayList(file, folder.getChild(Path.of(name)));
+    Collections.sort(expectedResult);
+
+    assertEquals(expectedResult, folder.getChildren());
+  }
+
+  @Test
+  public void doesNotShowChildrenRemovedOutsideOfFileSystemAfterInvalidation() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile folder = root.createFolder(generateFolderName());
+    VirtualFile file1 = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+    VirtualFile file2 = folder.createFile(generateFileName(), DEFAULT_CONTENT);
+    assertEquals(2, folder.getChildren().size());
+
+    assertTrue(file2.toIoFile().delete());
+    fileSystem.invalidateChildren(file2.getPath());
+
+    assertEquals(newArrayList(file1), folder.getChildren());
+  }
+
+  @Test
+  public void doesNotShowChildrenOfDeletedFolderWhenItIsCreatedAgain() throws Exception {
+    VirtualFile folder = getRoot().createFolder(generateFolderName());
+    VirtualFile subFolder = createListedFolderWithFile(folder);
+
+    folder.delete();
+    recreateWithSameModificationTime(subFolder);
+
+    assertTrue(subFolder.getChildren().isEmpty());
+  }
+
+  @Test
+  public void doesNotShowChildrenOfRenamedFolderWhenItIsCreatedAgain() throws Exception {
+    VirtualFile folder = getRoot().createFolder(generateFolderName());
+    VirtualFile subFolder = createListedFolderWithFile(folder);
+
+    VirtualFile renamed = folder.rename(generateFolderName());
+    recreateWithSameModificationTime(subFolder);
+
+    assertTrue(subFolder.getChildren().isEmpty());
+    assertEquals(1, renamed.getChild(Path.of(subFolder.getName())).getChildren().size());
+  }
+
+  @Test
+  public void doesNotShowChildrenOfMovedFolderWhenItIsCreatedAgain() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile folder = root.createFolder(generateFolderName());
+    VirtualFile subFolder = createListedFolderWithFile(folder);
+    VirtualFile targetFolder = root.createFolder(generateFolderName());
+
+    VirtualFile moved = folder.moveTo(targetFolder);
+    recreateWithSameModificationTime(subFolder);
+
+    assertTrue(subFolder.getChildren().isEmpty());
+    assertEquals(1, moved.getChild(Path.of(subFolder.getName())).getChildren().size());
+  }
+
+  /** Creates folder with a file and lists it, so that its children get cached. */
+  private VirtualFile createListedFolderWithFile(VirtualFile parent) throws Exception {
+    VirtualFile folder = parent.createFolder(generateFolderName());
+    folder.createFile(generateFileName(), DEFAULT_CONTENT);
+    assertTrue(folder.toIoFile().setLastModified(FOLDER_MODIFICATION_TIME));
+    assertEquals(1, folder.getChildren().size());
+    return folder;
+  }
+
+  /**
+   * Creates removed folder again outside of the file system, with the modification time it had, so
+   * that only invalidation of the cached children prevents showing the children it had.
+   */
+  private void recreateWithSameModificationTime(VirtualFile folder) {
+    File ioFolder = folder.toIoFile();
+    assertFalse(ioFolder.exists());
+    assertTrue(ioFolder.mkdirs());
+    assertTrue(ioFolder.setLastModified(FOLDER_MODIFICATION_TIME));
+  }
+
   @Test
   public void getsChild() throws Exception {
     VirtualFile root = getRoot();
@@ -433,6 +523,67 @@ public class LocalVirtualFileTest {
     assertEquals(DEFAULT_CONTENT, content);
   }
 
+  @Test
+  public void copiesContentToStream() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    file.copyContentTo(output);
+
+    assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
+    assertArrayEquals(DEFAULT_CONTENT_BYTES, output.toByteArray());
+  }
+
+  @Test
+  public void copiesContentLargerThanChunkToStream() throws Exception {
+    VirtualFile root = getRoot();
+    byte[] content = new byte[LocalVirtualFileSystem.COPY_CHUNK_SIZE * 3 + 1];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    VirtualFile file = root.createFile(generateFileName(), content);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    file.copyContentTo(output);
+
+    assertArrayEquals(content, output.toByteArray());
+  }
+
+  @Test
+  public void failsCopyContentToStreamWhenFileIsModifiedDuringCopy() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile file =
+        root.createFile(generateFileName(), new byte[LocalVirtualFileSystem.COPY_CHUNK_SIZE * 2]);
+    OutputStream output =
+        new ByteArrayOutputStream() {
+          @Override
+          public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            try {
+              // file is not locked while a chunk is written, so it may be updated
+              file.updateContent(DEFAULT_CONTENT);
+            } catch (Exception e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        };
+
+    thrown.expect(ServerException.class);
+
+    file.copyContentTo(output);
+  }
+
+  @Test
+  public void failsCopyContentOfFolderToStream() throws Exception {
+    VirtualFile root = getRoot();
+    VirtualFile folder = root.createFolder(generateFolderName());
+
+    thrown.expect(ForbiddenException.class);
+
+    folder.copyContentTo(new ByteArrayOutputStream());
+  }
+
   @Test
   public void failsGetContentOfFolderAsStream() throws Exception {
     VirtualFile root = getRoot();
@@ -1432,6 +1583,16 @@ public class LocalVirtualFileTest {
     verify(archiver).compress(any(OutputStream.class), any(VirtualFileFilter.class));
   }
 
+  @Test
+  public void compressesFolderToZipArchiveInGivenStream() throws Exception {
+    VirtualFile folder = getRoot().createFolder(generateFolderName());
+    Archiver archiver = mock(Archiver.class);
+    when(archiverFactory.createArchiver(eq(folder), eq("zip"))).thenReturn(archiver);
+    OutputStream output = new ByteArrayOutputStream();
+    folder.zip(output);
+    verify(archiver).compress(eq(output), any(VirtualFileFilter.class));
+  }
+
   @Test
   public void failsZipFile() throws Exception {
     VirtualFile root = getRoot();
@@ -18,12 +18,15 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import com.google.common.base.Optional;
 import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import org.apache.lucene.search.ScoreDoc;
+import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -382,6 +385,164 @@ public class FSLuceneSearcherTest {
     assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
   }
 
+  @Test
+  public void retrievesNextPageFromTheSameIndexViewWithCursor() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    for (int i = 0; i < 125; i++) {
+      virtualFileSystem
+          .getRoot()
+          .createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+    }
+    searcher.init(virtualFileSystem);
+
+    SearchResult firstPage =
+        searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+    QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+    assertNotNull(nextPageQueryExpression.getCursor());
+
+    VirtualFile added = virtualFileSystem.getRoot().createFile("aaa", TEST_CONTENT[0]);
+    searcher.add(added);
+
+    nextPageQueryExpression.setMaxItems(100);
+    SearchResult lastPage = searcher.search(nextPageQueryExpression);
+    assertEquals(lastPage.getFilePaths().size(), 17);
+    assertFalse(lastPage.getFilePaths().contains("/aaa"));
+    assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+  }
+
+  @Test
+  public void skipsResultsWhenCursorIsExpired() throws Exception {
+    searcher.setCursorTtl(0);
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    for (int i = 0; i < 125; i++) {
+      virtualFileSystem
+          .getRoot()
+          .createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+    }
+    searcher.init(virtualFileSystem);
+
+    SearchResult firstPage =
+        searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+    QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+    Thread.sleep(5);
+
+    SearchResult lastPage = searcher.search(nextPageQueryExpression.setMaxItems(100));
+    assertEquals(lastPage.getFilePaths().size(), 17);
+    assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+  }
+
+  @Test(expectedExceptions = BadRequestException.class)
+  public void failsWhenCursorIsInvalid() throws Exception {
+    searcher.init(virtualFileSystem());
+
+    searcher.search(new QueryExpression().setText("spaceflight").setCursor("not a cursor"));
+  }
+
+  @Test(expectedExceptions = BadRequestException.class)
+  public void failsWhenCursorBelongsToAnotherQuery() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    for (int i = 0; i < 10; i++) {
+      virtualFileSystem.getRoot().createFile("file" + i, TEST_CONTENT[0]);
+    }
+    searcher.init(virtualFileSystem);
+
+    SearchResult firstPage =
+        searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2));
+    String cursor = firstPage.getNextPageQueryExpression().get().getCursor();
+
+    searcher.search(new QueryExpression().setText("mission").setCursor(cursor));
+  }
+
+  @Test(expectedExceptions = BadRequestException.class)
+  public void failsWhenCursorRefersToDocumentOutsideOfIndex() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    for (int i = 0; i < 10; i++) {
+      virtualFileSystem.getRoot().createFile("file" + i, TEST_CONTENT[0]);
+    }
+    searcher.init(virtualFileSystem);
+
+    QueryExpression query = new QueryExpression().setText("spaceflight").setMaxItems(2);
+    SearchResult firstPage = searcher.search(query);
+    SearchCursor cursor =
+        SearchCursor.decode(firstPage.getNextPageQueryExpression().get().getCursor(), query);
+    String forged =
+        new SearchCursor(query, cursor.searcherVersion, new ScoreDoc(Integer.MAX_VALUE, 1F), 2)
+            .encode();
+
+    searcher.search(new QueryExpression().setText("spaceflight").setCursor(forged));
+  }
+
+  @Test
+  public void doesNotReindexFilesThatAreNotModified() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile("xxx.txt", TEST_CONTENT[2]);
+    folder.createFile("zzz.txt", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    searcher.add(virtualFileSystem.getRoot());
+
+    LuceneSearcher.IndexingStatistics statistics = searcher.getIndexingStatistics();
+    assertEquals(statistics.getQueuedFiles(), 4);
+    assertEquals(statistics.getIndexedFiles(), 2);
+    assertEquals(statistics.getSkippedFiles(), 2);
+    assertEquals(statistics.getPendingFiles(), 0);
+    List<String> paths = searcher.search(new QueryExpression().setText("think")).getFilePaths();
+    assertEquals(newArrayList("/folder/zzz.txt"), paths);
+  }
+
+  @Test
+  public void keepsContentHashOfFirstIndexedFile() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile file =
+        virtualFileSystem.getRoot().createFolder("folder").createFile("xxx.txt", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+    // makes the first indexing visible to the searcher
+    searcher.search(new QueryExpression().setText("think"));
+
+    searcher.update(file);
+
+    LuceneSearcher.IndexingStatistics statistics = searcher.getIndexingStatistics();
+    assertEquals(statistics.getIndexedFiles(), 1);
+    assertEquals(statistics.getSkippedFiles(), 1);
+  }
+
+  @Test
+  public void findsPositionsInContentThatIsNotStoredInIndex() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile("xxx.txt", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("think").setIncludePositions(true));
+
+    LuceneSearcher.OffsetData offsetData = result.getResults().get(0).getData().get(0);
+    assertEquals(offsetData.phrase, "think");
+    assertEquals(offsetData.startOffset, 17);
+    assertEquals(offsetData.lineNum, 0);
+  }
+
+  @Test
+  public void findsLinesOfMatchesWithinMultilineContent() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile(
+        "xxx.txt", TEST_CONTENT[0] + "\r\n" + TEST_CONTENT[1] + "\n" + TEST_CONTENT[4]);
+    searcher.init(virtualFileSystem);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("think").setIncludePositions(true));
+
+    List<LuceneSearcher.OffsetData> offsetData = result.getResults().get(0).getData();
+    assertEquals(offsetData.size(), 2);
+    assertEquals(offsetData.get(0).lineNum, 1);
+    assertEquals(offsetData.get(0).line, TEST_CONTENT[1]);
+    assertEquals(offsetData.get(1).lineNum, 2);
+    assertEquals(offsetData.get(1).line, TEST_CONTENT[4]);
+    assertEquals(offsetData.get(1).phrase, "think");
+  }
+
   private VirtualFileSystem virtualFileSystem() throws Exception {
     return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
   }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.vfs.search.impl;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.api.vfs.search.impl.LuceneSearcher.OffsetData;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TrigramSearcherTest {
+  private static final String[] TEST_CONTENT = {
+    "public void setName(String name) {\n  this.name = name;\n}",
+    "String getName() {\n  return name;\n}",
+    "foo.bar(baz);\nFoo.Bar(Baz);"
+  };
+
+  private VirtualFileFilter filter;
+  private TrigramSearcher searcher;
+  private AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    filter = mock(VirtualFileFilter.class);
+    when(filter.accept(any(VirtualFile.class))).thenReturn(false);
+    closeCallback = mock(AbstractLuceneSearcherProvider.CloseCallback.class);
+    searcher = new TrigramSearcher(filter, closeCallback);
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    searcher.close();
+  }
+
+  @Test
+  public void findsSubstringsThatAreNotWords() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile("a.java", TEST_CONTENT[0]);
+    folder.createFile("b.java", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    List<String> paths = searcher.search(new QueryExpression().setText("name(")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/a.java", "/folder/b.java"));
+
+    paths = searcher.search(new QueryExpression().setText("this.nam")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/a.java"));
+  }
+
+  @Test
+  public void searchesCaseSensitivelyWhenTextContainsUpperCaseCharacters() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    virtualFileSystem.getRoot().createFile("c.js", TEST_CONTENT[2]);
+    searcher.init(virtualFileSystem);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("foo.bar(").setIncludePositions(true));
+    assertEquals(result.getResults().get(0).getData().size(), 2);
+
+    result = searcher.search(new QueryExpression().setText("Foo.Bar(").setIncludePositions(true));
+    List<OffsetData> data = result.getResults().get(0).getData();
+    assertEquals(data.size(), 1);
+    assertEquals(data.get(0).lineNum, 1);
+    assertEquals(data.get(0).line, "Foo.Bar(Baz);");
+    assertEquals(data.get(0).startOffset, 14);
+  }
+
+  @Test
+  public void searchesWithRegularExpression() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile("a.java", TEST_CONTENT[0]);
+    folder.createFile("b.java", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    List<String> paths =
+        searcher.search(new QueryExpression().setText("/[gs]etName\\(\\)/")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/b.java"));
+
+    paths = searcher.search(new QueryExpression().setText("/return|this/")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/a.java", "/folder/b.java"));
+  }
+
+  @Test
+  public void extractsLiteralsRequiredByRegularExpression() throws Exception {
+    assertEquals(
+        TrigramSearcher.TextMatcher.requiredLiterals("get\\w+Name\\(\\)"),
+        newArrayList("get", "Name()"));
+    assertEquals(
+        TrigramSearcher.TextMatcher.requiredLiterals("(foo|bar)bazz?[a-z]+quux"),
+        newArrayList("baz", "quux"));
+    assertTrue(TrigramSearcher.TextMatcher.requiredLiterals("foo|bar").isEmpty());
+  }
+
+  @Test
+  public void trimsQuotedLiteralFollowedByQuantifier() throws Exception {
+    assertEquals(
+        TrigramSearcher.TextMatcher.requiredLiterals("\\Qabcd\\E?efg"), newArrayList("abc", "efg"));
+    assertEquals(
+        TrigramSearcher.TextMatcher.requiredLiterals("\\Qabc\\E+def"), newArrayList("abc", "def"));
+  }
+
+  @Test
+  public void searchesByNamePatternAndPath() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile root = virtualFileSystem.getRoot();
+    root.createFolder("a").createFile("Name.java", TEST_CONTENT[0]);
+    root.createFolder("b").createFile("name.txt", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    List<String> paths = searcher.search(new QueryExpression().setName("*.JAVA")).getFilePaths();
+    assertEquals(paths, newArrayList("/a/Name.java"));
+
+    paths = searcher.search(new QueryExpression().setText("name").setPath("/b")).getFilePaths();
+    assertEquals(paths, newArrayList("/b/name.txt"));
+  }
+
+  @Test
+  public void updatesAndDeletesFilesInIndex() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    VirtualFile file = folder.createFile("a.java", TEST_CONTENT[0]);
+    searcher.init(virtualFileSystem);
+
+    file.updateContent(TEST_CONTENT[2]);
+    searcher.update(file);
+    assertTrue(searcher.search(new QueryExpression().setText("setName")).getFilePaths().isEmpty());
+    assertEquals(
+        searcher.search(new QueryExpression().setText("bar(")).getFilePaths(),
+        newArrayList("/folder/a.java"));
+
+    searcher.delete("/folder", false);
+    assertTrue(searcher.search(new QueryExpression().setText("bar(")).getFilePaths().isEmpty());
+  }
+
+  @Test
+  public void doesNotIndexContentOfExcludedFiles() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile file = virtualFileSystem.getRoot().createFile("a.java", TEST_CONTENT[0]);
+    when(filter.accept(file)).thenReturn(true);
+    searcher.init(virtualFileSystem);
+
+    assertTrue(searcher.search(new QueryExpression().setText("setName")).getFilePaths().isEmpty());
+    assertEquals(
+        searcher.search(new QueryExpression().setName("a.java")).getFilePaths(),
+        newArrayList("/a.java"));
+  }
+
+  @Test
+  public void returnsNextPageQueryExpression() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile root = virtualFileSystem.getRoot();
+    for (int i = 0; i < 5; i++) {
+      root.createFile("file" + i + ".txt", TEST_CONTENT[1]);
+    }
+    searcher.init(virtualFileSystem);
+
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("getName").setMaxItems(2));
+    assertEquals(result.getTotalHits(), 3);
+    assertEquals(result.getFilePaths(), newArrayList("/file0.txt", "/file1.txt"));
+
+    result = searcher.search(result.getNextPageQueryExpression().get());
+    assertEquals(result.getFilePaths(), newArrayList("/file2.txt", "/file3.txt"));
+  }
+
+  @Test
+  public void findsNextPageAfterCursorWithoutVerifyingPreviousPages() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile root = virtualFileSystem.getRoot();
+    for (int i = 0; i < 5; i++) {
+      root.createFile("file" + i + ".txt", TEST_CONTENT[1]);
+    }
+    searcher.init(virtualFileSystem);
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("getName").setMaxItems(2));
+
+    searcher.delete("/file0.txt", true);
+    result = searcher.search(result.getNextPageQueryExpression().get());
+
+    assertEquals(result.getFilePaths(), newArrayList("/file2.txt", "/file3.txt"));
+    assertEquals(result.getTotalHits(), 5);
+
+    result = searcher.search(result.getNextPageQueryExpression().get());
+
+    assertEquals(result.getFilePaths(), newArrayList("/file4.txt"));
+    assertFalse(result.getNextPageQueryExpression().isPresent());
+  }
+
+  @Test(expectedExceptions = BadRequestException.class)
+  public void failsWhenCursorBelongsToAnotherQuery() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    for (int i = 0; i < 5; i++) {
+      virtualFileSystem.getRoot().createFile("file" + i + ".txt", TEST_CONTENT[1]);
+    }
+    searcher.init(virtualFileSystem);
+    SearchResult result =
+        searcher.search(new QueryExpression().setText("getName").setMaxItems(2));
+    String cursor = result.getNextPageQueryExpression().get().getCursor();
+
+    searcher.search(new QueryExpression().setText("setName").setCursor(cursor));
+  }
+
+  @Test(expectedExceptions = BadRequestException.class)
+  public void failsWhenRegularExpressionIsInvalid() throws Exception {
+    searcher.init(virtualFileSystem());
+
+    searcher.search(new QueryExpression().setText("/get(Name/"));
+  }
+
+  @Test
+  public void matchesAllFilesWithRegularExpressionWithInlineFlags() throws Exception {
+    VirtualFileSystem virtualFileSystem = virtualFileSystem();
+    VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+    folder.createFile("a.java", TEST_CONTENT[0]);
+    folder.createFile("b.java", TEST_CONTENT[1]);
+    searcher.init(virtualFileSystem);
+
+    assertTrue(TrigramSearcher.TextMatcher.requiredLiterals("(?x) get Name").isEmpty());
+    List<String> paths =
+        searcher.search(new QueryExpression().setText("/(?x) get Name/")).getFilePaths();
+    assertEquals(paths, newArrayList("/folder/b.java"));
+  }
+
+  @Test
+  public void notifiesCallbackWhenSearcherClosed() throws Exception {
+    searcher.init(virtualFileSystem());
+    searcher.close();
+    verify(closeCallback).onClose();
+  }
+
+  private VirtualFileSystem virtualFileSystem() throws Exception {
+    return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+  }
+}
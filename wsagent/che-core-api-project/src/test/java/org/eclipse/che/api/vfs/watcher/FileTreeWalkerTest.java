@@ -67,6 +67,7 @@ public class FileTreeWalkerTest {
     fileTreeWalker =
         new FileTreeWalker(
             rootFolder.getRoot(),
+            false,
             directoryUpdateConsumers,
             directoryCreateConsumers,
             directoryDeleteConsumers,
@@ -169,6 +170,97 @@ public class FileTreeWalkerTest {
     verify(directoryDeleteConsumerMock).accept(file.toPath());
   }
 
+  @Test
+  public void shouldRunFileDeleteConsumerForFilesOfDeletedDirectory() throws Exception {
+    fileDeleteConsumers.add(fileDeleteConsumerMock);
+    directoryDeleteConsumers.add(directoryDeleteConsumerMock);
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.walk();
+
+    file.delete();
+    folder.delete();
+    fileTreeWalker.walk();
+
+    verify(fileDeleteConsumerMock).accept(file.toPath());
+    verify(directoryDeleteConsumerMock).accept(folder.toPath());
+  }
+
+  @Test
+  public void shouldRescanOnlyDirtyDirectoriesInIncrementalMode() throws Exception {
+    fileTreeWalker = newIncrementalFileTreeWalker();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File dirtyFolder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File cleanFolder = rootFolder.newFolder(TEST_FOLDER_NAME + "-clean");
+    fileTreeWalker.walk();
+
+    File dirtyFile = new File(dirtyFolder, TEST_FILE_NAME);
+    File cleanFile = new File(cleanFolder, TEST_FILE_NAME);
+    write(dirtyFile, TEST_FILE_CONTENT);
+    write(cleanFile, TEST_FILE_CONTENT);
+    fileTreeWalker.markDirty(dirtyFolder.toPath());
+    fileTreeWalker.walk();
+
+    verify(fileCreatedConsumerMock).accept(dirtyFile.toPath());
+    verify(fileCreatedConsumerMock, never()).accept(cleanFile.toPath());
+  }
+
+  @Test
+  public void shouldWalkWholeTreeAfterOverflowInIncrementalMode() throws Exception {
+    fileTreeWalker = newIncrementalFileTreeWalker();
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.walk();
+
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.markOverflow();
+    fileTreeWalker.walk();
+
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldPeriodicallyWalkWholeTreeInIncrementalMode() throws Exception {
+    fileTreeWalker = newIncrementalFileTreeWalker();
+    fileTreeWalker.setFullWalkPeriod(1);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    fileTreeWalker.walk();
+
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock, never()).accept(file.toPath());
+
+    Thread.sleep(1_100);
+    fileTreeWalker.walk();
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
+  @Test
+  public void shouldRescanClosestKnownAncestorOfUnknownDirtyDirectory() throws Exception {
+    fileTreeWalker = newIncrementalFileTreeWalker();
+    directoryCreateConsumers.add(directoryCreatedConsumerMock);
+    fileCreateConsumers.add(fileCreatedConsumerMock);
+
+    fileTreeWalker.walk();
+
+    File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+    File file = new File(folder, TEST_FILE_NAME);
+    write(file, TEST_FILE_CONTENT);
+    fileTreeWalker.markDirty(folder.toPath());
+    fileTreeWalker.walk();
+
+    verify(directoryCreatedConsumerMock).accept(folder.toPath());
+    verify(fileCreatedConsumerMock).accept(file.toPath());
+  }
+
   @Test
   public void shouldProperlySkipExcludedFile() throws Exception {
     fileExcludes.add(it -> it.getFileName().toString().equals(TEST_FILE_NAME));
@@ -190,4 +282,18 @@ public class FileTreeWalkerTest {
     fileTreeWalker.walk();
     verify(directoryCreatedConsumerMock, never()).accept(file.toPath());
   }
+
+  private FileTreeWalker newIncrementalFileTreeWalker() {
+    return new FileTreeWalker(
+        rootFolder.getRoot(),
+        true,
+        directoryUpdateConsumers,
+        directoryCreateConsumers,
+        directoryDeleteConsumers,
+        directoryExcludes,
+        fileUpdateConsumers,
+        fileCreateConsumers,
+        fileDeleteConsumers,
+        fileExcludes);
+  }
 }
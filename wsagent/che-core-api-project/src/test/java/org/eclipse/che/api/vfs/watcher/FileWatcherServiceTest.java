@@ -47,6 +47,7 @@ public class FileWatcherServiceTest {
 
   @Mock FileWatcherEventHandler handler;
   @Mock FileWatcherExcludePatternsRegistry fileWatcherExcludePatternsRegistry;
+  @Mock FileTreeWalker treeWalker;
   WatchService watchService = FileSystems.getDefault().newWatchService();
 
   FileWatcherService service;
@@ -55,7 +56,9 @@ public class FileWatcherServiceTest {
 
   @BeforeClass
   public void setUp() throws Exception {
-    service = new FileWatcherService(fileWatcherExcludePatternsRegistry, handler, watchService);
+    service =
+        new FileWatcherService(
+            fileWatcherExcludePatternsRegistry, handler, treeWalker, watchService);
 
     service.start();
   }
@@ -30,7 +30,10 @@ import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
 import org.eclipse.jgit.internal.storage.file.FileRepository;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.lib.RepositoryCache.FileKey;
 import org.eclipse.jgit.transport.UserAgent;
+import org.eclipse.jgit.util.FS;
 
 /**
  * JGit implementation for GitConnectionFactory
@@ -94,9 +97,17 @@ public class JGitConnectionFactory extends GitConnectionFactory {
     return conn;
   }
 
+  /**
+   * Returns repository shared with other connections via {@link RepositoryCache} if it exists, so
+   * that its state is not read again for each connection, or a new one otherwise.
+   */
   private static Repository createRepository(File workDir) throws GitException {
+    File gitDir = new File(workDir, Constants.DOT_GIT);
     try {
-      return new FileRepository(new File(workDir, Constants.DOT_GIT));
+      if (FileKey.isGitRepository(gitDir, FS.DETECTED)) {
+        return RepositoryCache.open(FileKey.exact(gitDir, FS.DETECTED));
+      }
+      return new FileRepository(gitDir);
     } catch (IOException e) {
       throw new GitException(e.getMessage(), e);
     }
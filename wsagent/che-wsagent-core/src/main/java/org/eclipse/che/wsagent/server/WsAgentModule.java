@@ -47,7 +47,8 @@ public class WsAgentModule extends AbstractModule {
   @Provides
   @SuppressWarnings("unchecked")
   Pair<String, String>[] eventSubscriptionsProvider(@Named("event.bus.url") String eventBusURL) {
-    return new Pair[] {Pair.of(eventBusURL, "")};
+    // "permissions" events let agents drop cached permissions when they are changed on master
+    return new Pair[] {Pair.of(eventBusURL, ""), Pair.of(eventBusURL, "permissions")};
   }
 
   // it's need for EventOriginClientPropagationPolicy and in the future will be replaced with the
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.shared;
+
+import org.eclipse.che.api.core.model.workspace.Workspace;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+
+/**
+ * Lightweight view of {@link Workspace} which is used for listing workspaces, it doesn't contain
+ * the workspace configuration and runtime.
+ */
+public interface WorkspaceSummary {
+
+  /** Returns the identifier of the workspace. */
+  String getId();
+
+  /** Returns the name of the workspace. */
+  String getName();
+
+  /** Returns the namespace of the workspace. */
+  String getNamespace();
+
+  /** Returns the status of the workspace. */
+  WorkspaceStatus getStatus();
+
+  /** Returns true if the workspace is temporary. */
+  boolean isTemporary();
+}
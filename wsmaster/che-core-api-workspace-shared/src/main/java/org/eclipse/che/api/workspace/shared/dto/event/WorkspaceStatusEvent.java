@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.api.workspace.shared.dto.event;
 
+import java.util.Map;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.notification.EventOrigin;
 import org.eclipse.che.commons.annotation.Nullable;
@@ -78,4 +79,15 @@ public interface WorkspaceStatusEvent {
   void setError(String error);
 
   WorkspaceStatusEvent withError(String error);
+
+  /**
+   * Returns durations in milliseconds of the phases of workspace runtime start, e.g. 'network',
+   * 'machine.db.start', 'machine.db.agents', 'total'. Set only if the type of this event is {@link
+   * EventType#RUNNING}.
+   */
+  Map<String, Long> getStartTimings();
+
+  void setStartTimings(Map<String, Long> startTimings);
+
+  WorkspaceStatusEvent withStartTimings(Map<String, Long> startTimings);
 }
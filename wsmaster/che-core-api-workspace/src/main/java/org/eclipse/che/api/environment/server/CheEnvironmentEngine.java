@@ -12,6 +12,7 @@ package org.eclipse.che.api.environment.server;
 
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.DIE;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.OOM;
@@ -20,16 +21,25 @@ import static org.eclipse.che.dto.server.DtoFactory.newDto;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -90,7 +100,9 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.concurrent.StripedLocks;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.lang.concurrent.Unlocker;
 import org.slf4j.Logger;
 
@@ -103,6 +115,13 @@ import org.slf4j.Logger;
 @Singleton
 public class CheEnvironmentEngine {
 
+  /**
+   * Maximal number of machines of an environment which are started concurrently, machines are
+   * started one by one if it is not greater than one.
+   */
+  public static final String MACHINES_START_PARALLELISM_PROPERTY =
+      "che.workspace.machines_start_parallelism";
+
   private static final NoOpStartedHandler NO_OP_HANDLER = new NoOpStartedHandler();
   private static final Logger LOG = getLogger(CheEnvironmentEngine.class);
 
@@ -122,8 +141,10 @@ public class CheEnvironmentEngine {
   private final ContainerNameGenerator containerNameGenerator;
   private final AgentRegistry agentRegistry;
   private final WorkspaceSharedPool sharedPool;
+  private final ExecutorService machinesStartExecutor;
 
   private volatile boolean isPreDestroyInvoked;
+  private int machinesStartParallelism = 1;
 
   @Inject
   public CheEnvironmentEngine(
@@ -162,6 +183,19 @@ public class CheEnvironmentEngine {
                 + apiEndpoint.substring(apiEndpoint.indexOf(":"))
                 + "/recipe/.*$)|(^/recipe/.*$)");
     this.containerNameGenerator = containerNameGenerator;
+    // machines start threads mostly wait for docker, so pool is not limited
+    this.machinesStartExecutor =
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat("EnvironmentMachinesStarter-%d")
+                .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                .setDaemon(true)
+                .build());
+  }
+
+  @com.google.inject.Inject(optional = true)
+  void setMachinesStartParallelism(@Named(MACHINES_START_PARALLELISM_PROPERTY) int parallelism) {
+    this.machinesStartParallelism = parallelism;
   }
 
   /**
@@ -216,6 +250,27 @@ public class CheEnvironmentEngine {
                         machineId, workspaceId)));
   }
 
+  /**
+   * Returns durations in milliseconds of the phases of the last start of environment of specific
+   * workspace, e.g. 'network', 'machine.db.start', 'machine.db.agents', 'total'.
+   *
+   * @param workspaceId ID of workspace that owns environment
+   * @return durations of start phases, or empty map if environment is not found
+   */
+  public Map<String, Long> getStartTimings(String workspaceId) {
+    EnvironmentHolder environment;
+    try (@SuppressWarnings("unused")
+        Unlocker u = stripedLocks.readLock(workspaceId)) {
+      environment = environments.get(workspaceId);
+    }
+    if (environment == null) {
+      return emptyMap();
+    }
+    synchronized (environment.startTimings) {
+      return new LinkedHashMap<>(environment.startTimings);
+    }
+  }
+
   /**
    * Starts provided environment.
    *
@@ -550,12 +605,14 @@ public class CheEnvironmentEngine {
     normalize(ownerName, workspaceId, internalEnv);
 
     List<String> servicesOrder = startStrategy.order(internalEnv);
+    Map<String, Set<String>> servicesDependencies = startStrategy.dependencies(internalEnv);
 
     normalizeNames(internalEnv);
 
     EnvironmentHolder environmentHolder =
         new EnvironmentHolder(
             servicesOrder,
+            servicesDependencies,
             internalEnv,
             envConfig,
             messageConsumer,
@@ -709,11 +766,14 @@ public class CheEnvironmentEngine {
       boolean recover,
       MachineStartedHandler startedHandler)
       throws ServerException, AgentException, EnvironmentException {
-    // Starting all machines in environment one by one by getting configs
-    // from the corresponding starting queue.
-    // Config will be null only if there are no machines left in the queue
+    // Starting machines in environment respecting dependencies between them,
+    // machine names are removed from the corresponding starting queue when machines start.
     String envName;
     MessageConsumer<MachineLogMessage> envLogger;
+    List<String> startOrder;
+    Map<String, Set<String>> dependencies;
+    Map<String, CheServiceImpl> services;
+    Map<String, Long> startTimings;
     String creator = EnvironmentContext.getCurrent().getSubject().getUserId();
     try (@SuppressWarnings("unused")
         Unlocker u = stripedLocks.readLock(workspaceId)) {
@@ -723,137 +783,55 @@ public class CheEnvironmentEngine {
       }
       envName = environmentHolder.name;
       envLogger = environmentHolder.logger;
+      startOrder = new ArrayList<>(environmentHolder.startQueue);
+      dependencies = environmentHolder.dependencies;
+      services = environmentHolder.environment.getServices();
+      startTimings = environmentHolder.startTimings;
     }
 
+    Map<String, Future<?>> preparations = new HashMap<>();
     try {
+      long startTime = System.currentTimeMillis();
       machineProvider.createNetwork(networkId);
-
-      String machineName = queuePeekOrFail(workspaceId);
-      while (machineName != null) {
-        boolean isDev = devMachineName.equals(machineName);
-        // Environment start is failed when any machine start is failed, so if any error
-        // occurs during machine creation then environment start fail is reported and
-        // start resources such as queue and descriptor must be cleaned up
-
-        CheServiceImpl service;
-        @Nullable ExtendedMachine extendedMachine;
-        try (@SuppressWarnings("unused")
-            Unlocker u = stripedLocks.readLock(workspaceId)) {
-          EnvironmentHolder environmentHolder = environments.get(workspaceId);
-          if (environmentHolder == null) {
-            throw new EnvironmentStartInterruptedException(workspaceId, envName);
-          }
-          service = environmentHolder.environment.getServices().get(machineName);
-          extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
-        }
-        // should not happen
-        if (service == null) {
-          LOG.error(
-              "Start of machine with name {} in workspace {} failed. Machine not found in start queue",
-              machineName,
-              workspaceId);
-          throw new ServerException(
-              format(
-                  "Environment of workspace with ID '%s' failed due to internal error",
-                  workspaceId));
-        }
-
-        final String finalMachineName = machineName;
-        // needed to reuse startInstance method and
-        // create machine instances by different implementation-specific providers
-        MachineStarter machineStarter =
-            (machineLogger, machineSource) -> {
-              CheServiceImpl serviceWithNormalizedSource =
-                  normalizeServiceSource(service, machineSource);
-              return machineProvider.startService(
-                  ownerName,
-                  workspaceId,
-                  envName,
-                  finalMachineName,
-                  isDev,
-                  networkId,
-                  serviceWithNormalizedSource,
-                  machineLogger);
-            };
-
-        MachineImpl machine =
-            MachineImpl.builder()
-                .setConfig(
-                    MachineConfigImpl.builder()
-                        .setDev(isDev)
-                        .setLimits(new MachineLimitsImpl(bytesToMB(service.getMemLimit())))
-                        .setType("docker")
-                        .setName(machineName)
-                        .setEnvVariables(service.getEnvironment())
-                        .build())
-                .setId(service.getId())
-                .setWorkspaceId(workspaceId)
-                .setStatus(MachineStatus.CREATING)
-                .setEnvName(envName)
-                .setOwner(creator)
-                .build();
-
-        checkInterruption(workspaceId, envName);
-        Instance instance = startInstance(recover, envLogger, machine, machineStarter);
-        checkInterruption(workspaceId, envName);
-
-        startedHandler.started(instance, extendedMachine);
-        checkInterruption(workspaceId, envName);
-
-        // Machine destroying is an expensive operation which must be
-        // performed outside of the lock, this section checks if
-        // the environment wasn't stopped while it is starting and sets
-        // polled flag to true if the environment wasn't stopped.
-        // Also polls the proceeded machine configuration from the queue
-        boolean queuePolled = false;
-        try (@SuppressWarnings("unused")
-            Unlocker u = stripedLocks.writeLock(workspaceId)) {
-          ensurePreDestroyIsNotExecuted();
-          EnvironmentHolder environmentHolder = environments.get(workspaceId);
-          if (environmentHolder != null) {
-            final Queue<String> queue = environmentHolder.startQueue;
-            if (queue != null) {
-              queue.poll();
-              queuePolled = true;
-            }
-          }
-        }
-
-        // If machine config is not polled from the queue
-        // then environment was stopped and newly created machine
-        // must be destroyed
-        if (!queuePolled) {
-          try {
-            eventService.publish(
-                newDto(MachineStatusEvent.class)
-                    .withEventType(MachineStatusEvent.EventType.DESTROYING)
-                    .withDev(isDev)
-                    .withMachineName(machineName)
-                    .withMachineId(instance.getId())
-                    .withWorkspaceId(workspaceId));
-
-            instance.destroy();
-
-            removeMachine(workspaceId, instance.getId());
-
-            eventService.publish(
-                newDto(MachineStatusEvent.class)
-                    .withEventType(MachineStatusEvent.EventType.DESTROYED)
-                    .withDev(isDev)
-                    .withMachineName(machineName)
-                    .withMachineId(instance.getId())
-                    .withWorkspaceId(workspaceId));
-          } catch (MachineException e) {
-            LOG.error(e.getLocalizedMessage(), e);
+      startTimings.put("network", System.currentTimeMillis() - startTime);
+
+      ServicesStartScheduler scheduler =
+          new ServicesStartScheduler(machinesStartExecutor, machinesStartParallelism);
+      if (machinesStartParallelism > 1 && !recover) {
+        // machines which wait for their dependencies prepare their start in the meantime
+        for (String machineName : startOrder) {
+          if (!dependencies.getOrDefault(machineName, Collections.emptySet()).isEmpty()) {
+            preparations.put(
+                machineName,
+                prepareMachine(
+                    workspaceId,
+                    envName,
+                    envLogger,
+                    machineName,
+                    services.get(machineName),
+                    startTimings));
           }
-          throw new ServerException(
-              "Workspace '"
-                  + workspaceId
-                  + "' start interrupted. Workspace stopped before all its machines started");
         }
-
-        machineName = queuePeekOrFail(workspaceId);
       }
+      scheduler.start(
+          startOrder,
+          dependencies,
+          machineName -> {
+            awaitPreparation(preparations.get(machineName));
+            startQueuedMachine(
+                ownerName,
+                workspaceId,
+                envName,
+                envLogger,
+                creator,
+                machineName,
+                devMachineName.equals(machineName),
+                networkId,
+                recover,
+                startedHandler,
+                startTimings);
+          });
+      startTimings.put("total", System.currentTimeMillis() - startTime);
     } catch (Exception e) {
       boolean interrupted = Thread.interrupted();
       EnvironmentHolder env;
@@ -878,6 +856,192 @@ public class CheEnvironmentEngine {
       } catch (Exception wrap) {
         throw new ServerException(wrap.getMessage(), wrap);
       }
+    } finally {
+      preparations.values().forEach(preparation -> preparation.cancel(true));
+    }
+  }
+
+  /** Asynchronously prepares start of machine, failures of preparation are logged only. */
+  private Future<?> prepareMachine(
+      String workspaceId,
+      String envName,
+      MessageConsumer<MachineLogMessage> envLogger,
+      String machineName,
+      CheServiceImpl service,
+      Map<String, Long> startTimings) {
+    LineConsumer machineLogger =
+        new AbstractLineConsumer() {
+          @Override
+          public void writeLine(String line) throws IOException {
+            envLogger.consume(new MachineLogMessageImpl(machineName, line));
+          }
+        };
+    return machinesStartExecutor.submit(
+        ThreadLocalPropagateContext.wrap(
+            () -> {
+              long startTime = System.currentTimeMillis();
+              try {
+                machineProvider.prepareService(machineName, service, machineLogger);
+                startTimings.put(
+                    "machine." + machineName + ".prepare", System.currentTimeMillis() - startTime);
+              } catch (ServerException | RuntimeException x) {
+                LOG.warn(
+                    "Failed to prepare start of machine '{}' of environment '{}' "
+                        + "of workspace '{}'. Cause: {}",
+                    machineName,
+                    envName,
+                    workspaceId,
+                    x.getMessage());
+              }
+            }));
+  }
+
+  private void awaitPreparation(@Nullable Future<?> preparation) throws InterruptedException {
+    if (preparation != null) {
+      try {
+        preparation.get();
+      } catch (ExecutionException ignored) {
+        // failures of preparations are logged by preparations themselves
+      }
+    }
+  }
+
+  /** Starts machine from machine queue of environment and removes it from the queue. */
+  private void startQueuedMachine(
+      String ownerName,
+      String workspaceId,
+      String envName,
+      MessageConsumer<MachineLogMessage> envLogger,
+      String creator,
+      String machineName,
+      boolean isDev,
+      String networkId,
+      boolean recover,
+      MachineStartedHandler startedHandler,
+      Map<String, Long> startTimings)
+      throws ServerException, AgentException, EnvironmentException {
+    // Environment start is failed when any machine start is failed, so if any error
+    // occurs during machine creation then environment start fail is reported and
+    // start resources such as queue and descriptor must be cleaned up
+
+    CheServiceImpl service;
+    @Nullable ExtendedMachine extendedMachine;
+    try (@SuppressWarnings("unused")
+        Unlocker u = stripedLocks.readLock(workspaceId)) {
+      ensurePreDestroyIsNotExecuted();
+      EnvironmentHolder environmentHolder = environments.get(workspaceId);
+      if (environmentHolder == null) {
+        throw new EnvironmentStartInterruptedException(workspaceId, envName);
+      }
+      service = environmentHolder.environment.getServices().get(machineName);
+      extendedMachine = environmentHolder.environmentConfig.getMachines().get(machineName);
+    }
+    // should not happen
+    if (service == null) {
+      LOG.error(
+          "Start of machine with name {} in workspace {} failed. Machine not found in start queue",
+          machineName,
+          workspaceId);
+      throw new ServerException(
+          format(
+              "Environment of workspace with ID '%s' failed due to internal error", workspaceId));
+    }
+
+    // needed to reuse startInstance method and
+    // create machine instances by different implementation-specific providers
+    MachineStarter machineStarter =
+        (machineLogger, machineSource) -> {
+          CheServiceImpl serviceWithNormalizedSource =
+              normalizeServiceSource(service, machineSource);
+          return machineProvider.startService(
+              ownerName,
+              workspaceId,
+              envName,
+              machineName,
+              isDev,
+              networkId,
+              serviceWithNormalizedSource,
+              machineLogger);
+        };
+
+    MachineImpl machine =
+        MachineImpl.builder()
+            .setConfig(
+                MachineConfigImpl.builder()
+                    .setDev(isDev)
+                    .setLimits(new MachineLimitsImpl(bytesToMB(service.getMemLimit())))
+                    .setType("docker")
+                    .setName(machineName)
+                    .setEnvVariables(service.getEnvironment())
+                    .build())
+            .setId(service.getId())
+            .setWorkspaceId(workspaceId)
+            .setStatus(MachineStatus.CREATING)
+            .setEnvName(envName)
+            .setOwner(creator)
+            .build();
+
+    checkInterruption(workspaceId, envName);
+    long startTime = System.currentTimeMillis();
+    Instance instance = startInstance(recover, envLogger, machine, machineStarter);
+    startTimings.put("machine." + machineName + ".start", System.currentTimeMillis() - startTime);
+    checkInterruption(workspaceId, envName);
+
+    startTime = System.currentTimeMillis();
+    startedHandler.started(instance, extendedMachine);
+    startTimings.put("machine." + machineName + ".agents", System.currentTimeMillis() - startTime);
+    checkInterruption(workspaceId, envName);
+
+    // Machine destroying is an expensive operation which must be
+    // performed outside of the lock, this section checks if
+    // the environment wasn't stopped while it is starting and sets
+    // polled flag to true if the environment wasn't stopped.
+    // Also removes the proceeded machine name from the queue
+    boolean queuePolled = false;
+    try (@SuppressWarnings("unused")
+        Unlocker u = stripedLocks.writeLock(workspaceId)) {
+      ensurePreDestroyIsNotExecuted();
+      EnvironmentHolder environmentHolder = environments.get(workspaceId);
+      if (environmentHolder != null) {
+        final Queue<String> queue = environmentHolder.startQueue;
+        if (queue != null) {
+          queue.remove(machineName);
+          queuePolled = true;
+        }
+      }
+    }
+
+    // If machine name is not removed from the queue
+    // then environment was stopped and newly created machine
+    // must be destroyed
+    if (!queuePolled) {
+      try {
+        eventService.publish(
+            newDto(MachineStatusEvent.class)
+                .withEventType(MachineStatusEvent.EventType.DESTROYING)
+                .withDev(isDev)
+                .withMachineName(machineName)
+                .withMachineId(instance.getId())
+                .withWorkspaceId(workspaceId));
+
+        instance.destroy();
+
+        removeMachine(workspaceId, instance.getId());
+
+        eventService.publish(
+            newDto(MachineStatusEvent.class)
+                .withEventType(MachineStatusEvent.EventType.DESTROYED)
+                .withDev(isDev)
+                .withMachineName(machineName)
+                .withMachineId(instance.getId())
+                .withWorkspaceId(workspaceId));
+      } catch (MachineException e) {
+        LOG.error(e.getLocalizedMessage(), e);
+      }
+      throw new ServerException(
+          "Workspace '"
+              + workspaceId
+              + "' start interrupted. Workspace stopped before all its machines started");
     }
   }
 
@@ -1113,33 +1277,6 @@ public class CheEnvironmentEngine {
             machine.getId(), machine.getConfig().getName(), machine.getWorkspaceId()));
   }
 
-  /**
-   * Gets head config from the queue associated with the given {@code workspaceId}.
-   *
-   * <p>Note that this method won't actually poll the queue.
-   *
-   * <p>Fails if environment start was interrupted by stop(queue doesn't exist).
-   *
-   * @return machine config which is in the queue head, or null if there are no machine configs left
-   * @throws ServerException if queue doesn't exist which means that {@link #stop(String)} executed
-   *     before all the machines started
-   * @throws ServerException if pre destroy has been invoked before peek config retrieved
-   */
-  private String queuePeekOrFail(String workspaceId) throws ServerException {
-    try (@SuppressWarnings("unused")
-        Unlocker u = stripedLocks.readLock(workspaceId)) {
-      ensurePreDestroyIsNotExecuted();
-      EnvironmentHolder environmentHolder = environments.get(workspaceId);
-      if (environmentHolder == null || environmentHolder.startQueue == null) {
-        throw new ServerException(
-            "Workspace "
-                + workspaceId
-                + " start interrupted. Workspace was stopped before all its machines were started");
-      }
-      return environmentHolder.startQueue.peek();
-    }
-  }
-
   /** Destroys provided machines and associated network. */
   private void destroyEnvironment(String networkId, List<Instance> machines) {
     for (Instance machine : machines) {
@@ -1201,6 +1338,7 @@ public class CheEnvironmentEngine {
   @SuppressWarnings("unused")
   void cleanup() {
     isPreDestroyInvoked = true;
+    machinesStartExecutor.shutdownNow();
     final java.io.File[] files = machineLogsDir.listFiles();
     if (files != null && files.length > 0) {
       for (java.io.File f : files) {
@@ -1315,6 +1453,8 @@ public class CheEnvironmentEngine {
 
   private static class EnvironmentHolder {
     final Queue<String> startQueue;
+    final Map<String, Set<String>> dependencies;
+    final Map<String, Long> startTimings;
     final CheServicesEnvironmentImpl environment;
     final MessageConsumer<MachineLogMessage> logger;
     final String name;
@@ -1326,6 +1466,7 @@ public class CheEnvironmentEngine {
 
     EnvironmentHolder(
         List<String> startQueue,
+        Map<String, Set<String>> dependencies,
         CheServicesEnvironmentImpl environment,
         Environment environmentConfig,
         MessageConsumer<MachineLogMessage> envLogger,
@@ -1333,6 +1474,8 @@ public class CheEnvironmentEngine {
         String name,
         String networkId) {
       this.startQueue = new ArrayDeque<>(startQueue);
+      this.dependencies = dependencies;
+      this.startTimings = Collections.synchronizedMap(new LinkedHashMap<>());
       this.machines = new CopyOnWriteArrayList<>();
       this.logger = envLogger;
       this.status = envStatus;
@@ -46,6 +46,19 @@ public interface MachineInstanceProvider {
       LineConsumer machineLogger)
       throws ServerException;
 
+  /**
+   * Prepares start of compose service which is not started yet, e.g. pulls its image in advance.
+   * Does nothing by default.
+   *
+   * @param machineName name of machine which represents provided service
+   * @param service description of docker compose service
+   * @param machineLogger consumer of logs of service preparation
+   * @throws ServerException if any error occurs
+   */
+  default void prepareService(
+      String machineName, CheServiceImpl service, LineConsumer machineLogger)
+      throws ServerException {}
+
   /**
    * Creates network for compose services.
    *
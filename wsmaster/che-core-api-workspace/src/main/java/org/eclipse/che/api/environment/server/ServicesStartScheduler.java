@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.environment.server;
+
+import static java.util.Collections.emptySet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+
+/**
+ * Starts machines of an environment respecting dependencies between them.
+ *
+ * <p>Machines whose dependencies are started are started concurrently, but no more than {@code
+ * parallelism} at a time, preferring machines which come first in the start order. When a machine
+ * fails to start, or the starting thread is interrupted, starts which are in progress are
+ * interrupted and awaited before the failure is rethrown, so that no machine is left behind.
+ *
+ * <p>If parallelism is not greater than one machines are started one by one in the start order in
+ * the calling thread.
+ */
+class ServicesStartScheduler {
+
+  /** Starts a single machine of an environment. */
+  interface ServiceStarter {
+    void start(String machineName) throws Exception;
+  }
+
+  private final Executor executor;
+  private final int parallelism;
+
+  ServicesStartScheduler(Executor executor, int parallelism) {
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Starts machines, returns when all of them are started.
+   *
+   * @param order start order of machines, each machine goes after machines it depends on
+   * @param dependencies mapping of names of machines to names of machines they depend on
+   * @param starter starts a machine
+   * @throws InterruptedException if the calling thread is interrupted while waiting for machines
+   * @throws Exception the first failure of the machines start, errors are rethrown as they are
+   */
+  void start(List<String> order, Map<String, Set<String>> dependencies, ServiceStarter starter)
+      throws Exception {
+    if (parallelism <= 1) {
+      for (String machineName : order) {
+        starter.start(machineName);
+      }
+      return;
+    }
+
+    List<String> waiting = new ArrayList<>(order);
+    Set<String> started = new HashSet<>();
+    List<StartTask> running = new ArrayList<>();
+    BlockingQueue<StartTask> completed = new LinkedBlockingQueue<>();
+    Throwable failure = null;
+    boolean interrupted = false;
+    while (failure == null && (!waiting.isEmpty() || !running.isEmpty())) {
+      for (Iterator<String> it = waiting.iterator();
+          it.hasNext() && running.size() < parallelism; ) {
+        String machineName = it.next();
+        if (started.containsAll(dependencies.getOrDefault(machineName, emptySet()))) {
+          it.remove();
+          StartTask task = new StartTask(machineName, starter, completed);
+          running.add(task);
+          executor.execute(ThreadLocalPropagateContext.wrap(task));
+        }
+      }
+      if (running.isEmpty()) {
+        // should not happen as the order is evaluated from the same dependencies
+        throw new IllegalStateException("Machines " + waiting + " can't be started");
+      }
+      try {
+        StartTask task = completed.take();
+        running.remove(task);
+        if (task.failure != null) {
+          failure = task.failure;
+        } else {
+          started.add(task.machineName);
+        }
+      } catch (InterruptedException x) {
+        interrupted = true;
+        failure = x;
+      }
+    }
+
+    if (failure != null) {
+      running.forEach(StartTask::interrupt);
+      // wait for the machines which are starting to be able to clean them up
+      while (!running.isEmpty()) {
+        try {
+          running.remove(completed.take());
+        } catch (InterruptedException x) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure instanceof Error) {
+        throw (Error) failure;
+      }
+      throw failure instanceof Exception ? (Exception) failure : new Exception(failure);
+    }
+  }
+
+  private static class StartTask implements Runnable {
+    final String machineName;
+    final ServiceStarter starter;
+    final BlockingQueue<StartTask> completed;
+
+    volatile Throwable failure;
+    Thread thread;
+    boolean interrupted;
+
+    StartTask(String machineName, ServiceStarter starter, BlockingQueue<StartTask> completed) {
+      this.machineName = machineName;
+      this.starter = starter;
+      this.completed = completed;
+    }
+
+    @Override
+    public void run() {
+      try {
+        synchronized (this) {
+          if (interrupted) {
+            throw new InterruptedException("Start of machine '" + machineName + "' interrupted");
+          }
+          thread = Thread.currentThread();
+        }
+        starter.start(machineName);
+      } catch (Throwable x) {
+        // errors must fail the start too, otherwise the machine would be counted as started
+        failure = x;
+      } finally {
+        synchronized (this) {
+          thread = null;
+          // do not leave the pool thread interrupted
+          Thread.interrupted();
+        }
+        completed.add(this);
+      }
+    }
+
+    synchronized void interrupt() {
+      interrupted = true;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+  }
+}
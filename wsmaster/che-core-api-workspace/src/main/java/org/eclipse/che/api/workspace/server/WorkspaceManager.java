@@ -53,6 +53,7 @@ import org.eclipse.che.api.machine.server.spi.SnapshotDao;
 import org.eclipse.che.api.workspace.server.event.WorkspaceCreatedEvent;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
 import org.eclipse.che.commons.annotation.Nullable;
@@ -249,6 +250,39 @@ public class WorkspaceManager {
     return workspaces;
   }
 
+  /**
+   * Gets a page of summaries of workspaces which user can read, summaries are ordered by workspace
+   * identifiers and the next page is fetched with the identifier of the last returned workspace.
+   *
+   * <p>Unlike {@link #getWorkspaces(String, boolean)} neither configurations nor snapshots of
+   * workspaces are loaded, statuses are taken from the running workspaces in a single pass.
+   *
+   * @param user the id of the user
+   * @param afterId identifier of the workspace after which summaries are returned, or null to get
+   *     the first page
+   * @param maxItems the maximum number of summaries to return
+   * @return the list of summaries or empty list if there are no more workspaces
+   * @throws NullPointerException when {@code user} is null
+   * @throws IllegalArgumentException when {@code maxItems} is not positive
+   * @throws ServerException when any server error occurs while getting summaries with {@link
+   *     WorkspaceDao#getWorkspaceSummaries(String, String, int)}
+   */
+  public List<WorkspaceSummaryImpl> getWorkspaceSummaries(
+      String user, @Nullable String afterId, int maxItems) throws ServerException {
+    requireNonNull(user, "Required non-null user id");
+    final List<WorkspaceSummaryImpl> summaries =
+        workspaceDao.getWorkspaceSummaries(user, afterId, maxItems);
+    final Set<String> running = runtimes.getRuntimesIds();
+    for (WorkspaceSummaryImpl summary : summaries) {
+      if (running.contains(summary.getId())) {
+        summary.setStatus(runtimes.getStatus(summary.getId()));
+      } else {
+        summary.setStatus(WorkspaceStatus.STOPPED);
+      }
+    }
+    return summaries;
+  }
+
   /**
    * Gets list of workspaces which has given namespace. Runtimes are included
    *
@@ -754,7 +754,8 @@ public class WorkspaceRuntimes {
             .withWorkspaceId(workspaceId)
             .withStatus(WorkspaceStatus.RUNNING)
             .withEventType(EventType.RUNNING)
-            .withPrevStatus(WorkspaceStatus.STARTING));
+            .withPrevStatus(WorkspaceStatus.STARTING)
+            .withStartTimings(envEngine.getStartTimings(workspaceId)));
   }
 
   /** STOPPING -> remove runtime -> STOPPED. */
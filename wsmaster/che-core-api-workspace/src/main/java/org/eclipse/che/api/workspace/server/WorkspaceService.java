@@ -72,6 +72,7 @@ import org.eclipse.che.api.workspace.shared.dto.EnvironmentRecipeDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceSummaryDto;
 import org.eclipse.che.api.workspace.shared.dto.WsAgentHealthStateDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
 
@@ -245,6 +246,41 @@ public class WorkspaceService extends Service {
         .collect(toList());
   }
 
+  @GET
+  @Path("/summary")
+  @Produces(APPLICATION_JSON)
+  @ApiOperation(
+    value = "Get summaries of workspaces which user can read",
+    notes =
+        "Summaries are ordered by workspace ids, to get the next page pass "
+            + "the id of the last returned workspace as 'after' parameter",
+    response = WorkspaceSummaryDto.class,
+    responseContainer = "List"
+  )
+  @ApiResponses({
+    @ApiResponse(code = 200, message = "The summaries successfully fetched"),
+    @ApiResponse(code = 400, message = "The limit of the items is not positive"),
+    @ApiResponse(code = 500, message = "Internal server error occurred during summaries fetching")
+  })
+  public List<WorkspaceSummaryDto> getWorkspaceSummaries(
+      @ApiParam("The id of the workspace after which summaries are returned") @QueryParam("after")
+          String after,
+      @ApiParam("The limit of the items in the response, default is 30")
+          @DefaultValue("30")
+          @QueryParam("maxItems")
+          Integer maxItems)
+      throws ServerException, BadRequestException {
+    if (maxItems <= 0) {
+      throw new BadRequestException("The number of items to return must be positive");
+    }
+    return workspaceManager
+        .getWorkspaceSummaries(
+            EnvironmentContext.getCurrent().getSubject().getUserId(), after, maxItems)
+        .stream()
+        .map(DtoConverter::asDto)
+        .collect(toList());
+  }
+
   @GET
   @Path("/namespace/{namespace:.*}")
   @Produces(APPLICATION_JSON)
@@ -36,7 +36,9 @@ import org.eclipse.che.api.workspace.server.event.BeforeWorkspaceRemovedEvent;
 import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
 import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
+import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.core.db.cascade.CascadeEventSubscriber;
 import org.eclipse.che.core.db.jpa.DuplicateKeyException;
 
@@ -190,6 +192,24 @@ public class JpaWorkspaceDao implements WorkspaceDao {
     }
   }
 
+  @Override
+  @Transactional
+  public List<WorkspaceSummaryImpl> getWorkspaceSummaries(
+      String userId, @Nullable String afterId, int maxItems) throws ServerException {
+    requireNonNull(userId, "Required non-null user id");
+    checkArgument(maxItems > 0, "The number of items to return must be positive.");
+    try {
+      return managerProvider
+          .get()
+          .createNamedQuery("Workspace.getSummaries", WorkspaceSummaryImpl.class)
+          .setParameter("afterId", afterId == null ? "" : afterId)
+          .setMaxResults(maxItems)
+          .getResultList();
+    } catch (RuntimeException x) {
+      throw new ServerException(x.getLocalizedMessage(), x);
+    }
+  }
+
   @Transactional
   protected void doCreate(WorkspaceImpl workspace) {
     if (workspace.getConfig() != null) {
@@ -64,6 +64,15 @@ import org.eclipse.persistence.descriptors.DescriptorEventAdapter;
   @NamedQuery(
     name = "Workspace.getByTemporary",
     query = "SELECT w FROM Workspace w WHERE w.isTemporary = :temporary"
+  ),
+  @NamedQuery(
+    name = "Workspace.getSummaries",
+    query =
+        "SELECT NEW org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl("
+            + "w.id, w.name, w.account.name, w.isTemporary) "
+            + "FROM Workspace w "
+            + "WHERE w.id > :afterId "
+            + "ORDER BY w.id"
   )
 })
 @EntityListeners(WorkspaceImpl.SyncNameOnUpdateAndPersistEventListener.class)
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.workspace.server.model.impl;
+
+import java.util.Objects;
+import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
+import org.eclipse.che.api.workspace.shared.WorkspaceSummary;
+
+/**
+ * Data object for {@link WorkspaceSummary}.
+ *
+ * <p>Summaries are created by JPQL constructor expressions, so that only the listed columns are
+ * fetched and neither the configuration graph nor the attributes of workspaces are loaded.
+ */
+public class WorkspaceSummaryImpl implements WorkspaceSummary {
+
+  private String id;
+  private String name;
+  private String namespace;
+  private boolean isTemporary;
+  private WorkspaceStatus status;
+
+  public WorkspaceSummaryImpl(String id, String name, String namespace, boolean isTemporary) {
+    this.id = id;
+    this.name = name;
+    this.namespace = namespace;
+    this.isTemporary = isTemporary;
+  }
+
+  public WorkspaceSummaryImpl(WorkspaceSummary summary) {
+    this(summary.getId(), summary.getName(), summary.getNamespace(), summary.isTemporary());
+    this.status = summary.getStatus();
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getNamespace() {
+    return namespace;
+  }
+
+  @Override
+  public WorkspaceStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(WorkspaceStatus status) {
+    this.status = status;
+  }
+
+  @Override
+  public boolean isTemporary() {
+    return isTemporary;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof WorkspaceSummaryImpl)) return false;
+    WorkspaceSummaryImpl that = (WorkspaceSummaryImpl) o;
+    return isTemporary == that.isTemporary
+        && Objects.equals(id, that.id)
+        && Objects.equals(name, that.name)
+        && Objects.equals(namespace, that.namespace)
+        && status == that.status;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, name, namespace, isTemporary, status);
+  }
+
+  @Override
+  public String toString() {
+    return "WorkspaceSummaryImpl{"
+        + "id='"
+        + id
+        + '\''
+        + ", name='"
+        + name
+        + '\''
+        + ", namespace='"
+        + namespace
+        + '\''
+        + ", isTemporary="
+        + isTemporary
+        + ", status="
+        + status
+        + '}';
+  }
+}
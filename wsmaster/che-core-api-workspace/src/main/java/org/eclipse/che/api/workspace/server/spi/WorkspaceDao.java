@@ -15,6 +15,8 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
+import org.eclipse.che.commons.annotation.Nullable;
 
 /**
  * Defines data access object contract for {@link WorkspaceImpl}.
@@ -129,4 +131,23 @@ public interface WorkspaceDao {
    */
   List<WorkspaceImpl> getWorkspaces(boolean isTemporary, int skipCount, int maxItems)
       throws ServerException;
+
+  /**
+   * Gets summaries of workspaces which user can read ordered by workspace identifiers.
+   *
+   * <p>The list is paginated with a cursor: the first page is fetched with {@code null} as {@code
+   * afterId}, each next one with the identifier of the last workspace of the previous page.
+   * Summaries don't contain the workspace status, it is up to the caller to set it.
+   *
+   * @param userId id of user
+   * @param afterId identifier of the workspace after which summaries are returned, or null to get
+   *     the first page
+   * @param maxItems the maximum number of summaries to return
+   * @return list of summaries or empty list if there are no more workspaces
+   * @throws NullPointerException when {@code userId} is null
+   * @throws IllegalArgumentException when {@code maxItems} is not positive
+   * @throws ServerException when any other error occurs during summaries fetching
+   */
+  List<WorkspaceSummaryImpl> getWorkspaceSummaries(
+      String userId, @Nullable String afterId, int maxItems) throws ServerException;
 }
@@ -45,6 +45,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.che.api.agent.server.AgentRegistry;
 import org.eclipse.che.api.agent.server.exception.AgentException;
 import org.eclipse.che.api.agent.shared.model.Agent;
@@ -258,6 +260,74 @@ public class CheEnvironmentEngineTest {
     }
   }
 
+  @Test(timeOut = 10_000)
+  public void shouldStartIndependentMachinesConcurrentlyAndKeepStartTimings() throws Exception {
+    // given
+    engine.setMachinesStartParallelism(2);
+    EnvironmentImpl env = createEnv();
+    String envName = "env-1";
+    String workspaceId = "wsId";
+    CountDownLatch bothStarting = new CountDownLatch(2);
+    when(machineProvider.startService(
+            anyString(),
+            eq(workspaceId),
+            eq(envName),
+            anyString(),
+            anyBoolean(),
+            anyString(),
+            any(CheServiceImpl.class),
+            any(LineConsumer.class)))
+        .thenAnswer(
+            invocationOnMock -> {
+              // machines don't depend on each other so both of them must be starting together
+              bothStarting.countDown();
+              assertTrue(bothStarting.await(5, TimeUnit.SECONDS));
+              Object[] arguments = invocationOnMock.getArguments();
+              String machineName = (String) arguments[3];
+              boolean isDev = (boolean) arguments[4];
+              CheServiceImpl service = (CheServiceImpl) arguments[6];
+              Machine machine = createMachine(workspaceId, envName, service, machineName, isDev);
+              return spy(new NoOpMachineInstance(machine));
+            });
+    when(environmentParser.parse(env)).thenReturn(createCheServicesEnv());
+
+    // when
+    List<Instance> machines =
+        engine.start(workspaceId, envName, env, false, messageConsumer, startedHandler);
+
+    // then
+    assertEquals(machines.size(), 2);
+    Map<String, Long> timings = engine.getStartTimings(workspaceId);
+    assertTrue(timings.containsKey("network"));
+    assertTrue(timings.containsKey("machine.dev-machine.start"));
+    assertTrue(timings.containsKey("machine.dev-machine.agents"));
+    assertTrue(timings.containsKey("machine.machine2.start"));
+    assertTrue(timings.containsKey("machine.machine2.agents"));
+    assertTrue(timings.containsKey("total"));
+  }
+
+  @Test
+  public void shouldPrepareStartOfMachinesWhichDependOnOtherMachines() throws Exception {
+    // given
+    engine.setMachinesStartParallelism(2);
+    CheServicesEnvironmentImpl cheServicesEnv = createCheServicesEnv();
+    cheServicesEnv.getServices().get("machine2").setDependsOn(singletonList("dev-machine"));
+
+    // when
+    startEnv(createEnv(), cheServicesEnv);
+
+    // then
+    verify(machineProvider)
+        .prepareService(eq("machine2"), any(CheServiceImpl.class), any(LineConsumer.class));
+    verify(machineProvider, never())
+        .prepareService(eq("dev-machine"), any(CheServiceImpl.class), any(LineConsumer.class));
+  }
+
+  @Test
+  public void shouldReturnEmptyStartTimingsIfEnvironmentIsNotFound() throws Exception {
+    assertTrue(engine.getStartTimings("wsIdOfNotRunningEnv").isEmpty());
+  }
+
   @Test
   public void stopsTheEnvironmentWhileStartOfMachineIsInterrupted() throws Exception {
     // given
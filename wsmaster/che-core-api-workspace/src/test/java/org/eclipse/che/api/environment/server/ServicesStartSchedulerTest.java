@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012-2017 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Red Hat, Inc. - initial API and implementation
+ */
+package org.eclipse.che.api.environment.server;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Tests {@link ServicesStartScheduler}. */
+public class ServicesStartSchedulerTest {
+
+  private ExecutorService executor;
+
+  @BeforeMethod
+  public void setUp() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test(timeOut = 10_000)
+  public void startsIndependentServicesConcurrently() throws Exception {
+    CountDownLatch bothStarting = new CountDownLatch(2);
+    List<String> started = new CopyOnWriteArrayList<>();
+    Map<String, Set<String>> dependencies =
+        ImmutableMap.of(
+            "db", emptySet(), "cache", emptySet(), "web", ImmutableSet.of("db", "cache"));
+
+    new ServicesStartScheduler(executor, 3)
+        .start(
+            asList("db", "cache", "web"),
+            dependencies,
+            name -> {
+              if (!name.equals("web")) {
+                // both independent services must be starting at the same time
+                bothStarting.countDown();
+                assertTrue(bothStarting.await(5, TimeUnit.SECONDS));
+              }
+              started.add(name);
+            });
+
+    assertEquals(started.size(), 3);
+    assertEquals(started.get(2), "web");
+  }
+
+  @Test(timeOut = 10_000)
+  public void respectsParallelismLimit() throws Exception {
+    List<String> started = new CopyOnWriteArrayList<>();
+    Map<String, Set<String>> dependencies =
+        ImmutableMap.of("first", emptySet(), "second", emptySet(), "third", emptySet());
+    int[] running = new int[1];
+
+    new ServicesStartScheduler(executor, 2)
+        .start(
+            asList("first", "second", "third"),
+            dependencies,
+            name -> {
+              synchronized (running) {
+                assertTrue(++running[0] <= 2);
+              }
+              Thread.sleep(50);
+              synchronized (running) {
+                running[0]--;
+              }
+              started.add(name);
+            });
+
+    assertEquals(started.size(), 3);
+  }
+
+  @Test
+  public void startsServicesOneByOneInCallingThreadIfParallelismIsOne() throws Exception {
+    List<String> started = new CopyOnWriteArrayList<>();
+    Thread caller = Thread.currentThread();
+
+    new ServicesStartScheduler(executor, 1)
+        .start(
+            asList("db", "web"),
+            ImmutableMap.of("db", emptySet(), "web", singleton("db")),
+            name -> {
+              assertEquals(Thread.currentThread(), caller);
+              started.add(name);
+            });
+
+    assertEquals(started, asList("db", "web"));
+  }
+
+  @Test(timeOut = 10_000)
+  public void interruptsStartingServicesAndRethrowsFirstFailure() throws Exception {
+    CountDownLatch dbStarting = new CountDownLatch(1);
+    List<String> interrupted = new CopyOnWriteArrayList<>();
+    List<String> started = new CopyOnWriteArrayList<>();
+    Exception failure = new Exception("cache failed");
+
+    try {
+      new ServicesStartScheduler(executor, 3)
+          .start(
+              asList("db", "cache", "web"),
+              ImmutableMap.of("db", emptySet(), "cache", emptySet(), "web", singleton("db")),
+              name -> {
+                switch (name) {
+                  case "db":
+                    dbStarting.countDown();
+                    try {
+                      Thread.sleep(10_000);
+                    } catch (InterruptedException x) {
+                      interrupted.add(name);
+                      throw x;
+                    }
+                    break;
+                  case "cache":
+                    dbStarting.await();
+                    throw failure;
+                  default:
+                    started.add(name);
+                }
+              });
+      fail("Start is expected to fail");
+    } catch (Exception x) {
+      assertEquals(x, failure);
+    }
+
+    assertEquals(interrupted, asList("db"));
+    assertTrue(started.isEmpty());
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test(timeOut = 10_000)
+  public void doesNotStartDependentServicesAndRethrowsErrorOfServiceStart() throws Exception {
+    List<String> started = new CopyOnWriteArrayList<>();
+    Error error = new NoClassDefFoundError("db driver");
+
+    try {
+      new ServicesStartScheduler(executor, 2)
+          .start(
+              asList("db", "web"),
+              ImmutableMap.of("db", emptySet(), "web", singleton("db")),
+              name -> {
+                if (name.equals("db")) {
+                  throw error;
+                }
+                started.add(name);
+              });
+      fail("Start is expected to fail");
+    } catch (Error x) {
+      assertEquals(x, error);
+    }
+
+    assertTrue(started.isEmpty());
+  }
+}
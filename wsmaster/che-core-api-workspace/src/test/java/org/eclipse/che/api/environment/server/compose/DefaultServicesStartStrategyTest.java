@@ -12,12 +12,17 @@ package org.eclipse.che.api.environment.server.compose;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
 import static org.testng.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.eclipse.che.api.environment.server.DefaultServicesStartStrategy;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
@@ -82,6 +87,36 @@ public class DefaultServicesStartStrategyTest {
     assertEquals(actual, expected);
   }
 
+  @Test
+  public void shouldReturnDependenciesOfServices() throws Exception {
+    // given
+    CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+    composeEnvironment
+        .getServices()
+        .put(
+            "web",
+            new CheServiceImpl()
+                .withDependsOn(singletonList("db"))
+                .withLinks(singletonList("cache:redis")));
+    composeEnvironment
+        .getServices()
+        .put("db", new CheServiceImpl().withVolumesFrom(singletonList("dev-machine:ro")));
+    composeEnvironment.getServices().put("cache", new CheServiceImpl());
+    composeEnvironment.getServices().put("dev-machine", new CheServiceImpl());
+    Map<String, Set<String>> expected =
+        ImmutableMap.of(
+            "web", ImmutableSet.of("db", "cache"),
+            "db", ImmutableSet.of("dev-machine"),
+            "cache", emptySet(),
+            "dev-machine", emptySet());
+
+    // when
+    Map<String, Set<String>> actual = strategy.dependencies(composeEnvironment);
+
+    // then
+    assertEquals(actual, expected);
+  }
+
   @Test
   public void testOrderingOfServicesWithoutDependencies() throws Exception {
     // given
@@ -73,6 +73,7 @@ import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.api.workspace.server.spi.WorkspaceDao;
 import org.eclipse.che.api.workspace.shared.Constants;
 import org.eclipse.che.commons.env.EnvironmentContext;
@@ -269,6 +270,26 @@ public class WorkspaceManagerTest {
     assertFalse(res2.isTemporary(), "Workspace must be permanent");
   }
 
+  @Test
+  public void shouldGetWorkspaceSummariesWithStatusesOfRunningWorkspaces() throws Exception {
+    final WorkspaceSummaryImpl stopped = new WorkspaceSummaryImpl("ws1", "name1", NAMESPACE, false);
+    final WorkspaceSummaryImpl running = new WorkspaceSummaryImpl("ws2", "name2", NAMESPACE, true);
+    when(workspaceDao.getWorkspaceSummaries(USER_ID, "ws0", 2))
+        .thenReturn(asList(stopped, running));
+    when(runtimes.getRuntimesIds()).thenReturn(ImmutableSet.of("ws2", "ws3"));
+    when(runtimes.getStatus("ws2")).thenReturn(RUNNING);
+
+    final List<WorkspaceSummaryImpl> result =
+        workspaceManager.getWorkspaceSummaries(USER_ID, "ws0", 2);
+
+    assertEquals(result, asList(stopped, running));
+    assertEquals(result.get(0).getStatus(), STOPPED);
+    assertEquals(result.get(1).getStatus(), RUNNING);
+    verify(runtimes, never()).getStatus("ws1");
+    verify(runtimes, never()).injectRuntime(any());
+    verify(snapshotDao, never()).findSnapshots(anyString());
+  }
+
   @Test
   public void shouldBeAbleToGetWorkspacesByNamespace() throws Exception {
     // given
@@ -40,6 +40,7 @@ import static org.everrest.assured.JettyHttpServer.ADMIN_USER_PASSWORD;
 import static org.everrest.assured.JettyHttpServer.SECURE_PATH;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyObject;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -95,11 +96,13 @@ import org.eclipse.che.api.workspace.server.model.impl.ExtendedMachineImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceSummaryDto;
 import org.eclipse.che.api.workspace.shared.dto.WsAgentHealthStateDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.subject.SubjectImpl;
@@ -398,6 +401,41 @@ public class WorkspaceServiceTest {
         asList(workspace1, workspace2));
   }
 
+  @Test
+  public void shouldGetWorkspaceSummaries() throws Exception {
+    final WorkspaceSummaryImpl summary = new WorkspaceSummaryImpl("ws2", "name", NAMESPACE, false);
+    summary.setStatus(RUNNING);
+    when(wsManager.getWorkspaceSummaries(USER_ID, "ws1", 10)).thenReturn(singletonList(summary));
+
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .when()
+            .get(SECURE_PATH + "/workspace/summary?after=ws1&maxItems=10");
+
+    assertEquals(response.getStatusCode(), 200);
+    assertEquals(
+        unwrapDtoList(response, WorkspaceSummaryDto.class)
+            .stream()
+            .map(WorkspaceSummaryImpl::new)
+            .collect(toList()),
+        singletonList(summary));
+  }
+
+  @Test
+  public void shouldNotGetWorkspaceSummariesWhenMaxItemsIsNotPositive() throws Exception {
+    final Response response =
+        given()
+            .auth()
+            .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+            .when()
+            .get(SECURE_PATH + "/workspace/summary?maxItems=0");
+
+    assertEquals(response.getStatusCode(), 400);
+    verify(wsManager, never()).getWorkspaceSummaries(anyString(), any(), anyInt());
+  }
+
   @Test
   public void shouldGetWorkspacesByNamespace() throws Exception {
     final WorkspaceImpl workspace1 = createWorkspace(createConfigDto());
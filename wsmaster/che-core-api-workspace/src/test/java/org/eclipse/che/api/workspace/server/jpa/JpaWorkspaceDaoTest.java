@@ -10,6 +10,7 @@
  */
 package org.eclipse.che.api.workspace.server.jpa;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.eclipse.che.api.workspace.server.spi.tck.WorkspaceDaoTest.createWorkspace;
 import static org.testng.Assert.assertEquals;
@@ -23,6 +24,7 @@ import org.eclipse.che.account.spi.AccountImpl;
 import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceSummaryImpl;
 import org.eclipse.che.commons.test.db.H2JpaCleaner;
 import org.eclipse.che.commons.test.tck.JpaCleaner;
 import org.eclipse.che.core.db.jpa.DuplicateKeyException;
@@ -145,6 +147,34 @@ public class JpaWorkspaceDaoTest {
     assertEquals(result.getConfig().getProjects().get(0).getAttributes().size(), 3);
   }
 
+  @Test
+  public void shouldGetWorkspaceSummariesPageByPage() throws Exception {
+    final AccountImpl account = new AccountImpl("accountId", "namespace", "test");
+    final WorkspaceImpl workspace1 = createWorkspace("id1", account, "name1");
+    final WorkspaceImpl workspace2 = createWorkspace("id2", account, "name2");
+    final WorkspaceImpl workspace3 = createWorkspace("id3", account, "name3");
+    workspace3.setTemporary(true);
+    manager.getTransaction().begin();
+    manager.persist(account);
+    manager.persist(workspace3);
+    manager.persist(workspace1);
+    manager.persist(workspace2);
+    manager.getTransaction().commit();
+    manager.clear();
+
+    final List<WorkspaceSummaryImpl> first = workspaceDao.getWorkspaceSummaries("user", null, 2);
+    final List<WorkspaceSummaryImpl> second =
+        workspaceDao.getWorkspaceSummaries("user", first.get(1).getId(), 2);
+
+    assertEquals(
+        first,
+        asList(
+            new WorkspaceSummaryImpl("id1", "name1", "namespace", false),
+            new WorkspaceSummaryImpl("id2", "name2", "namespace", false)));
+    assertEquals(
+        second, singletonList(new WorkspaceSummaryImpl("id3", "name3", "namespace", true)));
+  }
+
   private long asLong(String query) {
     return manager.createQuery(query, Long.class).getSingleResult();
   }